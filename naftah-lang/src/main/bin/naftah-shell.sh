@@ -108,17 +108,21 @@ if [ ! -d "${NAFTAH_HOME}" ]; then
 fi
 
 [[ "${cygwin}" == "true" ]] && NAFTAHPATH=$(cygpath "${NAFTAH_HOME}") || NAFTAHPATH=$NAFTAH_HOME
-CLASSPATH=${NAFTAHPATH}/bin
+DIRPATH=${NAFTAHPATH}/bin
 if [ -d "${NAFTAHPATH}/ext" ]; then
-	CLASSPATH=$CLASSPATH:${NAFTAHPATH}/ext
+	DIRPATH=$DIRPATH:${NAFTAHPATH}/ext
 fi
+LIBPATH=""
 for f in "${NAFTAHPATH}"/lib/*; do
 	[[ "${cygwin}" == "true" ]] && LIBFILE=$(cygpath "$f") || LIBFILE=$f
-	CLASSPATH=$CLASSPATH:$LIBFILE
+	LIBPATH=${LIBPATH:+$LIBPATH:}$LIBFILE
 done
+CLASSPATH=$DIRPATH:$LIBPATH
 
 if $cygwin; then
 	NAFTAH_HOME=$(cygpath --path --mixed "$NAFTAH_HOME")
+	DIRPATH=$(cygpath --path --mixed "$DIRPATH")
+	LIBPATH=$(cygpath --path --mixed "$LIBPATH")
 	CLASSPATH=$(cygpath --path --mixed "$CLASSPATH")
 fi
 
@@ -197,6 +201,21 @@ JAVA_OPTS="$JAVA_OPTS $VM_OPTS \
 --add-opens=java.desktop/javax.swing.plaf.basic=ALL-UNNAMED"
 
 
+# Use the class-data-sharing archive generated by 'naftah init --cds' when it is up to date: it must
+# have been dumped with the same JAVA_HOME and jars (see its stamp file) and nothing in the
+# distribution may have changed since. The JVM only maps an archive whose class path is a prefix of
+# the current one, so the jars are put before the directories.
+CDS_ARCHIVE="${NAFTAH_CDS_ARCHIVE:-$HOME/.naftah/naftah.jsa}"
+CDS_STAMP="${CDS_ARCHIVE}.stamp"
+if [[ -f "$CDS_ARCHIVE" && -f "$CDS_STAMP" && "$(cat "$CDS_STAMP")" == "${JAVA_HOME}"$'\n'"${LIBPATH}" ]]; then
+  CDS_SOURCES=("${NAFTAHPATH}/lib")
+  [ -f "${JAVA_HOME}/release" ] && CDS_SOURCES+=("${JAVA_HOME}/release")
+  if [ -z "$(find "${CDS_SOURCES[@]}" -newer "$CDS_ARCHIVE" -print -quit 2>/dev/null)" ]; then
+    CLASSPATH=$LIBPATH:$DIRPATH
+    JAVA_OPTS="$JAVA_OPTS -XX:SharedArchiveFile=$CDS_ARCHIVE -Xlog:cds=off -Xlog:cds+dynamic=off"
+  fi
+fi
+
 IFS=" " read -r -a javaOpts <<< "$JAVA_OPTS"
 
 if [[ "${DEBUG}" == "true" ]]; then
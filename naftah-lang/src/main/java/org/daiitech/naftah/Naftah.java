@@ -37,10 +37,17 @@ import org.daiitech.naftah.builtin.lang.JvmFunction;
 import org.daiitech.naftah.builtin.lang.None;
 import org.daiitech.naftah.builtin.utils.CollectionUtils;
 import org.daiitech.naftah.builtin.utils.ObjectUtils;
+import org.daiitech.naftah.daemon.NaftahDaemonClient;
+import org.daiitech.naftah.daemon.NaftahDaemonProtocol;
+import org.daiitech.naftah.daemon.NaftahDaemonServer;
 import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.parser.CompiledScriptCache;
 import org.daiitech.naftah.parser.DefaultContext;
 import org.daiitech.naftah.parser.NaftahErrorListener;
+import org.daiitech.naftah.parser.ParserCaches;
 import org.daiitech.naftah.parser.REPLContext;
+import org.daiitech.naftah.runtime.ProgramArtifact;
+import org.daiitech.naftah.utils.ClassDataSharingArchive;
 import org.daiitech.naftah.utils.OS;
 import org.daiitech.naftah.utils.ResourceUtils;
 import org.daiitech.naftah.utils.reflect.ClassUtils;
@@ -72,6 +79,7 @@ import static org.daiitech.naftah.parser.NaftahParserHelper.doRun;
 import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
 import static org.daiitech.naftah.parser.NaftahParserHelper.isDeclaredVariableWithFlag;
 import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+import static org.daiitech.naftah.parser.NaftahParserHelper.searchForNaftahScriptFile;
 import static org.daiitech.naftah.utils.JulLoggerConfig.JAVA_LOGGING_FILE_PROPERTY;
 import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
 import static org.daiitech.naftah.utils.JulLoggerConfig.initialize;
@@ -211,6 +219,10 @@ public final class Naftah {
 	 * Property to enable caching of string interpolation text processing in Naftah.
 	 */
 	public static final String INTERPOLATION_CACHE_PROPERTY = "naftah.cache.interpolation.active";
+	/**
+	 * Property to enable the on-disk cache of parsed script files in Naftah.
+	 */
+	public static final String COMPILED_CACHE_PROPERTY = "naftah.cache.compiled.active";
 	/**
 	 * Property to specify the path to a Naftah configuration file.
 	 */
@@ -257,6 +269,12 @@ public final class Naftah {
 	 */
 	public static final String UNDERSCORE = "_";
 
+	/**
+	 * The class path the JVM was launched with, captured before the {@code -cp} option is appended to
+	 * it.
+	 */
+	public static final String LAUNCHER_CLASS_PATH = System.getProperty(CLASS_PATH_PROPERTY);
+
 	/**
 	 * Logger instance for logging Naftah program.
 	 */
@@ -418,6 +436,22 @@ public final class Naftah {
 		}
 	}
 
+	/**
+	 * Configures the interpreter and bootstraps the runtime data (classes, JVM and builtin functions),
+	 * as every command does before running.
+	 *
+	 * @param bootstrapAsync whether to bootstrap asynchronously
+	 */
+	public static void initRuntime(boolean bootstrapAsync) {
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(true));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(true));
+		if (Objects.isNull(System.getProperty(WORD_CHUNK_PROPERTY))) {
+			System.setProperty(WORD_CHUNK_PROPERTY, Boolean.toString(true));
+		}
+		initConfig();
+		bootstrap(bootstrapAsync);
+	}
+
 	/**
 	 * Blocks until the user presses Ctrl+C, using the REPL terminal and line reader.
 	 *
@@ -453,6 +487,8 @@ public final class Naftah {
 				.addSubcommand(new NaftahCommand.InitCommand())
 				.addSubcommand(new NaftahCommand.ShellCommand())
 				.addSubcommand(new NaftahCommand.ManualCommand())
+				.addSubcommand(new NaftahCommand.DaemonCommand())
+				.addSubcommand(new NaftahCommand.CompileCommand())
 				.setSubcommandsCaseInsensitive(true)
 				.setOut(new PrintWriter(System.out))
 				.setErr(new PrintWriter(System.err))
@@ -473,7 +509,7 @@ public final class Naftah {
 			}
 
 			if (ObjectUtils.isEmpty(result.subcommands())) {
-				throw new InitializationException("خطأ: لم يتم تقديم أمر (run/shell/init/man)");
+				throw new InitializationException("خطأ: لم يتم تقديم أمر (run/shell/init/man/daemon/compile)");
 			}
 
 			var matchedSubCommandResult = result.subcommands().get(result.subcommands().size() - 1);
@@ -578,10 +614,10 @@ public final class Naftah {
 
 	/**
 	 * The base command class for the Naftah CLI, implemented with picocli.
-	 * Supports subcommands: run, init, and shell.
+	 * Supports subcommands: run, init, shell, man and daemon.
 	 */
 	@Command(   name = NaftahCommand.NAME,
-				customSynopsis = "naftah [run/shell/init] [options] [filename] [args]",
+				customSynopsis = "naftah [run/shell/init/man/daemon/compile] [options] [filename] [args]",
 				description = {"The Naftah command line processor.", "معالج الأوامر الخاص بـلغة البرمجة نفطه"},
 				sortOptions = false,
 				versionProvider = VersionProvider.class)
@@ -599,10 +635,10 @@ public final class Naftah {
 				split = ",",
 				description = {
 								"""
-								Enable specific caches (disabled by default). M for multiline and I for string interpolation.
+								Enable specific caches (disabled by default). M for multiline, I for string interpolation and C for parsed script files (stored in .naftah/compiled).
 								""",
 								"""
-								تمكين أنواع محددة من الكاش (وهي معطلة بشكل افتراضي). M للنصوص متعددة الأسطر و I للاستيفاء النصي.
+								تمكين أنواع محددة من الكاش (وهي معطلة بشكل افتراضي). M للنصوص متعددة الأسطر و I للاستيفاء النصي و C لملفات السكربت المحللة (تُحفظ في .naftah/compiled).
 								"""
 				}
 		)
@@ -694,13 +730,7 @@ public final class Naftah {
 		 * @throws Exception if any error occurs
 		 */
 		protected void run(Naftah main, boolean bootstrapAsync) throws Exception {
-			System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(true));
-			System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(true));
-			if (Objects.isNull(System.getProperty(WORD_CHUNK_PROPERTY))) {
-				System.setProperty(WORD_CHUNK_PROPERTY, Boolean.toString(true));
-			}
-			initConfig();
-			bootstrap(bootstrapAsync);
+			initRuntime(bootstrapAsync);
 		}
 
 		/**
@@ -744,7 +774,7 @@ public final class Naftah {
 				System.setProperty(DEBUG_PROPERTY, Boolean.toString(true));
 			}
 
-			if (matchedCommand instanceof RunCommand) {
+			if (matchedCommand instanceof RunCommand || matchedCommand instanceof CompileCommand) {
 				main.isScriptFile = matchedCommand.script == null;
 				if (main.isScriptFile) {
 					if (matchedCommand.arguments.isEmpty()) {
@@ -777,6 +807,9 @@ public final class Naftah {
 				System
 						.setProperty(   INTERPOLATION_CACHE_PROPERTY,
 										Boolean.toString(matchedCommand.enabledCaches.contains("I")));
+				System
+						.setProperty(   COMPILED_CACHE_PROPERTY,
+										Boolean.toString(matchedCommand.enabledCaches.contains("C")));
 			}
 
 			if (matchedCommand.loadClassesAndFunctions) {
@@ -800,20 +833,41 @@ public final class Naftah {
 		private static final class RunCommand extends NaftahCommand {
 			private static final String NAME = "run";
 
+			@Option(names = {"--daemon"},
+					description = { "Run the script on the running Naftah daemon (see naftah daemon).",
+									"تشغيل السكربت على خادم نفطه (daemon) قيد التشغيل (انظر naftah daemon)."})
+			private boolean useDaemon;
+
 			/**
 			 * {@inheritDoc}
 			 */
 			@Override
 			protected void run(Naftah main, boolean bootstrapAsync) throws Exception {
+				if (useDaemon) {
+					runOnDaemon(main);
+					return;
+				}
+
 				System.setProperty(INSIDE_RUN_PROPERTY, Boolean.toString(true));
 				super.run(main, bootstrapAsync);
 				initLogger(main.debug);
 
-				// Create an input stream from the Naftah code
-				CharStream input = getCharStream(main.isScriptFile, main.script);
-
-				var parser = prepareRun(input, NaftahErrorListener.INSTANCE);
-				var result = doRun(parser, main.args);
+				Object result;
+				if (main.isScriptFile && ProgramArtifact.isArtifact(main.script)) {
+					var program = ProgramArtifact.read(Path.of(main.script.trim())).getProgram();
+					result = doRun(program.getVocabulary(), program.getProgram(), main.args);
+				}
+				else if (main.isScriptFile && Boolean.getBoolean(COMPILED_CACHE_PROPERTY)) {
+					CharStream input = getCharStream(true, main.script);
+					var program = CompiledScriptCache.parse(input, List.of(NaftahErrorListener.INSTANCE));
+					result = doRun(program.getLeft(), program.getRight(), main.args);
+				}
+				else {
+					// Create an input stream from the Naftah code
+					CharStream input = getCharStream(main.isScriptFile, main.script);
+					var parser = prepareRun(input, NaftahErrorListener.INSTANCE);
+					result = doRun(parser, main.args);
+				}
 
 				if (isSimpleOrBuiltinOrCollectionOrMapOfSimpleType(result) && !None.isNone(result)
 				// not a declaration with flag
@@ -823,6 +877,115 @@ public final class Naftah {
 
 				System.out.println();
 			}
+
+			/**
+			 * Sends the script to the running daemon, which runs it with the arguments and the Naftah
+			 * system properties of this process; the process exits with the exit code of the run.
+			 *
+			 * @param main the main Naftah instance
+			 * @throws IOException if the connection to the daemon is lost
+			 */
+			private void runOnDaemon(Naftah main) throws IOException {
+				String script = main.isScriptFile ?
+						searchForNaftahScriptFile(main.script).toPath().toAbsolutePath().toString() :
+						main.script;
+				int exitCode = NaftahDaemonClient
+						.run(new NaftahDaemonProtocol.Request(  script,
+																main.isScriptFile,
+																main.args,
+																NaftahDaemonProtocol.getForwardedProperties()));
+				if (exitCode != 0) {
+					System.exit(exitCode);
+				}
+			}
+		}
+
+		/**
+		 * The 'daemon' subcommand that starts a long-lived interpreter serving {@code naftah run --daemon}.
+		 */
+		@Command(   name = DaemonCommand.NAME,
+					customSynopsis = "naftah daemon [options]",
+					description = { """
+									The Naftah daemon command. it starts a long-lived interpreter that runs the scripts sent by 'naftah run --daemon' in a warm JVM.""",
+									"""
+									أمر خادم نفطه. يقوم بتشغيل مفسر دائم ينفذ السكربتات المرسلة بواسطة 'naftah run --daemon' في آلة جافا افتراضية جاهزة."""},
+					sortOptions = false)
+		private static final class DaemonCommand extends NaftahCommand {
+			private static final String NAME = "daemon";
+
+			@Option(names = {"--no-warmup"},
+					description = { "Do not run the training script before serving the first request.",
+									"عدم تشغيل السكربت التدريبي قبل خدمة الطلب الأول."})
+			private boolean noWarmUp;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void run(Naftah main, boolean bootstrapAsync) throws Exception {
+				System.setProperty(INSIDE_RUN_PROPERTY, Boolean.toString(true));
+				// bootstraps the runtime synchronously
+				NaftahDaemonServer server = new NaftahDaemonServer(NaftahDaemonProtocol.getSocketPath());
+				initLogger(main.debug);
+
+				ParserCaches.clearOnMemoryPressure();
+				if (!noWarmUp) {
+					server.warmUp();
+				}
+				server.serve();
+			}
+		}
+
+		/**
+		 * The 'compile' subcommand that compiles a Naftah script ahead of time into a program file run
+		 * by {@code naftah run}.
+		 */
+		@Command(   name = CompileCommand.NAME,
+					customSynopsis = "naftah compile [options] [filename]",
+					description = { """
+									The Naftah compile command. it parses a script once and writes a compiled program (.ntb) that 'naftah run' executes without parsing it.""",
+									"""
+									أمر ترجمة نفطه. يقوم بتحليل السكربت مرة واحدة وكتابة برنامج مترجم (.ntb) ينفذه 'naftah run' دون إعادة تحليله."""},
+					sortOptions = false)
+		private static final class CompileCommand extends NaftahCommand {
+			private static final String NAME = "compile";
+
+			@Option(names = {"-o", "--output"},
+					paramLabel = "<file>",
+					description = { "The compiled program file (defaults to the script file with the .ntb extension)",
+									"ملف البرنامج المترجم (افتراضيًا ملف السكربت بالامتداد .ntb)"})
+			private Path output;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void run(Naftah main, boolean bootstrapAsync) throws Exception {
+				// parsing needs no runtime data
+				initLogger(main.debug);
+
+				String sourceName;
+				Path target;
+				if (main.isScriptFile) {
+					Path source = searchForNaftahScriptFile(main.script).toPath();
+					sourceName = source.toString();
+					target = Objects.requireNonNullElseGet(output, () -> ProgramArtifact.getDefaultOutput(source));
+				}
+				else if (Objects.nonNull(output)) {
+					sourceName = "-e";
+					target = output;
+				}
+				else {
+					throw new NaftahBugError("خطأ: يجب تحديد ملف البرنامج المترجم (-o) عند ترجمة سكربت سطر الأوامر (-e).");
+				}
+
+				List<String> imports = ProgramArtifact
+						.compile(getCharStream(main.isScriptFile, main.script), sourceName, target);
+				if (main.debug) {
+					imports.forEach(importStatement -> padText(importStatement, true));
+				}
+				padText("تمت ترجمة البرنامج إلى: " + target, true);
+			}
 		}
 
 		/**
@@ -838,6 +1001,19 @@ public final class Naftah {
 		private static final class InitCommand extends NaftahCommand {
 			private static final String NAME = "init";
 
+			@Option(names = {"--cds"},
+					description = { """
+									Generate the class-data-sharing archive (AppCDS) used by the launcher to start faster.""",
+									"""
+									إنشاء أرشيف مشاركة بيانات الفئات (AppCDS) الذي يستخدمه المُشغّل لتسريع بدء التشغيل."""})
+			private boolean generateCds;
+
+			@Option(names = {"--cds-training"},
+					paramLabel = "<file>",
+					description = { "The script run to train the class-data-sharing archive (implies --cds)",
+									"السكربت الذي يتم تشغيله لتدريب أرشيف مشاركة بيانات الفئات (يتضمن --cds)"})
+			private Path cdsTrainingScript;
+
 			/**
 			 * {@inheritDoc}
 			 */
@@ -846,6 +1022,13 @@ public final class Naftah {
 				System.setProperty(INSIDE_INIT_PROPERTY, Boolean.toString(true));
 				System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(true));
 				super.run(main, bootstrapAsync);
+
+				if (generateCds || Objects.nonNull(cdsTrainingScript)) {
+					Path archive = ClassDataSharingArchive.getArchivePath();
+					padText("جارٍ إنشاء أرشيف مشاركة بيانات الفئات (CDS)...", true);
+					ClassDataSharingArchive.dump(archive, cdsTrainingScript);
+					padText("تم إنشاء أرشيف مشاركة بيانات الفئات: " + archive, true);
+				}
 			}
 		}
 
@@ -1453,7 +1636,7 @@ public final class Naftah {
 					executor.submit(builtinFunctionsLoaderTask);
 
 					Runnable jvmFunctionsLoaderTask = () -> DefaultContext
-							.getJvmFunctions()
+							.getAllJvmFunctions()
 							.entrySet()
 							.stream()
 							.map(this::loadJvmFunction)
@@ -1614,7 +1797,7 @@ public final class Naftah {
 					total = Math
 							.max(   total,
 									DefaultContext
-											.getJvmFunctions()
+											.getAllJvmFunctions()
 											.size());
 				}
 				return total;
@@ -2112,6 +2295,7 @@ public final class Naftah {
 			 * <li>{@link #HISTORY}, {@link #CURRENT_SESSION_HISTORY}, {@link #SANITIZE_HISTORY}, {@link #PURGE_HISTORY}
 			 * – manage command history</li>
 			 * <li>{@link #DROP} – drop variables or definitions</li>
+			 * <li>{@link #CLEAR_PARSER_CACHE} – clear the parser caches</li>
 			 * </ul>
 			 */
 			private enum ReplCommand {
@@ -2127,7 +2311,8 @@ public final class Naftah {
 				CURRENT_SESSION_HISTORY(Set.of(":current_session_history", ":الأوامر_المحفوظة_الحالية")),
 				SANITIZE_HISTORY(Set.of(":sanitize_history", ":تنظيف_الأوامر_المحفوظة")),
 				PURGE_HISTORY(Set.of(":purge_history", ":مسح_الأوامر_المحفوظة")),
-				DROP(Set.of(":drop", ":حذف"));
+				DROP(Set.of(":drop", ":حذف")),
+				CLEAR_PARSER_CACHE(Set.of(":clear_parser_cache", ":مسح_ذاكرة_المحلل"));
 
 				private final Set<String> aliases;
 
@@ -2187,6 +2372,10 @@ public final class Naftah {
 				System.setProperty(INSIDE_REPL_PROPERTY, Boolean.toString(true));
 				super.run(main, bootstrapAsync);
 
+				// fills the parser caches while the terminal is set up and the user types
+				ParserCaches.warmUpAsync();
+				ParserCaches.clearOnMemoryPressure();
+
 				Terminal terminal = getTerminal();
 
 				setupTerminalCapabilities(terminal);
@@ -2321,6 +2510,7 @@ public final class Naftah {
 			 * <li>Sanitize command history (:sanitize_history or :تنظيف_الأوامر_المحفوظة)</li>
 			 * <li>Purge the command history (:purge_history or :مسح_الأوامر_المحفوظة)</li>
 			 * <li>Drop specific variables, functions, implementations, or imports (:drop)</li>
+			 * <li>Clear the parser caches (:clear_parser_cache or :مسح_ذاكرة_المحلل)</li>
 			 * </ul>
 			 *
 			 * <p>
@@ -2384,6 +2574,8 @@ public final class Naftah {
 
 							- :save أو :حفظ -> حفظ أوامر الجلسة الحالية في ملف مقتطف (snippet).
 
+							- :clear_parser_cache أو :مسح_ذاكرة_المحلل -> مسح ذاكرة التخزين المؤقت للمحلل لتحرير الذاكرة.
+
 							- :help أو :مساعدة -> عرض هذه القائمة.
 
 							- :exit أو :خروج -> إنهاء جلسة نفطه والخروج .
@@ -2446,6 +2638,12 @@ public final class Naftah {
 					matched = true;
 					history.purge();
 				}
+				else if (ReplCommand.CLEAR_PARSER_CACHE.matches(command)) {
+					matched = true;
+					int states = ParserCaches.getDFAStateCount();
+					ParserCaches.clear();
+					padText("تم مسح %d حالة من ذاكرة المحلل.\n".formatted(states), true);
+				}
 				else {
 					var commandParts = command.replaceAll("\\s*[,٬؛،٫]\\s*", ",").split("\\s");
 					command = commandParts[0].trim();
@@ -8,6 +8,7 @@ import java.util.Objects;
 import org.daiitech.naftah.builtin.lang.DynamicNumber;
 import org.daiitech.naftah.builtin.utils.NumberUtils;
 import org.daiitech.naftah.builtin.utils.ObjectUtils;
+import org.daiitech.naftah.builtin.utils.Range;
 import org.daiitech.naftah.builtin.utils.op.BinaryOperation;
 import org.daiitech.naftah.builtin.utils.op.UnaryOperation;
 import org.daiitech.naftah.errors.NaftahBugError;
@@ -89,7 +90,8 @@ import static org.daiitech.naftah.utils.script.ScriptUtils.padText;
 										"نفي_منطقي",
 										"حجم",
 										"نوع",
-										"مثيل_من"
+										"مثيل_من",
+										"مدى"
 					})
 public final class Builtin {
 
@@ -1160,4 +1162,51 @@ public final class Builtin {
 	public static boolean instanceOf(Object obj, JavaType javaType) {
 		return ObjectUtils.instanceOf(obj, javaType);
 	}
+
+	/**
+	 * Creates a lazy {@link Range} from {@code start} to {@code end} (inclusive), by a step of {@code 1}
+	 * or {@code -1} depending on the direction.
+	 *
+	 * <p>The elements are computed on demand, so iterating a range, indexing it or computing its size
+	 * does not allocate its elements.</p>
+	 *
+	 * @param start the first value
+	 * @param end   the last value
+	 * @return the range
+	 */
+	@NaftahFn(
+				name = "مدى",
+				description = """
+								دالة (مدى) لإنشاء تسلسل كسول من الأرقام من البداية إلى النهاية (شاملة) بخطوة 1 أو -1 حسب الاتجاه.
+								- لا تُخزَّن العناصر بل تُحسب عند الحاجة، فيمكن المرور عليها بحلقة كرر_حلقة أو الوصول إليها بالفهرس دون حجز ذاكرة لها.
+								""",
+				usage = "مدى(١، ١٠)",
+				parameterTypes = {Object.class, Object.class},
+				returnType = Range.class
+	)
+	public static Range range(Object start, Object end) {
+		return Range.of(start, end);
+	}
+
+	/**
+	 * Creates a lazy {@link Range} from {@code start} to {@code end} (inclusive) by the given step.
+	 *
+	 * @param start the first value
+	 * @param end   the last value
+	 * @param step  the difference between two consecutive values; must not be zero
+	 * @return the range
+	 */
+	@NaftahFn(
+				name = "مدى",
+				description = """
+								دالة (مدى) لإنشاء تسلسل كسول من الأرقام من البداية إلى النهاية (شاملة) بالخطوة المحددة.
+								- تُحسب العناصر عند الحاجة، ويُحسب الحجم حسابياً.
+								""",
+				usage = "مدى(٠، ١٠٠، ٥)",
+				parameterTypes = {Object.class, Object.class, Object.class},
+				returnType = Range.class
+	)
+	public static Range range(Object start, Object end, Object step) {
+		return Range.of(start, end, step);
+	}
 }
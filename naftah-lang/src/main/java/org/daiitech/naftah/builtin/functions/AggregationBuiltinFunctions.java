@@ -0,0 +1,285 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.functions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.daiitech.naftah.builtin.NaftahFn;
+import org.daiitech.naftah.builtin.NaftahFnProvider;
+import org.daiitech.naftah.builtin.utils.AggregationUtils;
+import org.daiitech.naftah.builtin.utils.FunctionUtils;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * Provides built-in functions sorting, searching and aggregating the elements of collections and
+ * arrays.
+ *
+ * <p>Elements are ordered by the natural ordering of Naftah values
+ * ({@link org.daiitech.naftah.builtin.utils.ObjectUtils#compare(Object, Object)}), which orders numbers
+ * by value, texts lexicographically, temporal points by instant and values of different kinds by kind.
+ * The algorithms are specialized for numeric, text and temporal elements and run in parallel on large
+ * inputs; see {@link AggregationUtils}. Key functions are referenced by name and may be declared Naftah
+ * functions, builtins or JVM functions.</p>
+ *
+ * <p><b>Note:</b> This class cannot be instantiated.</p>
+ *
+ * @author Chakib Daii
+ */
+@NaftahFnProvider(
+					name = "دوال التجميع",
+					useQualifiedName = true,
+					useQualifiedAliases = true,
+					description = """
+									يحتوي هذا الموفر على دوال لترتيب عناصر الحزم والمصفوفات والبحث فيها وتجميعها:
+									• الترتيب تصاعدياً وتنازلياً وحسب مفتاح
+									• البحث الثنائي في حزمة مرتبة
+									• المجموع والمتوسط وأصغر وأكبر عنصر
+									• التجميع والعد حسب مفتاح
+									""",
+					functionNames = {
+										"رتب",
+										"رتب_تنازليا",
+										"رتب_حسب",
+										"بحث_ثنائي",
+										"أصغر_عنصر",
+										"أكبر_عنصر",
+										"مجموع",
+										"متوسط",
+										"تجميع_حسب",
+										"عد_حسب"
+					}
+)
+public final class AggregationBuiltinFunctions {
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private AggregationBuiltinFunctions() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Sorts the elements of a collection or an array in ascending natural ordering.
+	 *
+	 * @param source a collection or an array
+	 * @return a new list of the sorted elements
+	 */
+	@NaftahFn(
+				name = "رتب",
+				aliases = {"ترتيب"},
+				description = """
+								يعيد قائمة جديدة بعناصر الحزمة مرتبة تصاعدياً. تُرتب الأرقام حسب قيمتها والنصوص أبجدياً والتواريخ والأوقات زمنياً.""",
+				usage = """
+						دوال:التجميع::رتب([3 , 1 , 2])
+						دوال:التجميع::رتب({"ج" , "أ" , "ب"})
+						""",
+				parameterTypes = {Object.class},
+				returnType = List.class
+	)
+	public static List<Object> sort(Object source) {
+		return AggregationUtils.sort(source, false);
+	}
+
+	/**
+	 * Sorts the elements of a collection or an array in descending natural ordering.
+	 *
+	 * @param source a collection or an array
+	 * @return a new list of the sorted elements
+	 */
+	@NaftahFn(
+				name = "رتب_تنازليا",
+				aliases = {"ترتيب_تنازلي"},
+				description = """
+								يعيد قائمة جديدة بعناصر الحزمة مرتبة تنازلياً.""",
+				usage = """
+						دوال:التجميع::رتب_تنازليا([3 , 1 , 2])
+						""",
+				parameterTypes = {Object.class},
+				returnType = List.class
+	)
+	public static List<Object> sortDescending(Object source) {
+		return AggregationUtils.sort(source, true);
+	}
+
+	/**
+	 * Sorts the elements of a collection or an array by the natural ordering of a key computed by the
+	 * named function.
+	 *
+	 * @param source       a collection or an array
+	 * @param functionName the name of a function taking an element and returning its key
+	 * @return a new list of the sorted elements
+	 */
+	@NaftahFn(
+				name = "رتب_حسب",
+				aliases = {"ترتيب_حسب"},
+				description = """
+								يعيد قائمة جديدة بعناصر الحزمة مرتبة تصاعدياً حسب المفتاح الذي تعيده الدالة المسماة لكل عنصر. تُستدعى الدالة مرة واحدة لكل عنصر.""",
+				usage = """
+						دالة الطول(نص) { ارجع ما_حجم(نص) }
+						دوال:التجميع::رتب_حسب(["ثلاثة" , "واحد" , "اثنان"] , "الطول")
+						""",
+				parameterTypes = {Object.class, String.class},
+				returnType = List.class
+	)
+	public static List<Object> sortBy(Object source, String functionName) {
+		return AggregationUtils.sortBy(source, keyFunction(functionName), false);
+	}
+
+	/**
+	 * Searches a value in a collection or an array sorted in ascending natural ordering.
+	 *
+	 * @param source a sorted collection or array
+	 * @param value  the value to search
+	 * @return the index of the value, or {@code -(insertion point) - 1} if it is not found
+	 */
+	@NaftahFn(
+				name = "بحث_ثنائي",
+				description = """
+								يبحث عن قيمة في حزمة مرتبة تصاعدياً بطريقة البحث الثنائي، ويعيد فهرسها إن وُجدت.
+								إن لم توجد يعيد قيمة سالبة تساوي -(موضع الإدراج) - 1، حيث موضع الإدراج هو فهرس أول عنصر أكبر منها.""",
+				usage = """
+						دوال:التجميع::بحث_ثنائي([1 , 3 , 5 , 7] , 5)
+						""",
+				parameterTypes = {Object.class, Object.class},
+				returnType = int.class
+	)
+	public static int binarySearch(Object source, Object value) {
+		return AggregationUtils.binarySearch(source, value);
+	}
+
+	/**
+	 * Returns the lowest element of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array
+	 * @return the lowest element
+	 */
+	@NaftahFn(
+				name = "أصغر_عنصر",
+				description = """
+								يعيد أصغر عنصر في الحزمة حسب الترتيب الطبيعي.""",
+				usage = """
+						دوال:التجميع::أصغر_عنصر([3 , 1 , 2])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Object.class
+	)
+	public static Object min(Object source) {
+		return AggregationUtils.min(source);
+	}
+
+	/**
+	 * Returns the greatest element of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array
+	 * @return the greatest element
+	 */
+	@NaftahFn(
+				name = "أكبر_عنصر",
+				description = """
+								يعيد أكبر عنصر في الحزمة حسب الترتيب الطبيعي.""",
+				usage = """
+						دوال:التجميع::أكبر_عنصر([3 , 1 , 2])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Object.class
+	)
+	public static Object max(Object source) {
+		return AggregationUtils.max(source);
+	}
+
+	/**
+	 * Returns the sum of the numbers of a collection or an array.
+	 *
+	 * @param source a collection or an array of numbers
+	 * @return the sum
+	 */
+	@NaftahFn(
+				name = "مجموع",
+				description = """
+								يعيد مجموع أرقام الحزمة، أو صفراً إن كانت فارغة.""",
+				usage = """
+						دوال:التجميع::مجموع([1 , 2 , 3])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Number.class
+	)
+	public static Number sum(Object source) {
+		return AggregationUtils.sum(source);
+	}
+
+	/**
+	 * Returns the arithmetic mean of the numbers of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return the mean
+	 */
+	@NaftahFn(
+				name = "متوسط",
+				aliases = {"المتوسط"},
+				description = """
+								يعيد المتوسط الحسابي لأرقام الحزمة كرقم عشري.""",
+				usage = """
+						دوال:التجميع::متوسط([1 , 2 , 3 , 4])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Number.class
+	)
+	public static Number mean(Object source) {
+		return AggregationUtils.mean(source);
+	}
+
+	/**
+	 * Groups the elements of a collection or an array by the key computed by the named function.
+	 *
+	 * @param source       a collection or an array
+	 * @param functionName the name of a function taking an element and returning its key
+	 * @return a map from each key to the list of its elements
+	 */
+	@NaftahFn(
+				name = "تجميع_حسب",
+				description = """
+								يجمع عناصر الحزمة في كائن يربط كل مفتاح تعيده الدالة المسماة بقائمة العناصر التي لها هذا المفتاح، بترتيب ظهورها.""",
+				usage = """
+						دالة زوجي(س) { ارجع س % 2 == 0 }
+						دوال:التجميع::تجميع_حسب([1 , 2 , 3 , 4] , "زوجي")
+						""",
+				parameterTypes = {Object.class, String.class},
+				returnType = Map.class
+	)
+	public static Map<Object, List<Object>> groupBy(Object source, String functionName) {
+		return AggregationUtils.groupBy(source, keyFunction(functionName));
+	}
+
+	/**
+	 * Counts the elements of a collection or an array by the key computed by the named function.
+	 *
+	 * @param source       a collection or an array
+	 * @param functionName the name of a function taking an element and returning its key
+	 * @return a map from each key to the number of its elements
+	 */
+	@NaftahFn(
+				name = "عد_حسب",
+				description = """
+								يعد عناصر الحزمة حسب المفتاح الذي تعيده الدالة المسماة لكل عنصر، ويعيد كائناً يربط كل مفتاح بعدد عناصره.""",
+				usage = """
+						دالة زوجي(س) { ارجع س % 2 == 0 }
+						دوال:التجميع::عد_حسب([1 , 2 , 3 , 4 , 5] , "زوجي")
+						""",
+				parameterTypes = {Object.class, String.class},
+				returnType = Map.class
+	)
+	public static Map<Object, Long> countBy(Object source, String functionName) {
+		return AggregationUtils.countBy(source, keyFunction(functionName));
+	}
+
+	private static Function<Object, Object> keyFunction(String functionName) {
+		Function<Object[], Object> function = FunctionUtils.getFunctionInvoker(functionName);
+		return element -> function.apply(new Object[]{element});
+	}
+}
@@ -0,0 +1,400 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.functions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.daiitech.naftah.builtin.NaftahFn;
+import org.daiitech.naftah.builtin.NaftahFnProvider;
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.utils.AggregationUtils;
+import org.daiitech.naftah.builtin.utils.NdArray;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * Provides built-in functions creating and transforming dense numeric n-dimensional arrays and
+ * matrices.
+ *
+ * <p>Numeric arrays are created from nested collections or arrays of numbers and stored in flat
+ * primitive arrays; see {@link NdArray}. Slices, selections, transposes and reshapes are views sharing
+ * their storage. The arithmetic and comparison operators apply element-wise to numeric arrays of the
+ * same shape, or to a numeric array and a number. Every function accepting a numeric array also accepts
+ * nested collections, converted on each call.</p>
+ *
+ * <p><b>Note:</b> This class cannot be instantiated.</p>
+ *
+ * @author Chakib Daii
+ */
+@NaftahFnProvider(
+					name = "دوال المصفوفات",
+					useQualifiedName = true,
+					useQualifiedAliases = true,
+					description = """
+									يحتوي هذا الموفر على دوال لإنشاء المصفوفات الرقمية متعددة الأبعاد والمصفوفات الرياضية ومعالجتها:
+									• الإنشاء من حزم متداخلة، ومصفوفات الأصفار والوحدة
+									• قراءة الشكل والعناصر، والتقطيع والاختيار والمنقول وإعادة التشكيل دون نسخ العناصر
+									• الضرب المصفوفي
+									• المجموع والمتوسط وأصغر وأكبر عنصر على امتداد بعد
+									""",
+					functionNames = {
+										"مصفوفة_رقمية",
+										"أصفار",
+										"مصفوفة_الوحدة",
+										"شكل",
+										"عنصر",
+										"شريحة",
+										"اختيار",
+										"منقول",
+										"إعادة_تشكيل",
+										"ضرب_مصفوفي",
+										"مجموع_بعد",
+										"متوسط_بعد",
+										"أصغر_بعد",
+										"أكبر_بعد",
+										"إلى_قوائم"
+					}
+)
+public final class NdArrayBuiltinFunctions {
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private NdArrayBuiltinFunctions() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Creates a numeric array from nested collections or arrays of numbers.
+	 *
+	 * @param source nested collections or arrays of numbers, with a rectangular shape
+	 * @return the numeric array
+	 */
+	@NaftahFn(
+				name = "مصفوفة_رقمية",
+				aliases = {"مصفوفة_أرقام"},
+				description = """
+								ينشئ مصفوفة رقمية من حزم متداخلة من الأرقام بشكل منتظم، مثل قائمة من الصفوف المتساوية الطول.
+								تُخزن الأرقام الصحيحة والعشرية في مصفوفة أولية متصلة، وتُطبق العمليات الحسابية والمقارنات عليها عنصراً بعنصر.""",
+				usage = """
+						ثابت م تعيين دوال:المصفوفات::مصفوفة_رقمية([[1 , 2] , [3 , 4]])
+						م * 2
+						""",
+				parameterTypes = {Object.class},
+				returnType = NdArray.class
+	)
+	public static NdArray ndArray(Object source) {
+		return NdArray.of(source);
+	}
+
+	/**
+	 * Creates a numeric array of decimal zeros.
+	 *
+	 * @param shape the length of each dimension
+	 * @return the numeric array
+	 */
+	@NaftahFn(
+				name = "أصفار",
+				description = """
+								ينشئ مصفوفة رقمية من الأصفار العشرية بالشكل المحدد، أي بطول كل بعد.""",
+				usage = """
+						دوال:المصفوفات::أصفار([2 , 3])
+						""",
+				parameterTypes = {Object.class},
+				returnType = NdArray.class
+	)
+	public static NdArray zeros(Object shape) {
+		return NdArray.zeros(false, toInts(shape));
+	}
+
+	/**
+	 * Creates an identity matrix.
+	 *
+	 * @param n the number of rows and columns
+	 * @return the matrix
+	 */
+	@NaftahFn(
+				name = "مصفوفة_الوحدة",
+				description = """
+								ينشئ مصفوفة الوحدة المربعة بالحجم المحدد: واحد على القطر وصفر في غيره.""",
+				usage = """
+						دوال:المصفوفات::مصفوفة_الوحدة(3)
+						""",
+				parameterTypes = {Number.class},
+				returnType = NdArray.class
+	)
+	public static NdArray identity(Number n) {
+		return NdArray.identity(n.intValue());
+	}
+
+	/**
+	 * Returns the shape of a numeric array.
+	 *
+	 * @param array a numeric array
+	 * @return the length of each dimension
+	 */
+	@NaftahFn(
+				name = "شكل",
+				aliases = {"الشكل"},
+				description = """
+								يعيد شكل المصفوفة الرقمية: قائمة بطول كل بعد من أبعادها.""",
+				usage = """
+						دوال:المصفوفات::شكل([[1 , 2 , 3] , [4 , 5 , 6]])
+						""",
+				parameterTypes = {Object.class},
+				returnType = List.class
+	)
+	public static List<Object> shape(Object array) {
+		return Arrays.stream(NdArray.of(array).getShape()).mapToObj(dimension -> (Object) DynamicNumber.of(dimension)).toList();
+	}
+
+	/**
+	 * Returns an element of a numeric array.
+	 *
+	 * @param array   a numeric array
+	 * @param indices the index of the element along each dimension
+	 * @return the element
+	 */
+	@NaftahFn(
+				name = "عنصر",
+				description = """
+								يعيد عنصر المصفوفة الرقمية الذي فهارسه على كل بعد هي الفهارس المعطاة، بدءاً من الصفر.""",
+				usage = """
+						دوال:المصفوفات::عنصر([[1 , 2] , [3 , 4]] , [1 , 0])
+						""",
+				parameterTypes = {Object.class, Object.class},
+				returnType = Number.class
+	)
+	public static Number get(Object array, Object indices) {
+		return NdArray.of(array).get(toInts(indices));
+	}
+
+	/**
+	 * Returns a view of the elements of a numeric array whose index along an axis is in a range.
+	 *
+	 * @param array a numeric array
+	 * @param axis  the axis
+	 * @param from  the first index, inclusive
+	 * @param to    the last index, exclusive
+	 * @return the view
+	 */
+	@NaftahFn(
+				name = "شريحة",
+				description = """
+								يعيد شريحة من المصفوفة الرقمية تضم العناصر التي فهرسها على البعد المحدد من البداية (شاملة) إلى النهاية (غير شاملة)، دون نسخها.""",
+				usage = """
+						دوال:المصفوفات::شريحة([[1 , 2 , 3] , [4 , 5 , 6]] , 1 , 0 , 2)
+						""",
+				parameterTypes = {Object.class, Number.class, Number.class, Number.class},
+				returnType = NdArray.class
+	)
+	public static NdArray slice(Object array, Number axis, Number from, Number to) {
+		return NdArray.of(array).slice(axis.intValue(), from.intValue(), to.intValue(), 1);
+	}
+
+	/**
+	 * Returns a view of the elements of a numeric array with the given index along an axis.
+	 *
+	 * @param array a numeric array
+	 * @param axis  the axis
+	 * @param index the index along the axis
+	 * @return the view with one dimension less, or the element of a one-dimensional array
+	 */
+	@NaftahFn(
+				name = "اختيار",
+				description = """
+								يعيد العناصر التي فهرسها على البعد المحدد هو الفهرس المعطى، في مصفوفة رقمية ببعد أقل ودون نسخها؛ مثل صف أو عمود من مصفوفة.""",
+				usage = """
+						دوال:المصفوفات::اختيار([[1 , 2] , [3 , 4]] , 1 , 0)
+						""",
+				parameterTypes = {Object.class, Number.class, Number.class},
+				returnType = Object.class
+	)
+	public static Object select(Object array, Number axis, Number index) {
+		return NdArray.of(array).select(axis.intValue(), index.intValue());
+	}
+
+	/**
+	 * Returns the transpose of a numeric array.
+	 *
+	 * @param array a numeric array
+	 * @return the view with the axes in reverse order
+	 */
+	@NaftahFn(
+				name = "منقول",
+				aliases = {"المنقول"},
+				description = """
+								يعيد منقول المصفوفة الرقمية بعكس ترتيب أبعادها، فتصبح صفوف المصفوفة أعمدة، دون نسخ العناصر.""",
+				usage = """
+						دوال:المصفوفات::منقول([[1 , 2 , 3] , [4 , 5 , 6]])
+						""",
+				parameterTypes = {Object.class},
+				returnType = NdArray.class
+	)
+	public static NdArray transpose(Object array) {
+		return NdArray.of(array).transpose();
+	}
+
+	/**
+	 * Returns the elements of a numeric array with another shape.
+	 *
+	 * @param array a numeric array
+	 * @param shape the new shape, with the same number of elements
+	 * @return the reshaped array
+	 */
+	@NaftahFn(
+				name = "إعادة_تشكيل",
+				description = """
+								يعيد عناصر المصفوفة الرقمية بترتيبها في شكل جديد له نفس عدد العناصر.""",
+				usage = """
+						دوال:المصفوفات::إعادة_تشكيل([1 , 2 , 3 , 4 , 5 , 6] , [2 , 3])
+						""",
+				parameterTypes = {Object.class, Object.class},
+				returnType = NdArray.class
+	)
+	public static NdArray reshape(Object array, Object shape) {
+		return NdArray.of(array).reshape(toInts(shape));
+	}
+
+	/**
+	 * Computes the matrix product of two numeric arrays.
+	 *
+	 * @param left  the left operand
+	 * @param right the right operand, with as many rows as the left one has columns
+	 * @return the product, nested lists of whole numbers when one of them overflows a {@code long}, or a
+	 *         number for two one-dimensional operands
+	 */
+	@NaftahFn(
+				name = "ضرب_مصفوفي",
+				aliases = {"جداء_مصفوفي"},
+				description = """
+								يعيد حاصل الضرب المصفوفي لمصفوفتين رقميتين من بعد أو بعدين، بحيث يساوي عدد أعمدة الأولى عدد صفوف الثانية. حاصل ضرب مصفوفتين من بعد واحد رقم هو الجداء القياسي.
+								يُحسب على كتل تناسب الذاكرة المخبئية، وتُوزع صفوف الناتج على خيوط متوازية في المصفوفات الكبيرة.""",
+				usage = """
+						دوال:المصفوفات::ضرب_مصفوفي([[1 , 2] , [3 , 4]] , [[5 , 6] , [7 , 8]])
+						""",
+				parameterTypes = {Object.class, Object.class},
+				returnType = Object.class
+	)
+	public static Object multiply(Object left, Object right) {
+		return NdArray.of(left).multiply(NdArray.of(right));
+	}
+
+	/**
+	 * Sums the elements of a numeric array along an axis.
+	 *
+	 * @param array a numeric array
+	 * @param axis  the axis
+	 * @return the sums, or their single value for a one-dimensional array
+	 */
+	@NaftahFn(
+				name = "مجموع_بعد",
+				description = """
+								يجمع عناصر المصفوفة الرقمية على امتداد البعد المحدد، ويعيد مصفوفة ببعد أقل، أو رقماً لمصفوفة ذات بعد واحد.
+								البعد 0 يجمع الصفوف، والبعد 1 يجمع عناصر كل صف.""",
+				usage = """
+						دوال:المصفوفات::مجموع_بعد([[1 , 2] , [3 , 4]] , 0)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Object.class
+	)
+	public static Object sum(Object array, Number axis) {
+		return NdArray.of(array).sum(axis.intValue());
+	}
+
+	/**
+	 * Averages the elements of a numeric array along an axis.
+	 *
+	 * @param array a numeric array
+	 * @param axis  the axis
+	 * @return the means, or their single value for a one-dimensional array
+	 */
+	@NaftahFn(
+				name = "متوسط_بعد",
+				description = """
+								يحسب متوسط عناصر المصفوفة الرقمية على امتداد البعد المحدد، ويعيد مصفوفة عشرية ببعد أقل، أو رقماً لمصفوفة ذات بعد واحد.""",
+				usage = """
+						دوال:المصفوفات::متوسط_بعد([[1 , 2] , [3 , 4]] , 1)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Object.class
+	)
+	public static Object mean(Object array, Number axis) {
+		return NdArray.of(array).mean(axis.intValue());
+	}
+
+	/**
+	 * Returns the lowest elements of a numeric array along an axis.
+	 *
+	 * @param array a numeric array
+	 * @param axis  the axis
+	 * @return the minimums, or their single value for a one-dimensional array
+	 */
+	@NaftahFn(
+				name = "أصغر_بعد",
+				description = """
+								يعيد أصغر عناصر المصفوفة الرقمية على امتداد البعد المحدد، في مصفوفة ببعد أقل، أو رقماً لمصفوفة ذات بعد واحد.""",
+				usage = """
+						دوال:المصفوفات::أصغر_بعد([[1 , 5] , [3 , 4]] , 0)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Object.class
+	)
+	public static Object min(Object array, Number axis) {
+		return NdArray.of(array).min(axis.intValue());
+	}
+
+	/**
+	 * Returns the greatest elements of a numeric array along an axis.
+	 *
+	 * @param array a numeric array
+	 * @param axis  the axis
+	 * @return the maximums, or their single value for a one-dimensional array
+	 */
+	@NaftahFn(
+				name = "أكبر_بعد",
+				description = """
+								يعيد أكبر عناصر المصفوفة الرقمية على امتداد البعد المحدد، في مصفوفة ببعد أقل، أو رقماً لمصفوفة ذات بعد واحد.""",
+				usage = """
+						دوال:المصفوفات::أكبر_بعد([[1 , 5] , [3 , 4]] , 1)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Object.class
+	)
+	public static Object max(Object array, Number axis) {
+		return NdArray.of(array).max(axis.intValue());
+	}
+
+	/**
+	 * Returns the elements of a numeric array as nested lists.
+	 *
+	 * @param array a numeric array
+	 * @return the nested lists
+	 */
+	@NaftahFn(
+				name = "إلى_قوائم",
+				description = """
+								يحول المصفوفة الرقمية إلى قوائم متداخلة: قائمة من الصفوف لمصفوفة ببعدين.""",
+				usage = """
+						دوال:المصفوفات::إلى_قوائم(دوال:المصفوفات::مصفوفة_الوحدة(2))
+						""",
+				parameterTypes = {Object.class},
+				returnType = List.class
+	)
+	public static List<Object> toList(Object array) {
+		return NdArray.of(array).toList();
+	}
+
+	private static int[] toInts(Object values) {
+		return AggregationUtils.toList(values).stream().mapToInt(value -> {
+			if (!(value instanceof Number number)) {
+				throw new NaftahBugError("القيمة '%s' ليست رقماً صحيحاً.".formatted(value));
+			}
+			return number.intValue();
+		}).toArray();
+	}
+}
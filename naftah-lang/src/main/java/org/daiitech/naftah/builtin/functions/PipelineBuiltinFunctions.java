@@ -0,0 +1,262 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.functions;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.daiitech.naftah.builtin.NaftahFn;
+import org.daiitech.naftah.builtin.NaftahFnProvider;
+import org.daiitech.naftah.builtin.utils.FunctionUtils;
+import org.daiitech.naftah.builtin.utils.ObjectUtils;
+import org.daiitech.naftah.builtin.utils.Pipeline;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * Provides built-in functions building lazy processing pipelines over collections, arrays and ranges.
+ *
+ * <p>A pipeline is created from a source with {@code تدفق}, extended with intermediate stages
+ * ({@code تحويل}, {@code تصفية}, {@code أخذ}, {@code تخطي}) that evaluate nothing, and run once by a
+ * terminal function ({@code إلى_قائمة}, {@code عدد_العناصر}, {@code اختزال}), which fuses all the stages
+ * into a single pass over the source. The stage functions are referenced by name and may be declared
+ * Naftah functions, builtins or JVM functions. A pipeline made parallel with {@code متوازي} runs its
+ * terminal functions on a fork-join pool.</p>
+ *
+ * <p>Every function accepting a pipeline also accepts a source directly.</p>
+ *
+ * <p><b>Note:</b> This class cannot be instantiated.</p>
+ *
+ * @author Chakib Daii
+ * @see Pipeline
+ */
+@NaftahFnProvider(
+					name = "دوال التدفق",
+					useQualifiedName = true,
+					useQualifiedAliases = true,
+					description = """
+									يحتوي هذا الموفر على دوال لبناء تدفقات كسولة لمعالجة عناصر الحزم والمصفوفات والمديات:
+									• إنشاء تدفق من مصدر
+									• تحويل العناصر وتصفيتها وأخذ أو تخطي عدد منها دون حساب أي شيء
+									• تنفيذ التدفق مرة واحدة في مرور واحد على المصدر لجمع العناصر أو عدها أو اختزالها
+									• التنفيذ المتوازي على مجمع خيوط
+									""",
+					functionNames = {
+										"تدفق",
+										"تحويل",
+										"تصفية",
+										"أخذ",
+										"تخطي",
+										"متوازي",
+										"إلى_قائمة",
+										"عدد_العناصر",
+										"اختزال"
+					}
+)
+public final class PipelineBuiltinFunctions {
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private PipelineBuiltinFunctions() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Creates a pipeline over the given source.
+	 *
+	 * @param source a collection, an array, a range or a pipeline
+	 * @return the pipeline
+	 */
+	@NaftahFn(
+				name = "تدفق",
+				description = """
+								ينشئ تدفقاً كسولاً فوق عناصر حزمة أو مصفوفة أو مدى. لا تُحسب مراحل التدفق إلا عند تنفيذه.""",
+				usage = """
+						ثابت ت تعيين دوال:التدفق::تدفق([1 , 2 , 3])
+						ثابت م تعيين دوال:التدفق::تدفق(مدى(1 , 1000000))
+						""",
+				parameterTypes = {Object.class},
+				returnType = Pipeline.class
+	)
+	public static Pipeline pipeline(Object source) {
+		return Pipeline.of(source);
+	}
+
+	/**
+	 * Adds a stage transforming each element with the named function.
+	 *
+	 * @param source       a pipeline or a source
+	 * @param functionName the name of a function taking one argument
+	 * @return the new pipeline
+	 */
+	@NaftahFn(
+				name = "تحويل",
+				description = """
+								يضيف إلى التدفق مرحلة تطبق الدالة المسماة على كل عنصر وتستبدله بنتيجتها.""",
+				usage = """
+						دالة مربع(س) { ارجع س * س }
+						دوال:التدفق::تحويل(دوال:التدفق::تدفق([1 , 2 , 3]) , "مربع")
+						""",
+				parameterTypes = {Object.class, String.class},
+				returnType = Pipeline.class
+	)
+	public static Pipeline map(Object source, String functionName) {
+		Function<Object[], Object> function = FunctionUtils.getFunctionInvoker(functionName);
+		return Pipeline.of(source).map(element -> function.apply(new Object[]{element}));
+	}
+
+	/**
+	 * Adds a stage keeping only the elements for which the named function returns a truthy value.
+	 *
+	 * @param source       a pipeline or a source
+	 * @param functionName the name of a function taking one argument
+	 * @return the new pipeline
+	 */
+	@NaftahFn(
+				name = "تصفية",
+				description = """
+								يضيف إلى التدفق مرحلة تحتفظ فقط بالعناصر التي تعيد لها الدالة المسماة قيمة صحيحة.""",
+				usage = """
+						دالة زوجي(س) { ارجع س % 2 == 0 }
+						دوال:التدفق::تصفية(مدى(1 , 100) , "زوجي")
+						""",
+				parameterTypes = {Object.class, String.class},
+				returnType = Pipeline.class
+	)
+	public static Pipeline filter(Object source, String functionName) {
+		Function<Object[], Object> function = FunctionUtils.getFunctionInvoker(functionName);
+		return Pipeline.of(source).filter(element -> ObjectUtils.isTruthy(function.apply(new Object[]{element})));
+	}
+
+	/**
+	 * Adds a stage keeping at most the given number of elements.
+	 *
+	 * @param source a pipeline or a source
+	 * @param count  the maximum number of elements
+	 * @return the new pipeline
+	 */
+	@NaftahFn(
+				name = "أخذ",
+				description = """
+								يضيف إلى التدفق مرحلة تحتفظ بالعدد المحدد من العناصر الأولى على الأكثر، ويتوقف التنفيذ عن قراءة المصدر بعد بلوغه.""",
+				usage = """
+						دوال:التدفق::أخذ(مدى(1 , 1000000) , 10)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Pipeline.class
+	)
+	public static Pipeline limit(Object source, Number count) {
+		return Pipeline.of(source).limit(count.longValue());
+	}
+
+	/**
+	 * Adds a stage discarding the given number of first elements.
+	 *
+	 * @param source a pipeline or a source
+	 * @param count  the number of elements to discard
+	 * @return the new pipeline
+	 */
+	@NaftahFn(
+				name = "تخطي",
+				description = """
+								يضيف إلى التدفق مرحلة تتجاهل العدد المحدد من العناصر الأولى.""",
+				usage = """
+						دوال:التدفق::تخطي([1 , 2 , 3 , 4] , 2)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Pipeline.class
+	)
+	public static Pipeline skip(Object source, Number count) {
+		return Pipeline.of(source).skip(count.longValue());
+	}
+
+	/**
+	 * Makes the terminal functions run the pipeline in parallel on a fork-join pool.
+	 *
+	 * @param source a pipeline or a source
+	 * @return the new pipeline
+	 */
+	@NaftahFn(
+				name = "متوازي",
+				description = """
+								يجعل تنفيذ التدفق متوازياً على مجمع خيوط بعدد المعالجات المتاحة، مع الحفاظ على ترتيب العناصر في النتيجة.
+								يجب أن تكون دوال المراحل خالية من الآثار الجانبية المشتركة، وأن تكون دالة الاختزال تجميعية.""",
+				usage = """
+						دوال:التدفق::متوازي(دوال:التدفق::تحويل(مدى(1 , 1000) , "مربع"))
+						""",
+				parameterTypes = {Object.class},
+				returnType = Pipeline.class
+	)
+	public static Pipeline parallel(Object source) {
+		return Pipeline.of(source).parallel();
+	}
+
+	/**
+	 * Runs the pipeline and collects its elements into a list.
+	 *
+	 * @param source a pipeline or a source
+	 * @return the elements, in order
+	 */
+	@NaftahFn(
+				name = "إلى_قائمة",
+				description = """
+								ينفذ التدفق في مرور واحد على المصدر ويجمع العناصر الناتجة في قائمة.""",
+				usage = """
+						دوال:التدفق::إلى_قائمة(دوال:التدفق::أخذ(دوال:التدفق::تحويل(مدى(1 , 1000000) , "مربع") , 3))
+						""",
+				parameterTypes = {Object.class},
+				returnType = List.class
+	)
+	public static List<Object> toList(Object source) {
+		return Pipeline.of(source).toList();
+	}
+
+	/**
+	 * Runs the pipeline and counts its elements.
+	 *
+	 * @param source a pipeline or a source
+	 * @return the number of elements
+	 */
+	@NaftahFn(
+				name = "عدد_العناصر",
+				description = """
+								ينفذ التدفق في مرور واحد على المصدر ويعيد عدد العناصر الناتجة.""",
+				usage = """
+						دوال:التدفق::عدد_العناصر(دوال:التدفق::تصفية(مدى(1 , 100) , "زوجي"))
+						""",
+				parameterTypes = {Object.class},
+				returnType = long.class
+	)
+	public static long count(Object source) {
+		return Pipeline.of(source).count();
+	}
+
+	/**
+	 * Runs the pipeline and folds its elements with the named function, starting from the given value.
+	 *
+	 * @param source       a pipeline or a source
+	 * @param functionName the name of a function taking the accumulated value and an element
+	 * @param initial      the initial value
+	 * @return the folded value
+	 */
+	@NaftahFn(
+				name = "اختزال",
+				description = """
+								ينفذ التدفق في مرور واحد على المصدر ويختزل العناصر الناتجة بالدالة المسماة، بدءاً من القيمة الابتدائية.
+								تستقبل الدالة القيمة المتراكمة ثم العنصر التالي. في التنفيذ المتوازي تبدأ كل مجموعة من القيمة الابتدائية، لذا يجب أن تكون محايدة.""",
+				usage = """
+						دالة جمع(أ ، ب) { ارجع أ + ب }
+						دوال:التدفق::اختزال(دوال:التدفق::تحويل(مدى(1 , 10) , "مربع") , "جمع" , 0)
+						""",
+				parameterTypes = {Object.class, String.class, Object.class},
+				returnType = Object.class
+	)
+	public static Object reduce(Object source, String functionName, Object initial) {
+		Function<Object[], Object> function = FunctionUtils.getFunctionInvoker(functionName);
+		return Pipeline.of(source).reduce(initial, (accumulated, element) -> function.apply(new Object[]{accumulated, element}));
+	}
+}
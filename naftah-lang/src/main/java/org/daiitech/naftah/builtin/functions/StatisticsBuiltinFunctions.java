@@ -0,0 +1,205 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.functions;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.daiitech.naftah.builtin.NaftahFn;
+import org.daiitech.naftah.builtin.NaftahFnProvider;
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.utils.Statistics;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * Provides built-in functions computing descriptive statistics over the numbers of collections and
+ * arrays.
+ *
+ * <p>The numbers are read once and all the statistics of a summary are computed together in a single
+ * pass, in {@code double} arithmetic, with compensated summation and the online variance algorithm of
+ * Welford; percentiles are computed by selection. See {@link Statistics}.</p>
+ *
+ * <p><b>Note:</b> This class cannot be instantiated.</p>
+ *
+ * @author Chakib Daii
+ */
+@NaftahFnProvider(
+					name = "دوال الإحصاء",
+					useQualifiedName = true,
+					useQualifiedAliases = true,
+					description = """
+									يحتوي هذا الموفر على دوال لحساب الإحصاءات الوصفية لأرقام الحزم والمصفوفات في مرور واحد:
+									• ملخص يجمع العدد والمجموع والمتوسط والتباين والانحراف المعياري وأصغر وأكبر رقم
+									• التباين والانحراف المعياري للعينة
+									• المئين والوسيط
+									• المدرج التكراري
+									""",
+					functionNames = {
+										"ملخص_إحصائي",
+										"تباين",
+										"انحراف_معياري",
+										"مئين",
+										"وسيط",
+										"مدرج_تكراري"
+					}
+)
+public final class StatisticsBuiltinFunctions {
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private StatisticsBuiltinFunctions() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Computes the count, sum, mean, variance, standard deviation, minimum and maximum of the numbers of
+	 * a collection or an array, in a single pass.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return a map from the Arabic name of each statistic to its value
+	 */
+	@NaftahFn(
+				name = "ملخص_إحصائي",
+				aliases = {"ملخص"},
+				description = """
+								يحسب في مرور واحد على أرقام الحزمة: العدد والمجموع والمتوسط والتباين والانحراف المعياري للعينة وأصغر وأكبر رقم، ويعيدها في كائن.
+								تُحسب الإحصاءات بأرقام عشرية مزدوجة الدقة.""",
+				usage = """
+						دوال:الإحصاء::ملخص_إحصائي([2 , 4 , 4 , 4 , 5 , 5 , 7 , 9])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Map.class
+	)
+	public static Map<String, Object> summary(Object source) {
+		Statistics statistics = nonEmpty(Statistics.of(source), "الملخص الإحصائي");
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("العدد", DynamicNumber.of(statistics.getCount()));
+		summary.put("المجموع", DynamicNumber.of(statistics.getSum()));
+		summary.put("المتوسط", DynamicNumber.of(statistics.getMean()));
+		summary.put("التباين", DynamicNumber.of(statistics.getVariance()));
+		summary.put("الانحراف_المعياري", DynamicNumber.of(statistics.getStandardDeviation()));
+		summary.put("الأصغر", DynamicNumber.of(statistics.getMin()));
+		summary.put("الأكبر", DynamicNumber.of(statistics.getMax()));
+		return summary;
+	}
+
+	/**
+	 * Returns the sample variance of the numbers of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return the variance
+	 */
+	@NaftahFn(
+				name = "تباين",
+				aliases = {"التباين"},
+				description = """
+								يعيد تباين العينة لأرقام الحزمة: مجموع مربعات انحرافاتها عن المتوسط مقسوماً على عددها ناقص واحد.""",
+				usage = """
+						دوال:الإحصاء::تباين([2 , 4 , 4 , 4 , 5 , 5 , 7 , 9])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Number.class
+	)
+	public static Number variance(Object source) {
+		return DynamicNumber.of(nonEmpty(Statistics.of(source), "التباين").getVariance());
+	}
+
+	/**
+	 * Returns the sample standard deviation of the numbers of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return the standard deviation
+	 */
+	@NaftahFn(
+				name = "انحراف_معياري",
+				aliases = {"الانحراف_المعياري"},
+				description = """
+								يعيد الانحراف المعياري للعينة لأرقام الحزمة، وهو الجذر التربيعي لتباينها.""",
+				usage = """
+						دوال:الإحصاء::انحراف_معياري([2 , 4 , 4 , 4 , 5 , 5 , 7 , 9])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Number.class
+	)
+	public static Number standardDeviation(Object source) {
+		return DynamicNumber.of(nonEmpty(Statistics.of(source), "الانحراف المعياري").getStandardDeviation());
+	}
+
+	/**
+	 * Returns the given percentile of the numbers of a collection or an array.
+	 *
+	 * @param source     a non-empty collection or array of numbers
+	 * @param percentage the percentile, from {@code 0} to {@code 100}
+	 * @return the percentile
+	 */
+	@NaftahFn(
+				name = "مئين",
+				aliases = {"المئين"},
+				description = """
+								يعيد المئين المطلوب (من 0 إلى 100) لأرقام الحزمة، مع الاستيفاء الخطي بين الرتبتين الأقرب.
+								يُحسب بالاختيار دون ترتيب الحزمة كاملة.""",
+				usage = """
+						دوال:الإحصاء::مئين([15 , 20 , 35 , 40 , 50] , 90)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = Number.class
+	)
+	public static Number percentile(Object source, Number percentage) {
+		return DynamicNumber.of(Statistics.percentile(source, percentage.doubleValue()));
+	}
+
+	/**
+	 * Returns the median of the numbers of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return the median
+	 */
+	@NaftahFn(
+				name = "وسيط",
+				aliases = {"الوسيط"},
+				description = """
+								يعيد وسيط أرقام الحزمة، أي المئين الخمسين.""",
+				usage = """
+						دوال:الإحصاء::وسيط([3 , 1 , 4 , 2])
+						""",
+				parameterTypes = {Object.class},
+				returnType = Number.class
+	)
+	public static Number median(Object source) {
+		return DynamicNumber.of(Statistics.median(source));
+	}
+
+	/**
+	 * Counts the numbers of a collection or an array in equal-width bins spanning their range.
+	 *
+	 * @param source a collection or an array of numbers
+	 * @param bins   the number of bins
+	 * @return the count of each bin
+	 */
+	@NaftahFn(
+				name = "مدرج_تكراري",
+				description = """
+								يقسم مجال أرقام الحزمة، من أصغرها إلى أكبرها، إلى فئات متساوية العرض بالعدد المحدد، ويعيد قائمة بعدد الأرقام في كل فئة.""",
+				usage = """
+						دوال:الإحصاء::مدرج_تكراري([1 , 2 , 2 , 3 , 3 , 3 , 4] , 3)
+						""",
+				parameterTypes = {Object.class, Number.class},
+				returnType = List.class
+	)
+	public static List<Object> histogram(Object source, Number bins) {
+		return Statistics.histogram(source, bins.intValue());
+	}
+
+	private static Statistics nonEmpty(Statistics statistics, String statistic) {
+		if (statistics.getCount() == 0) {
+			throw new NaftahBugError("لا يمكن حساب %s لمجموعة فارغة.".formatted(statistic));
+		}
+		return statistics;
+	}
+}
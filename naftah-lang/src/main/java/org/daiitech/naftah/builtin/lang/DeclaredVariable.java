@@ -6,6 +6,7 @@ package org.daiitech.naftah.builtin.lang;
 import java.util.Objects;
 
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.daiitech.naftah.builtin.utils.NumberUtils;
 import org.daiitech.naftah.errors.ExceptionUtils;
 import org.daiitech.naftah.errors.NaftahBugError;
 import org.daiitech.naftah.parser.NaftahParserHelper;
@@ -23,6 +24,11 @@ import static org.daiitech.naftah.builtin.utils.ObjectUtils.validateType;
  *
  * <p>This class also tracks the original parsing context for reference or debugging.
  *
+ * <p>Variables declared with a fixed-width whole number type ({@code byte}, {@code short}, {@code int} or
+ * {@code long}) hold their current value unboxed in a {@code long}, read and written without allocation through
+ * {@link #hasUnboxedLong()}, {@link #getUnboxedLong()} and {@link #setUnboxedLong(long)}. The boxed value is only
+ * built when it is read through {@link #getValue()}.
+ *
  * @author Chakib Daii
  */
 public final class DeclaredVariable extends Declaration {
@@ -62,6 +68,27 @@ public final class DeclaredVariable extends Declaration {
 	 */
 	private boolean updatedCurrentValue;
 
+	/**
+	 * Whether the variable is declared with a fixed-width whole number type, its values are then held unboxed.
+	 */
+	private final boolean unboxed;
+
+	/**
+	 * The effective value held unboxed, when {@link #unboxedClass} is set.
+	 */
+	private long unboxedValue;
+
+	/**
+	 * The class of the boxed form of {@link #unboxedValue}, or {@code null} when the effective value is not held
+	 * unboxed.
+	 */
+	private Class<? extends Number> unboxedClass;
+
+	/**
+	 * Whether the boxed form of {@link #unboxedValue} is a {@link DynamicNumber}.
+	 */
+	private boolean unboxedDynamic;
+
 	/**
 	 * Constructs a new declared variable with the given properties.
 	 *
@@ -84,6 +111,11 @@ public final class DeclaredVariable extends Declaration {
 		this.constant = constant;
 		this.type = type;
 		this.defaultValue = defaultValue;
+		this.unboxed = Objects.nonNull(type) && (type.hasRawClass(Byte.class) || type
+				.hasRawClass(Short.class) || type.hasRawClass(Integer.class) || type.hasRawClass(Long.class));
+		if (unboxed) {
+			unbox(defaultValue);
+		}
 	}
 
 	/**
@@ -170,7 +202,10 @@ public final class DeclaredVariable extends Declaration {
 	 *
 	 * @return the effective value of the variable
 	 */
-	public Object getValue() {
+	public synchronized Object getValue() {
+		if (updatedCurrentValue && Objects.isNull(currentValue) && Objects.nonNull(unboxedClass)) {
+			return boxUnboxedValue();
+		}
 		return updatedCurrentValue ? currentValue : defaultValue;
 	}
 
@@ -195,6 +230,125 @@ public final class DeclaredVariable extends Declaration {
 		if (!updatedCurrentValue) {
 			updatedCurrentValue = true;
 		}
+		if (unboxed) {
+			unbox(currentValue);
+		}
+	}
+
+	/**
+	 * Checks whether the effective value of the variable is held unboxed, which is the case for whole numbers
+	 * held by variables declared with a fixed-width whole number type.
+	 * <p>
+	 * A boxed value handed out by {@link #getValue()} can be changed in place, like {@code س++} does; such a change
+	 * is taken over by the unboxed value here.
+	 * </p>
+	 *
+	 * @return {@code true} if {@link #getUnboxedLong()} holds the effective value
+	 */
+	public synchronized boolean hasUnboxedLong() {
+		if (!unboxed) {
+			return false;
+		}
+		Object boxed = updatedCurrentValue ? currentValue : defaultValue;
+		if (Objects.nonNull(boxed) && !holdsUnboxed(boxed)) {
+			unbox(boxed);
+		}
+		return Objects.nonNull(unboxedClass);
+	}
+
+	/**
+	 * Returns the effective value held unboxed, only meaningful when {@link #hasUnboxedLong()} is {@code true}.
+	 *
+	 * @return the unboxed value
+	 */
+	public synchronized long getUnboxedLong() {
+		return unboxedValue;
+	}
+
+	/**
+	 * Updates the current value of a variable holding its values unboxed, without boxing it.
+	 * <p>
+	 * The value is typed like a {@link DynamicNumber} holding it after normalization, that is by the smallest whole
+	 * number type it fits in, and checked against the declared type of the variable the way {@link #setValue(Object)}
+	 * checks such a number. When that type is wider than the declared type nothing is set: the caller is expected to
+	 * go through {@link #setValue(Object)}, which reports the mismatch. A value of another class, like a {@code long}
+	 * copied as is from another variable, has to go through {@link #setValue(Object)} too.
+	 * </p>
+	 *
+	 * @param value the value to set
+	 * @return {@code true} if the value was set, {@code false} if it does not fit the declared type
+	 * @throws NaftahBugError if attempting to modify a constant variable
+	 */
+	public synchronized boolean setUnboxedLong(long value) {
+		Class<? extends Number> valueClass = NumberUtils.wholeNumberClass(value);
+		if (!unboxed || !DynamicNumber.isAssignableFrom(valueClass, type.getRawClass())) {
+			return false;
+		}
+		if (constant) {
+			throw ExceptionUtils.newNaftahSettingConstantError(name);
+		}
+		unboxedValue = value;
+		unboxedClass = valueClass;
+		unboxedDynamic = true;
+		currentValue = null;
+		updatedCurrentValue = true;
+		return true;
+	}
+
+	/**
+	 * Holds the given value unboxed if it is a whole number no wider than a {@code long}.
+	 *
+	 * @param value the effective value of the variable
+	 */
+	private void unbox(Object value) {
+		Object number = value instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : value;
+		if (number instanceof Byte || number instanceof Short || number instanceof Integer || number instanceof Long) {
+			unboxedValue = ((Number) number).longValue();
+			//noinspection unchecked
+			unboxedClass = (Class<? extends Number>) number.getClass();
+			unboxedDynamic = value instanceof DynamicNumber;
+		}
+		else {
+			unboxedClass = null;
+		}
+	}
+
+	/**
+	 * Checks whether the given boxed value still reads as the value held unboxed.
+	 *
+	 * @param value the boxed effective value of the variable
+	 * @return {@code true} if both values are the same
+	 */
+	private boolean holdsUnboxed(Object value) {
+		Object number = value instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : value;
+		return Objects.nonNull(unboxedClass) && number.getClass() == unboxedClass && ((Number) number)
+				.longValue() == unboxedValue;
+	}
+
+	/**
+	 * Builds the boxed form of the value held unboxed, kept as the current value until the next update.
+	 * Only called with the lock of the variable held.
+	 *
+	 * @return the boxed value
+	 */
+	private Object boxUnboxedValue() {
+		if (Objects.isNull(currentValue) && Objects.nonNull(unboxedClass)) {
+			Number number;
+			if (unboxedClass == Byte.class) {
+				number = (byte) unboxedValue;
+			}
+			else if (unboxedClass == Short.class) {
+				number = (short) unboxedValue;
+			}
+			else if (unboxedClass == Integer.class) {
+				number = (int) unboxedValue;
+			}
+			else {
+				number = unboxedValue;
+			}
+			currentValue = unboxedDynamic ? DynamicNumber.of(number) : number;
+		}
+		return currentValue;
 	}
 
 	/**
@@ -229,8 +383,8 @@ public final class DeclaredVariable extends Declaration {
 										type,
 										that.type) && Objects.equals(defaultValue, that.defaultValue) && Objects
 												.equals(
-														currentValue,
-														that.currentValue);
+														getCurrentValue(),
+														that.getCurrentValue());
 	}
 
 	/**
@@ -244,7 +398,16 @@ public final class DeclaredVariable extends Declaration {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(name, constant, type, defaultValue, currentValue, updatedCurrentValue);
+		return Objects.hash(name, constant, type, defaultValue, getCurrentValue(), updatedCurrentValue);
+	}
+
+	/**
+	 * Returns the current value of the variable, boxing it if it is held unboxed.
+	 *
+	 * @return the current value, or {@code null} if it has not been set
+	 */
+	private Object getCurrentValue() {
+		return updatedCurrentValue ? getValue() : null;
 	}
 
 
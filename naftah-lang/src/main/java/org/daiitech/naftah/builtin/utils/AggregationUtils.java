@@ -0,0 +1,500 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.lang.NaftahObject;
+import org.daiitech.naftah.builtin.time.NaftahTemporalPoint;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.utils.time.TemporalUtils;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * Sorting, searching and aggregation algorithms over the elements of collections and arrays, in the
+ * natural ordering of {@link ObjectUtils#compare(Object, Object)}.
+ *
+ * <p>The algorithms are specialized by element type:</p>
+ * <ul>
+ * <li>unboxed {@link NumericList}s are sorted as primitive arrays and aggregated over their primitive
+ * storage, without boxing any element;</li>
+ * <li>whole numbers, decimals and temporal points are sorted on a key extracted once per element
+ * ({@code long}, {@code double} or {@link Instant}) instead of being converted at each comparison;</li>
+ * <li>texts are sorted in their natural ordering;</li>
+ * <li>mixed elements are sorted with {@link ObjectUtils#compare(Object, Object)}.</li>
+ * </ul>
+ *
+ * <p>Sorts go through {@link Arrays#parallelSort}, which sorts large arrays on the common fork-join pool,
+ * and the reductions run in parallel from {@link #PARALLEL_THRESHOLD} elements. Sorts are stable and
+ * return new lists, leaving their input unchanged.</p>
+ *
+ * <p>This class is not meant to be instantiated. Attempting to do so will throw
+ * a {@link NaftahBugError}.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class AggregationUtils {
+
+	/**
+	 * Minimum number of elements for a parallel reduction, aligned with the granularity under which
+	 * {@link Arrays#parallelSort} sorts sequentially.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private AggregationUtils() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Returns the elements of a collection or an array as a list, without copying them when possible.
+	 *
+	 * @param source a collection (a list, a set, a tuple, a range) or an array
+	 * @return the elements, in iteration order
+	 * @throws NaftahBugError if the source is neither a collection nor an array
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<Object> toList(Object source) {
+		if (source instanceof NaftahObject naftahObject) {
+			source = naftahObject.get(true);
+		}
+		if (source instanceof List<?> list) {
+			return (List<Object>) list;
+		}
+		if (source instanceof Collection<?> collection) {
+			return new ArrayList<>(collection);
+		}
+		if (source != null && source.getClass().isArray()) {
+			return Arrays.asList(CollectionUtils.toObjectArray(source));
+		}
+		throw new NaftahBugError("القيمة '%s' ليست مجموعة أو مصفوفة.".formatted(source));
+	}
+
+	/**
+	 * Sorts the elements of a collection or an array in their natural ordering.
+	 *
+	 * @param source     a collection or an array
+	 * @param descending whether to sort from the greatest element to the lowest
+	 * @return a new list of the sorted elements; a {@link NumericList} if the source is an unboxed one
+	 */
+	public static List<Object> sort(Object source, boolean descending) {
+		List<Object> elements = toList(source);
+		if (elements instanceof NumericList numericList && numericList.isUnboxed()) {
+			return sortUnboxed(numericList, descending);
+		}
+
+		Object[] array = elements.toArray();
+		switch (ElementKind.of(array)) {
+			case LONG -> sortByLongKey(array, descending);
+			case DOUBLE -> sortByDoubleKey(array, descending);
+			case TEMPORAL -> sortByKey(array,
+										element -> TemporalUtils.toInstant(((NaftahTemporalPoint) element).temporal()),
+										descending);
+			case TEXT -> {
+				Comparator<Object> comparator = Comparator.comparing(Object::toString);
+				Arrays.parallelSort(array, descending ? comparator.reversed() : comparator);
+			}
+			default -> {
+				Comparator<Object> comparator = ObjectUtils::compare;
+				Arrays.parallelSort(array, descending ? comparator.reversed() : comparator);
+			}
+		}
+		return new ArrayList<>(Arrays.asList(array));
+	}
+
+	/**
+	 * Sorts the elements of a collection or an array by the natural ordering of a key computed from each
+	 * element. The key is computed once per element, in iteration order.
+	 *
+	 * @param source     a collection or an array
+	 * @param key        the function computing the key of an element
+	 * @param descending whether to sort from the greatest key to the lowest
+	 * @return a new list of the sorted elements
+	 */
+	public static List<Object> sortBy(Object source, Function<Object, Object> key, boolean descending) {
+		Object[] array = toList(source).toArray();
+		sortByKey(array, key, descending);
+		return new ArrayList<>(Arrays.asList(array));
+	}
+
+	/**
+	 * Searches a value in a collection or an array sorted in the natural ordering, by binary search.
+	 *
+	 * @param source a collection or an array, sorted in ascending natural ordering
+	 * @param value  the value to search
+	 * @return the index of the value if it is found; otherwise {@code -(insertion point) - 1}, the
+	 *         insertion point being the index of the first greater element, or the size if there is none
+	 */
+	public static int binarySearch(Object source, Object value) {
+		List<Object> elements = toList(source);
+		if (elements instanceof NumericList numericList && numericList.isIntegral() && value instanceof Number number && isLong(
+				number)) {
+			long key = number.longValue();
+			int low = 0;
+			int high = numericList.size() - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				long element = numericList.getLong(middle);
+				if (element < key) {
+					low = middle + 1;
+				}
+				else if (element > key) {
+					high = middle - 1;
+				}
+				else {
+					return middle;
+				}
+			}
+			return -(low + 1);
+		}
+		if (!(elements instanceof RandomAccess)) {
+			elements = new ArrayList<>(elements);
+		}
+		return Collections.binarySearch(elements, value, ObjectUtils::compare);
+	}
+
+	/**
+	 * Returns the lowest element of a collection or an array in the natural ordering; the first one if
+	 * several are equal.
+	 *
+	 * @param source a non-empty collection or array
+	 * @return the lowest element
+	 * @throws NaftahBugError if there is no element
+	 */
+	public static Object min(Object source) {
+		return extreme(source, false);
+	}
+
+	/**
+	 * Returns the greatest element of a collection or an array in the natural ordering; the first one if
+	 * several are equal.
+	 *
+	 * @param source a non-empty collection or array
+	 * @return the greatest element
+	 * @throws NaftahBugError if there is no element
+	 */
+	public static Object max(Object source) {
+		return extreme(source, true);
+	}
+
+	private static Object extreme(Object source, boolean greatest) {
+		List<Object> elements = toList(source);
+		int size = elements.size();
+		if (size == 0) {
+			throw newEmptyError(greatest ? "أكبر عنصر" : "أصغر عنصر");
+		}
+
+		if (elements instanceof NumericList numericList && numericList.isUnboxed()) {
+			IntStream indexes = parallelIfLarge(IntStream.range(0, size), size);
+			int index = numericList.isIntegral() ?
+					indexes.reduce((i, j) -> {
+						long left = numericList.getLong(i);
+						long right = numericList.getLong(j);
+						return (greatest ? right > left : right < left) ? j : i;
+					}).getAsInt() :
+					indexes.reduce((i, j) -> {
+						int comparison = compareDoubles(numericList.getDouble(j), numericList.getDouble(i));
+						return (greatest ? comparison > 0 : comparison < 0) ? j : i;
+					}).getAsInt();
+			return numericList.get(index);
+		}
+
+		return parallelIfLarge(elements.stream(), size).reduce((left, right) -> {
+			int comparison = ObjectUtils.compare(right, left);
+			return (greatest ? comparison > 0 : comparison < 0) ? right : left;
+		}).orElseThrow();
+	}
+
+	/**
+	 * Returns the sum of the numbers of a collection or an array.
+	 *
+	 * <p>Unboxed whole numbers are summed as {@code long}s, overflowing to {@link BigInteger}; other
+	 * numbers are summed with the Naftah addition, so decimals give the same precision-checked sum
+	 * whether they are unboxed or not.</p>
+	 *
+	 * @param source a collection or an array of numbers
+	 * @return the sum, {@code 0} if there is no element
+	 * @throws NaftahBugError if an element is not a number
+	 */
+	public static Number sum(Object source) {
+		List<Object> elements = toList(source);
+		int size = elements.size();
+
+		if (elements instanceof NumericList numericList && numericList.isUnboxed()) {
+			if (numericList.isIntegral()) {
+				long[] values = numericList.longValues();
+				try {
+					return DynamicNumber
+							.of(parallelIfLarge(Arrays.stream(values, 0, size), size).reduce(0L, Math::addExact))
+							.normalize();
+				}
+				catch (ArithmeticException overflow) {
+					return DynamicNumber
+							.of(parallelIfLarge(Arrays.stream(values, 0, size), size)
+									.mapToObj(BigInteger::valueOf)
+									.reduce(BigInteger.ZERO, BigInteger::add))
+							.normalize();
+				}
+			}
+		}
+		else {
+			for (Object element : elements) {
+				if (!(element instanceof Number)) {
+					throw new NaftahBugError("لا يمكن جمع العنصر '%s' لأنه ليس رقماً.".formatted(element));
+				}
+			}
+		}
+		return (Number) parallelIfLarge(elements.stream(), size)
+				.reduce((Object) DynamicNumber.of(0),
+						(left, right) -> NumberUtils.add(left, right),
+						(left, right) -> NumberUtils.add(left, right));
+	}
+
+	/**
+	 * Returns the arithmetic mean of the numbers of a collection or an array.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return the mean, as a decimal; a {@link BigDecimal} rounded to 34 digits if the sum is a
+	 *         {@link BigInteger} or a {@link BigDecimal}
+	 * @throws NaftahBugError if there is no element or an element is not a number
+	 */
+	public static Number mean(Object source) {
+		List<Object> elements = toList(source);
+		if (elements.isEmpty()) {
+			throw newEmptyError("المتوسط");
+		}
+		DynamicNumber sum = DynamicNumber.of(sum(elements));
+		if (sum.isBigInteger() || sum.isBigDecimal()) {
+			return DynamicNumber
+					.of(sum.asBigDecimal().divide(BigDecimal.valueOf(elements.size()), MathContext.DECIMAL128));
+		}
+		return DynamicNumber.of(sum.doubleValue() / elements.size());
+	}
+
+	/**
+	 * Groups the elements of a collection or an array by a key computed from each element. The key is
+	 * computed once per element, in iteration order.
+	 *
+	 * @param source a collection or an array
+	 * @param key    the function computing the key of an element
+	 * @return a map from each key, in order of first appearance, to the list of its elements, in
+	 *         iteration order
+	 */
+	public static Map<Object, List<Object>> groupBy(Object source, Function<Object, Object> key) {
+		Map<Object, List<Object>> groups = new LinkedHashMap<>();
+		for (Object element : toList(source)) {
+			groups.computeIfAbsent(key.apply(element), ignored -> new ArrayList<>()).add(element);
+		}
+		return groups;
+	}
+
+	/**
+	 * Counts the elements of a collection or an array by a key computed from each element. The key is
+	 * computed once per element, in iteration order.
+	 *
+	 * @param source a collection or an array
+	 * @param key    the function computing the key of an element
+	 * @return a map from each key, in order of first appearance, to the number of its elements
+	 */
+	public static Map<Object, Long> countBy(Object source, Function<Object, Object> key) {
+		Map<Object, Long> counts = new LinkedHashMap<>();
+		for (Object element : toList(source)) {
+			counts.merge(key.apply(element), 1L, Long::sum);
+		}
+		return counts;
+	}
+
+	private static List<Object> sortUnboxed(NumericList numericList, boolean descending) {
+		int size = numericList.size();
+		boolean dynamic = size > 0 && numericList.get(0) instanceof DynamicNumber;
+		if (numericList.isIntegral()) {
+			long[] values = Arrays.copyOf(numericList.longValues(), size);
+			Arrays.parallelSort(values);
+			if (descending) {
+				for (int i = 0, j = size - 1; i < j; i++, j--) {
+					long value = values[i];
+					values[i] = values[j];
+					values[j] = value;
+				}
+			}
+			return NumericList.ofLongs(values, dynamic);
+		}
+
+		double[] values = Arrays.copyOf(numericList.doubleValues(), size);
+		Arrays.parallelSort(values);
+		// Arrays.sort puts NaN last, the natural ordering puts it first
+		int nans = 0;
+		while (nans < size && Double.isNaN(values[size - 1 - nans])) {
+			nans++;
+		}
+		double[] sorted = new double[size];
+		Arrays.fill(sorted, 0, nans, Double.NaN);
+		System.arraycopy(values, 0, sorted, nans, size - nans);
+		if (descending) {
+			for (int i = 0; i < size; i++) {
+				values[i] = sorted[size - 1 - i];
+			}
+			sorted = values;
+		}
+		return NumericList.ofDoubles(sorted, dynamic);
+	}
+
+	private static void sortByLongKey(Object[] array, boolean descending) {
+		LongKeyed[] keyed = new LongKeyed[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keyed[i] = new LongKeyed(((Number) unwrap(array[i])).longValue(), array[i]);
+		}
+		Comparator<LongKeyed> comparator = Comparator.comparingLong(LongKeyed::key);
+		Arrays.parallelSort(keyed, descending ? comparator.reversed() : comparator);
+		for (int i = 0; i < array.length; i++) {
+			array[i] = keyed[i].value();
+		}
+	}
+
+	private static void sortByDoubleKey(Object[] array, boolean descending) {
+		DoubleKeyed[] keyed = new DoubleKeyed[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keyed[i] = new DoubleKeyed(((Number) unwrap(array[i])).doubleValue(), array[i]);
+		}
+		Comparator<DoubleKeyed> comparator = (left, right) -> compareDoubles(left.key(), right.key());
+		Arrays.parallelSort(keyed, descending ? comparator.reversed() : comparator);
+		for (int i = 0; i < array.length; i++) {
+			array[i] = keyed[i].value();
+		}
+	}
+
+	private static void sortByKey(Object[] array, Function<Object, Object> key, boolean descending) {
+		Keyed[] keyed = new Keyed[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keyed[i] = new Keyed(key.apply(array[i]), array[i]);
+		}
+		Comparator<Keyed> comparator = (left, right) -> ObjectUtils.compare(left.key(), right.key());
+		Arrays.parallelSort(keyed, descending ? comparator.reversed() : comparator);
+		for (int i = 0; i < array.length; i++) {
+			array[i] = keyed[i].value();
+		}
+	}
+
+	/**
+	 * Compares two decimals like {@link NumberUtils#compare(DynamicNumber, DynamicNumber)}:
+	 * {@code NaN} is lower than any other number.
+	 */
+	private static int compareDoubles(double left, double right) {
+		boolean leftNaN = Double.isNaN(left);
+		boolean rightNaN = Double.isNaN(right);
+		if (leftNaN || rightNaN) {
+			return Boolean.compare(!leftNaN, !rightNaN);
+		}
+		return Double.compare(left, right);
+	}
+
+	private static Object unwrap(Object element) {
+		return element instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : element;
+	}
+
+	private static boolean isLong(Number number) {
+		Number value = (Number) unwrap(number);
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+	}
+
+	private static IntStream parallelIfLarge(IntStream stream, int size) {
+		return size >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+	}
+
+	private static LongStream parallelIfLarge(LongStream stream, int size) {
+		return size >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+	}
+
+	private static <T> Stream<T> parallelIfLarge(Stream<T> stream, int size) {
+		return size >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+	}
+
+	private static NaftahBugError newEmptyError(String aggregate) {
+		return new NaftahBugError("لا يمكن حساب %s لمجموعة فارغة.".formatted(aggregate));
+	}
+
+	/**
+	 * The kinds of elements with a specialized sort.
+	 */
+	private enum ElementKind {
+		/**
+		 * Whole numbers fitting in a {@code long}.
+		 */
+		LONG,
+		/**
+		 * Numbers exactly representable as {@code double}s, some of them decimal.
+		 */
+		DOUBLE,
+		/**
+		 * Texts.
+		 */
+		TEXT,
+		/**
+		 * Dates, times and date-times.
+		 */
+		TEMPORAL,
+		/**
+		 * Any other mix of elements.
+		 */
+		MIXED;
+
+		static ElementKind of(Object[] elements) {
+			if (elements.length == 0) {
+				return MIXED;
+			}
+			boolean longs = true;
+			boolean doubles = true;
+			boolean texts = true;
+			boolean temporals = true;
+			for (Object element : elements) {
+				Object value = unwrap(element);
+				boolean whole = value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+				longs &= whole;
+				doubles &= (whole && !(value instanceof Long)) || value instanceof Double || value instanceof Float;
+				texts &= value instanceof String;
+				temporals &= value instanceof NaftahTemporalPoint;
+			}
+			if (longs) {
+				return LONG;
+			}
+			if (doubles) {
+				return DOUBLE;
+			}
+			if (texts) {
+				return TEXT;
+			}
+			return temporals ? TEMPORAL : MIXED;
+		}
+	}
+
+	private record LongKeyed(long key, Object value) {
+	}
+
+	private record DoubleKeyed(double key, Object value) {
+	}
+
+	private record Keyed(Object key, Object value) {
+	}
+}
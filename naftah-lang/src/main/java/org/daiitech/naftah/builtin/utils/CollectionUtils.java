@@ -15,6 +15,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
@@ -75,7 +76,8 @@ public final class CollectionUtils {
 	}
 
 	/**
-	 * Applies a binary operation element-wise to two collections.
+	 * Applies a binary operation element-wise to two collections. Large {@link NumericList}s are
+	 * computed by the {@linkplain VectorOperations vectorized kernels} when enabled.
 	 *
 	 * @param left      the first collection
 	 * @param right     the second collection
@@ -87,6 +89,12 @@ public final class CollectionUtils {
 		if (left.size() != right.size()) {
 			throw newNaftahSizeBugError(left.toArray(), right.toArray());
 		}
+		if (VectorOperations.isVectorizable(left) && VectorOperations.isVectorizable(right)) {
+			var result = VectorOperations.applyOperation((NumericList) left, (NumericList) right, operation);
+			if (Objects.nonNull(result)) {
+				return result;
+			}
+		}
 		var arr1 = left.toArray(Object[]::new);
 		var arr2 = right.toArray(Object[]::new);
 		return List.of(applyOperation(arr1, arr2, operation));
@@ -114,7 +122,9 @@ public final class CollectionUtils {
 	}
 
 	/**
-	 * Applies a binary operation between each element of a collection and a scalar number.
+	 * Applies a binary operation between each element of a collection and a scalar number. Large
+	 * {@link NumericList}s are computed by the {@linkplain VectorOperations vectorized kernels} when
+	 * enabled.
 	 *
 	 * @param collection    the collection of objects
 	 * @param scalar        the scalar number
@@ -126,6 +136,13 @@ public final class CollectionUtils {
 												Number scalar,
 												boolean isLeftOperand,
 												BinaryOperation operation) {
+		if (VectorOperations.isVectorizable(collection)) {
+			var result = VectorOperations
+					.applyOperation((NumericList) collection, scalar, isLeftOperand, operation);
+			if (Objects.nonNull(result)) {
+				return result;
+			}
+		}
 		return List.of(applyOperation(collection.toArray(Object[]::new), scalar, isLeftOperand, operation));
 	}
 
@@ -230,24 +247,32 @@ public final class CollectionUtils {
 	/**
 	 * Retrieves the element at the specified index from a {@link Collection}.
 	 * <p>
-	 * Since {@code Collection} does not support direct index-based access, this method
-	 * iterates through the elements in the order defined by the collection's iterator.
+	 * {@link List}s and {@link IndexedSet}s are accessed by position directly, in constant time for
+	 * {@link java.util.RandomAccess} lists. Since other collections do not support index-based access,
+	 * this method iterates through their elements in the order defined by the collection's iterator.
 	 * </p>
 	 * <p>
-	 * If the index is out of bounds (i.e., {@code targetIndex >= collection.size()}),
+	 * If the index is out of bounds (i.e., {@code targetIndex < 0} or {@code targetIndex >= collection.size()}),
 	 * a {@code NaftahBugError} is thrown with a detailed Arabic error message.
 	 * </p>
 	 *
 	 * @param collection  the collection to retrieve the element from
 	 * @param targetIndex the zero-based index of the desired element
 	 * @return the element at the specified index
-	 * @throws NaftahBugError if the index is greater than or equal to the collection size
+	 * @throws NaftahBugError if the index is negative or greater than or equal to the collection size
 	 */
 	public static Object getElementAt(Collection<?> collection, int targetIndex) {
-		if (collection.size() <= targetIndex) {
+		if (targetIndex < 0 || collection.size() <= targetIndex) {
 			throw newNaftahIndexOutOfBoundsBugError(targetIndex, collection.size());
 		}
 
+		if (collection instanceof List<?> list) {
+			return list.get(targetIndex);
+		}
+		if (collection instanceof IndexedSet<?> indexedSet) {
+			return indexedSet.get(targetIndex);
+		}
+
 		Iterator<?> iterator = collection.iterator();
 
 		int currentIndex = 0;
@@ -269,8 +294,9 @@ public final class CollectionUtils {
 	 * Removes and returns the element at the specified index from the given collection.
 	 *
 	 * <p>This method provides an index-based removal operation for any {@link java.util.Collection}
-	 * type that supports element removal via an {@link java.util.Iterator}. It iterates over
-	 * the collection until the target index is reached, removes that element, and returns it.
+	 * type that supports element removal via an {@link java.util.Iterator}. {@link List}s and
+	 * {@link IndexedSet}s remove the element by position; other collections are iterated until the
+	 * target index is reached, and that element is removed and returned.
 	 * </p>
 	 *
 	 * <p>If the collection's size is less than or equal to {@code targetIndex}, an
@@ -285,7 +311,7 @@ public final class CollectionUtils {
 	 * if the bounds check passes).</li>
 	 * </ul>
 	 *
-	 * <p>This method does not support random access and runs in O(n) time.</p>
+	 * <p>Except for lists and indexed sets, this method runs in O(n) time.</p>
 	 *
 	 * @param collection  the collection from which to remove the element; must not be {@code null}
 	 * @param targetIndex the zero-based index of the element to remove
@@ -295,10 +321,17 @@ public final class CollectionUtils {
 	 * @see java.util.Collection#size()
 	 */
 	public static Object removeElementAt(Collection<?> collection, int targetIndex) {
-		if (collection.size() <= targetIndex) {
+		if (targetIndex < 0 || collection.size() <= targetIndex) {
 			throw newNaftahIndexOutOfBoundsBugError(targetIndex, collection.size());
 		}
 
+		if (collection instanceof List<?> list) {
+			return list.remove(targetIndex);
+		}
+		if (collection instanceof IndexedSet<?> indexedSet) {
+			return indexedSet.remove(targetIndex);
+		}
+
 		Iterator<?> iterator = collection.iterator();
 		int currentIndex = 0;
 		Object removed = None.get();
@@ -318,9 +351,9 @@ public final class CollectionUtils {
 	/**
 	 * Replaces the element at the specified index in a {@link Collection} with a new value.
 	 * <p>
-	 * This method iterates through the collection using an {@link Iterator},
-	 * and rebuilds the collection with the replacement applied. It preserves
-	 * insertion order for collections like {@link LinkedHashSet} and {@link List}.
+	 * {@link List}s and {@link IndexedSet}s are updated in place by position. Other collections are
+	 * iterated using an {@link Iterator} and rebuilt with the replacement applied, which preserves
+	 * insertion order for collections like {@link LinkedHashSet}.
 	 * </p>
 	 *
 	 * @param collection  the collection to modify
@@ -331,10 +364,19 @@ public final class CollectionUtils {
 	 * @throws UnsupportedOperationException if the collection cannot be cleared or modified
 	 */
 	public static <T> void setElementAt(Collection<T> collection, int targetIndex, T newValue) {
-		if (collection.size() <= targetIndex) {
+		if (targetIndex < 0 || collection.size() <= targetIndex) {
 			throw newNaftahIndexOutOfBoundsBugError(targetIndex, collection.size());
 		}
 
+		if (collection instanceof List<T> list) {
+			list.set(targetIndex, newValue);
+			return;
+		}
+		if (collection instanceof IndexedSet<T> indexedSet) {
+			indexedSet.set(targetIndex, newValue);
+			return;
+		}
+
 		Iterator<T> iterator = collection.iterator();
 		Collection<T> updated = createCompatibleCollection(collection);
 
@@ -362,6 +404,7 @@ public final class CollectionUtils {
 	 * while maintaining the same ordering semantics:
 	 * </p>
 	 * <ul>
+	 * <li>If the original is an {@link IndexedSet}, returns a new {@code IndexedSet}.</li>
 	 * <li>If the original is a {@link LinkedHashSet}, returns a new {@code LinkedHashSet}.</li>
 	 * <li>If the original is a {@link List}, returns a new {@code ArrayList}.</li>
 	 * <li>If the original is a {@link Set}, returns a new {@code HashSet}.</li>
@@ -373,6 +416,9 @@ public final class CollectionUtils {
 	 * @return a new empty collection with behavior compatible to the original
 	 */
 	public static <T> Collection<T> createCompatibleCollection(Collection<T> original) {
+		if (original instanceof IndexedSet<T>) {
+			return new IndexedSet<>();
+		}
 		if (original instanceof LinkedHashSet<T>) {
 			return new LinkedHashSet<>();
 		}
@@ -3,21 +3,30 @@
 
 package org.daiitech.naftah.builtin.utils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.daiitech.naftah.builtin.lang.NaftahObject;
+import org.daiitech.naftah.builtin.utils.tuple.ImmutablePair;
 import org.daiitech.naftah.builtin.utils.tuple.NTuple;
+import org.daiitech.naftah.builtin.utils.tuple.Pair;
 import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.parser.DefaultContext;
+import org.daiitech.naftah.parser.DefaultNaftahParserVisitor;
+import org.daiitech.naftah.parser.NaftahParserHelper;
 import org.daiitech.naftah.utils.function.ThrowingFunction;
 
 import static org.daiitech.naftah.errors.ExceptionUtils.newIllegalArgumentException;
 import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
 import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugNullInputError;
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahInvocableNotFoundError;
 
 /**
  * Utility class providing functional-style operations on various input types,
@@ -183,6 +192,58 @@ public final class FunctionUtils {
 		return input;
 	}
 
+	/**
+	 * Resolves a function by name in the current execution context and returns a Java function
+	 * invoking it with the given arguments.
+	 *
+	 * <p>The function may be a declared Naftah function, a builtin or a JVM function; it is invoked
+	 * the way a call in the script would invoke it. The context is captured when the invoker is
+	 * created, so the invoker may also be called from other threads, such as the workers of a parallel
+	 * pipeline: each call runs in a child context of its own, so that concurrent calls do not share the
+	 * call state of the captured context, and in the registry of the isolated execution creating the
+	 * invoker, if any; each thread evaluates declared functions with its own visitor.</p>
+	 *
+	 * @param functionName the name of the function, as it would be called in the script
+	 * @return a function taking the arguments and returning the result of the call
+	 * @throws NaftahBugError if there is no current context or the function cannot be found in it
+	 */
+	public static Function<Object[], Object> getFunctionInvoker(String functionName) {
+		DefaultContext context = DefaultContext.getCurrentContext();
+		if (Objects.isNull(context) || !context.containsFunction(functionName, -1)) {
+			throw newNaftahInvocableNotFoundError(functionName);
+		}
+
+		ThreadLocal<DefaultNaftahParserVisitor> visitor = ThreadLocal
+				.withInitial(() -> new DefaultNaftahParserVisitor(  DefaultNaftahParserVisitor.PARSER_VOCABULARY,
+																	List.of(),
+																	null));
+		return DefaultContext.withCurrentRegistry((Object[] args) -> {
+			List<Pair<String, Object>> pairs = new ArrayList<>(args.length);
+			for (Object arg : args) {
+				pairs.add(ImmutablePair.of(null, arg));
+			}
+
+			DefaultContext previousContext = DefaultContext.getCurrentContext();
+			DefaultContext callContext = DefaultContext.registerContext(context);
+			try {
+				return NaftahParserHelper
+						.visitFunctionCallInChain(  callContext.getDepth(),
+													visitor.get(),
+													callContext,
+													functionName,
+													false,
+													pairs,
+													null,
+													-1,
+													-1);
+			}
+			finally {
+				DefaultContext.deregisterContext(callContext);
+				DefaultContext.setCurrentContext(previousContext);
+			}
+		});
+	}
+
 	/**
 	 * Executes a function on the underlying Java value of a {@link NaftahObject}
 	 * after validating its runtime type.
@@ -0,0 +1,219 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An insertion-ordered {@link java.util.Set} with positional access, backing the ordered sets of
+ * Naftah ({@code ORDERED HASH_SIGN}).
+ *
+ * <p>Elements are kept in an array in insertion order, together with a hash index from each element
+ * to its position. Membership tests, appends and {@linkplain #get(int) positional reads} run in
+ * constant time; removals and {@linkplain #set(int, Object) replacements} shift the following
+ * elements and run in linear time, like an {@link ArrayList}.</p>
+ *
+ * <p>Iteration order, {@code equals} and {@code hashCode} are the ones of a
+ * {@link java.util.LinkedHashSet} holding the same elements.</p>
+ *
+ * @param <E> the type of elements
+ * @author Chakib Daii
+ */
+public class IndexedSet<E> extends AbstractSet<E> implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The elements, in insertion order.
+	 */
+	private final List<E> elements;
+
+	/**
+	 * Position of each element in {@link #elements}.
+	 */
+	private final Map<Object, Integer> positions;
+
+	/**
+	 * Structural modification count, checked by the iterators.
+	 */
+	private transient int modCount;
+
+	/**
+	 * Creates an empty set.
+	 */
+	public IndexedSet() {
+		elements = new ArrayList<>();
+		positions = new HashMap<>();
+	}
+
+	/**
+	 * Creates a set holding the distinct elements of the given collection, in iteration order.
+	 *
+	 * @param collection the elements
+	 */
+	public IndexedSet(Collection<? extends E> collection) {
+		elements = new ArrayList<>(collection.size());
+		positions = new HashMap<>();
+		addAll(collection);
+	}
+
+	/**
+	 * Returns the element at the given position.
+	 *
+	 * @param index the zero-based position
+	 * @return the element
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public E get(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Returns the position of the given element.
+	 *
+	 * @param element the element
+	 * @return the zero-based position, or {@code -1} if the set does not contain it
+	 */
+	public int indexOf(Object element) {
+		Integer position = positions.get(element);
+		return Objects.isNull(position) ? -1 : position;
+	}
+
+	/**
+	 * Replaces the element at the given position, keeping the set free of duplicates the way rebuilding
+	 * an ordered set would: if the new element is already held at another position, the first of the
+	 * two occurrences is kept at its place and the other is removed.
+	 *
+	 * @param index   the zero-based position
+	 * @param element the new element
+	 * @return the replaced element
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public E set(int index, E element) {
+		E previous = elements.get(index);
+		Integer existing = positions.get(element);
+		if (Objects.isNull(existing)) {
+			positions.remove(previous);
+			elements.set(index, element);
+			positions.put(element, index);
+		}
+		else if (existing < index) {
+			remove(index);
+		}
+		else if (existing > index) {
+			remove((int) existing);
+			positions.remove(previous);
+			elements.set(index, element);
+			positions.put(element, index);
+		}
+		return previous;
+	}
+
+	/**
+	 * Removes the element at the given position.
+	 *
+	 * @param index the zero-based position
+	 * @return the removed element
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public E remove(int index) {
+		E removed = elements.remove(index);
+		positions.remove(removed);
+		for (int i = index; i < elements.size(); i++) {
+			positions.put(elements.get(i), i);
+		}
+		modCount++;
+		return removed;
+	}
+
+	@Override
+	public boolean add(E element) {
+		if (positions.containsKey(element)) {
+			return false;
+		}
+		positions.put(element, elements.size());
+		elements.add(element);
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object element) {
+		Integer position = positions.get(element);
+		if (Objects.isNull(position)) {
+			return false;
+		}
+		remove((int) position);
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object element) {
+		return positions.containsKey(element);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public void clear() {
+		elements.clear();
+		positions.clear();
+		modCount++;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<>() {
+			private int cursor;
+			private int last = -1;
+			private int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < elements.size();
+			}
+
+			@Override
+			public E next() {
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (cursor >= elements.size()) {
+					throw new NoSuchElementException();
+				}
+				last = cursor++;
+				return elements.get(last);
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				IndexedSet.this.remove(last);
+				cursor = last;
+				last = -1;
+				expectedModCount = modCount;
+			}
+		};
+	}
+}
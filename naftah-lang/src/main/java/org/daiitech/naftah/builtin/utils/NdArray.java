@@ -0,0 +1,1043 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.lang.NaftahObject;
+import org.daiitech.naftah.builtin.utils.op.BinaryOperation;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.builtin.utils.VectorOperations.USE_VECTOR_API;
+
+/**
+ * A dense n-dimensional array of numbers, stored in a flat {@code long[]} for whole numbers or a flat
+ * {@code double[]} for decimals, with a shape and strides.
+ *
+ * <p>Arrays are immutable. {@linkplain #slice Slices}, {@linkplain #select selections} and
+ * {@linkplain #transpose() transposes} are views sharing the storage of their array, as are
+ * {@linkplain #reshape reshapes} of contiguous arrays: they only compute a new shape, new strides and a
+ * new offset.</p>
+ *
+ * <p>Element-wise operations ({@link #applyOperation(Object, Object, BinaryOperation)}) combine two
+ * arrays of the same shape, or an array and a number, with the semantics of {@link BinaryOperation}.
+ * Additions, subtractions and multiplications of whole numbers are computed exactly in {@code long}
+ * loops, and the four arithmetic operations on decimals in {@code double} arithmetic; every other
+ * operation, and whole number operations overflowing a {@code long}, are computed element by element by
+ * {@link ObjectUtils#applyOperation(Object, Object, BinaryOperation)}. Their results are packed into a
+ * new array when they are all numbers, and returned as nested lists of the same shape otherwise (for
+ * the comparisons).</p>
+ *
+ * <p>The {@linkplain #multiply matrix product} is computed by a cache-blocked kernel: the rows of the
+ * result are split in blocks computed in parallel on the common fork-join pool, and each block
+ * accumulates tiles of the right operand sized to stay in cache into rows of the result. The innermost
+ * loop, shared with the {@linkplain #sum(int) reductions along an axis}, adds a multiple of a row to
+ * another, vectorized by {@link VectorOperations} when the
+ * {@value org.daiitech.naftah.Naftah#VECTOR_API_PROPERTY} property is set. Products of whole numbers
+ * are exact: they are computed in {@code double} arithmetic when no partial sum can exceed
+ * 2<sup>53</sup>, in exact {@code long} arithmetic otherwise, and in {@link BigInteger} arithmetic when a
+ * partial sum overflows a {@code long}; a product with an element overflowing a {@code long} is returned as
+ * nested lists of the same shape, the way whole number arithmetic on numbers widens to {@link BigInteger}.</p>
+ *
+ * <p>Whole number results of element-wise operations and reductions overflowing a {@code long} are stored
+ * as decimals.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class NdArray {
+
+	/**
+	 * Number of rows of the result computed by a task of the matrix product.
+	 */
+	static final int ROW_BLOCK = 64;
+
+	/**
+	 * Number of rows of the right operand in a tile of the matrix product.
+	 */
+	static final int DEPTH_BLOCK = 128;
+
+	/**
+	 * Number of columns of the right operand in a tile of the matrix product; a tile is
+	 * {@value #DEPTH_BLOCK} &times; {@value #COLUMN_BLOCK} decimals, 256 KiB.
+	 */
+	static final int COLUMN_BLOCK = 256;
+
+	/**
+	 * Minimum number of multiply-adds for a matrix product computed in parallel.
+	 */
+	static final long PARALLEL_THRESHOLD = 1L << 18;
+
+	/**
+	 * The largest magnitude of the partial sums of a product of whole numbers computed in
+	 * {@code double} arithmetic, under which they are all exact.
+	 */
+	private static final double EXACT_LIMIT = 0x1p53;
+
+	/**
+	 * The storage of an array of whole numbers, {@code null} for an array of decimals.
+	 */
+	private final long[] longs;
+
+	/**
+	 * The storage of an array of decimals, {@code null} for an array of whole numbers.
+	 */
+	private final double[] doubles;
+
+	private final int[] shape;
+
+	private final int[] strides;
+
+	private final int offset;
+
+	private final int size;
+
+	private NdArray(long[] longs, double[] doubles, int[] shape, int[] strides, int offset) {
+		this.longs = longs;
+		this.doubles = doubles;
+		this.shape = shape;
+		this.strides = strides;
+		this.offset = offset;
+		this.size = size(shape);
+	}
+
+	/**
+	 * Wraps whole numbers laid out in row-major order.
+	 *
+	 * @param values the numbers, owned by the array from now on
+	 * @param shape  the shape
+	 * @return the array
+	 */
+	static NdArray ofLongs(long[] values, int... shape) {
+		return new NdArray(values, null, shape, rowMajorStrides(shape), 0);
+	}
+
+	/**
+	 * Wraps decimals laid out in row-major order.
+	 *
+	 * @param values the numbers, owned by the array from now on
+	 * @param shape  the shape
+	 * @return the array
+	 */
+	static NdArray ofDoubles(double[] values, int... shape) {
+		return new NdArray(null, values, shape, rowMajorStrides(shape), 0);
+	}
+
+	/**
+	 * Creates an array from nested collections or arrays of numbers. The array holds whole numbers when
+	 * all the numbers are whole numbers fitting a {@code long}, and decimals otherwise.
+	 *
+	 * @param source a number array, or a collection or an array whose elements are all numbers, or all
+	 *               collections or arrays of the same shape
+	 * @return the array
+	 * @throws NaftahBugError if the nesting is not rectangular or an element is not a number
+	 */
+	public static NdArray of(Object source) {
+		source = unwrap(source);
+		if (source instanceof NdArray array) {
+			return array;
+		}
+		if (!isNested(source)) {
+			throw new NaftahBugError("لا يمكن إنشاء مصفوفة رقمية من القيمة '%s'، يجب أن تكون حزمة أو مصفوفة من الأرقام."
+					.formatted(source));
+		}
+
+		List<Integer> dimensions = new ArrayList<>();
+		Object level = source;
+		while (isNested(level)) {
+			List<?> elements = elements(level);
+			dimensions.add(elements.size());
+			if (elements.isEmpty()) {
+				break;
+			}
+			level = unwrap(elements.get(0));
+		}
+		int[] shape = dimensions.stream().mapToInt(Integer::intValue).toArray();
+
+		Number[] numbers = new Number[size(shape)];
+		flatten(source, shape, 0, numbers, new int[]{0});
+		return pack(numbers, shape);
+	}
+
+	/**
+	 * Creates an array of zeros.
+	 *
+	 * @param integral whether the array holds whole numbers rather than decimals
+	 * @param shape    the shape
+	 * @return the array
+	 * @throws NaftahBugError if a dimension is negative
+	 */
+	public static NdArray zeros(boolean integral, int... shape) {
+		checkShape(shape);
+		int size = size(shape);
+		return integral ? ofLongs(new long[size], shape.clone()) : ofDoubles(new double[size], shape.clone());
+	}
+
+	/**
+	 * Creates an identity matrix of whole numbers.
+	 *
+	 * @param n the number of rows and columns
+	 * @return the matrix
+	 * @throws NaftahBugError if {@code n} is negative
+	 */
+	public static NdArray identity(int n) {
+		NdArray identity = zeros(true, n, n);
+		for (int i = 0; i < n; i++) {
+			identity.longs[i * n + i] = 1;
+		}
+		return identity;
+	}
+
+	/**
+	 * Returns the shape of the array, the length of each dimension.
+	 *
+	 * @return a copy of the shape
+	 */
+	public int[] getShape() {
+		return shape.clone();
+	}
+
+	/**
+	 * Returns the number of dimensions.
+	 *
+	 * @return the rank
+	 */
+	public int getRank() {
+		return shape.length;
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns whether the array holds whole numbers rather than decimals.
+	 *
+	 * @return {@code true} for an array of whole numbers
+	 */
+	public boolean isIntegral() {
+		return Objects.nonNull(longs);
+	}
+
+	/**
+	 * Returns an element.
+	 *
+	 * @param indices the index of the element along each dimension
+	 * @return the element
+	 * @throws NaftahBugError if the number of indices is not the rank or an index is out of bounds
+	 */
+	public Number get(int... indices) {
+		if (indices.length != shape.length) {
+			throw new NaftahBugError("عدد الفهارس (%d) يجب أن يساوي عدد أبعاد المصفوفة الرقمية (%d)."
+					.formatted(indices.length, shape.length));
+		}
+		int position = offset;
+		for (int axis = 0; axis < shape.length; axis++) {
+			checkIndex(axis, indices[axis], shape[axis]);
+			position += indices[axis] * strides[axis];
+		}
+		return box(position);
+	}
+
+	/**
+	 * Returns a view of the elements whose index along an axis is in a range.
+	 *
+	 * @param axis the axis
+	 * @param from the first index, inclusive
+	 * @param to   the last index, exclusive
+	 * @param step the distance between two kept indices
+	 * @return the view, sharing the storage of this array
+	 * @throws NaftahBugError if the axis, the range or the step is invalid
+	 */
+	public NdArray slice(int axis, int from, int to, int step) {
+		checkAxis(axis);
+		if (from < 0 || to < from || to > shape[axis] || step < 1) {
+			throw new NaftahBugError("الشريحة [%d ، %d) بخطوة %d غير صالحة للبعد %d الذي طوله %d."
+					.formatted(from, to, step, axis, shape[axis]));
+		}
+		int[] sliceShape = shape.clone();
+		int[] sliceStrides = strides.clone();
+		sliceShape[axis] = (to - from + step - 1) / step;
+		sliceStrides[axis] *= step;
+		return new NdArray(longs, doubles, sliceShape, sliceStrides, offset + from * strides[axis]);
+	}
+
+	/**
+	 * Returns a view of the elements with the given index along an axis, with one dimension less.
+	 *
+	 * @param axis  the axis
+	 * @param index the index along the axis
+	 * @return the view, sharing the storage of this array; the element itself for a one-dimensional array
+	 * @throws NaftahBugError if the axis or the index is out of bounds
+	 */
+	public Object select(int axis, int index) {
+		checkAxis(axis);
+		checkIndex(axis, index, shape[axis]);
+		int position = offset + index * strides[axis];
+		if (shape.length == 1) {
+			return box(position);
+		}
+		return new NdArray(longs, doubles, remove(shape, axis), remove(strides, axis), position);
+	}
+
+	/**
+	 * Returns a view of the array with its axes in reverse order: the rows of a matrix become its
+	 * columns.
+	 *
+	 * @return the view, sharing the storage of this array
+	 */
+	public NdArray transpose() {
+		return new NdArray(longs, doubles, reverse(shape), reverse(strides), offset);
+	}
+
+	/**
+	 * Returns the elements, in row-major order, with another shape.
+	 *
+	 * @param newShape the new shape, with the same number of elements
+	 * @return a view sharing the storage of this array if it is contiguous, a copy otherwise
+	 * @throws NaftahBugError if the number of elements differs
+	 */
+	public NdArray reshape(int... newShape) {
+		checkShape(newShape);
+		if (size(newShape) != size) {
+			throw new NaftahBugError("لا يمكن إعادة تشكيل مصفوفة رقمية من %d عنصراً إلى الشكل %s."
+					.formatted(size, Arrays.toString(newShape)));
+		}
+		if (isContiguous()) {
+			return new NdArray(longs, doubles, newShape.clone(), rowMajorStrides(newShape), offset);
+		}
+		return isIntegral() ? ofLongs(toLongs(), newShape.clone()) : ofDoubles(toDoubles(), newShape.clone());
+	}
+
+	/**
+	 * Computes the matrix product of two arrays. A one-dimensional left operand is taken as a row and a
+	 * one-dimensional right operand as a column, and the corresponding dimension is removed from the
+	 * result.
+	 *
+	 * @param other the right operand, with as many rows as this array has columns
+	 * @return the product, of whole numbers if both operands are of whole numbers; nested lists of the
+	 *         whole numbers if one of them overflows a {@code long}; a number, the dot product, for two
+	 *         one-dimensional operands
+	 * @throws NaftahBugError if an operand has more than two dimensions or the dimensions do not match
+	 */
+	public Object multiply(NdArray other) {
+		if (shape.length > 2 || other.shape.length > 2 || shape.length == 0 || other.shape.length == 0) {
+			throw new NaftahBugError("الضرب المصفوفي يتطلب مصفوفتين رقميتين من بعد واحد أو بعدين.");
+		}
+		int m = shape.length == 1 ? 1 : shape[0];
+		int k = shape[shape.length - 1];
+		int n = other.shape.length == 1 ? 1 : other.shape[1];
+		if (other.shape[0] != k) {
+			throw new NaftahBugError("لا يمكن ضرب مصفوفة رقمية بالشكل %s في مصفوفة رقمية بالشكل %s."
+					.formatted(Arrays.toString(shape), Arrays.toString(other.shape)));
+		}
+		if ((long) m * n > Integer.MAX_VALUE) {
+			throw newTooLargeError();
+		}
+		int[] resultShape = shape.length == 1 ?
+				other.shape.length == 1 ? new int[0] : new int[]{n} :
+				other.shape.length == 1 ? new int[]{m} : new int[]{m, n};
+
+		if (isIntegral() && other.isIntegral()) {
+			long[] a = toLongs();
+			long[] b = other.toLongs();
+			if (maxMagnitude(a) * maxMagnitude(b) * k < EXACT_LIMIT) {
+				double[] product = multiply(toDoubles(a), toDoubles(b), m, k, n);
+				long[] result = new long[product.length];
+				for (int i = 0; i < result.length; i++) {
+					result[i] = (long) product[i];
+				}
+				return wrap(ofLongs(result, resultShape));
+			}
+			try {
+				return wrap(ofLongs(multiplyExact(a, b, m, k, n), resultShape));
+			}
+			catch (ArithmeticException overflow) {
+				Number[] product = multiplyBig(a, b, m, k, n);
+				for (Number number : product) {
+					if (!isWhole(number)) {
+						return resultShape.length == 0 ? product[0] : nest(product, resultShape, 0, new int[]{0});
+					}
+				}
+				return wrap(pack(product, resultShape));
+			}
+		}
+		return wrap(ofDoubles(multiply(toDoubles(), other.toDoubles(), m, k, n), resultShape));
+	}
+
+	/**
+	 * Sums the elements along an axis.
+	 *
+	 * @param axis the axis
+	 * @return the sums, with one dimension less; a number for a one-dimensional array
+	 * @throws NaftahBugError if the axis is out of bounds
+	 */
+	public Object sum(int axis) {
+		return reduce(axis, Reduction.SUM);
+	}
+
+	/**
+	 * Averages the elements along an axis.
+	 *
+	 * @param axis the axis
+	 * @return the decimal means, with one dimension less; a number for a one-dimensional array
+	 * @throws NaftahBugError if the axis is out of bounds or empty
+	 */
+	public Object mean(int axis) {
+		return reduce(axis, Reduction.MEAN);
+	}
+
+	/**
+	 * Returns the lowest elements along an axis.
+	 *
+	 * @param axis the axis
+	 * @return the minimums, with one dimension less; a number for a one-dimensional array
+	 * @throws NaftahBugError if the axis is out of bounds or empty
+	 */
+	public Object min(int axis) {
+		return reduce(axis, Reduction.MIN);
+	}
+
+	/**
+	 * Returns the greatest elements along an axis.
+	 *
+	 * @param axis the axis
+	 * @return the maximums, with one dimension less; a number for a one-dimensional array
+	 * @throws NaftahBugError if the axis is out of bounds or empty
+	 */
+	public Object max(int axis) {
+		return reduce(axis, Reduction.MAX);
+	}
+
+	/**
+	 * Returns the elements as nested lists.
+	 *
+	 * @return a list of the elements for a one-dimensional array, a list of the nested lists of its
+	 *         rows otherwise
+	 */
+	public List<Object> toList() {
+		Object[] elements = new Object[size];
+		int[] index = {0};
+		forEachPosition(position -> elements[index[0]++] = box(position));
+		return nest(elements, shape, 0, new int[]{0});
+	}
+
+	/**
+	 * Applies a binary operation element-wise to two arrays of the same shape, or to an array and a
+	 * number.
+	 *
+	 * @param left      the left operand: an array, a number, or nested collections or arrays of numbers
+	 * @param right     the right operand: an array, a number, or nested collections or arrays of numbers
+	 * @param operation the operation
+	 * @return a new array if all the results are numbers, nested lists of the results otherwise
+	 * @throws NaftahBugError if the shapes differ or an operand is not supported
+	 */
+	public static Object applyOperation(Object left, Object right, BinaryOperation operation) {
+		Object leftOperand = operand(left);
+		Object rightOperand = operand(right);
+		if (Objects.isNull(leftOperand) || Objects.isNull(rightOperand)) {
+			throw BinaryOperation.newNaftahBugError(operation, left, right);
+		}
+		NdArray leftArray = leftOperand instanceof NdArray array ? array : null;
+		NdArray rightArray = rightOperand instanceof NdArray array ? array : null;
+		if (Objects.nonNull(leftArray) && Objects.nonNull(rightArray) && !Arrays
+				.equals(leftArray.shape, rightArray.shape)) {
+			throw new NaftahBugError("لا يمكن تطبيق العملية على مصفوفتين رقميتين بشكلين مختلفين: %s و%s."
+					.formatted(Arrays.toString(leftArray.shape), Arrays.toString(rightArray.shape)));
+		}
+		int[] shape = Objects.nonNull(leftArray) ? leftArray.shape : rightArray.shape;
+		int size = size(shape);
+
+		Operand a = Operand.of(leftOperand);
+		Operand b = Operand.of(rightOperand);
+		if (a.isIntegral() && b.isIntegral()) {
+			long[] result = applyIntegral(a, b, size, operation);
+			if (Objects.nonNull(result)) {
+				return ofLongs(result, shape.clone());
+			}
+		}
+		else if (Objects.nonNull(a.doubles) || Objects.nonNull(b.doubles) || a.isDecimalScalar() || b
+				.isDecimalScalar()) {
+			double[] result = applyDecimal(a, b, size, operation);
+			if (Objects.nonNull(result)) {
+				return ofDoubles(result, shape.clone());
+			}
+		}
+
+		Object[] results = new Object[size];
+		boolean numbers = true;
+		for (int i = 0; i < size; i++) {
+			results[i] = ObjectUtils.applyOperation(a.boxAt(i), b.boxAt(i), operation);
+			numbers &= results[i] instanceof Number;
+		}
+		if (numbers) {
+			return pack(Arrays.copyOf(results, size, Number[].class), shape.clone());
+		}
+		return nest(results, shape, 0, new int[]{0});
+	}
+
+	/**
+	 * The exact whole number loops, {@code null} if the operation has none or overflows.
+	 */
+	private static long[] applyIntegral(Operand a, Operand b, int size, BinaryOperation operation) {
+		long[] result = new long[size];
+		try {
+			switch (operation) {
+				case ADD -> {
+					for (int i = 0; i < size; i++) {
+						result[i] = Math.addExact(a.longAt(i), b.longAt(i));
+					}
+				}
+				case SUBTRACT -> {
+					for (int i = 0; i < size; i++) {
+						result[i] = Math.subtractExact(a.longAt(i), b.longAt(i));
+					}
+				}
+				case MULTIPLY -> {
+					for (int i = 0; i < size; i++) {
+						result[i] = Math.multiplyExact(a.longAt(i), b.longAt(i));
+					}
+				}
+				default -> {
+					return null;
+				}
+			}
+		}
+		catch (ArithmeticException overflow) {
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * The decimal loops, for the operations the scalar path computes in plain {@code double} arithmetic,
+	 * {@code null} if the operation has none. Decimal sums are precision-checked by the scalar path, so
+	 * {@code ADD} has no loop.
+	 */
+	private static double[] applyDecimal(Operand a, Operand b, int size, BinaryOperation operation) {
+		double[] result = new double[size];
+		switch (operation) {
+			case SUBTRACT -> {
+				for (int i = 0; i < size; i++) {
+					result[i] = a.doubleAt(i) - b.doubleAt(i);
+				}
+			}
+			case MULTIPLY -> {
+				for (int i = 0; i < size; i++) {
+					result[i] = a.doubleAt(i) * b.doubleAt(i);
+				}
+			}
+			case DIVIDE -> {
+				for (int i = 0; i < size; i++) {
+					result[i] = a.doubleAt(i) / b.doubleAt(i);
+				}
+			}
+			default -> {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The blocked matrix product kernel of a {@code m × k} matrix by a {@code k × n} matrix, both in
+	 * row-major order. Each element of the result is accumulated in the order of {@code k}, whatever the
+	 * blocking and the parallelism, so the result is deterministic.
+	 */
+	static double[] multiply(double[] a, double[] b, int m, int k, int n) {
+		double[] c = new double[m * n];
+		int rowBlocks = (m + ROW_BLOCK - 1) / ROW_BLOCK;
+		IntStream blocks = IntStream.range(0, rowBlocks);
+		if ((long) m * n * k >= PARALLEL_THRESHOLD) {
+			blocks = blocks.parallel();
+		}
+		blocks.forEach(block -> {
+			int rowFrom = block * ROW_BLOCK;
+			int rowTo = Math.min(m, rowFrom + ROW_BLOCK);
+			for (int depthFrom = 0; depthFrom < k; depthFrom += DEPTH_BLOCK) {
+				int depthTo = Math.min(k, depthFrom + DEPTH_BLOCK);
+				for (int columnFrom = 0; columnFrom < n; columnFrom += COLUMN_BLOCK) {
+					int columns = Math.min(n, columnFrom + COLUMN_BLOCK) - columnFrom;
+					for (int i = rowFrom; i < rowTo; i++) {
+						for (int p = depthFrom; p < depthTo; p++) {
+							axpy(a[i * k + p], b, p * n + columnFrom, c, i * n + columnFrom, columns);
+						}
+					}
+				}
+			}
+		});
+		return c;
+	}
+
+	/**
+	 * The exact whole number matrix product, for operands too large for the decimal kernel.
+	 *
+	 * @throws ArithmeticException if a partial sum overflows a {@code long}
+	 */
+	private static long[] multiplyExact(long[] a, long[] b, int m, int k, int n) {
+		long[] c = new long[m * n];
+		for (int i = 0; i < m; i++) {
+			for (int p = 0; p < k; p++) {
+				long factor = a[i * k + p];
+				for (int j = 0; j < n; j++) {
+					c[i * n + j] = Math.addExact(c[i * n + j], Math.multiplyExact(factor, b[p * n + j]));
+				}
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * The whole number matrix product in {@link BigInteger} arithmetic, for operands whose product
+	 * overflows a {@code long}.
+	 */
+	private static Number[] multiplyBig(long[] a, long[] b, int m, int k, int n) {
+		Number[] c = new Number[m * n];
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) {
+				BigInteger sum = BigInteger.ZERO;
+				for (int p = 0; p < k; p++) {
+					sum = sum.add(BigInteger.valueOf(a[i * k + p]).multiply(BigInteger.valueOf(b[p * n + j])));
+				}
+				c[i * n + j] = DynamicNumber.of(sum).normalize();
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Adds {@code factor} times {@code length} elements of {@code x} to as many elements of {@code y}.
+	 */
+	private static void axpy(double factor, double[] x, int xFrom, double[] y, int yFrom, int length) {
+		if (USE_VECTOR_API) {
+			VectorOperations.axpy(factor, x, xFrom, y, yFrom, length);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			y[yFrom + i] += factor * x[xFrom + i];
+		}
+	}
+
+	private Object reduce(int axis, Reduction reduction) {
+		checkAxis(axis);
+		int length = shape[axis];
+		if (length == 0 && reduction != Reduction.SUM) {
+			throw new NaftahBugError("لا يمكن حساب %s على البعد %d لأنه فارغ.".formatted(reduction.arabicName, axis));
+		}
+		// the elements are laid out as [outer][length][inner] in row-major order
+		int outer = size(Arrays.copyOfRange(shape, 0, axis));
+		int inner = size(Arrays.copyOfRange(shape, axis + 1, shape.length));
+		int[] resultShape = remove(shape, axis);
+
+		if (isIntegral() && reduction != Reduction.MEAN) {
+			long[] values = toLongs();
+			long[] result = new long[outer * inner];
+			try {
+				for (int o = 0; o < outer && length > 0; o++) {
+					int base = o * inner;
+					System.arraycopy(values, o * length * inner, result, base, inner);
+					for (int a = 1; a < length; a++) {
+						int from = (o * length + a) * inner;
+						for (int j = 0; j < inner; j++) {
+							result[base + j] = switch (reduction) {
+								case SUM -> Math.addExact(result[base + j], values[from + j]);
+								case MIN -> Math.min(result[base + j], values[from + j]);
+								default -> Math.max(result[base + j], values[from + j]);
+							};
+						}
+					}
+				}
+				return wrap(ofLongs(result, resultShape));
+			}
+			catch (ArithmeticException overflow) {
+				// summed as decimals below
+			}
+		}
+
+		double[] values = toDoubles();
+		double[] result = new double[outer * inner];
+		for (int o = 0; o < outer && length > 0; o++) {
+			int base = o * inner;
+			System.arraycopy(values, o * length * inner, result, base, inner);
+			for (int a = 1; a < length; a++) {
+				int from = (o * length + a) * inner;
+				if (reduction == Reduction.SUM || reduction == Reduction.MEAN) {
+					axpy(1, values, from, result, base, inner);
+				}
+				else {
+					for (int j = 0; j < inner; j++) {
+						result[base + j] = reduction == Reduction.MIN ?
+								Math.min(result[base + j], values[from + j]) :
+								Math.max(result[base + j], values[from + j]);
+					}
+				}
+			}
+		}
+		if (reduction == Reduction.MEAN) {
+			for (int i = 0; i < result.length; i++) {
+				result[i] /= length;
+			}
+		}
+		return wrap(ofDoubles(result, resultShape));
+	}
+
+	/**
+	 * Returns the single element of a zero-dimensional array, the array itself otherwise.
+	 */
+	private static Object wrap(NdArray array) {
+		return array.shape.length == 0 ? array.box(0) : array;
+	}
+
+	/**
+	 * Copies the elements in row-major order.
+	 */
+	long[] toLongs() {
+		if (isContiguous()) {
+			return Arrays.copyOfRange(longs, offset, offset + size);
+		}
+		long[] values = new long[size];
+		int[] index = {0};
+		forEachPosition(position -> values[index[0]++] = longs[position]);
+		return values;
+	}
+
+	/**
+	 * Copies the elements in row-major order, as decimals.
+	 */
+	double[] toDoubles() {
+		if (isIntegral()) {
+			return toDoubles(toLongs());
+		}
+		if (isContiguous()) {
+			return Arrays.copyOfRange(doubles, offset, offset + size);
+		}
+		double[] values = new double[size];
+		int[] index = {0};
+		forEachPosition(position -> values[index[0]++] = doubles[position]);
+		return values;
+	}
+
+	private static double[] toDoubles(long[] values) {
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = values[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Tells whether the elements are laid out in row-major order without gaps from the offset.
+	 */
+	private boolean isContiguous() {
+		int expected = 1;
+		for (int axis = shape.length - 1; axis >= 0; axis--) {
+			if (shape[axis] != 1 && strides[axis] != expected) {
+				return false;
+			}
+			expected *= shape[axis];
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the storage position of each element, in row-major order.
+	 */
+	private void forEachPosition(IntConsumer action) {
+		if (size == 0) {
+			return;
+		}
+		int[] index = new int[shape.length];
+		int position = offset;
+		for (int visited = 0; visited < size; visited++) {
+			action.accept(position);
+			for (int axis = shape.length - 1; axis >= 0; axis--) {
+				if (++index[axis] < shape[axis]) {
+					position += strides[axis];
+					break;
+				}
+				position -= (shape[axis] - 1) * strides[axis];
+				index[axis] = 0;
+			}
+		}
+	}
+
+	private Number box(int position) {
+		return isIntegral() ? DynamicNumber.of(longs[position]).normalize() : DynamicNumber.of(doubles[position]);
+	}
+
+	/**
+	 * Packs numbers laid out in row-major order into an array of whole numbers if they all fit a
+	 * {@code long}, of decimals otherwise.
+	 */
+	private static NdArray pack(Number[] numbers, int[] shape) {
+		boolean integral = true;
+		for (Number number : numbers) {
+			if (!isWhole(number)) {
+				integral = false;
+				break;
+			}
+		}
+		if (integral) {
+			long[] values = new long[numbers.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = numbers[i].longValue();
+			}
+			return ofLongs(values, shape);
+		}
+		double[] values = new double[numbers.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = numbers[i].doubleValue();
+		}
+		return ofDoubles(values, shape);
+	}
+
+	private static boolean isWhole(Number number) {
+		Object value = number instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : number;
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof BigInteger bigInteger && bigInteger
+				.bitLength() < Long.SIZE;
+	}
+
+	private static void flatten(Object source, int[] shape, int depth, Number[] numbers, int[] next) {
+		source = unwrap(source);
+		if (depth == shape.length) {
+			if (!(source instanceof Number number)) {
+				throw new NaftahBugError("العنصر '%s' ليس رقماً أو أن أبعاد المصفوفة الرقمية غير منتظمة."
+						.formatted(source));
+			}
+			numbers[next[0]++] = number;
+			return;
+		}
+		List<?> elements = isNested(source) ? elements(source) : null;
+		if (Objects.isNull(elements) || elements.size() != shape[depth]) {
+			throw new NaftahBugError("أبعاد المصفوفة الرقمية غير منتظمة: يُتوقع %d عنصراً في البعد %d."
+					.formatted(shape[depth], depth));
+		}
+		for (Object element : elements) {
+			flatten(element, shape, depth + 1, numbers, next);
+		}
+	}
+
+	private static List<Object> nest(Object[] elements, int[] shape, int depth, int[] next) {
+		List<Object> list = new ArrayList<>(shape.length == 0 ? 1 : shape[depth]);
+		if (shape.length == 0) {
+			list.add(elements[0]);
+			return list;
+		}
+		for (int i = 0; i < shape[depth]; i++) {
+			list.add(depth == shape.length - 1 ? elements[next[0]++] : nest(elements, shape, depth + 1, next));
+		}
+		return list;
+	}
+
+	private static Object unwrap(Object value) {
+		return value instanceof NaftahObject naftahObject ? naftahObject.get(true) : value;
+	}
+
+	private static boolean isNested(Object value) {
+		return value instanceof Collection<?> || Objects.nonNull(value) && value.getClass().isArray();
+	}
+
+	private static List<?> elements(Object value) {
+		return value instanceof Collection<?> collection ?
+				new ArrayList<>(collection) :
+				Arrays.asList(CollectionUtils.toObjectArray(value));
+	}
+
+	/**
+	 * Returns an array, a number, or {@code null} for an unsupported operand.
+	 */
+	private static Object operand(Object value) {
+		value = unwrap(value);
+		if (value instanceof NdArray || value instanceof Number) {
+			return value;
+		}
+		return isNested(value) ? of(value) : null;
+	}
+
+	private static double maxMagnitude(long[] values) {
+		double max = 0;
+		for (long value : values) {
+			max = Math.max(max, Math.abs((double) value));
+		}
+		return max;
+	}
+
+	private static int[] rowMajorStrides(int[] shape) {
+		int[] strides = new int[shape.length];
+		int stride = 1;
+		for (int axis = shape.length - 1; axis >= 0; axis--) {
+			strides[axis] = stride;
+			stride *= shape[axis];
+		}
+		return strides;
+	}
+
+	private static int size(int[] shape) {
+		long size = 1;
+		for (int dimension : shape) {
+			size *= dimension;
+			if (size > Integer.MAX_VALUE) {
+				throw newTooLargeError();
+			}
+		}
+		return (int) size;
+	}
+
+	private static int[] remove(int[] values, int index) {
+		int[] result = new int[values.length - 1];
+		System.arraycopy(values, 0, result, 0, index);
+		System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+		return result;
+	}
+
+	private static int[] reverse(int[] values) {
+		int[] result = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = values[values.length - 1 - i];
+		}
+		return result;
+	}
+
+	private static void checkShape(int[] shape) {
+		for (int dimension : shape) {
+			if (dimension < 0) {
+				throw new NaftahBugError("أبعاد المصفوفة الرقمية لا يمكن أن تكون سالبة: %s."
+						.formatted(Arrays.toString(shape)));
+			}
+		}
+	}
+
+	private void checkAxis(int axis) {
+		if (axis < 0 || axis >= shape.length) {
+			throw new NaftahBugError("البعد %d غير موجود في مصفوفة رقمية من %d أبعاد.".formatted(axis, shape.length));
+		}
+	}
+
+	private static void checkIndex(int axis, int index, int length) {
+		if (index < 0 || index >= length) {
+			throw new NaftahBugError("الفهرس %d خارج حدود البعد %d الذي طوله %d.".formatted(index, axis, length));
+		}
+	}
+
+	private static NaftahBugError newTooLargeError() {
+		return new NaftahBugError("عدد عناصر المصفوفة الرقمية يتجاوز الحد الأقصى.");
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof NdArray array) || !Arrays.equals(shape, array.shape)) {
+			return false;
+		}
+		if (isIntegral() && array.isIntegral()) {
+			return Arrays.equals(toLongs(), array.toLongs());
+		}
+		return Arrays.equals(toDoubles(), array.toDoubles());
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(shape) + Arrays.hashCode(toDoubles());
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+	/**
+	 * The reductions along an axis.
+	 */
+	private enum Reduction {
+		SUM("المجموع"),
+		MEAN("المتوسط"),
+		MIN("الأصغر"),
+		MAX("الأكبر");
+
+		private final String arabicName;
+
+		Reduction(String arabicName) {
+			this.arabicName = arabicName;
+		}
+	}
+
+	/**
+	 * An operand of the element-wise loops: the elements of an array in row-major order, or a number
+	 * broadcast to every position.
+	 */
+	private static final class Operand {
+		private final long[] longs;
+		private final double[] doubles;
+		private final Number scalar;
+
+		private Operand(long[] longs, double[] doubles, Number scalar) {
+			this.longs = longs;
+			this.doubles = doubles;
+			this.scalar = scalar;
+		}
+
+		private static Operand of(Object operand) {
+			if (operand instanceof NdArray array) {
+				return array.isIntegral() ?
+						new Operand(array.toLongs(), null, null) :
+						new Operand(null, array.toDoubles(), null);
+			}
+			return new Operand(null, null, (Number) operand);
+		}
+
+		private boolean isIntegral() {
+			if (Objects.nonNull(longs)) {
+				return true;
+			}
+			if (Objects.nonNull(doubles)) {
+				return false;
+			}
+			Object value = scalar instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : scalar;
+			return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+		}
+
+		/**
+		 * Tells whether the operand is a decimal number the decimal loops can read as a {@code double}.
+		 */
+		private boolean isDecimalScalar() {
+			if (Objects.isNull(scalar)) {
+				return false;
+			}
+			Object value = scalar instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : scalar;
+			return value instanceof Double || value instanceof Float;
+		}
+
+		private long longAt(int index) {
+			return Objects.nonNull(longs) ? longs[index] : scalar.longValue();
+		}
+
+		private double doubleAt(int index) {
+			if (Objects.nonNull(doubles)) {
+				return doubles[index];
+			}
+			return Objects.nonNull(longs) ? longs[index] : scalar.doubleValue();
+		}
+
+		private Number boxAt(int index) {
+			if (Objects.nonNull(longs)) {
+				return DynamicNumber.of(longs[index]).normalize();
+			}
+			return Objects.nonNull(doubles) ? DynamicNumber.of(doubles[index]) : scalar;
+		}
+	}
+}
@@ -9,6 +9,7 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.stream.LongStream;
 
 import org.daiitech.naftah.builtin.lang.DynamicNumber;
 import org.daiitech.naftah.builtin.utils.tuple.ImmutablePair;
@@ -38,6 +39,34 @@ public final class NumberUtils {
 
 	private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
 
+	/**
+	 * Marks a value without a short decimal form, see {@link #shortDecimal(double, boolean)}.
+	 */
+	private static final long NO_SHORT_DECIMAL = Long.MIN_VALUE;
+
+	/**
+	 * Bits of a packed short decimal holding its scale, the digits are held by the remaining bits.
+	 */
+	private static final int SHORT_DECIMAL_SCALE_BITS = 5;
+
+	/**
+	 * Exclusive bound of the digits of a short decimal read from a {@code double}; every decimal of at most 15
+	 * significant digits reads back as a distinct {@code double}.
+	 */
+	private static final long DOUBLE_DIGITS_LIMIT = 1_000_000_000_000_000L;
+
+	/**
+	 * Exclusive bound of the digits of a short decimal read from a {@code float}; every decimal of at most 6
+	 * significant digits reads back as a distinct {@code float}.
+	 */
+	private static final long FLOAT_DIGITS_LIMIT = 1_000_000L;
+
+	/**
+	 * Powers of ten up to {@code 10^15}, exact as {@code long}, {@code double} and, up to {@code 10^10},
+	 * {@code float}.
+	 */
+	private static final long[] POWERS_OF_TEN = LongStream.iterate(1, power -> power * 10).limit(16).toArray();
+
 	/**
 	 * Private constructor to prevent instantiation.
 	 * Always throws a {@link NaftahBugError} when called.
@@ -244,6 +273,26 @@ public final class NumberUtils {
 		return dx;
 	}
 
+	/**
+	 * Returns the smallest whole number type a {@code long} value fits in, the type
+	 * {@link DynamicNumber#normalize()} gives it.
+	 *
+	 * @param value the value
+	 * @return {@code Byte}, {@code Short}, {@code Integer} or {@code Long}
+	 */
+	public static Class<? extends Number> wholeNumberClass(long value) {
+		if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			return Byte.class;
+		}
+		if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			return Short.class;
+		}
+		if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return Integer.class;
+		}
+		return Long.class;
+	}
+
 	/**
 	 * Convert the given number into an instance of the given target class.
 	 *
@@ -375,78 +424,87 @@ public final class NumberUtils {
 
 	/**
 	 * Adds two {@link DynamicNumber} instances with type promotion.
+	 * <p>
+	 * A {@code float} or {@code double} sum that does not read as the exact sum of the decimal forms of its
+	 * operands is returned as a {@link BigDecimal}; the check is made on short decimals held in {@code long}s
+	 * and only falls back to {@link #checkPrecision(BigDecimal, double)} for operands too long for them.
+	 * </p>
 	 *
 	 * @param dx left operand
 	 * @param dy right operand
 	 * @return the result of addition
 	 */
 	public static Number add(DynamicNumber dx, DynamicNumber dy) {
-		DynamicNumber dr = dx.clone();
+		Number dr;
 		if (dx.isDecimal() || dy.isDecimal()) {
 			if (dx.isBigDecimal() || dy.isBigDecimal()) {
-				dr.set(dx.asBigDecimal().add(dy.asBigDecimal()));
+				dr = dx.asBigDecimal().add(dy.asBigDecimal());
 			}
 			else if (dx.isDouble() || dy.isDouble()) {
 				double res = dx.doubleValue() + dy.doubleValue();
 				if (Double.isInfinite(res) || Double.isNaN(res)) {
 					// Promote to BigDecimal
-					dr.set(dx.promote().asBigDecimal().add(dy.promote().asBigDecimal()));
+					dr = dx.clone().promote().asBigDecimal().add(dy.clone().promote().asBigDecimal());
 				}
 				else {
-					BigDecimal expected = dx.asBigDecimal().add(dy.asBigDecimal());
-					dr.set(checkPrecision(expected, res));
+					dr = decimalSum(dx, dy, res);
+					if (dr == null) {
+						dr = checkPrecision(dx.asBigDecimal().add(dy.asBigDecimal()), res);
+					}
 				}
 			}
 			else {
 				float res = dx.floatValue() + dy.floatValue();
 				if (Float.isInfinite(res) || Float.isNaN(res)) {
-					dr.set(dx.promote().doubleValue() + dy.promote().doubleValue());
+					dr = dx.doubleValue() + dy.doubleValue();
 				}
 				else {
-					BigDecimal expected = dx.asBigDecimal().add(dy.asBigDecimal());
-					dr.set(checkPrecision(expected, res));
+					dr = decimalSum(dx, dy, res);
+					if (dr == null) {
+						dr = checkPrecision(dx.asBigDecimal().add(dy.asBigDecimal()), res);
+					}
 				}
 			}
 		}
 		else if (dx.isInteger() || dy.isInteger()) {
 			if (dx.isBigInteger() || dy.isBigInteger()) {
-				dr.set(dx.asBigInteger().add(dy.asBigInteger()));
+				dr = dx.asBigInteger().add(dy.asBigInteger());
 			}
 			else if (dx.isLong() || dy.isLong()) {
 				long a = dx.longValue();
 				long b = dy.longValue();
 				try {
-					dr.set(Math.addExact(a, b));
+					dr = Math.addExact(a, b);
 				}
 				catch (ArithmeticException e) {
-					dr.set(BigInteger.valueOf(a).add(BigInteger.valueOf(b)));
+					dr = BigInteger.valueOf(a).add(BigInteger.valueOf(b));
 				}
 			}
 			else if (dx.isInt() || dy.isInt()) {
 				int a = dx.intValue();
 				int b = dy.intValue();
 				try {
-					dr.set(Math.addExact(a, b));
+					dr = Math.addExact(a, b);
 				}
 				catch (ArithmeticException e) {
-					dr.set((long) a + b);
+					dr = (long) a + b;
 				}
 			}
 			else if (dx.isShort() || dy.isShort()) {
 				short a = dx.shortValue();
 				short b = dy.shortValue();
-				dr.set(a + b); // promotes to int
+				dr = a + b; // promotes to int
 			}
 			else {
 				byte a = dx.byteValue();
 				byte b = dy.byteValue();
-				dr.set(a + b); // promotes to int
+				dr = a + b; // promotes to int
 			}
 		}
 		else {
 			throw newNaftahBugUnsupportedNumbersError(false, dx, dy);
 		}
-		return dr.normalize();
+		return DynamicNumber.of(dr).normalize();
 	}
 
 	/**
@@ -484,69 +542,69 @@ public final class NumberUtils {
 	 * @return the result of subtraction
 	 */
 	public static Number subtract(DynamicNumber dx, DynamicNumber dy) {
-		DynamicNumber dr = dx.clone();
+		Number dr;
 		if (dx.isDecimal() || dy.isDecimal()) {
 			if (dx.isBigDecimal() || dy.isBigDecimal()) {
-				dr.set(dx.asBigDecimal().subtract(dy.asBigDecimal()));
+				dr = dx.asBigDecimal().subtract(dy.asBigDecimal());
 			}
 			else if (dx.isDouble() || dy.isDouble()) {
 				double res = dx.doubleValue() - dy.doubleValue();
 				if (Double.isInfinite(res) || Double.isNaN(res)) {
-					dr.set(dx.promote().asBigDecimal().subtract(dy.promote().asBigDecimal()));
+					dr = dx.clone().promote().asBigDecimal().subtract(dy.clone().promote().asBigDecimal());
 				}
 				else {
-					dr.set(res);
+					dr = res;
 				}
 			}
 			else {
 				float res = dx.floatValue() - dy.floatValue();
 				if (Float.isInfinite(res) || Float.isNaN(res)) {
-					dr.set(dx.promote().doubleValue() - dy.promote().doubleValue());
+					dr = dx.doubleValue() - dy.doubleValue();
 				}
 				else {
-					dr.set(res);
+					dr = res;
 				}
 			}
 		}
 		else if (dx.isInteger() || dy.isInteger()) {
 			if (dx.isBigInteger() || dy.isBigInteger()) {
-				dr.set(dx.asBigInteger().subtract(dy.asBigInteger()));
+				dr = dx.asBigInteger().subtract(dy.asBigInteger());
 			}
 			else if (dx.isLong() || dy.isLong()) {
 				long a = dx.longValue();
 				long b = dy.longValue();
 				try {
-					dr.set(Math.subtractExact(a, b));
+					dr = Math.subtractExact(a, b);
 				}
 				catch (ArithmeticException e) {
-					dr.set(BigInteger.valueOf(a).subtract(BigInteger.valueOf(b)));
+					dr = BigInteger.valueOf(a).subtract(BigInteger.valueOf(b));
 				}
 			}
 			else if (dx.isInt() || dy.isInt()) {
 				int a = dx.intValue();
 				int b = dy.intValue();
 				try {
-					dr.set(Math.subtractExact(a, b));
+					dr = Math.subtractExact(a, b);
 				}
 				catch (ArithmeticException e) {
-					dr.set((long) a - b);
+					dr = (long) a - b;
 				}
 			}
 			else if (dx.isShort() || dy.isShort()) {
 				short a = dx.shortValue();
 				short b = dy.shortValue();
-				dr.set(a - b);
+				dr = a - b;
 			}
 			else {
 				byte a = dx.byteValue();
 				byte b = dy.byteValue();
-				dr.set(a - b);
+				dr = a - b;
 			}
 		}
 		else {
 			throw newNaftahBugUnsupportedNumbersError(false, dx, dy);
 		}
-		return dr.normalize();
+		return DynamicNumber.of(dr).normalize();
 	}
 
 	/**
@@ -584,36 +642,36 @@ public final class NumberUtils {
 	 * @return the result of multiplication
 	 */
 	public static Number multiply(DynamicNumber dx, DynamicNumber dy) {
-		DynamicNumber dr = dx.clone();
+		Number dr;
 		if (dx.isDecimal() || dy.isDecimal()) {
 			if (dx.isBigDecimal() || dy.isBigDecimal()) {
-				dr.set(dx.asBigDecimal().multiply(dy.asBigDecimal()));
+				dr = dx.asBigDecimal().multiply(dy.asBigDecimal());
 			}
 			else if (dx.isDouble() || dy.isDouble()) {
 				double res = dx.doubleValue() * dy.doubleValue();
 
 				// Check for overflow or infinity
 				if (Double.isInfinite(res) || Double.isNaN(res)) {
-					dr.set(dx.promote().asBigDecimal().multiply(dy.promote().asBigDecimal()));
+					dr = dx.clone().promote().asBigDecimal().multiply(dy.clone().promote().asBigDecimal());
 				}
 				else {
-					dr.set(res);
+					dr = res;
 				}
 			}
 			else {
 				float res = dx.floatValue() * dy.floatValue();
 				if (Float.isInfinite(res) || Float.isNaN(res)) {
-					dr.set(dx.promote().doubleValue() * dy.promote().doubleValue());
+					dr = dx.doubleValue() * dy.doubleValue();
 				}
 				else {
-					dr.set(res);
+					dr = res;
 				}
 			}
 		}
 		else if (dx.isInteger() || dy.isInteger()) {
 			// If either is BigInteger, use BigInteger multiplication
 			if (dx.isBigInteger() || dy.isBigInteger()) {
-				dr.set(dx.asBigInteger().multiply(dy.asBigInteger()));
+				dr = dx.asBigInteger().multiply(dy.asBigInteger());
 			}
 
 			else if (dx.isLong() || dy.isLong()) {
@@ -623,11 +681,11 @@ public final class NumberUtils {
 
 				// Check for overflow using Math.multiplyExact
 				try {
-					dr.set(Math.multiplyExact(a, b));
+					dr = Math.multiplyExact(a, b);
 				}
 				catch (ArithmeticException e) {
 					// Promote to BigInteger
-					dr.set(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)));
+					dr = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
 				}
 			}
 
@@ -636,10 +694,10 @@ public final class NumberUtils {
 				int a = dx.intValue();
 				int b = dy.intValue();
 				try {
-					dr.set(Math.multiplyExact(a, b));
+					dr = Math.multiplyExact(a, b);
 				}
 				catch (ArithmeticException e) {
-					dr.set((long) a * b);
+					dr = (long) a * b;
 				}
 			}
 
@@ -647,18 +705,18 @@ public final class NumberUtils {
 				// Handle short and byte with safe promotion
 				short a = dx.shortValue();
 				short b = dy.shortValue();
-				dr.set(a * b);
+				dr = a * b;
 			}
 			else {
 				byte a = dx.byteValue();
 				byte b = dy.byteValue();
-				dr.set(a * b);
+				dr = a * b;
 			}
 		}
 		else {
 			throw newNaftahBugUnsupportedNumbersError(false, dx, dy);
 		}
-		return dr.normalize();
+		return DynamicNumber.of(dr).normalize();
 	}
 
 	/**
@@ -2762,6 +2820,134 @@ public final class NumberUtils {
 		}
 	}
 
+	/**
+	 * Checks whether a {@code float} or {@code double} sum reads as the exact sum of the decimal forms of its
+	 * operands, like {@link #checkPrecision(BigDecimal, double)}, without building any {@link BigDecimal} unless
+	 * it does not.
+	 * <p>
+	 * The operands and the sum are read as short decimals held in {@code long}s, see
+	 * {@link #shortDecimal(double, boolean)}. When an operand or the sum is too long for that, the check is left to
+	 * {@link #checkPrecision(BigDecimal, double)}.
+	 * </p>
+	 *
+	 * @param dx  left operand, a {@code float}, a {@code double} or a whole number
+	 * @param dy  right operand, a {@code float}, a {@code double} or a whole number
+	 * @param sum the {@code float} or {@code double} sum of both operands
+	 * @return {@code sum} if it is exact, the exact sum as a {@link BigDecimal} if it is not, or {@code null} if
+	 *         the operands are too long to tell
+	 */
+	private static Number decimalSum(DynamicNumber dx, DynamicNumber dy, Number sum) {
+		long left = shortDecimal(dx);
+		long right = shortDecimal(dy);
+		if (left == NO_SHORT_DECIMAL || right == NO_SHORT_DECIMAL) {
+			return null;
+		}
+		// the scale of the decimal forms, where a whole float or double reads as "x.0"
+		int leftScale = dx.isDecimal() ? Math.max(1, scaleOf(left)) : 0;
+		int rightScale = dy.isDecimal() ? Math.max(1, scaleOf(right)) : 0;
+		int scale = Math.max(leftScale, rightScale);
+		boolean single = sum instanceof Float;
+		try {
+			long expected = Math.addExact(unscaled(left, scale), unscaled(right, scale));
+			long actual = shortDecimal(sum.doubleValue(), single);
+			if (actual == NO_SHORT_DECIMAL) {
+				// a short expected sum would have been found if the sum read as it
+				return Math.abs(expected) < (single ? FLOAT_DIGITS_LIMIT : DOUBLE_DIGITS_LIMIT) ?
+						BigDecimal.valueOf(expected, scale) :
+						null;
+			}
+			// the short decimal of the sum has the smallest scale of all the decimals that read as it
+			return scaleOf(actual) <= scale && unscaled(actual, scale) == expected ?
+					sum :
+					BigDecimal.valueOf(expected, scale);
+		}
+		catch (ArithmeticException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the short decimal form of an operand of {@link #decimalSum(DynamicNumber, DynamicNumber, Number)}.
+	 * <p>
+	 * A {@code float} or {@code double} only has one when {@link Float#toString(float)} and
+	 * {@link Double#toString(double)} print it without an exponent, so that the scale of its decimal form is known.
+	 * </p>
+	 *
+	 * @param number the operand
+	 * @return the packed short decimal, or {@link #NO_SHORT_DECIMAL}
+	 */
+	private static long shortDecimal(DynamicNumber number) {
+		if (number.isFloat() || number.isDouble()) {
+			double value = Math.abs(number.doubleValue());
+			return value == 0 || value >= 1e-3 && value < 1e7 ?
+					shortDecimal(number.doubleValue(), number.isFloat()) :
+					NO_SHORT_DECIMAL;
+		}
+		if (number.isBigInteger()) {
+			return NO_SHORT_DECIMAL;
+		}
+		long value = number.longValue();
+		return value > -DOUBLE_DIGITS_LIMIT && value < DOUBLE_DIGITS_LIMIT ?
+				value << SHORT_DECIMAL_SCALE_BITS :
+				NO_SHORT_DECIMAL;
+	}
+
+	/**
+	 * Returns the decimal with the smallest scale that reads back as the given {@code float} or {@code double},
+	 * packed in a {@code long} as its digits followed by {@link #SHORT_DECIMAL_SCALE_BITS} bits of scale.
+	 * <p>
+	 * Only decimals of at most 15 significant digits for a {@code double}, or 6 for a {@code float}, are looked
+	 * for: there is at most one of them per scale, which is then the decimal form printed by
+	 * {@link Double#toString(double)} or {@link Float#toString(float)}. Both the digits and the power of ten are
+	 * exact in floating point, so the division checking that the decimal reads back is correctly rounded.
+	 * </p>
+	 *
+	 * @param value  the value, widened to a {@code double} if it is a {@code float}
+	 * @param single whether the value is a {@code float}
+	 * @return the packed short decimal, or {@link #NO_SHORT_DECIMAL} if there is none
+	 */
+	private static long shortDecimal(double value, boolean single) {
+		long limit = single ? FLOAT_DIGITS_LIMIT : DOUBLE_DIGITS_LIMIT;
+		int maxScale = single ? 10 : POWERS_OF_TEN.length - 1;
+		for (int scale = 0; scale <= maxScale; scale++) {
+			double scaled = value * POWERS_OF_TEN[scale];
+			if (!(Math.abs(scaled) < limit)) {
+				break;
+			}
+			long digits = Math.round(scaled);
+			boolean readsBack = single ?
+					(float) digits / (float) POWERS_OF_TEN[scale] == (float) value :
+					digits / (double) POWERS_OF_TEN[scale] == value;
+			if (readsBack) {
+				return digits << SHORT_DECIMAL_SCALE_BITS | scale;
+			}
+		}
+		return NO_SHORT_DECIMAL;
+	}
+
+	/**
+	 * Returns the scale of a packed short decimal.
+	 *
+	 * @param shortDecimal the packed short decimal
+	 * @return its scale
+	 */
+	private static int scaleOf(long shortDecimal) {
+		return (int) (shortDecimal & ((1 << SHORT_DECIMAL_SCALE_BITS) - 1));
+	}
+
+	/**
+	 * Returns the digits of a packed short decimal brought to a larger scale.
+	 *
+	 * @param shortDecimal the packed short decimal
+	 * @param scale        the scale, not smaller than the scale of the short decimal
+	 * @return the unscaled value at the given scale
+	 * @throws ArithmeticException if it overflows a {@code long}
+	 */
+	private static long unscaled(long shortDecimal, int scale) {
+		return Math.multiplyExact(shortDecimal >> SHORT_DECIMAL_SCALE_BITS,
+									POWERS_OF_TEN[scale - scaleOf(shortDecimal)]);
+	}
+
 	/**
 	 * Checks for overflow when left-shifting a BigInteger value by a given number of bits.
 	 * <p>
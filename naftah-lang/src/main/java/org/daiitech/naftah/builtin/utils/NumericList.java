@@ -0,0 +1,653 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+
+/**
+ * A list of numbers stored unboxed in an {@code int[]}, a {@code long[]} or a {@code double[]}.
+ *
+ * <p>Numeric list literals hold one boxed {@link DynamicNumber} per element, which takes several
+ * times the memory of the numbers themselves and scatters them over the heap. A {@code NumericList}
+ * keeps the same elements in a primitive array and boxes an element only when it is read, so that
+ * it escapes to generic code as the number it was inserted as:</p>
+ * <ul>
+ * <li>whole numbers ({@link Byte}, {@link Short}, {@link Integer}) are stored in an {@code int[]},
+ * widened to a {@code long[]} when a {@link Long} is inserted; they are read as the widest of the
+ * inserted types, which keeps every element assignable to the types the inserted ones were;</li>
+ * <li>decimal numbers ({@link Float}, {@link Double}) are stored in a {@code double[]}; a {@link Float}
+ * inserted among {@link Double}s is widened from its decimal representation, so that it reads as
+ * the number that was written rather than its binary approximation;</li>
+ * <li>the elements are read as {@link DynamicNumber}s if they were inserted as such, as plain
+ * numbers otherwise.</li>
+ * </ul>
+ *
+ * <p>When the element type is declared (for example {@code قائمة<عدد_صحيح>}), the elements are
+ * read as the declared type. Inserting a value that does not fit the storage (a non-number, a
+ * {@link java.math.BigInteger} or {@link java.math.BigDecimal}, a whole number among decimals or the
+ * other way round, a value wider than the declared type, or a plain number among dynamic ones)
+ * converts the list, once and for all, to boxed elements; the list is unchanged for its users.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class NumericList extends AbstractList<Object> implements RandomAccess {
+
+	/**
+	 * The default capacity of an empty list.
+	 */
+	private static final int DEFAULT_CAPACITY = 10;
+
+	/**
+	 * The declared element type, or {@code null} if the element type is inferred from the elements.
+	 */
+	private final Class<? extends Number> declaredType;
+
+	/**
+	 * The current storage of the elements.
+	 */
+	private Storage storage;
+
+	/**
+	 * The type the elements are read as.
+	 */
+	private Class<? extends Number> elementType;
+
+	/**
+	 * Whether the elements are read as {@link DynamicNumber}s.
+	 */
+	private boolean dynamic;
+
+	private int[] ints;
+	private long[] longs;
+	private double[] doubles;
+	private List<Object> boxed;
+
+	/**
+	 * The number of elements when the storage is primitive.
+	 */
+	private int size;
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param declaredType the declared element type, or {@code null}
+	 * @param capacity     the initial capacity
+	 */
+	private NumericList(Class<? extends Number> declaredType, int capacity) {
+		this.declaredType = declaredType;
+		this.elementType = declaredType;
+		this.storage = Objects.nonNull(declaredType) && isDecimal(declaredType) ?
+				Storage.DOUBLE :
+				declaredType == Long.class ? Storage.LONG : Storage.INT;
+		allocate(storage, Math.max(capacity, DEFAULT_CAPACITY));
+	}
+
+	/**
+	 * Wraps whole numbers computed by a numeric kernel, stored in an {@code int[]} when they all fit.
+	 * <p>
+	 * Dynamic numbers are read the way the scalar path normalizes each of them, as the narrowest type
+	 * holding it: when the elements do not all have the same narrowest type, they are boxed.
+	 * </p>
+	 *
+	 * @param values  the numbers, owned by the list from now on
+	 * @param dynamic whether the elements are read as {@link DynamicNumber}s
+	 * @return the list
+	 */
+	static NumericList ofLongs(long[] values, boolean dynamic) {
+		long min = 0;
+		long max = 0;
+		boolean sameNarrowestType = true;
+		for (long value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			sameNarrowestType &= narrowestType(value) == narrowestType(values[0]);
+		}
+		NumericList list;
+		if (dynamic && !sameNarrowestType) {
+			List<Object> elements = new ArrayList<>(Math.max(values.length, DEFAULT_CAPACITY));
+			for (long value : values) {
+				elements.add(DynamicNumber.of(value).normalize());
+			}
+			list = new NumericList(null, 0);
+			list.allocate(Storage.BOXED, 0);
+			list.boxed = elements;
+			return list;
+		}
+		if (min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE) {
+			list = new NumericList(null, 0);
+			list.allocate(Storage.INT, values.length);
+			for (int i = 0; i < values.length; i++) {
+				list.ints[i] = (int) values[i];
+			}
+			list.elementType = min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE ?
+					Byte.class :
+					min >= Short.MIN_VALUE && max <= Short.MAX_VALUE ? Short.class : Integer.class;
+		}
+		else {
+			list = new NumericList(null, 0);
+			list.allocate(Storage.LONG, 0);
+			list.longs = values;
+			list.elementType = Long.class;
+		}
+		list.dynamic = dynamic;
+		list.size = values.length;
+		return list;
+	}
+
+	/**
+	 * Returns the narrowest whole number type holding a value.
+	 */
+	private static Class<? extends Number> narrowestType(long value) {
+		if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			return Byte.class;
+		}
+		if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			return Short.class;
+		}
+		return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? Integer.class : Long.class;
+	}
+
+	/**
+	 * Wraps decimal numbers computed by a numeric kernel.
+	 *
+	 * @param values  the numbers, owned by the list from now on
+	 * @param dynamic whether the elements are read as {@link DynamicNumber}s
+	 * @return the list
+	 */
+	static NumericList ofDoubles(double[] values, boolean dynamic) {
+		NumericList list = new NumericList(null, 0);
+		list.allocate(Storage.DOUBLE, 0);
+		list.doubles = values;
+		list.elementType = Double.class;
+		list.dynamic = dynamic;
+		list.size = values.length;
+		return list;
+	}
+
+	/**
+	 * Creates a mutable list of the given elements, unboxed if they are all numbers that fit a
+	 * primitive storage.
+	 *
+	 * @param elements the elements
+	 * @return a {@code NumericList} of the elements, or an {@link ArrayList} if they are not numeric
+	 */
+	public static List<Object> of(Collection<?> elements) {
+		return of(elements, null);
+	}
+
+	/**
+	 * Creates a mutable list of the given elements, unboxed if they are all numbers that fit a
+	 * primitive storage for the declared element type.
+	 *
+	 * @param elements     the elements
+	 * @param declaredType the declared element type, or {@code null} if not declared
+	 * @return a {@code NumericList} of the elements, or an {@link ArrayList} if they are not numeric
+	 */
+	public static List<Object> of(Collection<?> elements, Class<?> declaredType) {
+		Class<? extends Number> numericType = null;
+		if (Objects.nonNull(declaredType) && declaredType != Object.class && declaredType != Number.class) {
+			numericType = toStorableType(declaredType);
+			if (Objects.isNull(numericType)) {
+				return new ArrayList<>(elements);
+			}
+		}
+		if (elements.isEmpty() && Objects.isNull(numericType)) {
+			return new ArrayList<>();
+		}
+		NumericList list = new NumericList(numericType, elements.size());
+		for (Object element : elements) {
+			if (!list.store(list.size, element)) {
+				return new ArrayList<>(elements);
+			}
+			list.size++;
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the storable type of a class, normalizing primitives to their wrappers.
+	 *
+	 * @param type the class
+	 * @return the storable numeric type, or {@code null} if it cannot be stored unboxed
+	 */
+	private static Class<? extends Number> toStorableType(Class<?> type) {
+		if (type == byte.class || type == Byte.class) {
+			return Byte.class;
+		}
+		if (type == short.class || type == Short.class) {
+			return Short.class;
+		}
+		if (type == int.class || type == Integer.class) {
+			return Integer.class;
+		}
+		if (type == long.class || type == Long.class) {
+			return Long.class;
+		}
+		if (type == float.class || type == Float.class) {
+			return Float.class;
+		}
+		if (type == double.class || type == Double.class) {
+			return Double.class;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the widening rank of a storable type, {@code 0} for any other class.
+	 */
+	private static int rank(Class<?> type) {
+		if (type == Byte.class) {
+			return 1;
+		}
+		if (type == Short.class) {
+			return 2;
+		}
+		if (type == Integer.class) {
+			return 3;
+		}
+		if (type == Long.class) {
+			return 4;
+		}
+		if (type == Float.class) {
+			return 5;
+		}
+		if (type == Double.class) {
+			return 6;
+		}
+		return 0;
+	}
+
+	private static boolean isDecimal(Class<?> type) {
+		return rank(type) > 4;
+	}
+
+	/**
+	 * Widens a float to the double of its decimal representation.
+	 */
+	private static double widen(float value) {
+		return Float.isFinite(value) ? Double.parseDouble(Float.toString(value)) : value;
+	}
+
+	/**
+	 * Stores a value at an index of the primitive storage, widening the storage or the element type
+	 * if needed; the index must be within the capacity.
+	 *
+	 * @param index the index
+	 * @param value the value
+	 * @return {@code false} if the value does not fit the storage, which is left unchanged
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean store(int index, Object value) {
+		Number number;
+		boolean dynamicValue = value instanceof DynamicNumber;
+		if (value instanceof DynamicNumber dynamicNumber) {
+			number = dynamicNumber.get();
+		}
+		else if (value instanceof Number plainNumber) {
+			number = plainNumber;
+		}
+		else {
+			return false;
+		}
+
+		Class<? extends Number> valueType = (Class<? extends Number>) number.getClass();
+		int valueRank = rank(valueType);
+		if (valueRank == 0) {
+			return false;
+		}
+
+		if (size() == 0) {
+			// no element constrains the storage yet
+			dynamic = dynamicValue;
+			if (Objects.isNull(declaredType)) {
+				elementType = valueType;
+				Storage initial = isDecimal(valueType) ?
+						Storage.DOUBLE :
+						valueType == Long.class ? Storage.LONG : Storage.INT;
+				if (initial != storage) {
+					allocate(initial, capacity());
+				}
+			}
+		}
+		else if (dynamic != dynamicValue) {
+			return false;
+		}
+
+		if (Objects.nonNull(declaredType) && (valueRank > rank(declaredType) || isDecimal(valueType) != isDecimal(
+				declaredType))) {
+			return false;
+		}
+		Class<? extends Number> targetType = rank(elementType) >= valueRank ? elementType : valueType;
+
+		if (isDecimal(valueType)) {
+			if (storage != Storage.DOUBLE) {
+				return false;
+			}
+			if (elementType == Float.class && targetType == Double.class) {
+				for (int i = 0; i < size; i++) {
+					doubles[i] = widen((float) doubles[i]);
+				}
+			}
+			elementType = targetType;
+			doubles[index] = targetType == Double.class && number instanceof Float f ? widen(f) : number.doubleValue();
+		}
+		else {
+			if (storage == Storage.DOUBLE) {
+				return false;
+			}
+			if (targetType == Long.class && storage == Storage.INT) {
+				long[] widened = new long[ints.length];
+				for (int i = 0; i < size; i++) {
+					widened[i] = ints[i];
+				}
+				ints = null;
+				longs = widened;
+				storage = Storage.LONG;
+			}
+			elementType = targetType;
+			if (storage == Storage.INT) {
+				ints[index] = number.intValue();
+			}
+			else {
+				longs[index] = number.longValue();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Allocates an empty primitive storage.
+	 */
+	private void allocate(Storage storage, int capacity) {
+		this.storage = storage;
+		ints = storage == Storage.INT ? new int[capacity] : null;
+		longs = storage == Storage.LONG ? new long[capacity] : null;
+		doubles = storage == Storage.DOUBLE ? new double[capacity] : null;
+	}
+
+	private int capacity() {
+		return switch (storage) {
+			case INT -> ints.length;
+			case LONG -> longs.length;
+			case DOUBLE -> doubles.length;
+			case BOXED -> Integer.MAX_VALUE;
+		};
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		int capacity = capacity();
+		if (minCapacity > capacity) {
+			int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1));
+			switch (storage) {
+				case INT -> ints = Arrays.copyOf(ints, newCapacity);
+				case LONG -> longs = Arrays.copyOf(longs, newCapacity);
+				case DOUBLE -> doubles = Arrays.copyOf(doubles, newCapacity);
+				default -> {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves the elements in {@code [from, to)} of the primitive storage to {@code [from + shift, to + shift)}.
+	 */
+	private void shift(int from, int to, int shift) {
+		switch (storage) {
+			case INT -> System.arraycopy(ints, from, ints, from + shift, to - from);
+			case LONG -> System.arraycopy(longs, from, longs, from + shift, to - from);
+			case DOUBLE -> System.arraycopy(doubles, from, doubles, from + shift, to - from);
+			default -> {
+			}
+		}
+	}
+
+	/**
+	 * Converts the list to boxed elements.
+	 */
+	private void inflate() {
+		List<Object> elements = new ArrayList<>(Math.max(size, DEFAULT_CAPACITY));
+		for (int i = 0; i < size; i++) {
+			elements.add(box(i));
+		}
+		allocate(Storage.BOXED, 0);
+		boxed = elements;
+		size = 0;
+	}
+
+	/**
+	 * Boxes the element at an index of the primitive storage.
+	 */
+	private Object box(int index) {
+		// no conditional expressions here: they would unbox and promote the narrower types
+		Number number;
+		if (storage == Storage.INT) {
+			if (elementType == Byte.class) {
+				number = (byte) ints[index];
+			}
+			else if (elementType == Short.class) {
+				number = (short) ints[index];
+			}
+			else {
+				number = ints[index];
+			}
+		}
+		else if (storage == Storage.LONG) {
+			number = longs[index];
+		}
+		else if (storage == Storage.DOUBLE) {
+			if (elementType == Float.class) {
+				number = (float) doubles[index];
+			}
+			else {
+				number = doubles[index];
+			}
+		}
+		else {
+			throw new IllegalStateException();
+		}
+		return dynamic ? new DynamicNumber(number) : number;
+	}
+
+	/**
+	 * Tells whether the elements are currently stored unboxed.
+	 *
+	 * @return {@code true} if the storage is a primitive array
+	 */
+	public boolean isUnboxed() {
+		return storage != Storage.BOXED;
+	}
+
+	/**
+	 * Tells whether the elements are whole numbers stored unboxed, readable with {@link #getLong(int)}.
+	 *
+	 * @return {@code true} if the storage is an {@code int[]} or a {@code long[]}
+	 */
+	public boolean isIntegral() {
+		return storage == Storage.INT || storage == Storage.LONG;
+	}
+
+	/**
+	 * Reads an unboxed whole number element.
+	 *
+	 * @param index the index
+	 * @return the element
+	 * @throws IllegalStateException if the elements are not {@linkplain #isIntegral() unboxed whole numbers}
+	 */
+	public long getLong(int index) {
+		Objects.checkIndex(index, size);
+		return switch (storage) {
+			case INT -> ints[index];
+			case LONG -> longs[index];
+			default -> throw new IllegalStateException();
+		};
+	}
+
+	/**
+	 * Reads an unboxed element as a double.
+	 *
+	 * @param index the index
+	 * @return the element
+	 * @throws IllegalStateException if the elements are not {@linkplain #isUnboxed() unboxed}
+	 */
+	public double getDouble(int index) {
+		Objects.checkIndex(index, size);
+		return switch (storage) {
+			case INT -> ints[index];
+			case LONG -> longs[index];
+			case DOUBLE -> doubles[index];
+			case BOXED -> throw new IllegalStateException();
+		};
+	}
+
+	/**
+	 * Returns the unboxed whole number elements as a {@code long[]} of at least {@link #size()} elements;
+	 * the storage itself when it is a {@code long[]}, which must then not be modified.
+	 *
+	 * @return the elements
+	 * @throws IllegalStateException if the elements are not {@linkplain #isIntegral() unboxed whole numbers}
+	 */
+	long[] longValues() {
+		return switch (storage) {
+			case INT -> {
+				long[] values = new long[size];
+				for (int i = 0; i < size; i++) {
+					values[i] = ints[i];
+				}
+				yield values;
+			}
+			case LONG -> longs;
+			default -> throw new IllegalStateException();
+		};
+	}
+
+	/**
+	 * Returns the unboxed elements as a {@code double[]} of at least {@link #size()} elements; the
+	 * storage itself when it is a {@code double[]}, which must then not be modified.
+	 *
+	 * @return the elements
+	 * @throws IllegalStateException if the elements are not {@linkplain #isUnboxed() unboxed}
+	 */
+	double[] doubleValues() {
+		if (storage == Storage.DOUBLE) {
+			return doubles;
+		}
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = getDouble(i);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the type the elements are read as.
+	 *
+	 * @return the element type, or {@code null} if the list is boxed or was always empty
+	 */
+	public Class<? extends Number> getElementType() {
+		return isUnboxed() ? elementType : null;
+	}
+
+	@Override
+	public Object get(int index) {
+		if (storage == Storage.BOXED) {
+			return boxed.get(index);
+		}
+		Objects.checkIndex(index, size);
+		return box(index);
+	}
+
+	@Override
+	public Object set(int index, Object element) {
+		if (storage != Storage.BOXED) {
+			Objects.checkIndex(index, size);
+			Object previous = box(index);
+			if (store(index, element)) {
+				return previous;
+			}
+			inflate();
+		}
+		return boxed.set(index, element);
+	}
+
+	@Override
+	public void add(int index, Object element) {
+		if (storage != Storage.BOXED) {
+			Objects.checkIndex(index, size + 1);
+			ensureCapacity(size + 1);
+			// stores at the end first, so that a rejected element leaves the storage unchanged
+			if (store(size, element)) {
+				if (index < size) {
+					long storedBits = switch (storage) {
+						case INT -> ints[size];
+						case LONG -> longs[size];
+						case DOUBLE -> Double.doubleToRawLongBits(doubles[size]);
+						case BOXED -> throw new IllegalStateException();
+					};
+					shift(index, size, 1);
+					switch (storage) {
+						case INT -> ints[index] = (int) storedBits;
+						case LONG -> longs[index] = storedBits;
+						case DOUBLE -> doubles[index] = Double.longBitsToDouble(storedBits);
+						default -> {
+						}
+					}
+				}
+				size++;
+				modCount++;
+				return;
+			}
+			inflate();
+		}
+		boxed.add(index, element);
+		modCount++;
+	}
+
+	@Override
+	public Object remove(int index) {
+		if (storage == Storage.BOXED) {
+			modCount++;
+			return boxed.remove(index);
+		}
+		Objects.checkIndex(index, size);
+		Object previous = box(index);
+		shift(index + 1, size, -1);
+		size--;
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		if (storage == Storage.BOXED) {
+			boxed.clear();
+		}
+		else {
+			size = 0;
+		}
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return storage == Storage.BOXED ? boxed.size() : size;
+	}
+
+	/**
+	 * The storages of the elements.
+	 */
+	private enum Storage {
+		INT,
+		LONG,
+		DOUBLE,
+		BOXED
+	}
+}
@@ -55,6 +55,7 @@ import org.daiitech.naftah.utils.reflect.ClassUtils;
 import org.daiitech.naftah.utils.reflect.type.JavaType;
 import org.daiitech.naftah.utils.reflect.type.TypeReference;
 import org.daiitech.naftah.utils.script.ScriptUtils;
+import org.daiitech.naftah.utils.time.TemporalUtils;
 
 import static org.daiitech.naftah.Naftah.NUMBER_FORMATTER_PROPERTY;
 import static org.daiitech.naftah.builtin.utils.FunctionUtils.allMatch;
@@ -156,13 +157,21 @@ public final class ObjectUtils {
 	}
 
 	/**
-	 * Compares two {@link Comparable} objects in a null-safe manner.
+	 * Compares two values of any types in a null-safe manner, defining the natural ordering of Naftah
+	 * values.
 	 *
 	 * <p>Rules for comparison:</p>
 	 * <ul>
 	 * <li>If both {@code left} and {@code right} are the same object (including both {@code null}), returns 0.</li>
-	 * <li>A {@code null} value is considered less than any non-null value (nulls-first).</li>
-	 * <li>If both values are non-null, their natural ordering (via {@link Comparable#compareTo}) is used.</li>
+	 * <li>A {@code null} or {@link None} value is considered less than any other value (nulls-first).</li>
+	 * <li>Numbers of any types are compared by value, with {@link NumberUtils#compare(Number, Number)}.</li>
+	 * <li>Character sequences are compared lexicographically.</li>
+	 * <li>Temporal points (dates, times and date-times) are compared by instant, and durations by length.</li>
+	 * <li>Other values of the same class use their natural ordering (via {@link Comparable#compareTo}),
+	 * if any.</li>
+	 * <li>Values of different kinds are ordered by kind: booleans, numbers, texts, temporal points,
+	 * temporal amounts, then any other value; two values of the same kind which cannot be compared are
+	 * ordered by class name, or considered equal if they have the same class.</li>
 	 * </ul>
 	 *
 	 * <p>Examples:</p>
@@ -171,6 +180,8 @@ public final class ObjectUtils {
 	 * compare(null, "abc") = -1
 	 * compare("abc", null) = 1
 	 * compare("abc", "def") = "abc".compareTo("def")
+	 * compare(2, 10L) = -1
+	 * compare(10, "abc") = -1
 	 * </pre>
 	 *
 	 * @param left  the first object to compare, may be {@code null}
@@ -182,14 +193,63 @@ public final class ObjectUtils {
 		if (left == right) {
 			return 0;
 		}
-		if (left == null) {
-			return -1;   // nulls-first
+		if (left == null || None.isNone(left)) {
+			return right == null || None.isNone(right) ? 0 : -1;   // nulls-first
 		}
-		if (right == null) {
+		if (right == null || None.isNone(right)) {
 			return 1;
 		}
-		//noinspection unchecked
-		return ((Comparable<Object>) left).compareTo(right);
+
+		if (left instanceof Number leftNumber && right instanceof Number rightNumber) {
+			return NumberUtils.compare(leftNumber, rightNumber);
+		}
+		if (left instanceof CharSequence && right instanceof CharSequence) {
+			return StringUtils.compare(left.toString(), right.toString());
+		}
+		if (left instanceof NaftahTemporalPoint leftPoint && right instanceof NaftahTemporalPoint rightPoint) {
+			return TemporalUtils
+					.toInstant(leftPoint.temporal())
+					.compareTo(TemporalUtils.toInstant(rightPoint.temporal()));
+		}
+		if (left instanceof NaftahDuration leftDuration && right instanceof NaftahDuration rightDuration) {
+			return leftDuration.temporalAmount().compareTo(rightDuration.temporalAmount());
+		}
+		if (left instanceof Comparable<?> && left.getClass() == right.getClass()) {
+			//noinspection unchecked
+			return ((Comparable<Object>) left).compareTo(right);
+		}
+
+		int kind = Integer.compare(comparisonKind(left), comparisonKind(right));
+		if (kind != 0) {
+			return kind;
+		}
+		return left.getClass().getName().compareTo(right.getClass().getName());
+	}
+
+	/**
+	 * Returns the rank of the kind of a non-null value in the natural ordering of
+	 * {@link #compare(Object, Object)}.
+	 *
+	 * @param value the value
+	 * @return the rank of its kind
+	 */
+	private static int comparisonKind(Object value) {
+		if (value instanceof Boolean) {
+			return 0;
+		}
+		if (value instanceof Number) {
+			return 1;
+		}
+		if (value instanceof CharSequence || value instanceof Character) {
+			return 2;
+		}
+		if (value instanceof NaftahTemporalPoint) {
+			return 3;
+		}
+		if (value instanceof NaftahTemporalAmount) {
+			return 4;
+		}
+		return 5;
 	}
 
 	/**
@@ -1017,6 +1077,11 @@ public final class ObjectUtils {
 			right = naftahObject.get();
 		}
 
+		// NdArray vs NdArray, Number or nested collections (element-wise)
+		if (left instanceof NdArray || right instanceof NdArray) {
+			return NdArray.applyOperation(left, right, operation);
+		}
+
 		// Number vs Number or Boolean vs Boolean or Character vs Character or String vs String or String vs Character
 		if ((NaN.isNaN(left) || NaN.isNaN(right)) || (None.isNone(left) || None
 				.isNone(right)) || (left instanceof Number && right instanceof Number) || (left instanceof Boolean && right instanceof Boolean) || (left instanceof Character && right instanceof Character) || (left instanceof String && right instanceof String) || (left instanceof String && right instanceof Character) || (left instanceof Character && right instanceof String) || (left instanceof NaftahTemporalPoint && right instanceof NaftahTemporalAmount) || (left instanceof NaftahTemporalPoint && right instanceof NaftahTemporalPoint) || (left instanceof NaftahTemporalAmount && right instanceof NaftahTemporalAmount)) {
@@ -0,0 +1,300 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.daiitech.naftah.builtin.lang.NaftahObject;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+/**
+ * A lazy chain of operations over the elements of a source.
+ *
+ * <p>Intermediate operations ({@link #map}, {@link #filter}, {@link #limit} and {@link #skip}) only
+ * record a stage and return a new pipeline: nothing is evaluated and no intermediate collection is
+ * built. Each terminal operation ({@link #toList()}, {@link #count()} and {@link #reduce}) fuses all
+ * the stages into a single {@link Stream} and runs it in one pass over the source, so an element flows
+ * through every stage before the next one is read and a {@linkplain #limit limited} pipeline stops
+ * reading its source early.</p>
+ *
+ * <p>A pipeline made {@linkplain #parallel() parallel} runs its terminal operations on a
+ * {@link ForkJoinPool} created for the call and shut down after it; its worker threads are created
+ * from the calling thread and inherit its thread-local state. Results keep the encounter order of the
+ * source. The stage functions must then be free of shared side effects, and the operator given to
+ * {@link #reduce} must be associative.</p>
+ *
+ * <p>Pipelines over a {@link Iterable} or an array can be run any number of times; pipelines over an
+ * {@link Iterator} or a {@link Stream} consume it and can only be run once, along with the pipelines
+ * derived from them: running any of them again throws a {@link NaftahBugError}.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class Pipeline {
+
+	/**
+	 * Supplies a fresh spliterator over the source for each run.
+	 */
+	private final Supplier<Spliterator<Object>> source;
+
+	/**
+	 * The recorded stages, in order.
+	 */
+	private final List<UnaryOperator<Stream<Object>>> stages;
+
+	/**
+	 * The parallelism of the fork-join pool, or {@code 0} for a sequential pipeline.
+	 */
+	private final int parallelism;
+
+	private Pipeline(Supplier<Spliterator<Object>> source, List<UnaryOperator<Stream<Object>>> stages, int parallelism) {
+		this.source = source;
+		this.stages = stages;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Creates a sequential pipeline without stages over the given source.
+	 *
+	 * @param source an {@link Iterable} (any collection, a range), an array, an {@link Iterator}, a
+	 *               {@link Stream}, or a pipeline, which is returned as is
+	 * @return the pipeline
+	 * @throws NaftahBugError if the source is {@code null} or cannot be iterated
+	 */
+	@SuppressWarnings("unchecked")
+	public static Pipeline of(Object source) {
+		if (source instanceof NaftahObject naftahObject) {
+			source = naftahObject.get(true);
+		}
+
+		if (source instanceof Pipeline pipeline) {
+			return pipeline;
+		}
+		Supplier<Spliterator<Object>> spliterator;
+		if (source instanceof Iterable<?> iterable) {
+			spliterator = () -> (Spliterator<Object>) iterable.spliterator();
+		}
+		else if (Objects.nonNull(source) && source.getClass().isArray()) {
+			List<Object> elements = Arrays.asList(CollectionUtils.toObjectArray(source));
+			spliterator = elements::spliterator;
+		}
+		else if (source instanceof Iterator<?> iterator) {
+			spliterator = once(() -> Spliterators
+					.spliteratorUnknownSize((Iterator<Object>) iterator, Spliterator.ORDERED));
+		}
+		else if (source instanceof BaseStream<?, ?> stream) {
+			spliterator = once(() -> (Spliterator<Object>) stream.spliterator());
+		}
+		else {
+			throw new NaftahBugError("لا يمكن إنشاء تدفق من القيمة '%s'، يجب أن تكون مجموعة أو مصفوفة أو مدى."
+					.formatted(source));
+		}
+		return new Pipeline(spliterator, List.of(), 0);
+	}
+
+	/**
+	 * Wraps the supplier of a single-use source so that it can only be called once.
+	 *
+	 * @param spliterator the supplier of the spliterator over the source
+	 * @return the supplier, throwing a {@link NaftahBugError} when called again
+	 */
+	private static Supplier<Spliterator<Object>> once(Supplier<Spliterator<Object>> spliterator) {
+		AtomicBoolean consumed = new AtomicBoolean();
+		return () -> {
+			if (consumed.getAndSet(true)) {
+				throw new NaftahBugError("لا يمكن تشغيل التدفق مرة أخرى: مصدره (مكرر أو تدفق) قد استُهلك.");
+			}
+			return spliterator.get();
+		};
+	}
+
+	private Pipeline then(UnaryOperator<Stream<Object>> stage) {
+		List<UnaryOperator<Stream<Object>>> next = new ArrayList<>(stages.size() + 1);
+		next.addAll(stages);
+		next.add(stage);
+		return new Pipeline(source, Collections.unmodifiableList(next), parallelism);
+	}
+
+	/**
+	 * Returns a pipeline transforming each element with the given function.
+	 *
+	 * @param mapper the function applied to each element
+	 * @return the new pipeline
+	 */
+	public Pipeline map(Function<Object, Object> mapper) {
+		return then(stream -> stream.map(mapper));
+	}
+
+	/**
+	 * Returns a pipeline keeping only the elements matching the given predicate.
+	 *
+	 * @param predicate the predicate tested on each element
+	 * @return the new pipeline
+	 */
+	public Pipeline filter(Predicate<Object> predicate) {
+		return then(stream -> stream.filter(predicate));
+	}
+
+	/**
+	 * Returns a pipeline keeping at most the given number of elements.
+	 *
+	 * @param count the maximum number of elements
+	 * @return the new pipeline
+	 * @throws NaftahBugError if {@code count} is negative
+	 */
+	public Pipeline limit(long count) {
+		checkCount(count);
+		return then(stream -> stream.limit(count));
+	}
+
+	/**
+	 * Returns a pipeline discarding the given number of first elements.
+	 *
+	 * @param count the number of elements to discard
+	 * @return the new pipeline
+	 * @throws NaftahBugError if {@code count} is negative
+	 */
+	public Pipeline skip(long count) {
+		checkCount(count);
+		return then(stream -> stream.skip(count));
+	}
+
+	private static void checkCount(long count) {
+		if (count < 0) {
+			throw new NaftahBugError("عدد العناصر لا يمكن أن يكون سالباً: %d.".formatted(count));
+		}
+	}
+
+	/**
+	 * Returns a pipeline running its terminal operations in parallel, with one worker per available
+	 * processor.
+	 *
+	 * @return the new pipeline
+	 */
+	public Pipeline parallel() {
+		return parallel(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Returns a pipeline running its terminal operations in parallel, with the given number of workers.
+	 *
+	 * @param parallelism the number of workers
+	 * @return the new pipeline
+	 * @throws NaftahBugError if {@code parallelism} is not positive
+	 */
+	public Pipeline parallel(int parallelism) {
+		if (parallelism < 1) {
+			throw new NaftahBugError("عدد العمال يجب أن يكون موجباً: %d.".formatted(parallelism));
+		}
+		return new Pipeline(source, stages, parallelism);
+	}
+
+	/**
+	 * Returns a pipeline running its terminal operations on the calling thread.
+	 *
+	 * @return the new pipeline
+	 */
+	public Pipeline sequential() {
+		return parallelism == 0 ? this : new Pipeline(source, stages, 0);
+	}
+
+	/**
+	 * Returns whether the terminal operations run in parallel.
+	 *
+	 * @return {@code true} if the pipeline is parallel
+	 */
+	public boolean isParallel() {
+		return parallelism > 0;
+	}
+
+	/**
+	 * Runs the pipeline and collects the resulting elements, in encounter order.
+	 *
+	 * @return a new mutable list of the elements
+	 */
+	public List<Object> toList() {
+		return run(stream -> stream.collect(Collectors.toCollection(ArrayList::new)));
+	}
+
+	/**
+	 * Runs the pipeline and counts the resulting elements.
+	 *
+	 * @return the number of elements
+	 */
+	public long count() {
+		// Stream.count() may skip the stages when the size is known: run them for their effects
+		return run(stream -> stream.mapToLong(element -> 1L).sum());
+	}
+
+	/**
+	 * Runs the pipeline and folds the resulting elements with the given operator, starting from the
+	 * given value.
+	 *
+	 * @param identity the initial value; in parallel mode, it must be an identity of the operator since
+	 *                 each worker starts from it
+	 * @param operator the operator combining the accumulated value with the next element
+	 * @return the folded value, or {@code identity} if there is no element
+	 */
+	public Object reduce(Object identity, BinaryOperator<Object> operator) {
+		return run(stream -> stream.reduce(identity, operator, operator));
+	}
+
+	private <R> R run(Function<Stream<Object>, R> terminal) {
+		if (parallelism == 0) {
+			return terminal.apply(stream(false));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.submit(() -> terminal.apply(stream(true))).get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NaftahBugError(e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			// the fork-join pool wraps errors thrown by its workers in a new instance of the same type
+			while (cause instanceof NaftahBugError && cause.getCause() instanceof NaftahBugError) {
+				cause = cause.getCause();
+			}
+			throw cause instanceof NaftahBugError naftahBugError ? naftahBugError : new NaftahBugError(cause);
+		}
+		finally {
+			// stops the workers still running when a worker failed
+			pool.shutdownNow();
+		}
+	}
+
+	private Stream<Object> stream(boolean parallel) {
+		Stream<Object> stream = StreamSupport.stream(source.get(), parallel);
+		for (UnaryOperator<Stream<Object>> stage : stages) {
+			stream = stage.apply(stream);
+		}
+		return stream;
+	}
+
+	@Override
+	public String toString() {
+		return "<%s %d>".formatted("تدفق", stages.size());
+	}
+}
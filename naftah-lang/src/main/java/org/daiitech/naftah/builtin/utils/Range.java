@@ -0,0 +1,245 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+/**
+ * A lazy arithmetic sequence of numbers, from a start value to an end value (both inclusive) by a
+ * step.
+ *
+ * <p>The elements are not stored: each one is computed from its index, so a range of any size holds a
+ * constant amount of memory, its {@linkplain #size() size} is computed arithmetically and
+ * {@linkplain #get(int) positional access} runs in constant time. Ranges are immutable
+ * {@link java.util.List}s, so the {@code foreach} loop, indexing and the collection builtins consume
+ * them like any other list.</p>
+ *
+ * <p>Whole number bounds produce whole numbers, normalized to the smallest fitting type like number
+ * literals. When a bound or the step is decimal, the elements are computed exactly from their index
+ * (without accumulating the rounding of the step) and returned as {@code double}s, or as
+ * {@link BigDecimal}s when a bound or the step is one.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class Range extends AbstractList<Object> implements RandomAccess, Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The bounds and the step, as given.
+	 */
+	private final Number start;
+	private final Number end;
+	private final Number step;
+
+	/**
+	 * Whether the range holds whole numbers fitting in a {@code long}.
+	 */
+	private final boolean integral;
+
+	/**
+	 * Whether the decimal elements are returned as {@link BigDecimal}s.
+	 */
+	private final boolean bigDecimal;
+
+	/**
+	 * Start and step of a whole number range.
+	 */
+	private final long longStart;
+	private final long longStep;
+
+	/**
+	 * Start and step of a decimal range.
+	 */
+	private final BigDecimal decimalStart;
+	private final BigDecimal decimalStep;
+
+	/**
+	 * The number of elements.
+	 */
+	private final int size;
+
+	private Range(DynamicNumber start, DynamicNumber end, DynamicNumber step) {
+		this.start = start.get();
+		this.end = end.get();
+		this.step = step.get();
+
+		if (start.isNaN() || end.isNaN() || step.isNaN() || start.isInfinite() || end.isInfinite() || step
+				.isInfinite()) {
+			throw new NaftahBugError("حدود المدى وخطوته يجب أن تكون أرقاماً منتهية.");
+		}
+		if (NumberUtils.isZero(step)) {
+			throw new NaftahBugError("خطوة المدى لا يمكن أن تكون صفراً.");
+		}
+
+		integral = isLong(start) && isLong(end) && isLong(step);
+		bigDecimal = start.isBigDecimal() || end.isBigDecimal() || step.isBigDecimal();
+
+		BigDecimal distance;
+		BigDecimal stride;
+		if (integral) {
+			longStart = start.longValue();
+			longStep = step.longValue();
+			decimalStart = null;
+			decimalStep = null;
+			distance = new BigDecimal(BigInteger.valueOf(end.longValue()).subtract(BigInteger.valueOf(longStart)));
+			stride = BigDecimal.valueOf(longStep);
+		}
+		else {
+			longStart = 0;
+			longStep = 0;
+			decimalStart = start.asBigDecimal();
+			decimalStep = step.asBigDecimal();
+			distance = end.asBigDecimal().subtract(decimalStart);
+			stride = decimalStep;
+		}
+
+		if (distance.signum() != 0 && distance.signum() != stride.signum()) {
+			size = 0;
+		}
+		else {
+			BigInteger count = distance.divide(stride, 0, RoundingMode.DOWN).toBigInteger().add(BigInteger.ONE);
+			if (count.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0) {
+				throw new NaftahBugError("حجم المدى %s يتجاوز الحد الأقصى المسموح به (%d)."
+						.formatted(count, Integer.MAX_VALUE));
+			}
+			size = count.intValue();
+		}
+	}
+
+	/**
+	 * Creates a range from {@code start} to {@code end} (inclusive), by a step of {@code 1}, or
+	 * {@code -1} when {@code end} is lower than {@code start}.
+	 *
+	 * @param start the first value; a number or a numeric string (Arabic-Indic digits are accepted)
+	 * @param end   the last value; a number or a numeric string
+	 * @return the range
+	 * @throws NaftahBugError if a bound is not a finite number
+	 */
+	public static Range of(Object start, Object end) {
+		DynamicNumber first = DynamicNumber.of(start);
+		DynamicNumber last = DynamicNumber.of(end);
+		return new Range(first, last, DynamicNumber.of(NumberUtils.compare(last, first) < 0 ? -1 : 1));
+	}
+
+	/**
+	 * Creates a range from {@code start} to {@code end} (inclusive) by the given step.
+	 *
+	 * @param start the first value; a number or a numeric string (Arabic-Indic digits are accepted)
+	 * @param end   the last value; a number or a numeric string
+	 * @param step  the difference between two consecutive values; a number or a numeric string
+	 * @return the range, empty if the step does not lead from {@code start} towards {@code end}
+	 * @throws NaftahBugError if a bound or the step is not a finite number, or if the step is zero
+	 */
+	public static Range of(Object start, Object end, Object step) {
+		return new Range(DynamicNumber.of(start), DynamicNumber.of(end), DynamicNumber.of(step));
+	}
+
+	private static boolean isLong(DynamicNumber number) {
+		return number.isInteger() && (!number.isBigInteger() || number.asBigInteger().bitLength() < Long.SIZE);
+	}
+
+	/**
+	 * Returns the first value of the range, as given.
+	 *
+	 * @return the start
+	 */
+	public Number getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the last value of the range, as given; it is an element only if the step leads to it.
+	 *
+	 * @return the end
+	 */
+	public Number getEnd() {
+		return end;
+	}
+
+	/**
+	 * Returns the step of the range.
+	 *
+	 * @return the step
+	 */
+	public Number getStep() {
+		return step;
+	}
+
+	/**
+	 * Computes the element at the given index.
+	 *
+	 * @param index the zero-based index
+	 * @return the element
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	@Override
+	public Object get(int index) {
+		Objects.checkIndex(index, size);
+		if (integral) {
+			return DynamicNumber.of(longStart + index * longStep).normalize();
+		}
+		BigDecimal value = decimalStart.add(decimalStep.multiply(BigDecimal.valueOf(index)));
+		return bigDecimal ? DynamicNumber.of(value).normalize() : DynamicNumber.of(value.doubleValue());
+	}
+
+	/**
+	 * Returns the number of elements, computed arithmetically.
+	 *
+	 * @return the size
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the index of the given value, computed arithmetically for whole number ranges.
+	 *
+	 * @param o the value
+	 * @return the index, or {@code -1} if the range does not hold the value
+	 */
+	@Override
+	public int indexOf(Object o) {
+		if (!integral) {
+			return super.indexOf(o);
+		}
+		if (!(o instanceof Number number) || !isLong(DynamicNumber.of(number))) {
+			return -1;
+		}
+		long offset;
+		try {
+			offset = Math.subtractExact(number.longValue(), longStart);
+		}
+		catch (ArithmeticException ignored) {
+			return -1;
+		}
+		if (offset % longStep != 0) {
+			return -1;
+		}
+		long index = offset / longStep;
+		return index >= 0 && index < size ? (int) index : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return integral ? indexOf(o) : super.lastIndexOf(o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+}
@@ -0,0 +1,406 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.builtin.utils.VectorOperations.USE_VECTOR_API;
+import static org.daiitech.naftah.builtin.utils.VectorOperations.VECTOR_THRESHOLD;
+
+/**
+ * The descriptive statistics of the numbers of a collection or an array, computed in a single pass.
+ *
+ * <p>The numbers are read once into a {@code double[]} (directly from the primitive storage of an
+ * unboxed {@link NumericList}), then the count, sum, mean, variance, minimum and maximum are computed
+ * together in one loop over it: the sum with the compensated summation of Neumaier, the mean and the
+ * variance with the online algorithm of Welford, which does not suffer from the cancellation of the
+ * textbook sum-of-squares formula. When the {@value org.daiitech.naftah.Naftah#VECTOR_API_PROPERTY}
+ * property is set, arrays of at least {@link VectorOperations#VECTOR_THRESHOLD} numbers are summarized
+ * by a vectorized kernel computing the same recurrences lane by lane.</p>
+ *
+ * <p>Percentiles are computed by selection, in expected linear time, instead of sorting the numbers,
+ * and histograms count the numbers in equal-width bins.</p>
+ *
+ * <p>All the statistics are computed in {@code double} arithmetic: whole numbers beyond
+ * 2<sup>53</sup> are rounded, and a {@code NaN} element makes the mean, the variance and the
+ * percentiles {@code NaN}.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class Statistics {
+
+	private final long count;
+
+	private final double sum;
+
+	private final double mean;
+
+	/**
+	 * The sum of the squared differences from the mean.
+	 */
+	private final double m2;
+
+	private final double min;
+
+	private final double max;
+
+	Statistics(long count, double sum, double mean, double m2, double min, double max) {
+		this.count = count;
+		this.sum = sum;
+		this.mean = mean;
+		this.m2 = m2;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Computes the statistics of the numbers of a collection or an array.
+	 *
+	 * @param source a collection or an array of numbers
+	 * @return the statistics
+	 * @throws NaftahBugError if the source is neither a collection nor an array, or an element is not a
+	 *                        number
+	 */
+	public static Statistics of(Object source) {
+		double[] values = toDoubles(source);
+		return of(values, values.length);
+	}
+
+	/**
+	 * Computes the statistics of the first {@code length} numbers of an array.
+	 *
+	 * @param values the numbers
+	 * @param length the number of numbers to summarize
+	 * @return the statistics
+	 */
+	static Statistics of(double[] values, int length) {
+		return USE_VECTOR_API && length >= VECTOR_THRESHOLD ?
+				VectorOperations.statistics(values, length) :
+				summarize(values, 0, length);
+	}
+
+	/**
+	 * The scalar single-pass kernel, over the numbers from {@code from} inclusive to {@code to}
+	 * exclusive.
+	 */
+	static Statistics summarize(double[] values, int from, int to) {
+		double sum = 0;
+		double compensation = 0;
+		double mean = 0;
+		double m2 = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		long n = 0;
+		for (int i = from; i < to; i++) {
+			double value = values[i];
+
+			double total = sum + value;
+			compensation += Math.abs(sum) >= Math.abs(value) ? (sum - total) + value : (value - total) + sum;
+			sum = total;
+
+			n++;
+			double delta = value - mean;
+			mean += delta / n;
+			m2 += delta * (value - mean);
+
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		return new Statistics(n, sum + compensation, n == 0 ? Double.NaN : mean, m2, min, max);
+	}
+
+	/**
+	 * Combines the statistics of two disjoint parts of the same numbers, with the pairwise formula of
+	 * Chan, Golub and LeVeque.
+	 *
+	 * @param other the statistics of the other part
+	 * @return the statistics of both parts
+	 */
+	Statistics combine(Statistics other) {
+		if (other.count == 0) {
+			return this;
+		}
+		if (count == 0) {
+			return other;
+		}
+		long n = count + other.count;
+		double delta = other.mean - mean;
+		return new Statistics(n,
+								sum + other.sum,
+								mean + delta * other.count / n,
+								m2 + other.m2 + delta * delta * count * other.count / n,
+								Math.min(min, other.min),
+								Math.max(max, other.max));
+	}
+
+	/**
+	 * Returns the number of numbers.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the compensated sum of the numbers.
+	 *
+	 * @return the sum, {@code 0} if there is no number
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Returns the arithmetic mean of the numbers.
+	 *
+	 * @return the mean, {@code NaN} if there is no number
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Returns the sample variance of the numbers, the sum of their squared differences from the mean
+	 * divided by {@code count - 1}.
+	 *
+	 * @return the variance, {@code 0} if there is a single number and {@code NaN} if there is none
+	 */
+	public double getVariance() {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		return count == 1 ? 0 : m2 / (count - 1);
+	}
+
+	/**
+	 * Returns the sample standard deviation of the numbers, the square root of their
+	 * {@linkplain #getVariance() variance}.
+	 *
+	 * @return the standard deviation
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Returns the lowest number.
+	 *
+	 * @return the minimum, {@link Double#POSITIVE_INFINITY} if there is no number
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Returns the greatest number.
+	 *
+	 * @return the maximum, {@link Double#NEGATIVE_INFINITY} if there is no number
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the given percentile of the numbers of a collection or an array, interpolated linearly
+	 * between the two closest ranks (the definition used by most spreadsheets and statistical packages).
+	 *
+	 * <p>The numbers are copied once and partially ordered by selection around the requested rank, in
+	 * expected linear time.</p>
+	 *
+	 * @param source     a non-empty collection or array of numbers
+	 * @param percentage the percentile, from {@code 0} (the minimum) to {@code 100} (the maximum)
+	 * @return the percentile, {@code NaN} if an element is {@code NaN}
+	 * @throws NaftahBugError if there is no element, an element is not a number, or the percentage is
+	 *                        out of range
+	 */
+	public static double percentile(Object source, double percentage) {
+		if (!(percentage >= 0 && percentage <= 100)) {
+			throw new NaftahBugError("النسبة المئوية يجب أن تكون بين 0 و 100: %s.".formatted(percentage));
+		}
+		double[] values = toDoubles(source);
+		int size = values.length;
+		if (size == 0) {
+			throw new NaftahBugError("لا يمكن حساب المئين لمجموعة فارغة.");
+		}
+		for (double value : values) {
+			if (Double.isNaN(value)) {
+				return Double.NaN;
+			}
+		}
+
+		double rank = (size - 1) * percentage / 100;
+		int lower = (int) rank;
+		double fraction = rank - lower;
+		select(values, lower);
+		if (fraction == 0 || lower == size - 1) {
+			return values[lower];
+		}
+		// the selection leaves the greater numbers after the rank: the next one is their minimum
+		double next = values[lower + 1];
+		for (int i = lower + 2; i < size; i++) {
+			next = Math.min(next, values[i]);
+		}
+		return values[lower] + fraction * (next - values[lower]);
+	}
+
+	/**
+	 * Returns the median of the numbers of a collection or an array, their 50th
+	 * {@linkplain #percentile(Object, double) percentile}.
+	 *
+	 * @param source a non-empty collection or array of numbers
+	 * @return the median
+	 * @throws NaftahBugError if there is no element or an element is not a number
+	 */
+	public static double median(Object source) {
+		return percentile(source, 50);
+	}
+
+	/**
+	 * Counts the numbers of a collection or an array in equal-width bins spanning their range, from the
+	 * lowest to the greatest.
+	 *
+	 * @param source a collection or an array of numbers
+	 * @param bins   the number of bins
+	 * @return the count of each bin, from the lowest numbers to the greatest
+	 * @throws NaftahBugError if an element is not a number or {@code bins} is not positive
+	 * @see #histogram(Object, int, double, double)
+	 */
+	public static List<Object> histogram(Object source, int bins) {
+		double[] values = toDoubles(source);
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double value : values) {
+			if (!Double.isNaN(value)) {
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+		}
+		if (min > max) {
+			// no number to count
+			min = 0;
+			max = 0;
+		}
+		return histogram(values, bins, min, max);
+	}
+
+	/**
+	 * Counts the numbers of a collection or an array in equal-width bins spanning the given range, in a
+	 * single pass. Each bin includes its lower bound and excludes its upper bound, except the last one,
+	 * which includes {@code max}; the numbers out of the range and {@code NaN} are not counted.
+	 *
+	 * @param source a collection or an array of numbers
+	 * @param bins   the number of bins
+	 * @param min    the lower bound of the first bin
+	 * @param max    the upper bound of the last bin
+	 * @return the count of each bin, from the lowest numbers to the greatest
+	 * @throws NaftahBugError if an element is not a number, {@code bins} is not positive or the range
+	 *                        is invalid
+	 */
+	public static List<Object> histogram(Object source, int bins, double min, double max) {
+		return histogram(toDoubles(source), bins, min, max);
+	}
+
+	private static List<Object> histogram(double[] values, int bins, double min, double max) {
+		if (bins < 1) {
+			throw new NaftahBugError("عدد الفئات يجب أن يكون موجباً: %d.".formatted(bins));
+		}
+		if (!(Double.isFinite(min) && Double.isFinite(max) && min <= max)) {
+			throw new NaftahBugError("مجال المدرج التكراري غير صالح: [%s ، %s].".formatted(min, max));
+		}
+		long[] counts = new long[bins];
+		double width = (max - min) / bins;
+		for (double value : values) {
+			if (!(value >= min && value <= max)) {
+				continue;
+			}
+			int bin = width == 0 ? 0 : (int) ((value - min) / width);
+			counts[Math.min(bin, bins - 1)]++;
+		}
+		return NumericList.ofLongs(counts, true);
+	}
+
+	/**
+	 * Reads the numbers of a collection or an array into a new array, which the caller may modify.
+	 */
+	private static double[] toDoubles(Object source) {
+		List<Object> elements = AggregationUtils.toList(source);
+		int size = elements.size();
+		if (elements instanceof NumericList numericList && numericList.isUnboxed()) {
+			double[] values = numericList.doubleValues();
+			// the storage of a list of decimals is shared
+			return numericList.isIntegral() ? values : Arrays.copyOf(values, size);
+		}
+
+		double[] values = new double[size];
+		int i = 0;
+		for (Object element : elements) {
+			if (!(element instanceof Number number)) {
+				throw new NaftahBugError("لا يمكن حساب الإحصاءات للعنصر '%s' لأنه ليس رقماً.".formatted(element));
+			}
+			values[i++] = number.doubleValue();
+		}
+		return values;
+	}
+
+	/**
+	 * Partially orders the numbers so that the one at index {@code k} is the one a sort would put there,
+	 * the lower ones before it and the greater ones after it (the selection algorithm of Hoare, with a
+	 * median-of-three pivot).
+	 */
+	private static void select(double[] values, int k) {
+		int left = 0;
+		int right = values.length - 1;
+		while (left < right) {
+			int middle = (left + right) >>> 1;
+			if (values[middle] < values[left]) {
+				swap(values, left, middle);
+			}
+			if (values[right] < values[left]) {
+				swap(values, left, right);
+			}
+			if (values[right] < values[middle]) {
+				swap(values, middle, right);
+			}
+			double pivot = values[middle];
+
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (values[i] < pivot) {
+					i++;
+				}
+				while (values[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(values, i++, j--);
+				}
+			}
+			if (k <= j) {
+				right = j;
+			}
+			else if (k >= i) {
+				left = i;
+			}
+			else {
+				return;
+			}
+		}
+	}
+
+	private static void swap(double[] values, int i, int j) {
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+	}
+
+	@Override
+	public String toString() {
+		return "<%s %d>".formatted("إحصاءات", count);
+	}
+}
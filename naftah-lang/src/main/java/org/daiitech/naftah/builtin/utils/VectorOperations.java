@@ -0,0 +1,501 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.utils.op.BinaryOperation;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static org.daiitech.naftah.Naftah.VECTOR_API_PROPERTY;
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * Vectorized kernels for the element-wise arithmetic and bitwise operations on {@link NumericList}s,
+ * backed by the {@link LongVector} and {@link DoubleVector} APIs.
+ *
+ * <p>Whole numbers are computed in {@code long} lanes, so that sums, differences and products of
+ * numbers up to {@code int} cannot overflow, and decimals in {@code double} lanes; the elements left
+ * over by the vector loop are computed by a scalar tail. A kernel produces exactly the numbers the
+ * scalar path ({@link ObjectUtils#applyOperation(Object, Object, BinaryOperation)} element by element)
+ * would; whenever it cannot guarantee it (an overflow of {@code long} operands, a division by zero,
+ * a {@code NaN} or infinite decimal result, a decimal addition which is computed exactly by the
+ * scalar path, {@link Float} elements...) it returns {@code null} and the caller falls back to the
+ * scalar path, which produces the result or reports the error.</p>
+ *
+ * <p>The class also holds the single-pass kernel summarizing decimals for {@link Statistics}, which
+ * computes the same recurrences as the scalar kernel lane by lane and combines the lanes at the end;
+ * its results may differ from the scalar ones in the last bits, as the additions happen in another
+ * order. The innermost loop of the {@link NdArray} matrix product and reductions, adding a multiple of
+ * a row to another, rounds like its scalar loop.</p>
+ *
+ * <p>The kernels are used only when the {@value org.daiitech.naftah.Naftah#VECTOR_API_PROPERTY}
+ * property is set, for lists of at least {@link #VECTOR_THRESHOLD} elements.</p>
+ *
+ * @author Chakib Daii
+ */
+public final class VectorOperations {
+
+	/**
+	 * Indicates whether vectorized operations should be used (controlled via JVM property).
+	 */
+	public static final Boolean USE_VECTOR_API = Boolean.getBoolean(VECTOR_API_PROPERTY);
+
+	/**
+	 * Minimum list size for vectorized execution.
+	 */
+	public static final int VECTOR_THRESHOLD = 64;
+
+	private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+
+	private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private VectorOperations() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Tells whether an operand can be computed by the kernels.
+	 *
+	 * @param operand the operand
+	 * @return {@code true} if vectorization is enabled and the operand is a large enough unboxed
+	 *         {@link NumericList} of whole numbers or doubles
+	 */
+	public static boolean isVectorizable(Object operand) {
+		return USE_VECTOR_API && operand instanceof NumericList list && list
+				.size() >= VECTOR_THRESHOLD && isSupported(list);
+	}
+
+	private static boolean isSupported(NumericList list) {
+		return list.isUnboxed() && (list.isIntegral() || list.getElementType() == Double.class);
+	}
+
+	/**
+	 * Applies a binary operation element-wise to two numeric lists of the same size.
+	 *
+	 * @param left      the left list
+	 * @param right     the right list
+	 * @param operation the operation
+	 * @return the results, or {@code null} if the operation must be computed by the scalar path
+	 */
+	public static List<Object> applyOperation(NumericList left, NumericList right, BinaryOperation operation) {
+		if (left.size() != right.size() || !isSupported(left) || !isSupported(right)) {
+			return null;
+		}
+		return apply(Operand.of(left), Operand.of(right), left.size(), operation);
+	}
+
+	/**
+	 * Applies a binary operation between each element of a numeric list and a scalar number.
+	 *
+	 * @param list          the list
+	 * @param scalar        the scalar number
+	 * @param isLeftOperand whether the list is the left operand
+	 * @param operation     the operation
+	 * @return the results, or {@code null} if the operation must be computed by the scalar path
+	 */
+	public static List<Object> applyOperation( NumericList list,
+												Number scalar,
+												boolean isLeftOperand,
+												BinaryOperation operation) {
+		Operand scalarOperand = Operand.of(scalar);
+		if (!isSupported(list) || Objects.isNull(scalarOperand)) {
+			return null;
+		}
+		return isLeftOperand ?
+				apply(Operand.of(list), scalarOperand, list.size(), operation) :
+				apply(scalarOperand, Operand.of(list), list.size(), operation);
+	}
+
+	private static List<Object> apply(Operand left, Operand right, int length, BinaryOperation operation) {
+		if (left.isIntegral() && right.isIntegral()) {
+			long[] result = applyIntegral(left, right, length, operation);
+			return Objects.isNull(result) ? null : NumericList.ofLongs(result, true);
+		}
+		double[] result = applyDecimal(left.toDecimal(), right.toDecimal(), length, operation);
+		return Objects.isNull(result) ? null : NumericList.ofDoubles(result, true);
+	}
+
+	/**
+	 * Whole number kernels. The bitwise operations of the scalar path narrow the right operand to the
+	 * type of the left one, which the kernels reproduce.
+	 */
+	private static long[] applyIntegral(Operand left, Operand right, int length, BinaryOperation operation) {
+		boolean longOperands = left.type == Long.class || right.type == Long.class;
+		boolean intOperands = !longOperands && (left.type == Integer.class || right.type == Integer.class);
+		int narrowing = Long.SIZE - bitSize(left.type);
+		long[] result = new long[length];
+		int upperBound = LONG_SPECIES.loopBound(length);
+		int i = 0;
+
+		switch (operation) {
+			case ADD -> {
+				for (; i < upperBound; i += LONG_SPECIES.length()) {
+					LongVector a = left.longVector(i);
+					LongVector b = right.longVector(i);
+					LongVector r = a.add(b);
+					// the sum overflows when it has not the sign of either operand
+					if (longOperands && a
+							.lanewise(VectorOperators.XOR, r)
+							.and(b.lanewise(VectorOperators.XOR, r))
+							.compare(VectorOperators.LT, 0)
+							.anyTrue()) {
+						return null;
+					}
+					r.intoArray(result, i);
+				}
+				for (; i < length; i++) {
+					try {
+						result[i] = Math.addExact(left.longAt(i), right.longAt(i));
+					}
+					catch (ArithmeticException e) {
+						return null;
+					}
+				}
+			}
+			case SUBTRACT -> {
+				for (; i < upperBound; i += LONG_SPECIES.length()) {
+					LongVector a = left.longVector(i);
+					LongVector b = right.longVector(i);
+					LongVector r = a.sub(b);
+					// the difference overflows when the operands have different signs and it has not the sign of the left one
+					if (longOperands && a
+							.lanewise(VectorOperators.XOR, b)
+							.and(a.lanewise(VectorOperators.XOR, r))
+							.compare(VectorOperators.LT, 0)
+							.anyTrue()) {
+						return null;
+					}
+					r.intoArray(result, i);
+				}
+				for (; i < length; i++) {
+					try {
+						result[i] = Math.subtractExact(left.longAt(i), right.longAt(i));
+					}
+					catch (ArithmeticException e) {
+						return null;
+					}
+				}
+			}
+			case MULTIPLY -> {
+				if (longOperands) {
+					return null;
+				}
+				for (; i < upperBound; i += LONG_SPECIES.length()) {
+					left.longVector(i).mul(right.longVector(i)).intoArray(result, i);
+				}
+				for (; i < length; i++) {
+					result[i] = left.longAt(i) * right.longAt(i);
+				}
+			}
+			case DIVIDE, MODULO -> {
+				boolean divide = operation == BinaryOperation.DIVIDE;
+				for (; i < upperBound; i += LONG_SPECIES.length()) {
+					LongVector a = left.longVector(i);
+					LongVector b = right.longVector(i);
+					if (b.compare(VectorOperators.EQ, 0).anyTrue()) {
+						return null;
+					}
+					LongVector q = a.div(b);
+					// Integer.MIN_VALUE / -1 overflows an int
+					if (divide && intOperands && q.compare(VectorOperators.GT, Integer.MAX_VALUE).anyTrue()) {
+						return null;
+					}
+					(divide ? q : a.sub(q.mul(b))).intoArray(result, i);
+				}
+				for (; i < length; i++) {
+					long a = left.longAt(i);
+					long b = right.longAt(i);
+					if (b == 0 || (divide && intOperands && a / b > Integer.MAX_VALUE)) {
+						return null;
+					}
+					result[i] = divide ? a / b : a % b;
+				}
+			}
+			case BITWISE_AND, BITWISE_OR, BITWISE_XOR, ELEMENTWISE_ADD, ELEMENTWISE_SUBTRACT, ELEMENTWISE_MULTIPLY,
+					ELEMENTWISE_MODULO -> {
+				VectorOperators.Binary vectorOperation = switch (operation) {
+					case BITWISE_AND, ELEMENTWISE_MULTIPLY, ELEMENTWISE_MODULO -> VectorOperators.AND;
+					case BITWISE_OR -> VectorOperators.OR;
+					default -> VectorOperators.XOR;
+				};
+				if (operation == BinaryOperation.ELEMENTWISE_MODULO && right.type == Long.class && right
+						.anyMatch(length, value -> value == Long.MIN_VALUE)) {
+					return null;
+				}
+				for (; i < upperBound; i += LONG_SPECIES.length()) {
+					LongVector b = right.longVector(i);
+					if (operation == BinaryOperation.ELEMENTWISE_SUBTRACT) {
+						b = b.not();
+					}
+					else if (operation == BinaryOperation.ELEMENTWISE_MODULO) {
+						b = b.sub(1);
+					}
+					b = b
+							.lanewise(VectorOperators.LSHL, narrowing)
+							.lanewise(VectorOperators.ASHR, narrowing);
+					left.longVector(i).lanewise(vectorOperation, b).intoArray(result, i);
+				}
+				for (; i < length; i++) {
+					long b = right.longAt(i);
+					if (operation == BinaryOperation.ELEMENTWISE_SUBTRACT) {
+						b = ~b;
+					}
+					else if (operation == BinaryOperation.ELEMENTWISE_MODULO) {
+						b = b - 1;
+					}
+					b = (b << narrowing) >> narrowing;
+					long a = left.longAt(i);
+					result[i] = vectorOperation == VectorOperators.AND ?
+							a & b :
+							vectorOperation == VectorOperators.OR ? a | b : a ^ b;
+				}
+			}
+			default -> {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decimal kernels, for the operations the scalar path computes in plain {@code double} arithmetic.
+	 */
+	private static double[] applyDecimal(Operand left, Operand right, int length, BinaryOperation operation) {
+		VectorOperators.Binary vectorOperation = switch (operation) {
+			case SUBTRACT -> VectorOperators.SUB;
+			case MULTIPLY -> VectorOperators.MUL;
+			case DIVIDE -> VectorOperators.DIV;
+			default -> null;
+		};
+		if (Objects.isNull(vectorOperation)) {
+			return null;
+		}
+
+		double[] result = new double[length];
+		int upperBound = DOUBLE_SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < upperBound; i += DOUBLE_SPECIES.length()) {
+			DoubleVector r = left.doubleVector(i).lanewise(vectorOperation, right.doubleVector(i));
+			VectorMask<Double> invalid = r.test(VectorOperators.IS_NAN).or(r.test(VectorOperators.IS_INFINITE));
+			if (invalid.anyTrue()) {
+				return null;
+			}
+			r.intoArray(result, i);
+		}
+		for (; i < length; i++) {
+			double a = left.doubleAt(i);
+			double b = right.doubleAt(i);
+			double r = operation == BinaryOperation.SUBTRACT ?
+					a - b :
+					operation == BinaryOperation.MULTIPLY ? a * b : a / b;
+			if (!Double.isFinite(r)) {
+				return null;
+			}
+			result[i] = r;
+		}
+		return result;
+	}
+
+	/**
+	 * The kernel of {@link Statistics}: each lane accumulates the compensated sum, the Welford mean and
+	 * squared differences and the extremes of the numbers at its position in the vectors, then the
+	 * lanes are combined pairwise with the summary of the numbers left over by the vector loop.
+	 *
+	 * @param values the numbers
+	 * @param length the number of numbers to summarize
+	 * @return the statistics of the numbers
+	 */
+	static Statistics statistics(double[] values, int length) {
+		int lanes = DOUBLE_SPECIES.length();
+		int upperBound = DOUBLE_SPECIES.loopBound(length);
+		DoubleVector sum = DoubleVector.zero(DOUBLE_SPECIES);
+		DoubleVector compensation = DoubleVector.zero(DOUBLE_SPECIES);
+		DoubleVector mean = DoubleVector.zero(DOUBLE_SPECIES);
+		DoubleVector m2 = DoubleVector.zero(DOUBLE_SPECIES);
+		DoubleVector min = DoubleVector.broadcast(DOUBLE_SPECIES, Double.POSITIVE_INFINITY);
+		DoubleVector max = DoubleVector.broadcast(DOUBLE_SPECIES, Double.NEGATIVE_INFINITY);
+		// every lane has seen the same number of values
+		long n = 0;
+		for (int i = 0; i < upperBound; i += lanes) {
+			DoubleVector value = DoubleVector.fromArray(DOUBLE_SPECIES, values, i);
+
+			DoubleVector total = sum.add(value);
+			VectorMask<Double> sumIsGreater = sum.abs().compare(VectorOperators.GE, value.abs());
+			compensation = compensation
+					.add(value.sub(total).add(sum).blend(sum.sub(total).add(value), sumIsGreater));
+			sum = total;
+
+			n++;
+			DoubleVector delta = value.sub(mean);
+			mean = mean.add(delta.div(n));
+			m2 = m2.add(delta.mul(value.sub(mean)));
+
+			min = min.min(value);
+			max = max.max(value);
+		}
+
+		Statistics statistics = Statistics.summarize(values, upperBound, length);
+		for (int lane = 0; lane < lanes; lane++) {
+			statistics = statistics
+					.combine(new Statistics(n,
+											sum.lane(lane) + compensation.lane(lane),
+											mean.lane(lane),
+											m2.lane(lane),
+											min.lane(lane),
+											max.lane(lane)));
+		}
+		return statistics;
+	}
+
+	/**
+	 * The innermost loop of the {@link NdArray} kernels: adds {@code factor} times {@code length}
+	 * elements of {@code x} to as many elements of {@code y}, rounding like the scalar loop.
+	 *
+	 * @param factor the factor
+	 * @param x      the added elements
+	 * @param xFrom  the index of the first added element
+	 * @param y      the accumulated elements
+	 * @param yFrom  the index of the first accumulated element
+	 * @param length the number of elements
+	 */
+	static void axpy(double factor, double[] x, int xFrom, double[] y, int yFrom, int length) {
+		DoubleVector factors = DoubleVector.broadcast(DOUBLE_SPECIES, factor);
+		int upperBound = DOUBLE_SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < upperBound; i += DOUBLE_SPECIES.length()) {
+			DoubleVector
+					.fromArray(DOUBLE_SPECIES, x, xFrom + i)
+					.mul(factors)
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, y, yFrom + i))
+					.intoArray(y, yFrom + i);
+		}
+		for (; i < length; i++) {
+			y[yFrom + i] += factor * x[xFrom + i];
+		}
+	}
+
+	private static int bitSize(Class<?> type) {
+		if (type == Byte.class) {
+			return Byte.SIZE;
+		}
+		if (type == Short.class) {
+			return Short.SIZE;
+		}
+		if (type == Integer.class) {
+			return Integer.SIZE;
+		}
+		return Long.SIZE;
+	}
+
+	/**
+	 * An operand of a kernel: the unboxed elements of a list, or a scalar broadcast to every lane.
+	 */
+	private static final class Operand {
+		private final Class<?> type;
+		private final long[] longs;
+		private final double[] doubles;
+		private final long longScalar;
+		private final double doubleScalar;
+		private final boolean scalar;
+
+		private Operand(Class<?> type,
+						long[] longs,
+						double[] doubles,
+						long longScalar,
+						double doubleScalar,
+						boolean scalar) {
+			this.type = type;
+			this.longs = longs;
+			this.doubles = doubles;
+			this.longScalar = longScalar;
+			this.doubleScalar = doubleScalar;
+			this.scalar = scalar;
+		}
+
+		private static Operand of(NumericList list) {
+			return list.isIntegral() ?
+					new Operand(list.getElementType(), list.longValues(), null, 0, 0, false) :
+					new Operand(Double.class, null, list.doubleValues(), 0, 0, false);
+		}
+
+		/**
+		 * Returns the operand of a whole number or double scalar, {@code null} for any other number.
+		 */
+		private static Operand of(Number scalar) {
+			Number number = scalar instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : scalar;
+			if (number instanceof Byte || number instanceof Short || number instanceof Integer || number instanceof Long) {
+				return new Operand(number.getClass(), null, null, number.longValue(), 0, true);
+			}
+			if (number instanceof Double d && Double.isFinite(d)) {
+				return new Operand(Double.class, null, null, 0, d, true);
+			}
+			return null;
+		}
+
+		private boolean isIntegral() {
+			return type != Double.class;
+		}
+
+		/**
+		 * Returns the operand as a decimal one, {@code null} if the conversion is not the one of the
+		 * scalar path.
+		 */
+		private Operand toDecimal() {
+			if (!isIntegral()) {
+				return this;
+			}
+			if (scalar) {
+				return new Operand(Double.class, null, null, 0, longScalar, true);
+			}
+			double[] values = new double[longs.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = longs[i];
+			}
+			return new Operand(Double.class, null, values, 0, 0, false);
+		}
+
+		private boolean anyMatch(int length, LongPredicate predicate) {
+			for (int i = 0; i < length; i++) {
+				if (predicate.test(longAt(i))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private LongVector longVector(int index) {
+			return scalar ?
+					LongVector.broadcast(LONG_SPECIES, longScalar) :
+					LongVector.fromArray(LONG_SPECIES, longs, index);
+		}
+
+		private DoubleVector doubleVector(int index) {
+			return scalar ?
+					DoubleVector.broadcast(DOUBLE_SPECIES, doubleScalar) :
+					DoubleVector.fromArray(DOUBLE_SPECIES, doubles, index);
+		}
+
+		private long longAt(int index) {
+			return scalar ? longScalar : longs[index];
+		}
+
+		private double doubleAt(int index) {
+			return scalar ? doubleScalar : doubles[index];
+		}
+	}
+}
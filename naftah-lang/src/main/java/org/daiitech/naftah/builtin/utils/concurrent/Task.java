@@ -55,10 +55,12 @@ public final class Task<T> implements Awaitable<T> {
 	private Task(DefaultContext context, Supplier<T> supplier, Runnable cleaner) {
 		this.taskId = hashCode();
 		this.context = context;
-		this.callable = () -> {
+		// bound on the spawning thread, so that the task runs in the registry of its isolated execution
+		Supplier<T> computation = DefaultContext.withCurrentRegistry(() -> {
 			DefaultContext.setCurrentContext(context);
 			return supplier.get();
-		};
+		});
+		this.callable = computation::get;
 		cleanableThreadSupplier = () -> new CleanableThread(future, cleaner);
 	}
 
@@ -0,0 +1,85 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * The client side of the Naftah daemon: sends a script to a running {@link NaftahDaemonServer} and
+ * streams its output back to the standard output and error of the current process.
+ *
+ * @author Chakib Daii
+ */
+public final class NaftahDaemonClient {
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private NaftahDaemonClient() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Runs a script on the daemon listening on {@link NaftahDaemonProtocol#getSocketPath()}.
+	 *
+	 * @param request the request
+	 * @return the exit code of the run
+	 * @throws IOException    if the connection to the daemon is lost
+	 * @throws NaftahBugError if no daemon is listening on the socket
+	 */
+	public static int run(NaftahDaemonProtocol.Request request) throws IOException {
+		return run(NaftahDaemonProtocol.getSocketPath(), request);
+	}
+
+	/**
+	 * Runs a script on the daemon listening on the given socket.
+	 *
+	 * @param socketPath the socket path
+	 * @param request    the request
+	 * @return the exit code of the run
+	 * @throws IOException    if the connection to the daemon is lost
+	 * @throws NaftahBugError if no daemon is listening on the socket
+	 */
+	public static int run(Path socketPath, NaftahDaemonProtocol.Request request) throws IOException {
+		SocketChannel channel;
+		try {
+			channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+		}
+		catch (IOException e) {
+			throw new NaftahBugError("لا يوجد خادم نفطه (daemon) يعمل على: %s. قم بتشغيله باستخدام الأمر 'naftah daemon'."
+					.formatted(socketPath), e);
+		}
+
+		try (channel) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			NaftahDaemonProtocol.writeRequest(out, request);
+
+			while (true) {
+				byte type = in.readByte();
+				if (type == NaftahDaemonProtocol.EXIT) {
+					return in.readInt();
+				}
+				byte[] bytes = in.readNBytes(in.readInt());
+				PrintStream stream = type == NaftahDaemonProtocol.STDERR ? System.err : System.out;
+				stream.write(bytes, 0, bytes.length);
+				stream.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,297 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+
+/**
+ * The wire protocol between the Naftah daemon ({@link NaftahDaemonServer}) and its clients
+ * ({@link NaftahDaemonClient}).
+ * <p>
+ * A client connects to the Unix domain socket of the daemon, writes one {@link Request} and then
+ * reads frames until the exit frame:
+ * </p>
+ * <ul>
+ * <li>request: the protocol version, the script (a file path or the script content), the script
+ * arguments and the Naftah system properties of the client,</li>
+ * <li>frame: a type byte ({@link #STDOUT}, {@link #STDERR} or {@link #EXIT}) followed by, for output
+ * frames, a length and that many UTF-8 bytes, and for the exit frame, the exit code.</li>
+ * </ul>
+ *
+ * @author Chakib Daii
+ */
+public final class NaftahDaemonProtocol {
+
+	/**
+	 * Environment variable overriding the socket location.
+	 */
+	public static final String SOCKET_ENV = "NAFTAH_DAEMON_SOCKET";
+
+	/**
+	 * Default socket location, relative to the user home.
+	 */
+	public static final String DEFAULT_SOCKET = ".naftah/daemon.sock";
+
+	/**
+	 * The protocol version, checked by the daemon for each request.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Frame holding standard output bytes.
+	 */
+	public static final byte STDOUT = 1;
+
+	/**
+	 * Frame holding standard error bytes.
+	 */
+	public static final byte STDERR = 2;
+
+	/**
+	 * Last frame of a response, holding the exit code.
+	 */
+	public static final byte EXIT = 3;
+
+	/**
+	 * Prefix of the system properties forwarded by the client.
+	 */
+	public static final String PROPERTIES_PREFIX = "naftah.";
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private NaftahDaemonProtocol() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Returns the socket location: {@value #SOCKET_ENV} if set, otherwise {@value #DEFAULT_SOCKET} in
+	 * the user home.
+	 *
+	 * @return the socket path
+	 */
+	public static Path getSocketPath() {
+		String socket = System.getenv(SOCKET_ENV);
+		if (Objects.nonNull(socket) && !socket.isBlank()) {
+			return Path.of(socket).toAbsolutePath();
+		}
+		return Path.of(System.getProperty("user.home")).resolve(DEFAULT_SOCKET);
+	}
+
+	/**
+	 * Returns the Naftah system properties of the current process, forwarded with a request so that
+	 * the script runs with the options of the client.
+	 *
+	 * @return the properties, by name
+	 */
+	public static Map<String, String> getForwardedProperties() {
+		Map<String, String> properties = new LinkedHashMap<>();
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (name.startsWith(PROPERTIES_PREFIX)) {
+				properties.put(name, System.getProperty(name));
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * Writes a request.
+	 *
+	 * @param out     the output
+	 * @param request the request
+	 * @throws IOException if the request cannot be written
+	 */
+	public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+		out.writeInt(VERSION);
+		out.writeBoolean(request.isScriptFile());
+		writeString(out, request.script());
+		out.writeInt(request.args().size());
+		for (String arg : request.args()) {
+			writeString(out, arg);
+		}
+		out.writeInt(request.properties().size());
+		for (Map.Entry<String, String> property : request.properties().entrySet()) {
+			writeString(out, property.getKey());
+			writeString(out, property.getValue());
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads a request.
+	 *
+	 * @param in the input
+	 * @return the request
+	 * @throws IOException    if the request cannot be read
+	 * @throws NaftahBugError if the client speaks another protocol version
+	 */
+	public static Request readRequest(DataInputStream in) throws IOException {
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new NaftahBugError("إصدار بروتوكول العميل (%d) لا يطابق إصدار الخادم (%d)."
+					.formatted(version, VERSION));
+		}
+		boolean isScriptFile = in.readBoolean();
+		String script = readString(in);
+		int argsSize = in.readInt();
+		List<String> args = new ArrayList<>(argsSize);
+		for (int i = 0; i < argsSize; i++) {
+			args.add(readString(in));
+		}
+		int propertiesSize = in.readInt();
+		Map<String, String> properties = new LinkedHashMap<>();
+		for (int i = 0; i < propertiesSize; i++) {
+			properties.put(readString(in), readString(in));
+		}
+		return new Request(script, isScriptFile, args, properties);
+	}
+
+	/**
+	 * Writes a string as its UTF-8 length and bytes; unlike {@link DataOutputStream#writeUTF(String)}
+	 * it is not limited to 64 KB, so whole scripts can be sent.
+	 *
+	 * @param out    the output
+	 * @param string the string
+	 * @throws IOException if the string cannot be written
+	 */
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+	 *
+	 * @param in the input
+	 * @return the string
+	 * @throws IOException if the string cannot be read
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes an output frame.
+	 *
+	 * @param out  the output, also used as the lock that keeps frames of concurrent writers whole
+	 * @param type the frame type, {@link #STDOUT} or {@link #STDERR}
+	 * @param b    the bytes
+	 * @param off  the offset of the bytes
+	 * @param len  the number of bytes
+	 * @throws IOException if the frame cannot be written
+	 */
+	public static void writeFrame(DataOutputStream out, byte type, byte[] b, int off, int len) throws IOException {
+		synchronized (out) {
+			out.writeByte(type);
+			out.writeInt(len);
+			out.write(b, off, len);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Writes the exit frame.
+	 *
+	 * @param out      the output
+	 * @param exitCode the exit code of the run
+	 * @throws IOException if the frame cannot be written
+	 */
+	public static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+		synchronized (out) {
+			out.writeByte(EXIT);
+			out.writeInt(exitCode);
+			out.flush();
+		}
+	}
+
+	/**
+	 * A request to run a script.
+	 *
+	 * @param script       the absolute path of the script file, or the script content
+	 * @param isScriptFile whether {@code script} is a file path
+	 * @param args         the script arguments
+	 * @param properties   the system properties to set while the script runs
+	 */
+	public record Request(String script, boolean isScriptFile, List<String> args, Map<String, String> properties) {
+	}
+
+	/**
+	 * An output stream writing the bytes it receives as frames of a given type.
+	 * <p>
+	 * Frames always end on a character boundary: the trailing bytes of an incomplete UTF-8 sequence
+	 * are held back until the sequence is complete, so the client can decode each frame on its own.
+	 * </p>
+	 */
+	public static final class FrameOutputStream extends OutputStream {
+		private final DataOutputStream out;
+		private final byte type;
+		private final byte[] pending = new byte[3];
+		private int pendingLength;
+
+		/**
+		 * Creates a frame output stream.
+		 *
+		 * @param out  the output
+		 * @param type the frame type, {@link #STDOUT} or {@link #STDERR}
+		 */
+		public FrameOutputStream(DataOutputStream out, byte type) {
+			this.out = out;
+			this.type = type;
+		}
+
+		/**
+		 * Returns the length of the incomplete UTF-8 sequence at the end of the bytes.
+		 *
+		 * @param b   the bytes
+		 * @param len the number of bytes
+		 * @return the number of trailing bytes to hold back
+		 */
+		private static int incompleteLength(byte[] b, int len) {
+			for (int i = 1; i <= Math.min(3, len); i++) {
+				int c = b[len - i] & 0xFF;
+				if ((c & 0xC0) != 0x80) {
+					// lead byte: the sequence is complete if it holds the expected number of bytes
+					int expected = c >= 0xF0 ? 4 : c >= 0xE0 ? 3 : c >= 0xC0 ? 2 : 1;
+					return expected > i ? i : 0;
+				}
+			}
+			return 0;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) throws IOException {
+			byte[] bytes = new byte[pendingLength + len];
+			System.arraycopy(pending, 0, bytes, 0, pendingLength);
+			System.arraycopy(b, off, bytes, pendingLength, len);
+			int incomplete = incompleteLength(bytes, bytes.length);
+			int complete = bytes.length - incomplete;
+			System.arraycopy(bytes, complete, pending, 0, incomplete);
+			pendingLength = incomplete;
+			if (complete > 0) {
+				writeFrame(out, type, bytes, 0, complete);
+			}
+		}
+	}
+}
@@ -0,0 +1,362 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.daiitech.naftah.Naftah;
+import org.daiitech.naftah.builtin.lang.None;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.parser.ParserCaches;
+import org.daiitech.naftah.runtime.CompiledProgram;
+import org.daiitech.naftah.runtime.NaftahRuntime;
+import org.daiitech.naftah.utils.ClassDataSharingArchive;
+
+import jdk.net.ExtendedSocketOptions;
+import jdk.net.UnixDomainPrincipal;
+
+import static org.daiitech.naftah.builtin.utils.ObjectUtils.getNaftahValueToString;
+import static org.daiitech.naftah.builtin.utils.ObjectUtils.isSimpleOrBuiltinOrCollectionOrMapOfSimpleType;
+import static org.daiitech.naftah.parser.NaftahParserHelper.isDeclaredVariableWithFlag;
+import static org.daiitech.naftah.utils.script.ScriptUtils.padText;
+
+/**
+ * The Naftah daemon: a long-lived interpreter that runs the scripts sent by
+ * {@link NaftahDaemonClient}s over a Unix domain socket (see {@link NaftahDaemonProtocol}).
+ * <p>
+ * Starting a JVM and bootstrapping the class path take far longer than most short scripts run. The
+ * daemon pays both once, then keeps:
+ * </p>
+ * <ul>
+ * <li>the bootstrap data (classes, JVM and builtin functions),</li>
+ * <li>the interpreter code, warmed up by running the training script of
+ * {@link ClassDataSharingArchive} at start,</li>
+ * <li>the {@linkplain CompiledProgram compiled programs} of the last {@value #COMPILED_SCRIPTS_CACHE_SIZE}
+ * scripts, keyed by file path and modification time or by script content.</li>
+ * </ul>
+ * <p>
+ * Each run is an isolated execution of the {@link NaftahRuntime}, starting from a fresh root
+ * context as a separate process would. The standard output and error of the daemon, and the Naftah
+ * system properties of the client, are swapped in for the duration of the run, so runs are executed
+ * one at a time, in the order the connections are accepted. Scripts do not read the standard input of the client, and relative
+ * paths resolve against the working directory of the daemon.
+ * </p>
+ * <p>
+ * Scripts run with the rights of the daemon, so only its owner may use it: on POSIX file systems the
+ * socket is only readable and writable by its owner (and so is its directory when the daemon creates
+ * it), and connections from other users are closed without being served.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class NaftahDaemonServer {
+
+	/**
+	 * Maximum number of compiled scripts kept.
+	 */
+	public static final int COMPILED_SCRIPTS_CACHE_SIZE = 64;
+
+	/**
+	 * Permissions of the socket file.
+	 */
+	static final Set<PosixFilePermission> SOCKET_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+
+	/**
+	 * Permissions of the socket directory, when the daemon creates it.
+	 */
+	static final Set<PosixFilePermission> SOCKET_DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+	/**
+	 * The socket path.
+	 */
+	private final Path socketPath;
+
+	/**
+	 * The runtime executing the scripts.
+	 */
+	private final NaftahRuntime runtime = NaftahRuntime.getInstance();
+
+	/**
+	 * Compiled scripts, least recently used first.
+	 */
+	private final Map<String, CompiledProgram> compiledScripts = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompiledProgram> eldest) {
+			return size() > COMPILED_SCRIPTS_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Creates a daemon listening on the given socket, bootstrapping the runtime if not done yet.
+	 *
+	 * @param socketPath the socket path
+	 */
+	public NaftahDaemonServer(Path socketPath) {
+		this.socketPath = socketPath;
+	}
+
+	/**
+	 * Checks whether a daemon is listening on the given socket.
+	 *
+	 * @param socketPath the socket path
+	 * @return {@code true} if a connection to the socket succeeds
+	 */
+	public static boolean isRunning(Path socketPath) {
+		if (!Files.exists(socketPath)) {
+			return false;
+		}
+		try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+			return true;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Prints the result of a run the way {@code naftah run} does.
+	 *
+	 * @param result the result
+	 */
+	private static void printResult(Object result) {
+		if (isSimpleOrBuiltinOrCollectionOrMapOfSimpleType(result) && !None.isNone(result)
+		// not a declaration with flag
+				&& !isDeclaredVariableWithFlag(result)) {
+			padText(getNaftahValueToString(result), true);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Sets system properties, returning their previous values.
+	 *
+	 * @param properties the properties to set, a {@code null} value clears the property
+	 * @return the previous values
+	 */
+	private static Map<String, String> setProperties(Map<String, String> properties) {
+		Map<String, String> previous = new HashMap<>();
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			previous
+					.put(   property.getKey(),
+							Objects.isNull(property.getValue()) ?
+									System.clearProperty(property.getKey()) :
+									System.setProperty(property.getKey(), property.getValue()));
+		}
+		return previous;
+	}
+
+	/**
+	 * Runs the bundled training script once, discarding its output, so that the interpreter code is
+	 * loaded and compiled and the {@linkplain ParserCaches parser caches} are filled before the first
+	 * request.
+	 */
+	public void warmUp() {
+		ParserCaches.warmUp();
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream(), true, StandardCharsets.UTF_8));
+		try {
+			run(ClassDataSharingArchive.getTrainingScript(), false, List.of());
+		}
+		catch (Throwable ignored) {
+			// warming up is best effort
+		}
+		finally {
+			System.setOut(out);
+		}
+	}
+
+	/**
+	 * Listens on the socket and serves the requests until the process stops. A stale socket file
+	 * (left by a daemon that did not stop cleanly) is replaced, and the socket file is deleted when the
+	 * process stops.
+	 *
+	 * @throws IOException    if the socket cannot be bound
+	 * @throws NaftahBugError if another daemon is listening on the socket
+	 */
+	public void serve() throws IOException {
+		if (isRunning(socketPath)) {
+			throw new NaftahBugError("يوجد خادم نفطه (daemon) يعمل بالفعل على: " + socketPath);
+		}
+		try (ServerSocketChannel server = bind(socketPath)) {
+			UserPrincipal owner = FileSystems
+					.getDefault()
+					.getUserPrincipalLookupService()
+					.lookupPrincipalByName(System.getProperty("user.name"));
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					Files.deleteIfExists(socketPath);
+				}
+				catch (IOException ignored) {
+				}
+			}));
+			padText("خادم نفطه (daemon) جاهز على: " + socketPath, true);
+
+			while (server.isOpen()) {
+				try (SocketChannel client = server.accept()) {
+					if (isOwnedBy(client, owner)) {
+						handle(client);
+					}
+				}
+				catch (IOException ignored) {
+					// the client went away, serve the next one
+				}
+			}
+		}
+	}
+
+	/**
+	 * Binds a server socket to the given path, replacing a stale socket file. On POSIX file systems,
+	 * the socket directory is created owner only, and the socket file is made owner only before any
+	 * connection is accepted.
+	 *
+	 * @param socketPath the socket path
+	 * @return the bound server socket
+	 * @throws IOException if the socket cannot be bound
+	 */
+	static ServerSocketChannel bind(Path socketPath) throws IOException {
+		Path directory = socketPath.toAbsolutePath().getParent();
+		boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+		if (posix && !Files.exists(directory)) {
+			Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(SOCKET_DIRECTORY_PERMISSIONS));
+		}
+		else {
+			Files.createDirectories(directory);
+		}
+		Files.deleteIfExists(socketPath);
+
+		ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		try {
+			server.bind(UnixDomainSocketAddress.of(socketPath));
+			if (posix) {
+				Files.setPosixFilePermissions(socketPath, SOCKET_PERMISSIONS);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			server.close();
+			throw e;
+		}
+		return server;
+	}
+
+	/**
+	 * Checks whether the peer of a connection runs as the given user. The check is skipped where the
+	 * peer credentials are not available, the socket permissions being the only protection there.
+	 *
+	 * @param client the client channel
+	 * @param owner  the user running the daemon
+	 * @return {@code true} if the connection may be served
+	 * @throws IOException if the peer credentials cannot be read
+	 */
+	static boolean isOwnedBy(SocketChannel client, UserPrincipal owner) throws IOException {
+		if (!client.supportedOptions().contains(ExtendedSocketOptions.SO_PEERCRED)) {
+			return true;
+		}
+		UnixDomainPrincipal peer = client.getOption(ExtendedSocketOptions.SO_PEERCRED);
+		return owner.equals(peer.user());
+	}
+
+	/**
+	 * Serves a request: runs the script with the output redirected to the client, then sends the
+	 * exit code.
+	 *
+	 * @param client the client channel
+	 * @throws IOException if the client cannot be read or written
+	 */
+	private void handle(SocketChannel client) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+
+		NaftahDaemonProtocol.Request request;
+		try {
+			request = NaftahDaemonProtocol.readRequest(in);
+		}
+		catch (NaftahBugError e) {
+			byte[] message = (e.getMessage() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+			NaftahDaemonProtocol.writeFrame(out, NaftahDaemonProtocol.STDERR, message, 0, message.length);
+			NaftahDaemonProtocol.writeExit(out, 1);
+			return;
+		}
+
+		PrintStream systemOut = System.out;
+		PrintStream systemErr = System.err;
+		PrintStream clientOut = new PrintStream(new NaftahDaemonProtocol.FrameOutputStream(out,
+																							NaftahDaemonProtocol.STDOUT),
+												true,
+												StandardCharsets.UTF_8);
+		PrintStream clientErr = new PrintStream(new NaftahDaemonProtocol.FrameOutputStream(out,
+																							NaftahDaemonProtocol.STDERR),
+												true,
+												StandardCharsets.UTF_8);
+		Map<String, String> previousProperties = null;
+		int exitCode = 0;
+		System.setOut(clientOut);
+		System.setErr(clientErr);
+		try {
+			previousProperties = setProperties(request.properties());
+			printResult(run(request.script(), request.isScriptFile(), request.args()));
+		}
+		catch (Throwable t) {
+			exitCode = 1;
+			Naftah.printPaddedErrorMessageToString(t);
+		}
+		finally {
+			clientOut.flush();
+			clientErr.flush();
+			System.setOut(systemOut);
+			System.setErr(systemErr);
+			if (Objects.nonNull(previousProperties)) {
+				setProperties(previousProperties);
+			}
+		}
+		NaftahDaemonProtocol.writeExit(out, exitCode);
+	}
+
+	/**
+	 * Runs a script in a fresh root context, reusing its compiled program when it was already compiled.
+	 *
+	 * @param script       the script file path or content
+	 * @param isScriptFile whether {@code script} is a file path
+	 * @param args         the script arguments
+	 * @return the result of the script
+	 * @throws Exception if the script cannot be read, parsed or run
+	 */
+	private Object run(String script, boolean isScriptFile, List<String> args) throws Exception {
+		String key = script;
+		if (isScriptFile) {
+			BasicFileAttributes attributes = Files.readAttributes(Path.of(script), BasicFileAttributes.class);
+			key = script + "@" + attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+		}
+		CompiledProgram program = compiledScripts.get(key);
+		if (Objects.isNull(program)) {
+			program = isScriptFile ? runtime.compile(Path.of(script)) : runtime.compile(script);
+			compiledScripts.put(key, program);
+		}
+		return program.execute(args);
+	}
+}
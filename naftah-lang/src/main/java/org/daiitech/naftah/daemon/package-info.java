@@ -0,0 +1,10 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+/**
+ * This is the base package of Naftah programming language daemon: a long-lived interpreter that runs
+ * scripts sent by thin clients over a Unix domain socket.
+ *
+ * @author Chakib Daii
+ */
+package org.daiitech.naftah.daemon;
@@ -0,0 +1,465 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import org.daiitech.naftah.NaftahSystem;
+import org.daiitech.naftah.builtin.utils.tuple.ImmutablePair;
+import org.daiitech.naftah.builtin.utils.tuple.Pair;
+import org.daiitech.naftah.utils.HashUtils;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getParser;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+
+/**
+ * On-disk cache of parsed Naftah programs, stored under {@value #COMPILED_CACHE_DIRECTORY} (next to
+ * {@link DefaultContext#CACHE_PATH}).
+ * <p>
+ * A program is stored in a file named after the SHA-256 hash of the Naftah version and the script
+ * source, so a script is parsed once per version and content: later runs rebuild the parse tree
+ * from the cache instead of invoking the ANTLR lexer and parser. The cache is laid out as follows
+ * (all integers are big-endian {@code int}s):
+ * </p>
+ * <ul>
+ * <li>a header: magic, format version, and the cache key as a UTF-8 string;</li>
+ * <li>a string table: the distinct token texts and context class names (each prefixed with its length);</li>
+ * <li>the tokens referenced by the tree: type, text id, channel, line, position in line, start and stop
+ * indexes in the source and index in the token stream;</li>
+ * <li>the parse tree, in pre-order: rule contexts as their class name id, invoking state, start and stop
+ * token ids and children count, and terminal nodes as their token id.</li>
+ * </ul>
+ * <p>
+ * Rule contexts are rebuilt through the public constructors of the contexts generated by ANTLR. Caches
+ * that cannot be read (an older format, an incompatible grammar or a damaged file) are deleted and replaced.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class CompiledScriptCache {
+
+	/**
+	 * Directory of the compiled scripts cache.
+	 */
+	public static final String COMPILED_CACHE_DIRECTORY = ".naftah/compiled";
+
+	/**
+	 * Path of the compiled scripts cache.
+	 */
+	public static final Path COMPILED_CACHE_PATH = Paths.get(COMPILED_CACHE_DIRECTORY);
+
+	/**
+	 * Extension of the compiled scripts.
+	 */
+	public static final String COMPILED_EXTENSION = ".ntc";
+
+	/**
+	 * Magic number of compiled scripts ({@code NFTP}).
+	 */
+	public static final int MAGIC = 0x4E465450;
+
+	/**
+	 * Version of the cache format, bumped on every incompatible change.
+	 */
+	public static final int VERSION = 1;
+
+	// node kinds
+	static final byte RULE_NODE = 0;
+	static final byte TERMINAL_NODE = 1;
+
+	private static final Logger LOGGER = Logger.getLogger(CompiledScriptCache.class.getName());
+
+	/**
+	 * The constructors of the rule contexts, by class name.
+	 */
+	private static final Map<String, ContextFactory> CONTEXT_FACTORIES = new ConcurrentHashMap<>();
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link org.daiitech.naftah.errors.NaftahBugError} when called.
+	 */
+	private CompiledScriptCache() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Returns the cache key of a script: the SHA-256 hash of the Naftah version and the script source.
+	 *
+	 * @param source the script source
+	 * @return the cache key
+	 */
+	public static String getKey(String source) {
+		return HashUtils.hashString(NaftahSystem.getVersion() + '\n' + source, "SHA-256");
+	}
+
+	/**
+	 * Returns the parser and the parse tree of a program, loaded from the cache when it holds the
+	 * program, and otherwise parsed and then stored in the cache.
+	 * <p>
+	 * A program loaded from the cache comes with a parser over an empty token stream, which only
+	 * provides the vocabulary of the language.
+	 * </p>
+	 *
+	 * @param input          the program input
+	 * @param errorListeners the error listeners of the lexer and the parser
+	 * @return the parser and the parse tree
+	 */
+	public static Pair<org.daiitech.naftah.parser.NaftahParser, org.daiitech.naftah.parser.NaftahParser.ProgramContext> parse(
+																																CharStream input,
+																																List<ANTLRErrorListener> errorListeners) {
+		String key = getKey(input.getText(Interval.of(0, input.size() - 1)));
+		Path path = COMPILED_CACHE_PATH.resolve(key + COMPILED_EXTENSION);
+
+		var cached = load(path, key);
+		if (Objects.nonNull(cached)) {
+			var parser = getParser(new CommonTokenStream(new org.daiitech.naftah.parser.NaftahLexer(CharStreams
+					.fromString(""))), errorListeners);
+			return ImmutablePair.of(parser, cached);
+		}
+
+		var parser = prepareRun(input, errorListeners);
+		var program = parse(parser, org.daiitech.naftah.parser.NaftahParser::program);
+		try {
+			Files.createDirectories(COMPILED_CACHE_PATH);
+			write(program, key, path);
+		}
+		catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Cannot write compiled script " + path, e);
+		}
+		return ImmutablePair.of(parser, program);
+	}
+
+	/**
+	 * Reads a parse tree from a cache file if there is one. A cache file that cannot be read is deleted, so
+	 * that it is replaced by the next write instead of being read again on every run.
+	 *
+	 * @param path the cache file path
+	 * @param key  the expected cache key
+	 * @return the parse tree, or {@code null} if the cache does not hold a readable program
+	 */
+	static org.daiitech.naftah.parser.NaftahParser.ProgramContext load(Path path, String key) {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try {
+			return read(path, key);
+		}
+		catch (IOException | ReflectiveOperationException | RuntimeException e) {
+			LOGGER.log(Level.FINE, "Cannot read compiled script " + path + ", deleting it", e);
+		}
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Cannot delete compiled script " + path, e);
+		}
+		return null;
+	}
+
+	/**
+	 * Writes a parse tree to a cache file.
+	 *
+	 * @param program the parse tree
+	 * @param key     the cache key of the program
+	 * @param path    the cache file path
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void write(ParserRuleContext program, String key, Path path) throws IOException {
+		// written aside then moved, so that a concurrent run never reads a partial cache
+		Path tempPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+				write(program, key, out);
+			}
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	/**
+	 * Writes a parse tree in the cache format.
+	 *
+	 * @param program the parse tree
+	 * @param key     the cache key of the program
+	 * @param out     the stream to write to, left open
+	 * @throws IOException if an I/O error occurs while writing, or the tree holds error nodes
+	 */
+	public static void write(ParserRuleContext program, String key, OutputStream out) throws IOException {
+		Map<String, Integer> stringIds = new HashMap<>();
+		List<String> strings = new ArrayList<>();
+		Map<Token, Integer> tokenIds = new IdentityHashMap<>();
+		List<Token> tokens = new ArrayList<>();
+		List<int[]> nodes = new ArrayList<>();
+		collect(program, stringIds, strings, tokenIds, tokens, nodes);
+		int[] textIds = new int[tokens.size()];
+		for (int i = 0; i < textIds.length; i++) {
+			textIds[i] = stringId(Objects.requireNonNullElse(tokens.get(i).getText(), ""), stringIds, strings);
+		}
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		writeString(data, key);
+
+		data.writeInt(strings.size());
+		for (String string : strings) {
+			writeString(data, string);
+		}
+
+		data.writeInt(tokens.size());
+		for (int i = 0; i < textIds.length; i++) {
+			Token token = tokens.get(i);
+			data.writeInt(token.getType());
+			data.writeInt(textIds[i]);
+			data.writeInt(token.getChannel());
+			data.writeInt(token.getLine());
+			data.writeInt(token.getCharPositionInLine());
+			data.writeInt(token.getStartIndex());
+			data.writeInt(token.getStopIndex());
+			data.writeInt(token.getTokenIndex());
+		}
+
+		data.writeInt(nodes.size());
+		for (int[] node : nodes) {
+			data.writeByte(node[0]);
+			for (int i = 1; i < node.length; i++) {
+				data.writeInt(node[i]);
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a parse tree from a cache file.
+	 *
+	 * @param path the cache file path
+	 * @param key  the expected cache key, or {@code null} to accept any
+	 * @return the parse tree
+	 * @throws IOException                 if the file cannot be read, is not a cache of the supported
+	 *                                     version or does not hold the expected program
+	 * @throws ReflectiveOperationException if a rule context cannot be created
+	 */
+	public static org.daiitech.naftah.parser.NaftahParser.ProgramContext read(Path path, String key) throws IOException,
+			ReflectiveOperationException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+			return read(in, key);
+		}
+	}
+
+	/**
+	 * Reads a parse tree in the cache format.
+	 *
+	 * @param in  the stream to read from, left open
+	 * @param key the expected cache key, or {@code null} to accept any
+	 * @return the parse tree
+	 * @throws IOException                 if the stream is not a cache of the supported version or does
+	 *                                     not hold the expected program
+	 * @throws ReflectiveOperationException if a rule context cannot be created
+	 */
+	public static org.daiitech.naftah.parser.NaftahParser.ProgramContext read(InputStream in, String key) throws IOException,
+			ReflectiveOperationException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+			throw new IOException("Unsupported compiled script format");
+		}
+		String cachedKey = readString(data);
+		if (Objects.nonNull(key) && !key.equals(cachedKey)) {
+			throw new IOException("Compiled script key mismatch: " + cachedKey);
+		}
+
+		String[] strings = new String[data.readInt()];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = readString(data);
+		}
+
+		Token[] tokens = new Token[data.readInt()];
+		for (int i = 0; i < tokens.length; i++) {
+			CommonToken token = new CommonToken(data.readInt(), strings[data.readInt()]);
+			token.setChannel(data.readInt());
+			token.setLine(data.readInt());
+			token.setCharPositionInLine(data.readInt());
+			token.setStartIndex(data.readInt());
+			token.setStopIndex(data.readInt());
+			token.setTokenIndex(data.readInt());
+			tokens[i] = token;
+		}
+
+		int count = data.readInt();
+		if (count == 0 || data.readByte() != RULE_NODE) {
+			throw new IOException("Compiled script without program");
+		}
+		ParserRuleContext program = readContext(data, strings, tokens, null);
+		return (org.daiitech.naftah.parser.NaftahParser.ProgramContext) program;
+	}
+
+	/**
+	 * Flattens a parse tree in pre-order, registering its strings and tokens.
+	 */
+	private static void collect(ParserRuleContext context,
+								Map<String, Integer> stringIds,
+								List<String> strings,
+								Map<Token, Integer> tokenIds,
+								List<Token> tokens,
+								List<int[]> nodes) throws IOException {
+		nodes
+				.add(new int[]{
+								RULE_NODE,
+								stringId(context.getClass().getSimpleName(), stringIds, strings),
+								context.invokingState,
+								tokenId(context.getStart(), tokenIds, tokens),
+								tokenId(context.getStop(), tokenIds, tokens),
+								context.getChildCount()
+				});
+		for (int i = 0; i < context.getChildCount(); i++) {
+			ParseTree child = context.getChild(i);
+			if (child instanceof ErrorNode) {
+				throw new IOException("Cannot cache a program with syntax errors");
+			}
+			else if (child instanceof TerminalNode terminalNode) {
+				nodes.add(new int[]{TERMINAL_NODE, tokenId(terminalNode.getSymbol(), tokenIds, tokens)});
+			}
+			else {
+				collect((ParserRuleContext) child, stringIds, strings, tokenIds, tokens, nodes);
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds a rule context and its subtree, its kind having been read already.
+	 */
+	private static ParserRuleContext readContext(   DataInputStream data,
+													String[] strings,
+													Token[] tokens,
+													ParserRuleContext parent) throws IOException,
+			ReflectiveOperationException {
+		String className = strings[data.readInt()];
+		int invokingState = data.readInt();
+		ParserRuleContext context = CONTEXT_FACTORIES
+				.computeIfAbsent(className, CompiledScriptCache::getContextFactory)
+				.create(parent, invokingState);
+		context.start = token(data.readInt(), tokens);
+		context.stop = token(data.readInt(), tokens);
+
+		int childCount = data.readInt();
+		for (int i = 0; i < childCount; i++) {
+			if (data.readByte() == TERMINAL_NODE) {
+				context.addChild(new TerminalNodeImpl(tokens[data.readInt()]));
+			}
+			else {
+				context.addChild(readContext(data, strings, tokens, context));
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Resolves the constructor of a rule context generated by ANTLR: either
+	 * {@code (ParserRuleContext parent, int invokingState)} for a rule, or
+	 * {@code (RuleContext ctx)} for a labeled alternative, which copies a context of its rule.
+	 */
+	private static ContextFactory getContextFactory(String className) {
+		try {
+			Class<? extends ParserRuleContext> type = Class
+					.forName(org.daiitech.naftah.parser.NaftahParser.class.getName() + "$" + className)
+					.asSubclass(ParserRuleContext.class);
+			try {
+				Constructor<? extends ParserRuleContext> constructor = type
+						.getConstructor(ParserRuleContext.class, int.class);
+				return (parent, invokingState) -> constructor.newInstance(parent, invokingState);
+			}
+			catch (NoSuchMethodException e) {
+				Class<? extends ParserRuleContext> ruleType = type.getSuperclass().asSubclass(ParserRuleContext.class);
+				Constructor<? extends ParserRuleContext> ruleConstructor = ruleType
+						.getConstructor(ParserRuleContext.class, int.class);
+				Constructor<? extends ParserRuleContext> constructor = type.getConstructor(ruleType);
+				return (parent, invokingState) -> constructor
+						.newInstance(ruleConstructor.newInstance(parent, invokingState));
+			}
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unknown parse tree context: " + className, e);
+		}
+	}
+
+	private static Token token(int id, Token[] tokens) {
+		return id < 0 ? null : tokens[id];
+	}
+
+	private static int tokenId(Token token, Map<Token, Integer> tokenIds, List<Token> tokens) {
+		if (Objects.isNull(token)) {
+			return -1;
+		}
+		return tokenIds.computeIfAbsent(token, t -> {
+			tokens.add(t);
+			return tokens.size() - 1;
+		});
+	}
+
+	private static int stringId(String string, Map<String, Integer> stringIds, List<String> strings) {
+		return stringIds.computeIfAbsent(string, s -> {
+			strings.add(s);
+			return strings.size() - 1;
+		});
+	}
+
+	private static void writeString(DataOutputStream data, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		byte[] bytes = new byte[data.readInt()];
+		data.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a rule context attached to its parent.
+	 */
+	@FunctionalInterface
+	private interface ContextFactory {
+		ParserRuleContext create(ParserRuleContext parent, int invokingState) throws InvocationTargetException,
+				InstantiationException,
+				IllegalAccessException;
+	}
+}
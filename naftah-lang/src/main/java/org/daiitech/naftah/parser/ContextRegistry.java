@@ -0,0 +1,51 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The mutable state shared by the contexts of one program execution: the contexts registered by
+ * depth and the global (non-block) imports.
+ * <p>
+ * Every {@link DefaultContext} belongs to the registry of its root context. Programs run by the
+ * command line and the REPL share {@link DefaultContext#DEFAULT_REGISTRY}; isolated executions
+ * (see {@link DefaultContext#executeIsolated(java.util.function.Supplier)}) each get a registry of
+ * their own, so that several programs can run concurrently in the same process without seeing each
+ * other's contexts and imports.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class ContextRegistry {
+
+	/**
+	 * Contexts indexed by their depth.
+	 */
+	final ConcurrentHashMap<Integer, CopyOnWriteArrayList<DefaultContext>> contexts = new ConcurrentHashMap<>();
+
+	/**
+	 * Global imports, by alias.
+	 */
+	final Map<String, String> imports = new ConcurrentHashMap<>();
+
+	/**
+	 * Checks whether no context is registered.
+	 *
+	 * @return {@code true} if the registry holds no context
+	 */
+	public boolean isEmpty() {
+		return contexts.isEmpty();
+	}
+
+	/**
+	 * Removes all the contexts and imports of the registry.
+	 */
+	public void clear() {
+		contexts.clear();
+		imports.clear();
+	}
+}
@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -27,10 +28,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -55,11 +58,16 @@ import org.daiitech.naftah.builtin.utils.tuple.ImmutableTriple;
 import org.daiitech.naftah.builtin.utils.tuple.Pair;
 import org.daiitech.naftah.builtin.utils.tuple.Triple;
 import org.daiitech.naftah.errors.NaftahBugError;
-import org.daiitech.naftah.utils.Base64SerializationUtils;
+import org.daiitech.naftah.utils.PrefixTrie;
+import org.daiitech.naftah.utils.reflect.ClassFileInfo;
+import org.daiitech.naftah.utils.reflect.ClassFileReader;
+import org.daiitech.naftah.utils.reflect.ClassPathSegment;
+import org.daiitech.naftah.utils.reflect.ClassScanningCache;
 import org.daiitech.naftah.utils.reflect.ClassScanningResult;
 import org.daiitech.naftah.utils.reflect.ClassUtils;
+import org.daiitech.naftah.utils.reflect.LazyClassMap;
 import org.daiitech.naftah.utils.reflect.RuntimeClassScanner;
-import org.daiitech.naftah.utils.script.ScriptUtils;
+import org.daiitech.naftah.utils.script.TransliterationDictionary;
 
 import static org.daiitech.naftah.Naftah.BUILTIN_CLASSES_PROPERTY;
 import static org.daiitech.naftah.Naftah.BUILTIN_PACKAGES_PROPERTY;
@@ -81,7 +89,6 @@ import static org.daiitech.naftah.utils.ConsoleLoader.startLoader;
 import static org.daiitech.naftah.utils.ConsoleLoader.stopLoader;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.QUALIFIED_CALL_SEPARATOR;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.QUALIFIED_NAME_SEPARATOR;
-import static org.daiitech.naftah.utils.reflect.ClassUtils.filterClasses;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.getArabicClassQualifiersMapping;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.getBuiltinMethods;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.getClassConstructors;
@@ -89,8 +96,9 @@ import static org.daiitech.naftah.utils.reflect.ClassUtils.getClassMethods;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.getClassQualifiers;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.getQualifiedCall;
 import static org.daiitech.naftah.utils.reflect.ClassUtils.getQualifiedName;
-import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.loadClasses;
-import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.scanClasses;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.PATHS;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.indexClasses;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.scanSegments;
 import static org.daiitech.naftah.utils.script.ScriptUtils.padText;
 
 /**
@@ -128,11 +136,30 @@ public class DefaultContext {
 	 * The path used for caching minimal runtime data.
 	 */
 	public static final Path MINIMAL_CACHE_PATH = Paths.get(".naftah/.naftah_minimal_cache");
+	/**
+	 * The path used for persisting the transliterations dictionary.
+	 */
+	public static final Path TRANSLITERATIONS_PATH = Paths.get(".naftah/.naftah_transliterations");
 
 	/**
-	 * Global map holding contexts indexed by their depth.
+	 * Maximum number of class names remembered as looked up without any initializer, so that lookups
+	 * of arbitrary names cannot grow the cache without bound.
+	 */
+	public static final int NON_INSTANTIABLE_JVM_CLASSES_CACHE_SIZE = 1024;
+	/**
+	 * Registry of the contexts of the programs that are not executed in isolation (the command line
+	 * and the REPL).
+	 */
+	protected static final ContextRegistry DEFAULT_REGISTRY = new ContextRegistry();
+	/**
+	 * Global map holding contexts indexed by their depth: the contexts of {@link #DEFAULT_REGISTRY}.
+	 */
+	protected static final ConcurrentHashMap<Integer, CopyOnWriteArrayList<DefaultContext>> CONTEXTS = DEFAULT_REGISTRY.contexts;
+	/**
+	 * Registry of the root contexts created by the current thread while it executes a program in
+	 * isolation; {@link #DEFAULT_REGISTRY} is used when unset.
 	 */
-	protected static final ConcurrentHashMap<Integer, CopyOnWriteArrayList<DefaultContext>> CONTEXTS = new ConcurrentHashMap<>();
+	protected static final ThreadLocal<ContextRegistry> CURRENT_REGISTRY = new ThreadLocal<>();
 	/**
 	 * Stack representing the call stack containing pairs of function and argument maps,
 	 * along with the returned value.
@@ -153,84 +180,24 @@ public class DefaultContext {
 	 * <ol>
 	 * <li>Scans all available classes.</li>
 	 * <li>Generates class qualifiers and their Arabic transliterations.</li>
-	 * <li>Loads the Class objects for all discovered classes.</li>
-	 * <li>Filters classes into accessible and instantiable sets.</li>
-	 * <li>Retrieves JVM class initializers (constructors) for instantiable classes.</li>
-	 * <li>Retrieves all JVM and builtin functions for accessible and instantiable classes.</li>
+	 * <li>Indexes all discovered classes from their class file bytes, deciding which are accessible and
+	 * instantiable without loading them (see {@link ClassFileReader}).</li>
+	 * <li>Loads the builtin function providers and retrieves their builtin functions.</li>
 	 * </ol>
 	 * <p>
+	 * The class maps are backed by the class index and load each {@link Class} only when it is requested.
+	 * <p>
+	 * JVM functions and class initializers are not reflected here; only the name index is recorded.
+	 * They are materialized per class, and cached, the first time a lookup touches that class
+	 * (see {@link #materializeJvmClassMembers(String)} and {@link #materializeJvmClassInitializers(String)}).
+	 * <p>
 	 * All operations are executed asynchronously using a fixed thread pool (2 threads),
 	 * and results are collected into a {@link ClassScanningResult} instance.
 	 * In case of interruption or execution errors, a {@link NaftahBugError} is thrown.
+	 *
+	 * @see #scanClassPath(ClassScanningResult, Set, boolean)
 	 */
-	protected static final Supplier<ClassScanningResult> LOADER_TASK = () -> {
-		ExecutorService internalExecutor = Executors.newFixedThreadPool(2);
-		ClassScanningResult result = new ClassScanningResult();
-		var classNames = scanClasses();
-		result.setClassNames(classNames);
-
-		try {
-			Callable<Pair<Set<String>, Map<String, String>>> qualifiersLoaderTask = () -> {
-				var classQualifiersMap = getClassQualifiers(classNames.keySet(), false);
-				var classQualifiers = new HashSet<>(classQualifiersMap.keySet());
-				var arabicClassQualifiers = getArabicClassQualifiersMapping(classQualifiersMap.values());
-				return ImmutablePair.of(classQualifiers, arabicClassQualifiers);
-			};
-			var qualifiersFuture = internalExecutor.submit(qualifiersLoaderTask);
-
-			Callable<Map<String, Class<?>>> classLoaderTask = () -> loadClasses(classNames, false);
-			var classFuture = internalExecutor.submit(classLoaderTask);
-
-			var qualifiersFutureResult = qualifiersFuture.get();
-			result.setClassQualifiers(qualifiersFutureResult.getLeft());
-			result.setArabicClassQualifiers(qualifiersFutureResult.getRight());
-
-			result.setClasses(classFuture.get());
-
-			Callable<Map<String, Class<?>>> accessibleClassLoaderTask = () -> filterClasses(result.getClasses(),
-																							ClassUtils::isAccessibleClass);
-			var accessibleClassFuture = internalExecutor.submit(accessibleClassLoaderTask);
-
-			Callable<Map<String, Class<?>>> instantiableClassLoaderTask = () -> filterClasses(  result.getClasses(),
-																								ClassUtils::isInstantiableClass);
-			var instantiableClassFuture = internalExecutor.submit(instantiableClassLoaderTask);
-
-			result.setAccessibleClasses(accessibleClassFuture.get());
-			result.setInstantiableClasses(instantiableClassFuture.get());
-
-			Callable<Map<String, List<JvmClassInitializer>>> jvmClassInitializerLoaderTask = () -> getClassConstructors(
-																														result
-																																.getInstantiableClasses());
-			var jvmClassInitializerFuture = internalExecutor.submit(jvmClassInitializerLoaderTask);
-
-			result.setJvmClassInitializers(jvmClassInitializerFuture.get());
-
-			var accessibleAndInstantiable = new HashMap<>(result.getAccessibleClasses()) {
-				{
-					putAll(result.getInstantiableClasses());
-				}
-			};
-
-			Callable<Map<String, List<JvmFunction>>> jvmFunctionsLoaderTask = () -> getClassMethods(
-																									accessibleAndInstantiable);
-			var jvmFunctionsFuture = internalExecutor.submit(jvmFunctionsLoaderTask);
-
-			Callable<Map<String, List<BuiltinFunction>>> builtinFunctionsLoaderTask = () -> getBuiltinMethods(
-																												accessibleAndInstantiable);
-			var builtinFunctionsFuture = internalExecutor.submit(builtinFunctionsLoaderTask);
-
-			result.setJvmFunctions(jvmFunctionsFuture.get());
-			result.setBuiltinFunctions(builtinFunctionsFuture.get());
-
-			return result;
-		}
-		catch (InterruptedException | ExecutionException e) {
-			throw new NaftahBugError(e);
-		}
-		finally {
-			internalExecutor.shutdown();
-		}
-	};
+	protected static final Supplier<ClassScanningResult> LOADER_TASK = () -> scanClassPath(null, Set.of(), false);
 
 	/**
 	 * A minimal supplier task that performs an asynchronous scan of classes and
@@ -241,35 +208,13 @@ public class DefaultContext {
 	 * operations where only class name metadata is needed.
 	 * <p>
 	 * All operations are executed asynchronously using a single-thread executor.
+	 *
+	 * @see #scanClassPath(ClassScanningResult, Set, boolean)
 	 */
-	protected static final Supplier<ClassScanningResult> MINIMAL_LOADER_TASK = () -> {
-		ExecutorService internalExecutor = Executors.newFixedThreadPool(1);
-		ClassScanningResult result = new ClassScanningResult();
-		var classNames = scanClasses();
-		result.setClassNames(classNames);
-
-		try {
-			Callable<Pair<Set<String>, Map<String, String>>> qualifiersLoaderTask = () -> {
-				var classQualifiersMap = getClassQualifiers(classNames.keySet(), false);
-				var classQualifiers = new HashSet<>(classQualifiersMap.keySet());
-				var arabicClassQualifiers = getArabicClassQualifiersMapping(classQualifiersMap.values());
-				return ImmutablePair.of(classQualifiers, arabicClassQualifiers);
-			};
-			var qualifiersFuture = internalExecutor.submit(qualifiersLoaderTask);
+	protected static final Supplier<ClassScanningResult> MINIMAL_LOADER_TASK = () -> scanClassPath(null,
+																									Set.of(),
+																									true);
 
-			var qualifiersFutureResult = qualifiersFuture.get();
-			result.setClassQualifiers(qualifiersFutureResult.getLeft());
-			result.setArabicClassQualifiers(qualifiersFutureResult.getRight());
-
-			return result;
-		}
-		catch (InterruptedException | ExecutionException e) {
-			throw new NaftahBugError(e);
-		}
-		finally {
-			internalExecutor.shutdown();
-		}
-	};
 	/**
 	 * Holds the current thread's {@link DefaultContext} in a thread-local variable.
 	 */
@@ -277,7 +222,7 @@ public class DefaultContext {
 	/**
 	 * Thread-local list holding all tasks spawned in the current scope for this thread.
 	 */
-	protected static ThreadLocal<List<Task<?>>> CURRENT_TASK_SCOPE;
+	private static final ThreadLocal<List<Task<?>>> CURRENT_TASK_SCOPE = new ThreadLocal<>();
 	// LOADED CLASSES
 	protected static volatile Set<String> CLASS_NAMES;
 	protected static volatile Set<String> CLASS_QUALIFIERS;
@@ -286,13 +231,21 @@ public class DefaultContext {
 	protected static volatile Map<String, Class<?>> CLASSES;
 	protected static volatile Map<String, Class<?>> ACCESSIBLE_CLASSES;
 	protected static volatile Map<String, Class<?>> INSTANTIABLE_CLASSES;
-	// qualifiedCall -> Method
+	// qualifiedCall -> Method (materialized lazily, per class)
 	protected static volatile Map<String, List<JvmFunction>> JVM_FUNCTIONS;
-	protected static volatile ThreadLocal<List<JvmFunction>> CURRENT_LOOKUP_JVM_FUNCTIONS;
+	private static final ThreadLocal<List<JvmFunction>> CURRENT_LOOKUP_JVM_FUNCTIONS = new ThreadLocal<>();
+	// qualifiedName -> Constructor (materialized lazily, per class)
 	protected static volatile Map<String, List<JvmClassInitializer>> JVM_CLASS_INITIALIZERS;
-	protected static volatile ThreadLocal<List<JvmClassInitializer>> CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS;
+	// qualifiedNames of the classes last looked up without any initializer (bounded, oldest evicted first)
+	protected static volatile Set<String> NON_INSTANTIABLE_JVM_CLASSES;
+	// qualifiedNames of classes whose methods are already materialized into JVM_FUNCTIONS
+	protected static volatile Set<String> MATERIALIZED_JVM_CLASSES;
+	protected static volatile boolean ALL_JVM_CLASSES_MATERIALIZED;
+	private static final ThreadLocal<List<JvmClassInitializer>> CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS = new ThreadLocal<>();
 	protected static volatile Map<String, List<BuiltinFunction>> BUILTIN_FUNCTIONS;
-	protected static volatile Map<String, String> IMPORTS = new ConcurrentHashMap<>();
+	// completion names (see getCompletions), built on demand and dropped when the functions change
+	protected static volatile PrefixTrie<String> COMPLETION_INDEX;
+	protected static volatile Map<String, String> IMPORTS = DEFAULT_REGISTRY.imports;
 	protected static volatile boolean SHOULD_BOOT_STRAP;
 	protected static volatile boolean FORCE_BOOT_STRAP;
 	protected static volatile boolean ASYNC_BOOT_STRAP;
@@ -305,7 +258,8 @@ public class DefaultContext {
 	 * If an error occurs (non-null {@code throwable}), it triggers a default bootstrap
 	 * and marks {@code BOOT_STRAP_FAILED} as {@code true}.
 	 * Otherwise, it sets the scanning context from the {@link ClassScanningResult}
-	 * and optionally caches the result if {@code CACHE_SCANNING_RESULTS_PROPERTY} is enabled.
+	 * and optionally caches the result, along with the transliterations dictionary, if
+	 * {@code CACHE_SCANNING_RESULTS_PROPERTY} is enabled.
 	 */
 	protected static final BiConsumer<? super ClassScanningResult, ? super Throwable> LOADER_CONSUMER = (   result,
 																											throwable) -> {
@@ -317,6 +271,7 @@ public class DefaultContext {
 			setContextFromClassScanningResult(result);
 			if (Boolean.getBoolean(CACHE_SCANNING_RESULTS_PROPERTY)) {
 				serializeClassScanningResult(result, CACHE_PATH);
+				serializeTransliterationDictionary();
 			}
 		}
 	};
@@ -339,6 +294,7 @@ public class DefaultContext {
 			setContextFromClassScanningResult(result);
 			if (Boolean.getBoolean(CACHE_SCANNING_RESULTS_PROPERTY)) {
 				serializeClassScanningResult(result, MINIMAL_CACHE_PATH);
+				serializeTransliterationDictionary();
 			}
 		}
 	};
@@ -348,6 +304,7 @@ public class DefaultContext {
 	protected final AtomicInteger pendingTasks = new AtomicInteger(0);
 	protected final DefaultContext parent;
 	protected final int depth;
+	protected final ContextRegistry registry; // registry of the root context
 	protected final InheritableThreadLocal<Map<String, DeclaredVariable>> variables = SuppliedInheritableThreadLocal
 			.withInitial(HashMap::new, HashMap::new);
 	protected final InheritableThreadLocal<Map<String, DeclaredFunction<?>>> functions = SuppliedInheritableThreadLocal
@@ -400,8 +357,14 @@ public class DefaultContext {
 	 * <p>
 	 * Context creation is restricted: if the environment is not a REPL
 	 * (as indicated by {@code INSIDE_REPL_PROPERTY}), a root context may only be
-	 * created when no other contexts already exist. Violating this invariant
-	 * results in a {@link NaftahBugError}.
+	 * created when no other contexts already exist in its registry. Violating this
+	 * invariant results in a {@link NaftahBugError}.
+	 * </p>
+	 *
+	 * <p>
+	 * A child context belongs to the registry of its parent; a root context belongs to
+	 * the registry of the isolated execution running on the current thread, if any
+	 * (see {@link #executeIsolated(Supplier)}), otherwise to {@link #DEFAULT_REGISTRY}.
 	 * </p>
 	 *
 	 * <p>
@@ -422,7 +385,10 @@ public class DefaultContext {
 								Map<String, String> blockImports,
 								Map<String, DeclaredParameter> parameters,
 								Map<String, Object> arguments) {
-		if (!Boolean.getBoolean(INSIDE_REPL_PROPERTY) && parent == null && (!CONTEXTS.isEmpty())) {
+		this.registry = parent == null ?
+				Objects.requireNonNullElse(CURRENT_REGISTRY.get(), DEFAULT_REGISTRY) :
+				parent.registry;
+		if (!Boolean.getBoolean(INSIDE_REPL_PROPERTY) && parent == null && (!registry.isEmpty())) {
 			throw newNaftahBugInvalidUsageError();
 		}
 		this.parent = parent;
@@ -451,7 +417,7 @@ public class DefaultContext {
 				}
 			}
 		}
-		CONTEXTS.computeIfAbsent(depth, d -> new CopyOnWriteArrayList<>()).add(this);
+		registry.contexts.computeIfAbsent(depth, d -> new CopyOnWriteArrayList<>()).add(this);
 		CURRENT_CONTEXT.set(this);
 	}
 
@@ -679,7 +645,8 @@ public class DefaultContext {
 	}
 
 	/**
-	 * Retrieves all contexts registered at a specific depth.
+	 * Retrieves all contexts registered at a specific depth, in the registry of the
+	 * current context (or of the current thread when it has no current context).
 	 * <p>
 	 * Multiple contexts may exist at the same depth when asynchronous tasks
 	 * or concurrent scopes are active. The returned list is thread-safe but is
@@ -691,7 +658,11 @@ public class DefaultContext {
 	 *         an empty list if none exist
 	 */
 	public static List<DefaultContext> getContextsByDepth(int depth) {
-		return CONTEXTS.getOrDefault(depth, new CopyOnWriteArrayList<>());
+		DefaultContext currentContext = CURRENT_CONTEXT.get();
+		ContextRegistry registry = Objects.nonNull(currentContext) ?
+				currentContext.registry :
+				Objects.requireNonNullElse(CURRENT_REGISTRY.get(), DEFAULT_REGISTRY);
+		return registry.contexts.getOrDefault(depth, new CopyOnWriteArrayList<>());
 	}
 
 
@@ -848,7 +819,7 @@ public class DefaultContext {
 	}
 
 	/**
-	 * Attempts to remove a context from the global context registry.
+	 * Attempts to remove a context from its context registry.
 	 *
 	 * <p>The removal is <strong>conditional</strong>. This method will only
 	 * deregister the given context when all the following conditions
@@ -858,7 +829,7 @@ public class DefaultContext {
 	 * <li>The context has no pending asynchronous tasks.</li>
 	 * <li>No descendant context has pending tasks.</li>
 	 * <li>The context has been properly registered in the
-	 * {@link DefaultContext#CONTEXTS} structure.</li>
+	 * registry of its root context.</li>
 	 * </ul>
 	 *
 	 * <p>If removal is not yet possible, the context is marked for later
@@ -892,11 +863,11 @@ public class DefaultContext {
 		}
 
 		// Now it is safe: remove only ctx (not the whole depth)
-		CopyOnWriteArrayList<DefaultContext> list = CONTEXTS.get(context.depth);
+		CopyOnWriteArrayList<DefaultContext> list = context.registry.contexts.get(context.depth);
 		if (list != null) {
 			list.remove(context);
 			if (list.isEmpty()) {
-				CONTEXTS.remove(context.depth, list);
+				context.registry.contexts.remove(context.depth, list);
 			}
 		}
 
@@ -968,12 +939,18 @@ public class DefaultContext {
 	 * no scope is active.</p>
 	 */
 	public static void startScope() {
-		if (Objects.isNull(CURRENT_TASK_SCOPE)) {
-			CURRENT_TASK_SCOPE = new ThreadLocal<>();
-		}
 		CURRENT_TASK_SCOPE.set(new ArrayList<>());
 	}
 
+	/**
+	 * Returns the tasks spawned in the task scope of the current thread.
+	 *
+	 * @return the tasks of the current scope, or {@code null} if no scope is active
+	 */
+	public static List<Task<?>> getCurrentTaskScope() {
+		return CURRENT_TASK_SCOPE.get();
+	}
+
 	/**
 	 * Retrieves and clears the thread-local list of JVM functions for the current lookup context.
 	 * <p>
@@ -984,9 +961,6 @@ public class DefaultContext {
 	 * @return the list of {@link JvmFunction} for the current lookup, or {@code null} if none is set
 	 */
 	public static List<JvmFunction> getCurrentLookupJvmFunctions() {
-		if (Objects.isNull(CURRENT_LOOKUP_JVM_FUNCTIONS)) {
-			return null;
-		}
 		var result = CURRENT_LOOKUP_JVM_FUNCTIONS.get();
 		CURRENT_LOOKUP_JVM_FUNCTIONS.remove();
 		return result;
@@ -995,16 +969,12 @@ public class DefaultContext {
 	/**
 	 * Sets the thread-local list of JVM functions for the current lookup context.
 	 * <p>
-	 * If the thread-local variable {@code CURRENT_LOOKUP_JVM_FUNCTIONS} is not initialized,
-	 * it is created. This allows subsequent calls to {@link #getCurrentLookupJvmFunctions()}
+	 * This allows subsequent calls to {@link #getCurrentLookupJvmFunctions()}
 	 * to retrieve the list in the same thread.
 	 *
 	 * @param lookupJvmFunctions the list of {@link JvmFunction} to store for the current thread
 	 */
 	public static void setCurrentLookupJvmFunctions(List<JvmFunction> lookupJvmFunctions) {
-		if (Objects.isNull(CURRENT_LOOKUP_JVM_FUNCTIONS)) {
-			CURRENT_LOOKUP_JVM_FUNCTIONS = new ThreadLocal<>();
-		}
 		CURRENT_LOOKUP_JVM_FUNCTIONS.set(lookupJvmFunctions);
 	}
 
@@ -1018,9 +988,6 @@ public class DefaultContext {
 	 * @return the list of {@link JvmClassInitializer} for the current lookup, or {@code null} if none is set
 	 */
 	public static List<JvmClassInitializer> getCurrentLookupJvmClassInitializers() {
-		if (Objects.isNull(CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS)) {
-			return null;
-		}
 		var result = CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS.get();
 		CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS.remove();
 		return result;
@@ -1029,16 +996,12 @@ public class DefaultContext {
 	/**
 	 * Sets the thread-local list of JVM class initializers for the current lookup context.
 	 * <p>
-	 * If the thread-local variable {@code CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS} is not initialized,
-	 * it is created. This allows subsequent calls to {@link #getCurrentLookupJvmClassInitializers()}
+	 * This allows subsequent calls to {@link #getCurrentLookupJvmClassInitializers()}
 	 * to retrieve the list in the same thread.
 	 *
 	 * @param lookupJvmClassInitializers the list of {@link JvmClassInitializer} to store for the current thread
 	 */
 	public static void setCurrentLookupJvmClassInitializers(List<JvmClassInitializer> lookupJvmClassInitializers) {
-		if (Objects.isNull(CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS)) {
-			CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS = new ThreadLocal<>();
-		}
 		CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS.set(lookupJvmClassInitializers);
 	}
 
@@ -1088,28 +1051,46 @@ public class DefaultContext {
 	/**
 	 * Updates the context static fields from the given {@link ClassScanningResult}.
 	 * Marks bootstrapping as completed.
+	 * <p>
+	 * JVM functions and class initializers start as empty concurrent caches (unless the result already
+	 * carries them) and are filled on demand by {@link #materializeJvmClassMembers(String)} and
+	 * {@link #materializeJvmClassInitializers(String)}.
 	 *
 	 * @param result the class scanning result containing loaded class information
 	 */
 	protected static void setContextFromClassScanningResult(ClassScanningResult result) {
-		CLASS_NAMES = Set.copyOf(result.getClassNames().keySet());
-		CLASS_QUALIFIERS = Set.copyOf(result.getClassQualifiers());
-		ARABIC_CLASS_QUALIFIERS = Map.copyOf(result.getArabicClassQualifiers());
+		CLASS_NAMES = Collections.unmodifiableSet(result.getClassNames().keySet());
+		CLASS_QUALIFIERS = Collections.unmodifiableSet(result.getClassQualifiers());
+		ARABIC_CLASS_QUALIFIERS = Collections.unmodifiableMap(result.getArabicClassQualifiers());
 		if (Objects.nonNull(result.getClasses())) {
-			CLASSES = Map.copyOf(result.getClasses());
+			CLASSES = Collections.unmodifiableMap(result.getClasses());
 		}
 		if (Objects.nonNull(result.getAccessibleClasses())) {
-			ACCESSIBLE_CLASSES = Map.copyOf(result.getAccessibleClasses());
+			ACCESSIBLE_CLASSES = Collections.unmodifiableMap(result.getAccessibleClasses());
 		}
 		if (Objects.nonNull(result.getInstantiableClasses())) {
-			INSTANTIABLE_CLASSES = Map.copyOf(result.getInstantiableClasses());
+			INSTANTIABLE_CLASSES = Collections.unmodifiableMap(result.getInstantiableClasses());
 		}
+		var jvmClassInitializers = new ConcurrentHashMap<String, List<JvmClassInitializer>>();
 		if (Objects.nonNull(result.getJvmClassInitializers())) {
-			JVM_CLASS_INITIALIZERS = Map.copyOf(result.getJvmClassInitializers());
-		}
+			jvmClassInitializers.putAll(result.getJvmClassInitializers());
+		}
+		JVM_CLASS_INITIALIZERS = jvmClassInitializers;
+		NON_INSTANTIABLE_JVM_CLASSES = Collections
+				.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<String, Boolean>() {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+						return size() > NON_INSTANTIABLE_JVM_CLASSES_CACHE_SIZE;
+					}
+				}));
+		var jvmFunctions = new ConcurrentHashMap<String, List<JvmFunction>>();
 		if (Objects.nonNull(result.getJvmFunctions())) {
-			JVM_FUNCTIONS = Map.copyOf(result.getJvmFunctions());
+			jvmFunctions.putAll(result.getJvmFunctions());
 		}
+		JVM_FUNCTIONS = jvmFunctions;
+		MATERIALIZED_JVM_CLASSES = ConcurrentHashMap.newKeySet();
+		ALL_JVM_CLASSES_MATERIALIZED = false;
+		COMPLETION_INDEX = null;
 		if (Objects.nonNull(result.getBuiltinFunctions())) {
 			setBuiltinFunctions(Collections.unmodifiableMap(result.getBuiltinFunctions()));
 		}
@@ -1195,6 +1176,142 @@ public class DefaultContext {
 				.forEach(builtinConsumer);
 	}
 
+	/**
+	 * Scans the class path and builds the class scanning result, either from scratch or by updating a
+	 * cached result.
+	 * <p>
+	 * Without a cached result, every entry of {@link RuntimeClassScanner#PATHS} is scanned. Otherwise only
+	 * the given stale entries (added or changed JARs and directories, see
+	 * {@link ClassPathSegment#getStalePaths(Map, String[], Map)}) are scanned again: the cached classes of the
+	 * stale and removed entries are dropped, the classes of the other entries are kept along with their
+	 * qualifiers and class file metadata, and only the newly scanned classes are transliterated and indexed.
+	 * <p>
+	 * Unless {@code minimal} is set, the classes are indexed from their class file bytes
+	 * (see {@link ClassFileReader}) and the builtin function providers are loaded to collect their builtin
+	 * functions.
+	 *
+	 * @param cached     the cached result to update, or {@code null} to scan the whole class path
+	 * @param stalePaths the class path entries to scan again when updating a cached result
+	 * @param minimal    {@code true} to only compute the class names and qualifiers
+	 * @return the class scanning result
+	 * @throws NaftahBugError in case of interruption or execution errors
+	 */
+	protected static ClassScanningResult scanClassPath( ClassScanningResult cached,
+														Set<String> stalePaths,
+														boolean minimal) {
+		ExecutorService internalExecutor = Executors.newFixedThreadPool(minimal ? 1 : 2);
+		ClassScanningResult result = new ClassScanningResult();
+
+		var scannedSegments = scanSegments(Objects.isNull(cached) ?
+				Arrays.asList(PATHS) :
+				Arrays.stream(PATHS).filter(stalePaths::contains).toList());
+
+		Map<String, ClassLoader> classNames = new HashMap<>();
+		Map<String, String> classOrigins = new HashMap<>();
+		Map<String, ClassPathSegment> segments = new ConcurrentHashMap<>();
+		if (Objects.nonNull(cached)) {
+			var cachedOrigins = Objects.requireNonNullElse(cached.getClassOrigins(), Map.<String, String>of());
+			for (var entry : cached.getClassNames().entrySet()) {
+				String origin = cachedOrigins.get(entry.getKey());
+				if (Objects.isNull(origin) || !stalePaths.contains(origin)) {
+					classNames.put(entry.getKey(), entry.getValue());
+					if (Objects.nonNull(origin)) {
+						classOrigins.put(entry.getKey(), origin);
+					}
+				}
+			}
+			if (Objects.nonNull(cached.getSegments())) {
+				cached.getSegments().forEach((path, segment) -> {
+					if (!stalePaths.contains(path)) {
+						segments.put(path, segment);
+					}
+				});
+			}
+		}
+		Set<String> keptClassNames = new HashSet<>(classNames.keySet());
+
+		Map<String, ClassLoader> scannedClassNames = new HashMap<>();
+		scannedSegments.forEach((path, segmentClassNames) -> {
+			for (var entry : segmentClassNames.entrySet()) {
+				scannedClassNames.put(entry.getKey(), entry.getValue());
+				classOrigins.put(entry.getKey(), path);
+			}
+		});
+		keptClassNames.removeAll(scannedClassNames.keySet());
+		classNames.putAll(scannedClassNames);
+		scannedSegments.keySet().parallelStream().forEach(path -> {
+			ClassPathSegment segment = ClassPathSegment.of(path);
+			if (Objects.nonNull(segment)) {
+				segments.put(path, segment);
+			}
+		});
+
+		result.setClassNames(classNames);
+		result.setClassOrigins(classOrigins);
+		result.setSegments(new HashMap<>(segments));
+
+		try {
+			Callable<Pair<Set<String>, Map<String, String>>> qualifiersLoaderTask = () -> {
+				var classQualifiers = new HashSet<>(getClassQualifiers(classNames.keySet(), false).keySet());
+				var arabicClassQualifiers = new HashMap<String, String>();
+				if (Objects.nonNull(cached)) {
+					cached.getArabicClassQualifiers().forEach((arabicQualifier, className) -> {
+						if (keptClassNames.contains(className)) {
+							arabicClassQualifiers.put(arabicQualifier, className);
+						}
+					});
+				}
+				getArabicClassQualifiersMapping(getClassQualifiers(scannedClassNames.keySet(), false).values())
+						.forEach(arabicClassQualifiers::putIfAbsent);
+				return ImmutablePair.of(classQualifiers, arabicClassQualifiers);
+			};
+			var qualifiersFuture = internalExecutor.submit(qualifiersLoaderTask);
+
+			Future<Map<String, ClassFileInfo>> classIndexFuture = null;
+			if (!minimal) {
+				Callable<Map<String, ClassFileInfo>> classIndexTask = () -> {
+					var classIndex = new HashMap<>(indexClasses(scannedClassNames));
+					if (Objects.nonNull(cached) && Objects.nonNull(cached.getClassIndex())) {
+						cached.getClassIndex().forEach((qualifiedName, classFileInfo) -> {
+							if (keptClassNames.contains(classFileInfo.className())) {
+								classIndex.putIfAbsent(qualifiedName, classFileInfo);
+							}
+						});
+					}
+					return classIndex;
+				};
+				classIndexFuture = internalExecutor.submit(classIndexTask);
+			}
+
+			var qualifiersFutureResult = qualifiersFuture.get();
+			result.setClassQualifiers(qualifiersFutureResult.getLeft());
+			result.setArabicClassQualifiers(qualifiersFutureResult.getRight());
+
+			if (!minimal) {
+				var classIndex = classIndexFuture.get();
+				result.setClassIndex(classIndex);
+
+				// only builtin providers are loaded to collect their builtin functions
+				Callable<Map<String, List<BuiltinFunction>>> builtinFunctionsLoaderTask = () -> getBuiltinMethods(
+																													new LazyClassMap(
+																																		classIndex,
+																																		ClassFileInfo::builtinProvider,
+																																		classNames));
+				var builtinFunctionsFuture = internalExecutor.submit(builtinFunctionsLoaderTask);
+
+				result.setBuiltinFunctions(builtinFunctionsFuture.get());
+			}
+
+			return result;
+		}
+		catch (InterruptedException | ExecutionException e) {
+			throw new NaftahBugError(e);
+		}
+		finally {
+			internalExecutor.shutdown();
+		}
+	}
+
 	/**
 	 * Calls the loader task to scan and load classes, optionally asynchronously.
 	 *
@@ -1226,15 +1343,15 @@ public class DefaultContext {
 	}
 
 	/**
-	 * Serializes the class scanning result to a cache file.
+	 * Serializes the class scanning result to a cache file, in the {@link ClassScanningCache} format.
 	 *
 	 * @param result    the class scanning result to serialize
-	 * @param cachePath the file path where the Base64 string should be saved
+	 * @param cachePath the file path where the cache should be saved
 	 * @throws NaftahBugError if serialization fails
 	 */
 	protected static void serializeClassScanningResult(ClassScanningResult result, Path cachePath) {
 		try {
-			var path = Base64SerializationUtils.serialize(result, cachePath);
+			var path = ClassScanningCache.write(result, cachePath);
 			if (Boolean.getBoolean(DEBUG_PROPERTY) || Boolean.getBoolean(INSIDE_INIT_PROPERTY)) {
 				padText("تم حفظ البيانات في: " + path, true);
 			}
@@ -1245,25 +1362,94 @@ public class DefaultContext {
 	}
 
 	/**
-	 * Attempts to deserialize a previously cached class scanning result.
-	 * If deserialization fails, triggers class loading asynchronously if configured.
+	 * Saves the transliterations dictionary next to the class scanning cache, if it changed.
 	 *
-	 * @param cachePath      the file path where the Base64 string should be saved
-	 * @param loaderRunnable the loader call in case of deserialization failure
+	 * @throws NaftahBugError if saving fails
+	 * @see TransliterationDictionary#save(Path)
 	 */
-	protected static void deserializeClassScanningResult(Path cachePath, Runnable loaderRunnable) {
+	protected static void serializeTransliterationDictionary() {
 		try {
-			ClassScanningResult result = (ClassScanningResult) Base64SerializationUtils.deserialize(cachePath);
-			setContextFromClassScanningResult(result);
+			TransliterationDictionary.save(TRANSLITERATIONS_PATH);
+		}
+		catch (IOException e) {
+			throw new NaftahBugError(e);
+		}
+	}
+
+	/**
+	 * Loads the transliterations dictionary saved next to the class scanning cache, if any, so that
+	 * the class path scan and the JVM members materialization do not transliterate known words again.
+	 * A dictionary that cannot be read is ignored, it is rebuilt on demand.
+	 *
+	 * @see TransliterationDictionary#load(Path)
+	 */
+	protected static void deserializeTransliterationDictionary() {
+		try {
+			TransliterationDictionary.load(TRANSLITERATIONS_PATH);
+		}
+		catch (IOException | IllegalArgumentException ignored) {
+		}
+	}
+
+	/**
+	 * Attempts to deserialize a previously cached class scanning result.
+	 * If deserialization fails (including caches written in an older format), triggers class loading
+	 * asynchronously if configured.
+	 * <p>
+	 * The cache is memory-mapped and its entries are decoded on demand, see {@link ClassScanningCache#read(Path)}.
+	 * <p>
+	 * The cached result is used as is only if none of the class path entries it was built from changed;
+	 * otherwise the stale entries are handed to {@code updaterConsumer}, which scans them again and merges
+	 * them into the cached result. The fingerprints of the entries that were only touched are refreshed in
+	 * the result, and the cache is written again when it is otherwise up to date, so these entries are not
+	 * hashed again on the next run.
+	 *
+	 * @param cachePath       the file path where the cache is saved
+	 * @param updaterConsumer the cache update call in case of stale class path entries
+	 * @param loaderRunnable  the loader call in case of deserialization failure
+	 */
+	protected static void deserializeClassScanningResult(   Path cachePath,
+															BiConsumer<ClassScanningResult, Set<String>> updaterConsumer,
+															Runnable loaderRunnable) {
+		ClassScanningResult result;
+		Set<String> stalePaths;
+		try {
+			result = ClassScanningCache.read(cachePath);
+			Map<String, ClassPathSegment> refreshedSegments = new ConcurrentHashMap<>();
+			stalePaths = ClassPathSegment
+					.getStalePaths( Objects.requireNonNullElse(result.getSegments(), Map.of()),
+									PATHS,
+									refreshedSegments);
+			if (!refreshedSegments.isEmpty()) {
+				var segments = new HashMap<>(result.getSegments());
+				segments.putAll(refreshedSegments);
+				result.setSegments(segments);
+			}
+			if (stalePaths.isEmpty()) {
+				setContextFromClassScanningResult(result);
+				if (!refreshedSegments.isEmpty() && Boolean.getBoolean(CACHE_SCANNING_RESULTS_PROPERTY)) {
+					serializeClassScanningResult(result, cachePath);
+				}
+				return;
+			}
 		}
 		catch (Exception e) {
 			loaderRunnable.run();
+			return;
 		}
+		if (Boolean.getBoolean(DEBUG_PROPERTY) || Boolean.getBoolean(INSIDE_INIT_PROPERTY)) {
+			padText("تحديث البيانات المحفوظة: إعادة فحص " + stalePaths.size() + " من مسارات فئات جافا المعدلة.",
+					true);
+		}
+		updaterConsumer.accept(result, stalePaths);
 	}
 
 	/**
 	 * Returns a list of all completion candidates combining builtin functions, JVM functions, and instantiable
 	 * classes.
+	 * <p>
+	 * Since JVM functions are materialized lazily, only the functions of classes already touched are
+	 * included.
 	 *
 	 * @return list of completion names
 	 */
@@ -1285,6 +1471,32 @@ public class DefaultContext {
 		return runtimeCompletions;
 	}
 
+	/**
+	 * Returns the completion candidates of {@link #getCompletions()} indexed in a {@link PrefixTrie}, for
+	 * completion by prefix and fuzzy suggestions without scanning every name.
+	 * <p>
+	 * The index is built on the first call and reused; it is dropped when the builtin functions or the
+	 * scanned classes change, and the JVM functions materialized later are added to it.
+	 *
+	 * @return the completion index
+	 */
+	public static PrefixTrie<String> getCompletionIndex() {
+		var completionIndex = COMPLETION_INDEX;
+		if (Objects.isNull(completionIndex)) {
+			synchronized (DefaultContext.class) {
+				completionIndex = COMPLETION_INDEX;
+				if (Objects.isNull(completionIndex)) {
+					completionIndex = new PrefixTrie<>();
+					for (String name : getCompletions()) {
+						completionIndex.put(name, name);
+					}
+					COMPLETION_INDEX = completionIndex;
+				}
+			}
+		}
+		return completionIndex;
+	}
+
 	/**
 	 * Performs the bootstrap process to load classes and functions, either synchronously or asynchronously, based on
 	 * configuration flags.
@@ -1307,13 +1519,21 @@ public class DefaultContext {
 			catch (IOException e) {
 				throw new NaftahBugError(e);
 			}
+			deserializeTransliterationDictionary();
 
 			Runnable loaderRunnable = () -> callLoader(ASYNC_BOOT_STRAP, LOADER_TASK, LOADER_CONSUMER);
 			if (FORCE_BOOT_STRAP || !Files.exists(CACHE_PATH)) {
 				loaderRunnable.run();
 			}
 			else {
-				deserializeClassScanningResult(CACHE_PATH, loaderRunnable);
+				deserializeClassScanningResult( CACHE_PATH,
+												(cached, stalePaths) -> callLoader(
+																					ASYNC_BOOT_STRAP,
+																					() -> scanClassPath(cached,
+																										stalePaths,
+																										false),
+																					LOADER_CONSUMER),
+												loaderRunnable);
 			}
 		}
 		else {
@@ -1324,13 +1544,21 @@ public class DefaultContext {
 			catch (IOException e) {
 				throw new NaftahBugError(e);
 			}
+			deserializeTransliterationDictionary();
 
 			Runnable loaderRunnable = () -> callLoader(false, MINIMAL_LOADER_TASK, MINIMAL_LOADER_CONSUMER);
 			if (FORCE_BOOT_STRAP || !Files.exists(MINIMAL_CACHE_PATH)) {
 				loaderRunnable.run();
 			}
 			else {
-				deserializeClassScanningResult(MINIMAL_CACHE_PATH, loaderRunnable);
+				deserializeClassScanningResult( MINIMAL_CACHE_PATH,
+												(cached, stalePaths) -> callLoader(
+																					false,
+																					() -> scanClassPath(cached,
+																										stalePaths,
+																										true),
+																					MINIMAL_LOADER_CONSUMER),
+												loaderRunnable);
 			}
 		}
 		if (Boolean.getBoolean(DEBUG_PROPERTY)) {
@@ -1348,14 +1576,17 @@ public class DefaultContext {
 	 * @return the {@link Class} object if found, or {@link Object} class as fallback
 	 */
 	protected static Class<?> doGetJavaType(String qualifiedName) {
-		if (INSTANTIABLE_CLASSES.containsKey(qualifiedName)) {
-			return INSTANTIABLE_CLASSES.get(qualifiedName);
+		Class<?> clazz;
+		if (INSTANTIABLE_CLASSES.containsKey(qualifiedName) && Objects
+				.nonNull(clazz = INSTANTIABLE_CLASSES.get(qualifiedName))) {
+			return clazz;
 		}
-		if (ACCESSIBLE_CLASSES.containsKey(qualifiedName)) {
-			return ACCESSIBLE_CLASSES.get(qualifiedName);
+		if (ACCESSIBLE_CLASSES.containsKey(qualifiedName) && Objects
+				.nonNull(clazz = ACCESSIBLE_CLASSES.get(qualifiedName))) {
+			return clazz;
 		}
-		if (CLASSES.containsKey(qualifiedName)) {
-			return CLASSES.get(qualifiedName);
+		if (CLASSES.containsKey(qualifiedName) && Objects.nonNull(clazz = CLASSES.get(qualifiedName))) {
+			return clazz;
 		}
 		return Object.class;
 	}
@@ -1538,10 +1769,11 @@ public class DefaultContext {
 	 */
 	public static synchronized void setBuiltinFunctions(Map<String, List<BuiltinFunction>> builtinFunctions) {
 		BUILTIN_FUNCTIONS = builtinFunctions;
+		COMPLETION_INDEX = null;
 	}
 
 	/**
-	 * Returns the global map of JVM functions.
+	 * Returns the global map of JVM functions materialized so far.
 	 *
 	 * @return a map of function names to lists of {@link JvmFunction}.
 	 */
@@ -1549,10 +1781,37 @@ public class DefaultContext {
 		return JVM_FUNCTIONS;
 	}
 
+	/**
+	 * Returns the global map of JVM class initializers materialized so far.
+	 *
+	 * @return a map of qualified class names to lists of {@link JvmClassInitializer}.
+	 */
 	public static Map<String, List<JvmClassInitializer>> getJvmClassInitializers() {
 		return JVM_CLASS_INITIALIZERS;
 	}
 
+	/**
+	 * Materializes the methods of every indexed accessible and instantiable class, then returns
+	 * the global map of JVM functions.
+	 * <p>
+	 * This defeats lazy materialization and is meant for listings (e.g. the manual) that need
+	 * the whole set of JVM functions.
+	 *
+	 * @return a map of function names to lists of {@link JvmFunction}, or {@code null} if not bootstrapped.
+	 */
+	public static Map<String, List<JvmFunction>> getAllJvmFunctions() {
+		if (!ALL_JVM_CLASSES_MATERIALIZED && BOOT_STRAPPED) {
+			if (Objects.nonNull(ACCESSIBLE_CLASSES)) {
+				ACCESSIBLE_CLASSES.keySet().forEach(DefaultContext::materializeJvmClassMembers);
+			}
+			if (Objects.nonNull(INSTANTIABLE_CLASSES)) {
+				INSTANTIABLE_CLASSES.keySet().forEach(DefaultContext::materializeJvmClassMembers);
+			}
+			ALL_JVM_CLASSES_MATERIALIZED = true;
+		}
+		return JVM_FUNCTIONS;
+	}
+
 	/**
 	 * Returns the global map of all registered classes.
 	 *
@@ -1587,7 +1846,7 @@ public class DefaultContext {
 	 * If the provided {@code ctx} (parse context) is part of a block (i.e., has a
 	 * parent of type {@code NaftahParser.BlockContext}), the import is registered
 	 * as a block-level import within the current context. Otherwise, the import is
-	 * added to the global {@code IMPORTS} map.
+	 * added to the global imports of the registry of the current context.
 	 * </p>
 	 *
 	 * @param currentContext the active {@link DefaultContext} where the import should be defined
@@ -1603,7 +1862,7 @@ public class DefaultContext {
 			currentContext.defineBlockImport(alias, importElement);
 		}
 		else {
-			IMPORTS.put(alias, importElement);
+			currentContext.registry.imports.put(alias, importElement);
 		}
 	}
 
@@ -1619,57 +1878,36 @@ public class DefaultContext {
 	 *
 	 * <p>Only thread-local data for the current thread is removed. This method
 	 * does not modify shared global structures or affect the state of other
-	 * threads. If the class maintains optional ThreadLocal fields, they are
-	 * removed only when non-null to ensure safe cleanup regardless of
-	 * initialization order.</p>
+	 * threads.</p>
 	 */
 	public static void cleanClassThreadLocals() {
 		CALL_STACK.remove();
 		LOOP_STACK.remove();
 		CURRENT_CONTEXT.remove();
-		if (Objects.nonNull(CURRENT_TASK_SCOPE)) {
-			CURRENT_TASK_SCOPE.remove();
-		}
-		if (Objects.nonNull(CURRENT_LOOKUP_JVM_FUNCTIONS)) {
-			CURRENT_LOOKUP_JVM_FUNCTIONS.remove();
-		}
-		if (Objects.nonNull(CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS)) {
-			CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS.remove();
-		}
+		CURRENT_TASK_SCOPE.remove();
+		CURRENT_LOOKUP_JVM_FUNCTIONS.remove();
+		CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS.remove();
 	}
 
 	/**
 	 * Looks up JVM class initializers by the Arabic-transliterated qualified class name.
 	 * <p>
-	 * If the class is found, it loads the corresponding {@link Class} object, retrieves
-	 * its constructors as {@link JvmClassInitializer} instances, stores them in the
-	 * thread-local {@link #CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS}, and returns {@code true}.
+	 * If the class is found, its constructors are materialized as {@link JvmClassInitializer} instances
+	 * (or taken from the cache if already materialized), stored in the
+	 * thread-local {@link #CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS}, and {@code true} is returned.
 	 * Otherwise, it returns {@code false}.
 	 *
 	 * @param arabicQualifiedName the Arabic-transliterated fully qualified class name
 	 * @return {@code true} if the class and its initializers were successfully found; {@code false} otherwise
 	 */
 	public static boolean lookupJvmClassInitializer(String arabicQualifiedName) {
-		String className;
-		if (Objects.nonNull(className = ARABIC_CLASS_QUALIFIERS.get(arabicQualifiedName))) {
-			try {
-				Class<?> clazz = Class.forName(className);
-				var jvmClassInitializers = ClassUtils
-						.getClassConstructors(  arabicQualifiedName,
-												clazz);
-
-				if (jvmClassInitializers.isEmpty()) {
-					return false;
-				}
-
-				setCurrentLookupJvmClassInitializers(jvmClassInitializers);
-				return true;
-			}
-			catch (ClassNotFoundException e) {
-				return false;
-			}
+		var jvmClassInitializers = materializeJvmClassInitializers(arabicQualifiedName);
+		if (Objects.isNull(jvmClassInitializers)) {
+			return false;
 		}
-		return false;
+
+		setCurrentLookupJvmClassInitializers(jvmClassInitializers);
+		return true;
 	}
 
 	/**
@@ -1679,37 +1917,157 @@ public class DefaultContext {
 	 * {@link ClassUtils#QUALIFIED_CALL_SEPARATOR}. If the class is found and contains the
 	 * corresponding method, the matching {@link JvmFunction} instances are stored
 	 * in the thread-local {@link #CURRENT_LOOKUP_JVM_FUNCTIONS} and {@code true} is returned.
+	 * The methods of the class are materialized and cached on the first lookup touching it.
 	 *
 	 * @param arabicQualifiedCall the Arabic-transliterated fully qualified call (class + method)
 	 * @return {@code true} if the function(s) were successfully found; {@code false} otherwise
 	 */
 	public static boolean lookupJvmFunctions(String arabicQualifiedCall) {
-		String[] arabicQualifiedCallParts;
+		var jvmFunctions = materializeJvmFunctions(arabicQualifiedCall);
+		if (Objects.isNull(jvmFunctions)) {
+			return false;
+		}
+
+		setCurrentLookupJvmFunctions(jvmFunctions);
+		return true;
+	}
+
+	/**
+	 * Resolves the {@link Class} indexed under the given Arabic-transliterated qualified class name.
+	 * <p>
+	 * When the classpath was scanned at bootstrap, only the indexed accessible and instantiable
+	 * classes are considered. Otherwise, the original Java class name is resolved through
+	 * {@link #ARABIC_CLASS_QUALIFIERS} and loaded with {@link Class#forName(String)}.
+	 *
+	 * @param arabicQualifiedName the Arabic-transliterated fully qualified class name
+	 * @param instantiableOnly    if {@code true}, only instantiable classes are resolved when bootstrapped
+	 * @return the resolved class, or {@code null} if it is not indexed or cannot be loaded
+	 */
+	protected static Class<?> resolveJvmClass(String arabicQualifiedName, boolean instantiableOnly) {
+		if (SHOULD_BOOT_STRAP) {
+			Class<?> clazz = Objects.nonNull(INSTANTIABLE_CLASSES) ? INSTANTIABLE_CLASSES.get(arabicQualifiedName) : null;
+			if (Objects.isNull(clazz) && !instantiableOnly && Objects.nonNull(ACCESSIBLE_CLASSES)) {
+				clazz = ACCESSIBLE_CLASSES.get(arabicQualifiedName);
+			}
+			return clazz;
+		}
 		String className;
-		if ((arabicQualifiedCallParts = arabicQualifiedCall.split(QUALIFIED_CALL_SEPARATOR)).length == 2 && Objects
-				.nonNull(className = ARABIC_CLASS_QUALIFIERS.get(arabicQualifiedCallParts[0]))) {
+		if (Objects.nonNull(ARABIC_CLASS_QUALIFIERS) && Objects
+				.nonNull(className = ARABIC_CLASS_QUALIFIERS.get(arabicQualifiedName))) {
 			try {
-				Class<?> clazz = Class.forName(className);
-				var jvmFunctions = ClassUtils
-						.getClassMethods(   arabicQualifiedCallParts[0],
-											clazz,
-											method -> arabicQualifiedCallParts[1]
-													.equals(ScriptUtils
-															.transliterateToArabicScriptDefault(
-																								method.getName())[0]));
-
-				if (jvmFunctions.isEmpty()) {
+				return Class.forName(className);
+			}
+			catch (Throwable ignored) {
+				// class is indexed but cannot be loaded
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Materializes all public methods of the class indexed under the given Arabic-transliterated
+	 * qualified name into {@link #JVM_FUNCTIONS}, grouped by qualified call.
+	 * <p>
+	 * Reflection happens once per class; subsequent calls are no-ops. A class is marked as
+	 * materialized only once its methods are registered, so a class whose methods could not be
+	 * reflected is reflected again by the next lookup touching it.
+	 *
+	 * @param arabicQualifiedName the Arabic-transliterated fully qualified class name
+	 * @return {@code true} if the class is indexed and its methods are materialized; {@code false} otherwise,
+	 *         including when its methods cannot be reflected
+	 */
+	protected static boolean materializeJvmClassMembers(String arabicQualifiedName) {
+		if (Objects.isNull(JVM_FUNCTIONS) || Objects.isNull(MATERIALIZED_JVM_CLASSES)) {
+			return false;
+		}
+		if (MATERIALIZED_JVM_CLASSES.contains(arabicQualifiedName)) {
+			return true;
+		}
+		Class<?> clazz = resolveJvmClass(arabicQualifiedName, false);
+		if (Objects.isNull(clazz)) {
+			return false;
+		}
+		synchronized (MATERIALIZED_JVM_CLASSES) {
+			if (!MATERIALIZED_JVM_CLASSES.contains(arabicQualifiedName)) {
+				try {
+					var classMethods = getClassMethods(arabicQualifiedName, clazz)
+							.stream()
+							.collect(Collectors.groupingBy(JvmFunction::getQualifiedCall));
+					JVM_FUNCTIONS.putAll(classMethods);
+					var completionIndex = COMPLETION_INDEX;
+					if (Objects.nonNull(completionIndex) && Boolean.getBoolean(INCLUDE_ALL_IN_COMPLETIONS_PROPERTY)) {
+						classMethods.keySet().forEach(qualifiedCall -> completionIndex.put(qualifiedCall, qualifiedCall));
+					}
+				}
+				catch (Throwable ignored) {
+					// classes whose methods cannot be reflected are not found by this lookup
 					return false;
 				}
+				MATERIALIZED_JVM_CLASSES.add(arabicQualifiedName);
+			}
+		}
+		return true;
+	}
 
-				setCurrentLookupJvmFunctions(jvmFunctions);
-				return true;
+	/**
+	 * Returns the JVM functions registered under the given Arabic-transliterated qualified call,
+	 * materializing the methods of the owning class on first access.
+	 *
+	 * @param arabicQualifiedCall the Arabic-transliterated fully qualified call (class + method)
+	 * @return the matching JVM functions, or {@code null} if none exist
+	 */
+	protected static List<JvmFunction> materializeJvmFunctions(String arabicQualifiedCall) {
+		String[] arabicQualifiedCallParts = arabicQualifiedCall.split(QUALIFIED_CALL_SEPARATOR);
+		if (arabicQualifiedCallParts.length == 2 && materializeJvmClassMembers(arabicQualifiedCallParts[0])) {
+			var jvmFunctions = JVM_FUNCTIONS.get(arabicQualifiedCall);
+			if (Objects.nonNull(jvmFunctions) && !jvmFunctions.isEmpty()) {
+				return jvmFunctions;
 			}
-			catch (ClassNotFoundException e) {
-				return false;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the JVM class initializers of the class indexed under the given Arabic-transliterated
+	 * qualified name, materializing and caching its public constructors on first access.
+	 * <p>
+	 * The class is resolved and reflected outside of the cache, so that lookups of other classes are
+	 * not blocked meanwhile; concurrent first accesses may reflect the same class, and the first result
+	 * cached wins. The names of the classes that cannot be resolved or have no public constructor are
+	 * remembered in {@link #NON_INSTANTIABLE_JVM_CLASSES}, bounded to the last
+	 * {@value #NON_INSTANTIABLE_JVM_CLASSES_CACHE_SIZE} of them, so they are not reflected again meanwhile.
+	 *
+	 * @param arabicQualifiedName the Arabic-transliterated fully qualified class name
+	 * @return the class initializers, or {@code null} if the class is not instantiable or has none
+	 */
+	protected static List<JvmClassInitializer> materializeJvmClassInitializers(String arabicQualifiedName) {
+		var jvmClassInitializersCache = JVM_CLASS_INITIALIZERS;
+		var nonInstantiableJvmClasses = NON_INSTANTIABLE_JVM_CLASSES;
+		if (Objects.isNull(jvmClassInitializersCache) || Objects.isNull(nonInstantiableJvmClasses)) {
+			return null;
+		}
+		var jvmClassInitializers = jvmClassInitializersCache.get(arabicQualifiedName);
+		if (Objects.nonNull(jvmClassInitializers)) {
+			return jvmClassInitializers.isEmpty() ? null : jvmClassInitializers;
+		}
+		if (nonInstantiableJvmClasses.contains(arabicQualifiedName)) {
+			return null;
+		}
+		Class<?> clazz = resolveJvmClass(arabicQualifiedName, true);
+		if (Objects.nonNull(clazz)) {
+			try {
+				jvmClassInitializers = getClassConstructors(arabicQualifiedName, clazz);
+			}
+			catch (Throwable ignored) {
+				// classes whose constructors cannot be reflected are remembered as not instantiable
 			}
 		}
-		return false;
+		if (Objects.isNull(jvmClassInitializers) || jvmClassInitializers.isEmpty()) {
+			nonInstantiableJvmClasses.add(arabicQualifiedName);
+			return null;
+		}
+		var previous = jvmClassInitializersCache.putIfAbsent(arabicQualifiedName, jvmClassInitializers);
+		return Objects.nonNull(previous) ? previous : jvmClassInitializers;
 	}
 
 	/**
@@ -1726,9 +2084,8 @@ public class DefaultContext {
 		return qualifiedName
 				.matches(
 							QUALIFIED_NAME_REGEX) && (SHOULD_BOOT_STRAP ?
-									(!BOOT_STRAP_FAILED && BOOT_STRAPPED && JVM_CLASS_INITIALIZERS != null && JVM_CLASS_INITIALIZERS
-											.containsKey(
-															qualifiedName)) :
+									(!BOOT_STRAP_FAILED && BOOT_STRAPPED && materializeJvmClassInitializers(
+																											qualifiedName) != null) :
 									(!BOOT_STRAP_FAILED && BOOT_STRAPPED && lookupJvmClassInitializer(
 																										qualifiedName)));
 	}
@@ -1751,26 +2108,28 @@ public class DefaultContext {
 	 */
 	public Pair<Integer, Object> getJvmClassInitializer(String arabicQualifiedName, boolean safe) {
 		if (SHOULD_BOOT_STRAP && !BOOT_STRAP_FAILED) {
-			if (BOOT_STRAPPED && JVM_CLASS_INITIALIZERS.containsKey(arabicQualifiedName)) {
-				var jvmClassInitializers = JVM_CLASS_INITIALIZERS.get(arabicQualifiedName);
+			List<JvmClassInitializer> jvmClassInitializers;
+			if (BOOT_STRAPPED && Objects
+					.nonNull(jvmClassInitializers = materializeJvmClassInitializers(arabicQualifiedName))) {
 				return ImmutablePair
 						.of(depth,
 							jvmClassInitializers.size() == 1 ? jvmClassInitializers.get(0) : jvmClassInitializers);
 			}
 			else if (arabicQualifiedName.matches(QUALIFIED_NAME_REGEX)) {
-				while (!BOOT_STRAPPED && Objects.isNull(JVM_CLASS_INITIALIZERS)) {
+				while (!BOOT_STRAPPED) {
 					// block the execution until bootstrapped
 					if (BOOT_STRAP_FAILED) {
 						return null;
 					}
 				}
-				var jvmClassInitializers = JVM_CLASS_INITIALIZERS.get(arabicQualifiedName);
-				return ImmutablePair
-						.of(depth,
-							jvmClassInitializers.size() == 1 ? jvmClassInitializers.get(0) : jvmClassInitializers);
+				if (Objects.nonNull(jvmClassInitializers = materializeJvmClassInitializers(arabicQualifiedName))) {
+					return ImmutablePair
+							.of(depth,
+								jvmClassInitializers.size() == 1 ? jvmClassInitializers.get(0) : jvmClassInitializers);
+				}
 			}
 		}
-		else if (!BOOT_STRAP_FAILED && BOOT_STRAPPED && Objects.nonNull(CURRENT_LOOKUP_JVM_CLASS_INITIALIZERS)) {
+		else if (!BOOT_STRAP_FAILED && BOOT_STRAPPED) {
 			var jvmClassInitializers = getCurrentLookupJvmClassInitializers();
 			if (Objects.nonNull(jvmClassInitializers)) {
 				return ImmutablePair
@@ -1810,7 +2169,7 @@ public class DefaultContext {
 
 		// Add to the current thread's active scope if it exists
 		List<Task<?>> currentTaskScope;
-		if (Objects.nonNull(CURRENT_TASK_SCOPE) && Objects.nonNull(currentTaskScope = CURRENT_TASK_SCOPE.get())) {
+		if (Objects.nonNull(currentTaskScope = CURRENT_TASK_SCOPE.get())) {
 			currentTaskScope.add(task);
 		}
 	}
@@ -1991,6 +2350,28 @@ public class DefaultContext {
 		return null;
 	}
 
+	/**
+	 * Retrieves a declared variable by name only if its value is currently held unboxed.
+	 *
+	 * <p>Loop variables, function arguments and function parameters take precedence over
+	 * declared variables, as in {@link #getVariable(String, DefaultContext)}; if the name
+	 * resolves to one of them, {@code null} is returned.</p>
+	 *
+	 * @param name the variable name
+	 * @return the declared variable holding a whole number unboxed, or {@code null}
+	 * @see DeclaredVariable#hasUnboxedLong()
+	 */
+	public DeclaredVariable getUnboxedVariable(String name) {
+		if (Objects.nonNull(getLoopVariable(name, true)) || Objects
+				.nonNull(getFunctionArgument(name, true)) || Objects.nonNull(getFunctionParameter(name, true))) {
+			return null;
+		}
+		var declaredVariable = getVariable(name, true);
+		return Objects.nonNull(declaredVariable) && declaredVariable.getRight().hasUnboxedLong() ?
+				declaredVariable.getRight() :
+				null;
+	}
+
 	/**
 	 * Sets the value of a variable in the current context or, if it exists, in a parent context.
 	 * If the variable does not exist, it defines it in the current context.
@@ -2089,9 +2470,8 @@ public class DefaultContext {
 																								.containsKey(name) || (name
 																										.matches(
 																													QUALIFIED_CALL_REGEX) && (SHOULD_BOOT_STRAP ?
-																															(!BOOT_STRAP_FAILED && BOOT_STRAPPED && JVM_FUNCTIONS != null && JVM_FUNCTIONS
-																																	.containsKey(
-																																					name)) :
+																															(!BOOT_STRAP_FAILED && BOOT_STRAPPED && materializeJvmFunctions(
+																																											name) != null) :
 																															(!BOOT_STRAP_FAILED && BOOT_STRAPPED && lookupJvmFunctions(name))));
 	}
 
@@ -2205,22 +2585,23 @@ public class DefaultContext {
 				return ImmutablePair.of(depth, functions.size() == 1 ? functions.get(0) : functions);
 			}
 			else if (SHOULD_BOOT_STRAP && !BOOT_STRAP_FAILED) {
-				if (BOOT_STRAPPED && JVM_FUNCTIONS.containsKey(name)) {
-					var functions = JVM_FUNCTIONS.get(name);
+				List<JvmFunction> functions;
+				if (BOOT_STRAPPED && Objects.nonNull(functions = materializeJvmFunctions(name))) {
 					return ImmutablePair.of(depth, functions.size() == 1 ? functions.get(0) : functions);
 				}
 				else if (name.matches(QUALIFIED_CALL_REGEX)) {
-					while (!BOOT_STRAPPED && Objects.isNull(JVM_FUNCTIONS)) {
+					while (!BOOT_STRAPPED) {
 						// block the execution until bootstrapped
 						if (BOOT_STRAP_FAILED) {
 							return null;
 						}
 					}
-					var functions = JVM_FUNCTIONS.get(name);
-					return ImmutablePair.of(depth, functions.size() == 1 ? functions.get(0) : functions);
+					if (Objects.nonNull(functions = materializeJvmFunctions(name))) {
+						return ImmutablePair.of(depth, functions.size() == 1 ? functions.get(0) : functions);
+					}
 				}
 			}
-			else if (!BOOT_STRAP_FAILED && BOOT_STRAPPED && Objects.nonNull(CURRENT_LOOKUP_JVM_FUNCTIONS)) {
+			else if (!BOOT_STRAP_FAILED && BOOT_STRAPPED) {
 				var functions = getCurrentLookupJvmFunctions();
 				if (Objects.nonNull(functions)) {
 					return ImmutablePair.of(depth, functions.size() == 1 ? functions.get(0) : functions);
@@ -2820,7 +3201,7 @@ public class DefaultContext {
 	 * @return list of child DefaultContext objects matching the criteria
 	 */
 	public List<DefaultContext> getChildren(boolean includeParent) {
-		return CONTEXTS
+		return registry.contexts
 				.entrySet()
 				.stream()
 				.filter(entry -> includeParent ? entry.getKey() >= depth : entry.getKey() > depth)
@@ -2839,7 +3220,7 @@ public class DefaultContext {
 	 * @return a list of {@link DefaultContext} objects at the same depth
 	 */
 	public List<DefaultContext> getSiblings(boolean includeSelf) {
-		return CONTEXTS
+		return registry.contexts
 				.entrySet()
 				.stream()
 				.filter(entry -> entry.getKey() == depth)
@@ -3159,7 +3540,7 @@ public class DefaultContext {
 			return parent.doMatchImport(alias);
 		}
 		else {
-			return IMPORTS.get(alias);
+			return registry.imports.get(alias);
 		}
 	}
 
@@ -3242,4 +3623,101 @@ public class DefaultContext {
 	public static void clear() {
 		CONTEXTS.clear();
 	}
+
+	/**
+	 * Executes a program in isolation: the root context it creates on the current thread, and all
+	 * the contexts and global imports derived from it, are kept in a registry of their own instead of
+	 * {@link #DEFAULT_REGISTRY}.
+	 * <p>
+	 * Isolated executions running on different threads do not see each other's contexts and
+	 * imports, so they can run concurrently; the bootstrap data (classes, JVM and builtin functions)
+	 * is shared. The thread-local state of the current thread is cleared once the program completes,
+	 * so an isolated execution must not be started from a program running on the same thread.
+	 * </p>
+	 *
+	 * @param execution the program execution, which registers its root context on the current thread
+	 * @param <T>       the result type
+	 * @return the result of the execution
+	 */
+	public static <T> T executeIsolated(Supplier<T> execution) {
+		ContextRegistry previousRegistry = CURRENT_REGISTRY.get();
+		CURRENT_REGISTRY.set(new ContextRegistry());
+		try {
+			return execution.get();
+		}
+		finally {
+			cleanClassThreadLocals();
+			restoreRegistry(previousRegistry);
+		}
+	}
+
+	/**
+	 * Binds a computation to the registry of the isolated execution running on the current thread, so
+	 * that the contexts it registers when it runs on another thread (a spawned task or a worker of a
+	 * parallel pipeline) are kept in the same registry instead of {@link #DEFAULT_REGISTRY}.
+	 *
+	 * @param computation the computation to bind, to be run on any thread
+	 * @param <T>         the result type
+	 * @return a computation that runs {@code computation} with the captured registry set on the running
+	 *         thread, or {@code computation} itself when the current thread is not executing in isolation
+	 */
+	public static <T> Supplier<T> withCurrentRegistry(Supplier<T> computation) {
+		ContextRegistry registry = CURRENT_REGISTRY.get();
+		if (Objects.isNull(registry)) {
+			return computation;
+		}
+		return () -> executeInRegistry(registry, computation);
+	}
+
+	/**
+	 * Binds a function to the registry of the isolated execution running on the current thread (see
+	 * {@link #withCurrentRegistry(Supplier)}).
+	 *
+	 * @param function the function to bind, to be applied on any thread
+	 * @param <T>      the argument type
+	 * @param <R>      the result type
+	 * @return a function that applies {@code function} with the captured registry set on the running
+	 *         thread, or {@code function} itself when the current thread is not executing in isolation
+	 */
+	public static <T, R> Function<T, R> withCurrentRegistry(Function<T, R> function) {
+		ContextRegistry registry = CURRENT_REGISTRY.get();
+		if (Objects.isNull(registry)) {
+			return function;
+		}
+		return argument -> executeInRegistry(registry, () -> function.apply(argument));
+	}
+
+	/**
+	 * Runs a computation with the given registry set on the current thread, then restores the previous
+	 * one.
+	 *
+	 * @param registry    the registry
+	 * @param computation the computation
+	 * @param <T>         the result type
+	 * @return the result of the computation
+	 */
+	private static <T> T executeInRegistry(ContextRegistry registry, Supplier<T> computation) {
+		ContextRegistry previousRegistry = CURRENT_REGISTRY.get();
+		CURRENT_REGISTRY.set(registry);
+		try {
+			return computation.get();
+		}
+		finally {
+			restoreRegistry(previousRegistry);
+		}
+	}
+
+	/**
+	 * Restores the registry of the current thread to the one it had before an isolated execution.
+	 *
+	 * @param previousRegistry the previous registry, or {@code null} to use {@link #DEFAULT_REGISTRY}
+	 */
+	private static void restoreRegistry(ContextRegistry previousRegistry) {
+		if (Objects.isNull(previousRegistry)) {
+			CURRENT_REGISTRY.remove();
+		}
+		else {
+			CURRENT_REGISTRY.set(previousRegistry);
+		}
+	}
 }
@@ -11,7 +11,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -22,6 +21,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Logger;
+import java.util.stream.BaseStream;
 
 import org.antlr.v4.runtime.Vocabulary;
 import org.antlr.v4.runtime.tree.ParseTree;
@@ -38,7 +38,9 @@ import org.daiitech.naftah.builtin.lang.None;
 import org.daiitech.naftah.builtin.lang.Result;
 import org.daiitech.naftah.builtin.time.NaftahTemporalAmount;
 import org.daiitech.naftah.builtin.time.NaftahTemporalPoint;
+import org.daiitech.naftah.builtin.utils.IndexedSet;
 import org.daiitech.naftah.builtin.utils.NumberUtils;
+import org.daiitech.naftah.builtin.utils.NumericList;
 import org.daiitech.naftah.builtin.utils.ObjectUtils;
 import org.daiitech.naftah.builtin.utils.concurrent.Actor;
 import org.daiitech.naftah.builtin.utils.concurrent.Channel;
@@ -85,7 +87,6 @@ import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahInvocableListFo
 import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahInvocableNotFoundError;
 import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahSingleExpressionAssignmentError;
 import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahSpecifiedTypesExceedVariableNamesError;
-import static org.daiitech.naftah.parser.DefaultContext.CURRENT_TASK_SCOPE;
 import static org.daiitech.naftah.parser.DefaultContext.LOOP_STACK;
 import static org.daiitech.naftah.parser.DefaultContext.cleanClassThreadLocals;
 import static org.daiitech.naftah.parser.DefaultContext.currentLoopLabel;
@@ -94,6 +95,7 @@ import static org.daiitech.naftah.parser.DefaultContext.deregisterContext;
 import static org.daiitech.naftah.parser.DefaultContext.endScope;
 import static org.daiitech.naftah.parser.DefaultContext.generateCallId;
 import static org.daiitech.naftah.parser.DefaultContext.getCurrentContext;
+import static org.daiitech.naftah.parser.DefaultContext.getCurrentTaskScope;
 import static org.daiitech.naftah.parser.DefaultContext.getVariable;
 import static org.daiitech.naftah.parser.DefaultContext.loopContainsLabel;
 import static org.daiitech.naftah.parser.DefaultContext.newNaftahBugExistentFunctionArgumentError;
@@ -122,6 +124,7 @@ import static org.daiitech.naftah.parser.NaftahParserHelper.hasParentOfType;
 import static org.daiitech.naftah.parser.NaftahParserHelper.invokeJvmClassInitializer;
 import static org.daiitech.naftah.parser.NaftahParserHelper.isDeclaredVariableWithFlag;
 import static org.daiitech.naftah.parser.NaftahParserHelper.matchImplementationName;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
 import static org.daiitech.naftah.parser.NaftahParserHelper.prepareDeclaredFunction;
 import static org.daiitech.naftah.parser.NaftahParserHelper.setForeachVariables;
 import static org.daiitech.naftah.parser.NaftahParserHelper.setObjectUsingQualifiedName;
@@ -165,6 +168,11 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 	 */
 	private final org.daiitech.naftah.parser.NaftahParser parser;
 	private final NTuple args;
+	/**
+	 * Variables declared in the root context before the program runs, and updated with the root
+	 * context variables once it completes; {@code null} when the program has none.
+	 */
+	private final Map<String, Object> globals;
 	private final String ARGS_VAR_NAME = "وسائط";
 	private final String ARGS_SIZE = "عدد_الوسائط";
 	private final String ACTOR_MESSAGE = "رسالة_الممثل";
@@ -179,9 +187,50 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 	 * @param parser the ANTLR-generated Naftah parser instance
 	 */
 	public DefaultNaftahParserVisitor(org.daiitech.naftah.parser.NaftahParser parser, List<String> args) {
+		this(parser, args, null);
+	}
+
+	/**
+	 * Constructs the visitor with a given parser and global variables.
+	 * <p>
+	 * The globals are declared as variables of the root context before the first statement runs,
+	 * except those the program declares itself at its top level, whose declarations replace them,
+	 * and the map is updated with the variables of the root context (except the program arguments)
+	 * once the program completes, whether it succeeded or failed.
+	 * </p>
+	 *
+	 * @param parser  the ANTLR-generated Naftah parser instance
+	 * @param args    the program arguments
+	 * @param globals the global variables, by name, or {@code null} for none
+	 */
+	public DefaultNaftahParserVisitor(  org.daiitech.naftah.parser.NaftahParser parser,
+										List<String> args,
+										Map<String, Object> globals) {
+		this(parser, parser.getVocabulary(), args, globals);
+	}
+
+	/**
+	 * Constructs a visitor of an already parsed program, given the vocabulary of the parser that
+	 * produced it; such a visitor cannot {@linkplain #visit() parse} a program.
+	 *
+	 * @param vocabulary the vocabulary of the Naftah parser
+	 * @param args       the program arguments
+	 * @param globals    the global variables, by name, or {@code null} for none
+	 */
+	public DefaultNaftahParserVisitor(  Vocabulary vocabulary,
+										List<String> args,
+										Map<String, Object> globals) {
+		this(null, vocabulary, args, globals);
+	}
+
+	private DefaultNaftahParserVisitor( org.daiitech.naftah.parser.NaftahParser parser,
+										Vocabulary vocabulary,
+										List<String> args,
+										Map<String, Object> globals) {
 		this.parser = parser;
 		this.args = NTuple.of(args);
-		PARSER_VOCABULARY = parser.getVocabulary();
+		this.globals = globals;
+		PARSER_VOCABULARY = vocabulary;
 	}
 
 	/**
@@ -191,8 +240,8 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 	 * @return the result of visiting the parse tree
 	 */
 	public Object visit() {
-		// Parse the input and get the parse tree
-		ParseTree tree = parser.program();
+		// Parse the input (SLL first, then LL on failure) and get the parse tree
+		ParseTree tree = parse(parser, org.daiitech.naftah.parser.NaftahParser::program);
 		return visit(tree);
 	}
 
@@ -225,6 +274,24 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 																	true,
 																	JavaType.of(int.class),
 																	args.arity()));
+								if (Objects.nonNull(globals)) {
+									// globals the program declares itself are left to its own declarations
+									Set<String> declaredNames = getRootDeclaredNames(programContext);
+									globals
+											.forEach((name, value) -> {
+												if (!declaredNames.contains(name)) {
+													currentContext
+															.setVariable(   name,
+																			DeclaredVariable
+																					.of(currentContext.depth,
+																						programContext,
+																						name,
+																						false,
+																						JavaType.ofObject(),
+																						value));
+												}
+											});
+								}
 
 								defaultNaftahParserVisitor.depth = currentContext.depth;
 								Object result = None.get();
@@ -241,6 +308,15 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 									return result;
 								}
 								finally {
+									if (Objects.nonNull(globals)) {
+										currentContext.variables
+												.get()
+												.forEach((name, variable) -> {
+													if (!ARGS_VAR_NAME.equals(name) && !ARGS_SIZE.equals(name)) {
+														globals.put(name, variable.getValue());
+													}
+												});
+									}
 									deregisterContext();
 									if (!Boolean.getBoolean(INSIDE_REPL_PROPERTY)) {
 										currentContext.cleanThreadLocals();
@@ -251,6 +327,41 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 		);
 	}
 
+	/**
+	 * Returns the names of the variables declared by the top-level statements of a program, which are
+	 * declared in the root context.
+	 *
+	 * @param programContext the program
+	 * @return the declared variable names
+	 */
+	private static Set<String> getRootDeclaredNames(org.daiitech.naftah.parser.NaftahParser.ProgramContext programContext) {
+		Set<String> names = new HashSet<>();
+		for (org.daiitech.naftah.parser.NaftahParser.StatementContext statement : programContext.statement()) {
+			org.daiitech.naftah.parser.NaftahParser.SingleDeclarationContext singleDeclaration = null;
+			org.daiitech.naftah.parser.NaftahParser.MultipleDeclarationsContext multipleDeclarations = null;
+			if (statement instanceof org.daiitech.naftah.parser.NaftahParser.DeclarationStatementContext declarationStatement) {
+				singleDeclaration = declarationStatement.declaration().singleDeclaration();
+				multipleDeclarations = declarationStatement.declaration().multipleDeclarations();
+			}
+			else if (statement instanceof org.daiitech.naftah.parser.NaftahParser.AssignmentStatementContext assignmentStatement) {
+				var assignment = assignmentStatement.assignment();
+				if (Objects.nonNull(assignment.singleAssignmentExpression())) {
+					singleDeclaration = assignment.singleAssignmentExpression().singleDeclaration();
+				}
+				else if (Objects.nonNull(assignment.multipleAssignmentsExpression())) {
+					multipleDeclarations = assignment.multipleAssignmentsExpression().multipleDeclarations();
+				}
+			}
+			if (Objects.nonNull(singleDeclaration)) {
+				names.add(singleDeclaration.ID().getText());
+			}
+			else if (Objects.nonNull(multipleDeclarations)) {
+				multipleDeclarations.ID().forEach(id -> names.add(id.getText()));
+			}
+		}
+		return names;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -784,7 +895,7 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 							(   defaultNaftahParserVisitor,
 								currentContext,
 								scopeBlockStatementContext) -> {
-								if (Objects.nonNull(CURRENT_TASK_SCOPE) && Objects.nonNull(CURRENT_TASK_SCOPE.get())) {
+								if (Objects.nonNull(getCurrentTaskScope())) {
 									return spawnTask(   currentContext,
 														() -> defaultNaftahParserVisitor
 																.visit(
@@ -1086,6 +1197,17 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 								if (Objects.nonNull(singleAssignmentExpressionContext.singleAssignment())) {
 									var singleAssignment = singleAssignmentExpressionContext.singleAssignment();
 
+									// whole number arithmetic over variables held unboxed is stored without boxing
+									DeclaredVariable unboxedVariable = Objects.nonNull(singleAssignment.ID()) ?
+											currentContext.getUnboxedVariable(singleAssignment.ID().getText()) :
+											null;
+									if (Objects.nonNull(unboxedVariable) && UnboxedExpressions
+											.assign(unboxedVariable,
+													singleAssignmentExpressionContext.expression(),
+													currentContext)) {
+										return unboxedVariable;
+									}
+
 									var newValue = defaultNaftahParserVisitor
 											.visit(singleAssignmentExpressionContext.expression());
 
@@ -2361,8 +2483,11 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 
 								Iterator<?> iterator;
 								boolean isMap = false;
+								// a stream source is closed once the loop ends, however it ends
+								BaseStream<?, ?> source = null;
 
-								if (object instanceof Iterable<?> iterable) {
+								// lazy sources (ranges, iterators and streams) are consumed element by element
+								if (object instanceof Iterable<?> || object instanceof Iterator<?> || object instanceof BaseStream<?, ?>) {
 									if (foreachTarget instanceof org.daiitech.naftah.parser.NaftahParser.KeyValueForeachTargetContext || foreachTarget instanceof org.daiitech.naftah.parser.NaftahParser.IndexAndKeyValueForeachTargetContext) {
 										throw new NaftahBugError(   "زوج المفتاح والقيمة غير مدعوم للمجموعة.",
 																	forEachLoopStatementContext.getStart().getLine(),
@@ -2371,7 +2496,14 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 																			.getCharPositionInLine());
 									}
 									target = (NTuple) defaultNaftahParserVisitor.visit(foreachTarget);
-									iterator = iterable.iterator();
+									if (object instanceof BaseStream<?, ?> stream) {
+										source = stream;
+									}
+									iterator = object instanceof Iterable<?> iterable ?
+											iterable.iterator() :
+											Objects.nonNull(source) ?
+													source.iterator() :
+													(Iterator<?>) object;
 								}
 								else if (object instanceof Map<?, ?> map) {
 									isMap = true;
@@ -2466,6 +2598,9 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 									if (loopInStack) {
 										popLoop();
 									}
+									if (Objects.nonNull(source)) {
+										source.close();
+									}
 								}
 
 								if (loopSignal) {
@@ -3357,7 +3492,7 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 
 								defaultNaftahParserVisitor.visit(scopeBlockContext.block());
 
-								List<Task<?>> tasks = CURRENT_TASK_SCOPE.get();
+								List<Task<?>> tasks = getCurrentTaskScope();
 								List<Object> results;
 
 								// Await all tasks spawned inside scope
@@ -3857,7 +3992,18 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 												.visit(
 														listValueContext.elements()) :
 										List.of());
-								return new ArrayList<>(value);
+								// numeric lists are stored unboxed, as the declared element type if any
+								Class<?> declaredElementType = null;
+								if (currentContext.isParsingAssignment() && Objects
+										.nonNull(currentContext.getDeclarationOfAssignment())) {
+									JavaType declaredType = currentContext.getDeclarationOfAssignment().getLeft().getType();
+									if (Objects.nonNull(declaredType) && declaredType.isList() && declaredType
+											.getTypeParameters()
+											.size() == 1) {
+										declaredElementType = declaredType.getTypeParameters().get(0).getRawClass();
+									}
+								}
+								return NumericList.of(value, declaredElementType);
 							},
 							List.class
 		);
@@ -3897,7 +4043,7 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 							ctx,
 							(defaultNaftahParserVisitor, currentContext, emptySetContext) -> Objects
 									.nonNull(emptySetContext.ORDERED()) ?
-											new LinkedHashSet<>() :
+											new IndexedSet<>() :
 											new HashSet<>(),
 							Set.class
 		);
@@ -3918,7 +4064,7 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 										.visit(setValueContext
 												.elements());
 								return Objects.nonNull(setValueContext.ORDERED()) ?
-										new LinkedHashSet<>(value) :
+										new IndexedSet<>(value) :
 										new HashSet<>(value);
 							},
 							Set.class
@@ -4813,6 +4959,11 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 							getCurrentContext(),
 							ctx,
 							(defaultNaftahParserVisitor, currentContext, equalityExpressionContext) -> {
+								Boolean unboxed = UnboxedExpressions.compare(equalityExpressionContext, currentContext);
+								if (Objects.nonNull(unboxed)) {
+									return unboxed;
+								}
+
 								Object left = defaultNaftahParserVisitor
 										.visit(equalityExpressionContext.relationalExpression(0));
 
@@ -4843,6 +4994,11 @@ public class DefaultNaftahParserVisitor extends org.daiitech.naftah.parser.Nafta
 							getCurrentContext(),
 							ctx,
 							(defaultNaftahParserVisitor, currentContext, relationalExpressionContext) -> {
+								Boolean unboxed = UnboxedExpressions.compare(relationalExpressionContext, currentContext);
+								if (Objects.nonNull(unboxed)) {
+									return unboxed;
+								}
+
 								Object left = defaultNaftahParserVisitor
 										.visit(relationalExpressionContext.shiftExpression(0));
 
@@ -4,6 +4,7 @@
 package org.daiitech.naftah.parser;
 
 import java.io.File;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
@@ -11,16 +12,18 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
@@ -29,7 +32,9 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.BufferedTokenStream;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -38,6 +43,8 @@ import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeProperty;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -149,9 +156,17 @@ public final class NaftahParserHelper {
 	// Cache to store computed subtrees per node
 
 	/**
-	 * Cache to store computed subtrees per parse tree node for optimization.
+	 * Cache to store computed subtrees per parse tree node for optimization. Parse tree nodes do not
+	 * override {@code equals}, so they are compared by identity; the map is synchronized since a compiled
+	 * program may be executed by several threads at once.
+	 * <p>
+	 * The nodes are weak keys, so the subtrees of a program are dropped once the program is no longer
+	 * used. A subtree refers to its root node (it contains it, and every descendant links to it through
+	 * its parent), hence it is held softly: a strongly held subtree would keep its key reachable forever.
+	 * </p>
 	 */
-	private static final Map<ParseTree, List<ParseTree>> SUB_TREE_CACHE = new IdentityHashMap<>();
+	private static final Map<ParseTree, SoftReference<List<ParseTree>>> SUB_TREE_CACHE = Collections
+			.synchronizedMap(new WeakHashMap<>());
 	/**
 	 * Loaded properties representing token symbols, if available.
 	 */
@@ -371,13 +386,15 @@ public final class NaftahParserHelper {
 	 */
 	public static List<ParseTree> getAllChildren(ParseTree ctx) {
 		// If cached, return from cache
-		if (SUB_TREE_CACHE.containsKey(ctx)) {
-			return SUB_TREE_CACHE.get(ctx);
+		SoftReference<List<ParseTree>> cached = SUB_TREE_CACHE.get(ctx);
+		List<ParseTree> nodes;
+		if (Objects.nonNull(cached) && Objects.nonNull(nodes = cached.get())) {
+			return nodes;
 		}
 
-		List<ParseTree> nodes = new ArrayList<>();
+		nodes = new ArrayList<>();
 		collect(ctx, nodes);
-		SUB_TREE_CACHE.put(ctx, nodes); // Cache the result
+		SUB_TREE_CACHE.put(ctx, new SoftReference<>(nodes)); // Cache the result
 		return nodes;
 	}
 
@@ -692,6 +709,36 @@ public final class NaftahParserHelper {
 		return visitor.visit();
 	}
 
+	/**
+	 * Executes an already parsed program by visiting its parse tree and returning the result.
+	 *
+	 * @param parser  The parser instance, providing the vocabulary.
+	 * @param program The parse tree of the program.
+	 * @param args    The program arguments.
+	 * @return The result of visiting the parse tree.
+	 */
+	public static Object doRun( org.daiitech.naftah.parser.NaftahParser parser,
+								org.daiitech.naftah.parser.NaftahParser.ProgramContext program,
+								List<String> args) {
+		return doRun(parser.getVocabulary(), program, args);
+	}
+
+	/**
+	 * Executes an already parsed program by visiting its parse tree and returning the result, without
+	 * a parser instance.
+	 *
+	 * @param vocabulary The vocabulary of the parser that produced the parse tree.
+	 * @param program    The parse tree of the program.
+	 * @param args       The program arguments.
+	 * @return The result of visiting the parse tree.
+	 */
+	public static Object doRun( Vocabulary vocabulary,
+								org.daiitech.naftah.parser.NaftahParser.ProgramContext program,
+								List<String> args) {
+		DefaultNaftahParserVisitor visitor = new DefaultNaftahParserVisitor(vocabulary, args, null);
+		return visitor.visit(program);
+	}
+
 	/**
 	 * Creates a parser instance from the given token stream and a single error listener.
 	 *
@@ -751,6 +798,56 @@ public final class NaftahParserHelper {
 		return parser;
 	}
 
+	/**
+	 * Parses the input of a parser with the given start rule, in two stages.
+	 * <p>
+	 * The input is first parsed in {@link PredictionMode#SLL} mode, which is much faster but fails on
+	 * some valid inputs, with the {@code BailErrorStrategy} and without error listeners. Only when
+	 * this first stage fails is the input parsed again in full {@link PredictionMode#LL} mode, with
+	 * the error listeners and the error strategy the parser was configured with, which report the
+	 * syntax errors exactly as a single-stage parse would.
+	 * </p>
+	 * <p>
+	 * The token stream is filled before the first stage, so lexer errors are reported once, before
+	 * parsing.
+	 * </p>
+	 *
+	 * @param <P>       the concrete type of the parser
+	 * @param <T>       the type of the parse tree
+	 * @param parser    the parser, as created by {@link #getParser(Supplier, List)}
+	 * @param startRule the start rule, such as {@code NaftahParser::program}
+	 * @return the parse tree
+	 */
+	public static <P extends Parser, T extends ParserRuleContext> T parse(P parser, Function<P, T> startRule) {
+		if (parser.getInputStream() instanceof BufferedTokenStream tokens) {
+			tokens.fill();
+		}
+
+		List<? extends ANTLRErrorListener> errorListeners = List.copyOf(parser.getErrorListeners());
+		ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+		PredictionMode predictionMode = parser.getInterpreter().getPredictionMode();
+
+		parser.removeErrorListeners();
+		parser.setErrorHandler(ERROR_HANDLER_INSTANCE);
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		try {
+			return startRule.apply(parser);
+		}
+		catch (ParseCancellationException sllFailure) {
+			parser.reset();
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			errorListeners.forEach(parser::addErrorListener);
+			parser.setErrorHandler(errorHandler);
+			return startRule.apply(parser);
+		}
+		finally {
+			parser.removeErrorListeners();
+			errorListeners.forEach(parser::addErrorListener);
+			parser.setErrorHandler(errorHandler);
+			parser.getInterpreter().setPredictionMode(predictionMode);
+		}
+	}
+
 	/**
 	 * Gets a CommonTokenStream from the given character stream with no error listeners.
 	 *
@@ -3101,7 +3198,7 @@ public final class NaftahParserHelper {
 
 			var parser = prepareRun(input, new BaseErrorListener());
 
-			parser.program();
+			parse(parser, org.daiitech.naftah.parser.NaftahParser::program);
 
 			return true;
 		}
@@ -0,0 +1,210 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.NotificationEmitter;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.parser.time.NaftahDateParserHelper;
+import org.daiitech.naftah.utils.ClassDataSharingArchive;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+
+/**
+ * Lifecycle of the prediction caches of the Naftah lexers and parsers.
+ * <p>
+ * ANTLR keeps the DFA built while predicting alternatives in arrays shared by all the instances of
+ * a generated lexer or parser (together with their prediction context cache), so the lexers and
+ * parsers created for each script, each REPL keystroke ({@link SyntaxHighlighter}) and each temporal
+ * literal ({@link NaftahDateParserHelper}) all reuse and grow the same caches. This class:
+ * </p>
+ * <ul>
+ * <li>{@linkplain #warmUp() warms} the caches up by parsing a representative corpus, so that the first
+ * parses of a REPL or daemon session do not pay for the simulation of the grammar;</li>
+ * <li>{@linkplain #clear() clears} them, either on demand or {@linkplain #clearOnMemoryPressure(double)
+ * when the heap is under pressure}, after which they are rebuilt as inputs are parsed.</li>
+ * </ul>
+ *
+ * @author Chakib Daii
+ */
+public final class ParserCaches {
+
+	/**
+	 * Fraction of the tenured heap above which, after a collection, the caches are cleared when
+	 * {@link #clearOnMemoryPressure()} is installed.
+	 */
+	public static final double DEFAULT_MEMORY_PRESSURE_THRESHOLD = 0.9;
+
+	/**
+	 * Temporal literals parsed by the warm-up.
+	 */
+	private static final List<String> TEMPORAL_CORPUS = List
+			.of(
+				"١ يناير ٢٠٢٤ بالتقويم الميلادي ١٢:٠٠ صباحاً بتوقيت القاهرة",
+				"٥ رجب ١٤٤٥ بالتقويم الهجري ٣:٣٠ مساءً بتوقيت مكة",
+				"١٥ مارس ٢٠٢٣ بالتقويم الميلادي ٠٩:٤٥:١٥ بتوقيت دبي",
+				"مدة 2 ساعات و 30 دقيقة"
+			);
+
+	/**
+	 * Whether the memory pressure listener was installed.
+	 */
+	private static final AtomicBoolean MEMORY_PRESSURE_LISTENER = new AtomicBoolean();
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private ParserCaches() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Warms the caches up with the bundled training script (see
+	 * {@link ClassDataSharingArchive#getTrainingScript()}) and a set of temporal literals.
+	 */
+	public static void warmUp() {
+		try {
+			warmUp(List.of(ClassDataSharingArchive.getTrainingScript()));
+		}
+		catch (IOException | NaftahBugError ignored) {
+			warmUp(List.of());
+		}
+	}
+
+	/**
+	 * Warms the caches up by parsing the given scripts, without running them, and a set of temporal
+	 * literals. Inputs that fail to parse are ignored.
+	 *
+	 * @param scripts the scripts to parse
+	 */
+	public static void warmUp(Collection<String> scripts) {
+		for (String script : scripts) {
+			try {
+				parse(prepareRun(getCharStream(script), List.of()), org.daiitech.naftah.parser.NaftahParser::program);
+			}
+			catch (RuntimeException ignored) {
+			}
+		}
+		for (String temporal : TEMPORAL_CORPUS) {
+			try {
+				parse(  NaftahDateParserHelper.prepareRun(getCharStream(temporal), List.of()),
+						org.daiitech.naftah.parser.NaftahDateParser::root);
+			}
+			catch (RuntimeException ignored) {
+			}
+		}
+	}
+
+	/**
+	 * {@linkplain #warmUp() Warms the caches up} on a background daemon thread.
+	 *
+	 * @return the started thread
+	 */
+	public static Thread warmUpAsync() {
+		Thread thread = new Thread(ParserCaches::warmUp, "naftah-parser-warmup");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Clears the DFA of the Naftah lexer and parser and of the date lexer and parser. Parses running
+	 * concurrently keep the states they already hold.
+	 */
+	public static void clear() {
+		for (ATNSimulator simulator : getSimulators()) {
+			simulator.clearDFA();
+		}
+	}
+
+	/**
+	 * Returns the number of DFA states currently cached by the Naftah lexer and parser and by the date
+	 * lexer and parser.
+	 *
+	 * @return the number of cached DFA states
+	 */
+	public static int getDFAStateCount() {
+		int count = 0;
+		for (ATNSimulator simulator : getSimulators()) {
+			DFA[] decisionToDFA = simulator instanceof ParserATNSimulator parserSimulator ?
+					parserSimulator.decisionToDFA :
+					((LexerATNSimulator) simulator).decisionToDFA;
+			for (DFA dfa : decisionToDFA) {
+				count += dfa.states.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Installs, once, a listener {@linkplain #clear() clearing} the caches when the tenured heap is
+	 * still used above {@value #DEFAULT_MEMORY_PRESSURE_THRESHOLD} of its maximum after a collection.
+	 */
+	public static void clearOnMemoryPressure() {
+		clearOnMemoryPressure(DEFAULT_MEMORY_PRESSURE_THRESHOLD);
+	}
+
+	/**
+	 * Installs, once, a listener {@linkplain #clear() clearing} the caches when a heap pool supporting
+	 * collection usage thresholds (the tenured generation) is still used above the given fraction of
+	 * its maximum after a collection.
+	 *
+	 * @param threshold the fraction of the pool maximum, between {@code 0} and {@code 1}
+	 */
+	public static void clearOnMemoryPressure(double threshold) {
+		if (!MEMORY_PRESSURE_LISTENER.compareAndSet(false, true)) {
+			return;
+		}
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			long max = pool.getUsage().getMax();
+			if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+				pool.setCollectionUsageThreshold((long) (max * threshold));
+			}
+		}
+		if (ManagementFactory.getMemoryMXBean() instanceof NotificationEmitter emitter) {
+			emitter
+					.addNotificationListener(   (notification, handback) -> clear(),
+												notification -> MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED
+														.equals(notification.getType()),
+												null);
+		}
+	}
+
+	/**
+	 * Returns the simulators of the Naftah lexer and parser and of the date lexer and parser; they all
+	 * hold the DFA arrays shared by their recognizer class.
+	 */
+	private static List<ATNSimulator> getSimulators() {
+		var lexer = new org.daiitech.naftah.parser.NaftahLexer(CharStreams.fromString(""));
+		var parser = new org.daiitech.naftah.parser.NaftahParser(new CommonTokenStream(lexer));
+		var dateLexer = new org.daiitech.naftah.parser.NaftahDateLexer(CharStreams.fromString(""));
+		var dateParser = new org.daiitech.naftah.parser.NaftahDateParser(new CommonTokenStream(dateLexer));
+		return List
+				.of(
+					lexer.getInterpreter(),
+					parser.getInterpreter(),
+					dateLexer.getInterpreter(),
+					dateParser.getInterpreter()
+				);
+	}
+}
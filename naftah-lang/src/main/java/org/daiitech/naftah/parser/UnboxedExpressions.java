@@ -0,0 +1,234 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.daiitech.naftah.builtin.lang.DeclaredVariable;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.parser.NaftahParserHelper.hasAnyParentOfType;
+
+/**
+ * Evaluation of whole number expressions over variables held unboxed.
+ * <p>
+ * Assignments and comparisons whose operands are only variables holding a whole number unboxed
+ * ({@link DeclaredVariable#hasUnboxedLong()}) and whole number literals, combined with addition,
+ * subtraction and multiplication, are computed on {@code long} values without creating a
+ * {@link org.daiitech.naftah.builtin.lang.DynamicNumber} per operation. Any other expression, and any
+ * computation that overflows, is left to {@link DefaultNaftahParserVisitor}, so the results, the type
+ * promotions and the errors stay those of the boxed evaluation.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+final class UnboxedExpressions {
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link org.daiitech.naftah.errors.NaftahBugError} when called.
+	 */
+	private UnboxedExpressions() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Assigns the value of the given expression to a variable held unboxed, if the expression
+	 * can be evaluated unboxed and its result fits the declared type of the variable.
+	 *
+	 * @param variable   the assigned variable
+	 * @param expression the assigned expression
+	 * @param context    the current execution context
+	 * @return {@code true} if the value was assigned; {@code false} if the expression has to be
+	 *         evaluated by the visitor
+	 */
+	static boolean assign(  DeclaredVariable variable,
+							org.daiitech.naftah.parser.NaftahParser.ExpressionContext expression,
+							DefaultContext context) {
+		ParseTree tree = skipSingleOperandRules(expression);
+		// a copied variable hands over its value with its own class, which only the boxed type check sees
+		if (tree instanceof org.daiitech.naftah.parser.NaftahParser.IdValueContext || !variable
+				.hasUnboxedLong() || !isWholeNumber(tree, context)) {
+			return false;
+		}
+		long value;
+		try {
+			value = evaluate(tree, context);
+		}
+		catch (ArithmeticException overflow) {
+			return false;
+		}
+		if (!variable.setUnboxedLong(value)) {
+			return false;
+		}
+		markExecuted(expression, context);
+		return true;
+	}
+
+	/**
+	 * Compares the two operands of a relational or an equality expression, if both can be
+	 * evaluated unboxed.
+	 *
+	 * @param ctx     the relational or equality expression, with exactly two operands
+	 * @param context the current execution context
+	 * @return the result of the comparison, or {@code null} if the expression has to be
+	 *         evaluated by the visitor
+	 */
+	static Boolean compare(ParserRuleContext ctx, DefaultContext context) {
+		if (ctx.getChildCount() != 3 || !(ctx.getChild(1) instanceof TerminalNode operator)) {
+			return null;
+		}
+		int type = operator.getSymbol().getType();
+		boolean comparisonOperator = switch (type) {
+			case org.daiitech.naftah.parser.NaftahLexer.LT, org.daiitech.naftah.parser.NaftahLexer.LE,
+					org.daiitech.naftah.parser.NaftahLexer.GT, org.daiitech.naftah.parser.NaftahLexer.GE,
+					org.daiitech.naftah.parser.NaftahLexer.EQ, org.daiitech.naftah.parser.NaftahLexer.NEQ -> true;
+			default -> false;
+		};
+		if (!comparisonOperator) {
+			return null;
+		}
+		ParseTree left = skipSingleOperandRules(ctx.getChild(0));
+		ParseTree right = skipSingleOperandRules(ctx.getChild(2));
+		if (!isWholeNumber(left, context) || !isWholeNumber(right, context)) {
+			return null;
+		}
+		int comparison;
+		try {
+			comparison = Long.compare(evaluate(left, context), evaluate(right, context));
+		}
+		catch (ArithmeticException overflow) {
+			return null;
+		}
+		markExecuted(ctx.getChild(0), context);
+		markExecuted(ctx.getChild(2), context);
+		return switch (type) {
+			case org.daiitech.naftah.parser.NaftahLexer.LT -> comparison < 0;
+			case org.daiitech.naftah.parser.NaftahLexer.LE -> comparison <= 0;
+			case org.daiitech.naftah.parser.NaftahLexer.GT -> comparison > 0;
+			case org.daiitech.naftah.parser.NaftahLexer.GE -> comparison >= 0;
+			case org.daiitech.naftah.parser.NaftahLexer.EQ -> comparison == 0;
+			default -> comparison != 0;
+		};
+	}
+
+	/**
+	 * Marks the rules of an expression evaluated unboxed as executed, children before their parent and
+	 * from left to right, the order in which {@link DefaultNaftahParserVisitor} visits them.
+	 *
+	 * @param tree    the evaluated expression
+	 * @param context the current execution context
+	 */
+	private static void markExecuted(ParseTree tree, DefaultContext context) {
+		if (tree instanceof ParserRuleContext rule) {
+			for (int i = 0; i < rule.getChildCount(); i++) {
+				markExecuted(rule.getChild(i), context);
+			}
+			context.markExecuted(rule);
+		}
+	}
+
+	/**
+	 * Descends through the rules that only wrap a single operand (an expression without operator,
+	 * a value, parentheses) down to the first rule with an operator or a value.
+	 *
+	 * @param tree the parse tree
+	 * @return the innermost rule wrapped by the given tree
+	 */
+	private static ParseTree skipSingleOperandRules(ParseTree tree) {
+		while (true) {
+			if (tree instanceof org.daiitech.naftah.parser.NaftahParser.ParenthesisExpressionContext parenthesisExpressionContext) {
+				tree = parenthesisExpressionContext.expression();
+			}
+			else if (tree instanceof ParserRuleContext rule && rule.getChildCount() == 1 && rule
+					.getChild(0) instanceof ParserRuleContext child) {
+				tree = child;
+			}
+			else {
+				return tree;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the given tree is made only of variables holding a whole number unboxed and
+	 * whole number literals, combined with addition, subtraction and multiplication.
+	 *
+	 * @param tree    the parse tree, with its single operand rules skipped
+	 * @param context the current execution context
+	 * @return {@code true} if the tree can be evaluated by {@link #evaluate(ParseTree, DefaultContext)}
+	 */
+	private static boolean isWholeNumber(ParseTree tree, DefaultContext context) {
+		if (tree instanceof org.daiitech.naftah.parser.NaftahParser.IdValueContext idValueContext) {
+			// identifiers in maps and objects are names, not variables
+			if (hasAnyParentOfType(idValueContext, org.daiitech.naftah.parser.NaftahParser.MapValueContext.class) || hasAnyParentOfType(
+																																		idValueContext,
+																																		org.daiitech.naftah.parser.NaftahParser.ObjectContext.class)) {
+				return false;
+			}
+			return context.getUnboxedVariable(idValueContext.ID().getText()) != null;
+		}
+		if (tree instanceof org.daiitech.naftah.parser.NaftahParser.NumberValueContext numberValueContext) {
+			String text = numberValueContext.NUMBER().getText();
+			for (int i = 0; i < text.length(); i++) {
+				if (Character.digit(text.charAt(i), 10) < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (tree instanceof org.daiitech.naftah.parser.NaftahParser.AdditiveExpressionContext || tree instanceof org.daiitech.naftah.parser.NaftahParser.MultiplicativeExpressionContext) {
+			ParserRuleContext rule = (ParserRuleContext) tree;
+			for (int i = 0; i < rule.getChildCount(); i++) {
+				ParseTree child = rule.getChild(i);
+				if (i % 2 == 1) {
+					int type = ((TerminalNode) child).getSymbol().getType();
+					// division and modulo keep the semantics of the boxed operations
+					if (type != org.daiitech.naftah.parser.NaftahLexer.PLUS && type != org.daiitech.naftah.parser.NaftahLexer.MINUS && type != org.daiitech.naftah.parser.NaftahLexer.MUL) {
+						return false;
+					}
+				}
+				else if (!isWholeNumber(skipSingleOperandRules(child), context)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Evaluates a tree accepted by {@link #isWholeNumber(ParseTree, DefaultContext)}.
+	 *
+	 * @param tree    the parse tree, with its single operand rules skipped
+	 * @param context the current execution context
+	 * @return the value of the tree
+	 * @throws ArithmeticException if the value does not fit a {@code long}
+	 */
+	private static long evaluate(ParseTree tree, DefaultContext context) {
+		if (tree instanceof org.daiitech.naftah.parser.NaftahParser.IdValueContext idValueContext) {
+			return context.getUnboxedVariable(idValueContext.ID().getText()).getUnboxedLong();
+		}
+		if (tree instanceof org.daiitech.naftah.parser.NaftahParser.NumberValueContext numberValueContext) {
+			String text = numberValueContext.NUMBER().getText();
+			long value = 0;
+			for (int i = 0; i < text.length(); i++) {
+				value = Math.addExact(Math.multiplyExact(value, 10), Character.digit(text.charAt(i), 10));
+			}
+			return value;
+		}
+		ParserRuleContext rule = (ParserRuleContext) tree;
+		long value = evaluate(skipSingleOperandRules(rule.getChild(0)), context);
+		for (int i = 1; i < rule.getChildCount(); i += 2) {
+			long operand = evaluate(skipSingleOperandRules(rule.getChild(i + 1)), context);
+			value = switch (((TerminalNode) rule.getChild(i)).getSymbol().getType()) {
+				case org.daiitech.naftah.parser.NaftahLexer.PLUS -> Math.addExact(value, operand);
+				case org.daiitech.naftah.parser.NaftahLexer.MINUS -> Math.subtractExact(value, operand);
+				default -> Math.multiplyExact(value, operand);
+			};
+		}
+		return value;
+	}
+}
@@ -65,8 +65,8 @@ public class DefaultNaftahDateParserVisitor extends NaftahDateParserBaseVisitor<
 	 * @return the result of visiting the parse tree
 	 */
 	public NaftahTemporal visit() {
-		// Parse the input and get the parse tree
-		ParseTree tree = parser.root();
+		// Parse the input (SLL first, then LL on failure) and get the parse tree
+		ParseTree tree = NaftahParserHelper.parse(parser, NaftahDateParser::root);
 		return (NaftahTemporal) visit(tree);
 	}
 
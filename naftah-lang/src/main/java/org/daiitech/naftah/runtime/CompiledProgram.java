@@ -0,0 +1,115 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime;
+
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.Vocabulary;
+import org.daiitech.naftah.parser.DefaultContext;
+import org.daiitech.naftah.parser.DefaultNaftahParserVisitor;
+import org.daiitech.naftah.parser.NaftahParser;
+
+/**
+ * A Naftah program parsed once by {@link NaftahRuntime#compile(String)} and executed any number of
+ * times.
+ * <p>
+ * The parse tree is read-only during an execution, so a compiled program can be shared and
+ * executed by several threads at once: each execution runs in an isolated root context (see
+ * {@link DefaultContext#executeIsolated(java.util.function.Supplier)}), with its own variables,
+ * functions and imports.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class CompiledProgram {
+
+	/**
+	 * The vocabulary of the parser that parsed the program.
+	 */
+	private final Vocabulary vocabulary;
+
+	/**
+	 * The parse tree of the program.
+	 */
+	private final NaftahParser.ProgramContext program;
+
+	/**
+	 * Creates a compiled program.
+	 *
+	 * @param parser  the parser that parsed the program
+	 * @param program the parse tree of the program
+	 */
+	CompiledProgram(NaftahParser parser, NaftahParser.ProgramContext program) {
+		this(parser.getVocabulary(), program);
+	}
+
+	/**
+	 * Creates a compiled program from a parse tree that was not produced by a parser of this
+	 * process (see {@link ProgramArtifact}).
+	 *
+	 * @param vocabulary the vocabulary of the parser that parsed the program
+	 * @param program    the parse tree of the program
+	 */
+	CompiledProgram(Vocabulary vocabulary, NaftahParser.ProgramContext program) {
+		this.vocabulary = vocabulary;
+		this.program = program;
+	}
+
+	/**
+	 * Executes the program without arguments.
+	 *
+	 * @return the value of the last statement executed
+	 */
+	public Object execute() {
+		return execute(List.of());
+	}
+
+	/**
+	 * Executes the program on the current thread, in an isolated root context.
+	 *
+	 * @param args the arguments of the program (the {@code وسائط} tuple)
+	 * @return the value of the last statement executed
+	 */
+	public Object execute(List<String> args) {
+		return execute(args, null);
+	}
+
+	/**
+	 * Executes the program on the current thread, in an isolated root context holding the given
+	 * global variables.
+	 * <p>
+	 * The globals are declared in the root context before the program runs, unless the program
+	 * declares them itself at its top level, and the map is updated with the variables of the root
+	 * context once it completes, so the values assigned (or declared) by the program can be read back. The map is not locked: executions running concurrently must
+	 * be given maps of their own, or synchronize on a shared one.
+	 * </p>
+	 *
+	 * @param args    the arguments of the program (the {@code وسائط} tuple)
+	 * @param globals the global variables, by name, or {@code null} for none
+	 * @return the value of the last statement executed
+	 */
+	public Object execute(List<String> args, Map<String, Object> globals) {
+		return DefaultContext
+				.executeIsolated(() -> new DefaultNaftahParserVisitor(vocabulary, args, globals).visit(program));
+	}
+
+	/**
+	 * Returns the vocabulary of the parser that parsed the program.
+	 *
+	 * @return the vocabulary
+	 */
+	public Vocabulary getVocabulary() {
+		return vocabulary;
+	}
+
+	/**
+	 * Returns the parse tree of the program.
+	 *
+	 * @return the parse tree
+	 */
+	public NaftahParser.ProgramContext getProgram() {
+		return program;
+	}
+}
@@ -0,0 +1,125 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.daiitech.naftah.Naftah;
+import org.daiitech.naftah.parser.CompiledScriptCache;
+import org.daiitech.naftah.parser.NaftahErrorListener;
+import org.daiitech.naftah.parser.NaftahParser;
+
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+
+/**
+ * Entry point for running Naftah from Java.
+ * <p>
+ * The runtime data (classes, JVM and builtin functions) is bootstrapped once per process, when the
+ * runtime is first {@linkplain #getInstance() obtained}, and shared read-only by every execution.
+ * Scripts are {@linkplain #compile(String) compiled} once into {@link CompiledProgram}s, which can
+ * then be executed many times, from any number of threads, each execution in an isolated root
+ * context:
+ * </p>
+ * <pre>{@code
+ * CompiledProgram rule = NaftahRuntime.getInstance().compile(source);
+ * Object result = rule.execute(List.of("42"));
+ * }</pre>
+ *
+ * @author Chakib Daii
+ */
+public final class NaftahRuntime {
+
+	/**
+	 * The runtime, created on first use.
+	 */
+	private static volatile NaftahRuntime instance;
+
+	/**
+	 * Creates the runtime.
+	 */
+	private NaftahRuntime() {
+	}
+
+	/**
+	 * Returns the runtime, configuring the interpreter and bootstrapping the runtime data
+	 * synchronously on first call.
+	 *
+	 * @return the runtime
+	 */
+	public static NaftahRuntime getInstance() {
+		NaftahRuntime runtime = instance;
+		if (Objects.isNull(runtime)) {
+			synchronized (NaftahRuntime.class) {
+				runtime = instance;
+				if (Objects.isNull(runtime)) {
+					Naftah.initRuntime(false);
+					instance = runtime = new NaftahRuntime();
+				}
+			}
+		}
+		return runtime;
+	}
+
+	/**
+	 * Compiles a script.
+	 *
+	 * @param script the script content
+	 * @return the compiled program
+	 * @throws ParseCancellationException if the script has syntax errors (reported by
+	 *                                    {@link NaftahErrorListener})
+	 */
+	public CompiledProgram compile(String script) {
+		return compile(getCharStream(script));
+	}
+
+	/**
+	 * Compiles a script file. The file is searched with the standard script extensions when it does
+	 * not exist as given. A {@linkplain ProgramArtifact compiled program} file is read as is; otherwise,
+	 * when {@link Naftah#COMPILED_CACHE_PROPERTY} is set, the parse tree is loaded from (or stored in)
+	 * the {@link CompiledScriptCache}.
+	 *
+	 * @param scriptFile the script file
+	 * @return the compiled program
+	 * @throws Exception if the file cannot be read or the script has syntax errors
+	 */
+	public CompiledProgram compile(Path scriptFile) throws Exception {
+		if (ProgramArtifact.isArtifact(scriptFile.toString())) {
+			return ProgramArtifact.read(scriptFile).getProgram();
+		}
+		CharStream input = getCharStream(true, scriptFile.toString());
+		if (Boolean.getBoolean(Naftah.COMPILED_CACHE_PROPERTY)) {
+			var program = CompiledScriptCache.parse(input, List.of(NaftahErrorListener.INSTANCE));
+			return new CompiledProgram(program.getLeft(), program.getRight());
+		}
+		return compile(input);
+	}
+
+	/**
+	 * Parses a script.
+	 *
+	 * @param input the script input
+	 * @return the compiled program
+	 */
+	private CompiledProgram compile(CharStream input) {
+		NaftahParser parser = prepareRun(input, NaftahErrorListener.INSTANCE);
+		return new CompiledProgram(parser, parse(parser, NaftahParser::program));
+	}
+
+	/**
+	 * Compiles and executes a script once.
+	 *
+	 * @param script the script content
+	 * @param args   the arguments of the script
+	 * @return the value of the last statement executed
+	 */
+	public Object execute(String script, List<String> args) {
+		return compile(script).execute(args);
+	}
+}
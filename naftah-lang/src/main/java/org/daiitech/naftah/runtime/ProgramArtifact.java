@@ -0,0 +1,309 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.VocabularyImpl;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.Trees;
+import org.daiitech.naftah.NaftahSystem;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.parser.CompiledScriptCache;
+import org.daiitech.naftah.parser.NaftahErrorListener;
+import org.daiitech.naftah.parser.NaftahParser;
+
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+
+/**
+ * A Naftah program compiled ahead of time by {@code naftah compile} into a portable binary file,
+ * which {@code naftah run} executes without lexing nor parsing the source.
+ * <p>
+ * The artifact is laid out as follows (all integers are big-endian {@code int}s, strings are UTF-8
+ * prefixed with their length, {@code -1} for none):
+ * </p>
+ * <ul>
+ * <li>a header: magic, format version, the Naftah version that compiled it and the source name;</li>
+ * <li>the vocabulary of the parser: the literal and symbolic names of every token type, so that
+ * running the artifact needs no parser instance;</li>
+ * <li>the source text of the import statements, which are resolved when the program runs, against the
+ * classes of the host;</li>
+ * <li>the program, in the {@link CompiledScriptCache} format: its string table is the constant pool of
+ * the program, and its tokens keep their source lines and columns, which locate runtime errors.</li>
+ * </ul>
+ * <p>
+ * The parse tree is bound to the grammar of the Naftah version that compiled it: an artifact
+ * can only be run by the same version.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class ProgramArtifact {
+
+	/**
+	 * Extension of the compiled program files.
+	 */
+	public static final String ARTIFACT_EXTENSION = ".ntb";
+
+	/**
+	 * Magic number of compiled program files ({@code NFTB}).
+	 */
+	public static final int MAGIC = 0x4E465442;
+
+	/**
+	 * Version of the artifact format, bumped on every incompatible change.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The Naftah version that compiled the program.
+	 */
+	private final String naftahVersion;
+
+	/**
+	 * The name of the compiled source.
+	 */
+	private final String sourceName;
+
+	/**
+	 * The source text of the import statements of the program.
+	 */
+	private final List<String> imports;
+
+	/**
+	 * The compiled program.
+	 */
+	private final CompiledProgram program;
+
+	/**
+	 * Creates an artifact.
+	 *
+	 * @param naftahVersion the Naftah version that compiled the program
+	 * @param sourceName    the name of the compiled source
+	 * @param imports       the source text of the import statements
+	 * @param program       the compiled program
+	 */
+	private ProgramArtifact(String naftahVersion, String sourceName, List<String> imports, CompiledProgram program) {
+		this.naftahVersion = naftahVersion;
+		this.sourceName = sourceName;
+		this.imports = imports;
+		this.program = program;
+	}
+
+	/**
+	 * Tells whether a script file is a compiled program, from its extension.
+	 *
+	 * @param script the script file name
+	 * @return {@code true} if the file is a compiled program
+	 */
+	public static boolean isArtifact(String script) {
+		return script.trim().endsWith(ARTIFACT_EXTENSION) && Files.isRegularFile(Path.of(script.trim()));
+	}
+
+	/**
+	 * Returns the default artifact path of a source file: the source path with the artifact extension
+	 * instead of its own.
+	 *
+	 * @param source the source file
+	 * @return the artifact path
+	 */
+	public static Path getDefaultOutput(Path source) {
+		String fileName = source.getFileName().toString();
+		int extension = fileName.lastIndexOf('.');
+		return source
+				.resolveSibling((extension > 0 ? fileName.substring(0, extension) : fileName) + ARTIFACT_EXTENSION);
+	}
+
+	/**
+	 * Parses a program and writes its artifact. The artifact is written aside then moved over the output,
+	 * so that a run never reads a partial artifact and a failed compilation keeps the previous one.
+	 *
+	 * @param input      the program input
+	 * @param sourceName the name of the source, kept in the artifact
+	 * @param output     the artifact path
+	 * @return the source text of the import statements of the program
+	 * @throws IOException if the artifact cannot be written
+	 */
+	public static List<String> compile(CharStream input, String sourceName, Path output) throws IOException {
+		NaftahParser parser = prepareRun(input, NaftahErrorListener.INSTANCE);
+		NaftahParser.ProgramContext program = parse(parser, NaftahParser::program);
+
+		List<String> imports = new ArrayList<>();
+		for (ParseTree importStatement : Trees.findAllRuleNodes(program, NaftahParser.RULE_importStatement)) {
+			ParserRuleContext context = (ParserRuleContext) importStatement;
+			imports
+					.add(input
+							.getText(Interval.of(context.getStart().getStartIndex(), context.getStop().getStopIndex())));
+		}
+
+		Path parent = output.toAbsolutePath().getParent();
+		if (Objects.nonNull(parent)) {
+			Files.createDirectories(parent);
+		}
+		Path tempPath = Files.createTempFile(parent, output.getFileName().toString(), ".tmp");
+		try {
+			write(parser, program, input, sourceName, imports, tempPath);
+			Files.move(tempPath, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+		return imports;
+	}
+
+	/**
+	 * Writes the artifact of a parsed program.
+	 */
+	private static void write(  NaftahParser parser,
+								NaftahParser.ProgramContext program,
+								CharStream input,
+								String sourceName,
+								List<String> imports,
+								Path path) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+			DataOutputStream data = new DataOutputStream(out);
+			data.writeInt(MAGIC);
+			data.writeInt(VERSION);
+			writeString(data, NaftahSystem.getVersion());
+			writeString(data, sourceName);
+
+			Vocabulary vocabulary = parser.getVocabulary();
+			data.writeInt(vocabulary.getMaxTokenType());
+			for (int type = 0; type <= vocabulary.getMaxTokenType(); type++) {
+				writeString(data, vocabulary.getLiteralName(type));
+				writeString(data, vocabulary.getSymbolicName(type));
+			}
+
+			data.writeInt(imports.size());
+			for (String importStatement : imports) {
+				writeString(data, importStatement);
+			}
+			data.flush();
+
+			CompiledScriptCache
+					.write(program, CompiledScriptCache.getKey(input.getText(Interval.of(0, input.size() - 1))), out);
+		}
+	}
+
+	/**
+	 * Reads an artifact.
+	 *
+	 * @param path the artifact path
+	 * @return the artifact
+	 * @throws IOException    if the file cannot be read or is not a compiled program
+	 * @throws NaftahBugError if the program was compiled by another Naftah version
+	 */
+	public static ProgramArtifact read(Path path) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+			DataInputStream data = new DataInputStream(in);
+			if (data.readInt() != MAGIC) {
+				throw new IOException("Not a compiled Naftah program: " + path);
+			}
+			int version = data.readInt();
+			String naftahVersion = readString(data);
+			if (version != VERSION || !NaftahSystem.getVersion().equals(naftahVersion)) {
+				throw new NaftahBugError("""
+											تمت ترجمة البرنامج '%s' بإصدار نفطه %s، يجب إعادة ترجمته بالإصدار الحالي %s (naftah compile).
+											"""
+						.formatted(path, naftahVersion, NaftahSystem.getVersion()));
+			}
+			String sourceName = readString(data);
+
+			String[] literalNames = new String[data.readInt() + 1];
+			String[] symbolicNames = new String[literalNames.length];
+			for (int type = 0; type < literalNames.length; type++) {
+				literalNames[type] = readString(data);
+				symbolicNames[type] = readString(data);
+			}
+
+			List<String> imports = new ArrayList<>();
+			for (int i = data.readInt(); i > 0; i--) {
+				imports.add(readString(data));
+			}
+
+			NaftahParser.ProgramContext program = CompiledScriptCache.read(in, null);
+			return new ProgramArtifact(naftahVersion,
+										sourceName,
+										List.copyOf(imports),
+										new CompiledProgram(new VocabularyImpl(literalNames, symbolicNames), program));
+		}
+		catch (ReflectiveOperationException e) {
+			throw new NaftahBugError("البرنامج المترجم '%s' غير متوافق مع قواعد اللغة الحالية.".formatted(path), e);
+		}
+	}
+
+	private static void writeString(DataOutputStream data, String string) throws IOException {
+		if (Objects.isNull(string)) {
+			data.writeInt(-1);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		int length = data.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		data.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the Naftah version that compiled the program.
+	 *
+	 * @return the Naftah version
+	 */
+	public String getNaftahVersion() {
+		return naftahVersion;
+	}
+
+	/**
+	 * Returns the name of the compiled source.
+	 *
+	 * @return the source name
+	 */
+	public String getSourceName() {
+		return sourceName;
+	}
+
+	/**
+	 * Returns the source text of the import statements of the program.
+	 *
+	 * @return the import statements
+	 */
+	public List<String> getImports() {
+		return imports;
+	}
+
+	/**
+	 * Returns the compiled program.
+	 *
+	 * @return the compiled program
+	 */
+	public CompiledProgram getProgram() {
+		return program;
+	}
+}
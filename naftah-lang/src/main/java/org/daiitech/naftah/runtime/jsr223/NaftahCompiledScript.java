@@ -0,0 +1,176 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime.jsr223;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.daiitech.naftah.builtin.lang.DeclaredVariable;
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.lang.NaftahObject;
+import org.daiitech.naftah.builtin.lang.None;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.runtime.CompiledProgram;
+
+/**
+ * A Naftah script compiled by {@link NaftahScriptEngine#compile(String)}: it reuses the parse tree
+ * of a {@link CompiledProgram} on each evaluation.
+ *
+ * @author Chakib Daii
+ */
+public class NaftahCompiledScript extends CompiledScript {
+
+	/**
+	 * Prefix of the binding names reserved by {@code javax.script} (such as {@link ScriptEngine#ARGV}),
+	 * which are not mapped to variables.
+	 */
+	private static final String RESERVED_PREFIX = "javax.script.";
+
+	/**
+	 * The engine that compiled the script.
+	 */
+	private final ScriptEngine engine;
+
+	/**
+	 * The compiled program.
+	 */
+	private final CompiledProgram program;
+
+	/**
+	 * Creates a compiled script.
+	 *
+	 * @param engine  the engine that compiled the script
+	 * @param program the compiled program
+	 */
+	NaftahCompiledScript(ScriptEngine engine, CompiledProgram program) {
+		this.engine = engine;
+		this.program = program;
+	}
+
+	/**
+	 * Wraps an error raised while compiling or evaluating a script.
+	 *
+	 * @param t the error
+	 * @return the script exception
+	 */
+	static ScriptException newScriptException(Throwable t) {
+		ScriptException scriptException = new ScriptException(Objects.requireNonNullElse(   t.getMessage(),
+																							t.toString()));
+		scriptException.initCause(t);
+		return scriptException;
+	}
+
+	/**
+	 * Converts a Naftah value to the value exposed to Java: {@link None} becomes {@code null}, and
+	 * variables, dynamic numbers and Java objects wrapped by Naftah are unwrapped.
+	 *
+	 * @param value the Naftah value
+	 * @return the Java value
+	 */
+	static Object toJavaValue(Object value) {
+		if (None.isNone(value)) {
+			return null;
+		}
+		if (value instanceof DeclaredVariable declaredVariable) {
+			return toJavaValue(declaredVariable.getValue());
+		}
+		if (value instanceof DynamicNumber dynamicNumber) {
+			return dynamicNumber.get();
+		}
+		if (value instanceof NaftahObject naftahObject && naftahObject.fromJava()) {
+			return naftahObject.get(true);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the script arguments held by the {@link ScriptEngine#ARGV} binding.
+	 *
+	 * @param bindings the bindings
+	 * @return the arguments
+	 */
+	private static List<String> getArguments(Bindings bindings) {
+		if (bindings.get(ScriptEngine.ARGV) instanceof Object[] argv) {
+			return Arrays.stream(argv).map(String::valueOf).toList();
+		}
+		return List.of();
+	}
+
+	/**
+	 * Copies the bindings that are mapped to variables.
+	 *
+	 * @param bindings the bindings, may be {@code null}
+	 * @param globals  the variables, by name
+	 */
+	private static void copyBindings(Bindings bindings, Map<String, Object> globals) {
+		if (Objects.isNull(bindings)) {
+			return;
+		}
+		synchronized (bindings) {
+			bindings.forEach((name, value) -> {
+				if (!name.startsWith(RESERVED_PREFIX)) {
+					globals.put(name, value);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Evaluates the script in an isolated root context.
+	 * <p>
+	 * The global scope bindings, then the engine scope bindings, are declared as variables of the
+	 * root context, and the {@link ScriptEngine#ARGV} binding holds the script arguments. Once the
+	 * script completes, the variables of the root context that it declared or assigned are written to
+	 * the engine scope bindings. The bindings are locked while they are read and written, so the same
+	 * script context can be shared by concurrent evaluations.
+	 * </p>
+	 *
+	 * @param context the script context
+	 * @return the value of the last statement executed
+	 * @throws ScriptException if the evaluation fails
+	 */
+	@Override
+	public Object eval(ScriptContext context) throws ScriptException {
+		Bindings engineBindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+		Map<String, Object> globals = new LinkedHashMap<>();
+		copyBindings(context.getBindings(ScriptContext.GLOBAL_SCOPE), globals);
+		copyBindings(engineBindings, globals);
+		Map<String, Object> initialValues = new HashMap<>(globals);
+		List<String> args;
+		synchronized (engineBindings) {
+			args = getArguments(engineBindings);
+		}
+
+		try {
+			return toJavaValue(program.execute(args, globals));
+		}
+		catch (NaftahBugError | RuntimeException e) {
+			throw newScriptException(e);
+		}
+		finally {
+			synchronized (engineBindings) {
+				globals.forEach((name, value) -> {
+					if (!initialValues.containsKey(name) || initialValues.get(name) != value) {
+						engineBindings.put(name, toJavaValue(value));
+					}
+				});
+			}
+		}
+	}
+
+	@Override
+	public ScriptEngine getEngine() {
+		return engine;
+	}
+}
@@ -0,0 +1,112 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime.jsr223;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.runtime.NaftahRuntime;
+
+/**
+ * The Naftah {@code javax.script} engine.
+ * <p>
+ * The engine is {@link Compilable}: {@link #compile(String)} parses a script once into a
+ * {@link NaftahCompiledScript} that can be evaluated any number of times, while {@code eval} parses
+ * the script on each call. The bindings of the script context are mapped onto the variables of the
+ * root context of each evaluation (see {@link NaftahCompiledScript#eval(ScriptContext)}).
+ * </p>
+ * <p>
+ * Scripts print to the standard output of the process; the writers of the script context are not
+ * used.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public class NaftahScriptEngine extends AbstractScriptEngine implements Compilable {
+
+	/**
+	 * The factory that created the engine.
+	 */
+	private final ScriptEngineFactory factory;
+
+	/**
+	 * The runtime compiling the scripts.
+	 */
+	private final NaftahRuntime runtime;
+
+	/**
+	 * Creates an engine.
+	 *
+	 * @param factory the factory that created the engine
+	 * @param runtime the runtime compiling the scripts
+	 */
+	NaftahScriptEngine(ScriptEngineFactory factory, NaftahRuntime runtime) {
+		this.factory = factory;
+		this.runtime = runtime;
+	}
+
+	/**
+	 * Reads a script.
+	 *
+	 * @param reader the script reader
+	 * @return the script content
+	 * @throws ScriptException if the script cannot be read
+	 */
+	private static String read(Reader reader) throws ScriptException {
+		StringWriter script = new StringWriter();
+		try {
+			reader.transferTo(script);
+		}
+		catch (IOException e) {
+			throw new ScriptException(e);
+		}
+		return script.toString();
+	}
+
+	@Override
+	public Object eval(String script, ScriptContext context) throws ScriptException {
+		return compile(script).eval(context);
+	}
+
+	@Override
+	public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+		return eval(read(reader), context);
+	}
+
+	@Override
+	public CompiledScript compile(String script) throws ScriptException {
+		try {
+			return new NaftahCompiledScript(this, runtime.compile(script));
+		}
+		catch (NaftahBugError | RuntimeException e) {
+			throw NaftahCompiledScript.newScriptException(e);
+		}
+	}
+
+	@Override
+	public CompiledScript compile(Reader reader) throws ScriptException {
+		return compile(read(reader));
+	}
+
+	@Override
+	public Bindings createBindings() {
+		return new SimpleBindings();
+	}
+
+	@Override
+	public ScriptEngineFactory getFactory() {
+		return factory;
+	}
+}
@@ -0,0 +1,137 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime.jsr223;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import org.daiitech.naftah.NaftahSystem;
+import org.daiitech.naftah.runtime.NaftahRuntime;
+
+import static org.daiitech.naftah.Naftah.STANDARD_EXTENSIONS;
+import static org.daiitech.naftah.utils.reflect.ClassUtils.QUALIFIED_CALL_SEPARATOR;
+
+/**
+ * The {@code javax.script} factory of the Naftah scripting engine, registered as a service so that
+ * {@code new ScriptEngineManager().getEngineByName("naftah")} finds it.
+ * <p>
+ * The engine is {@code MULTITHREADED}: scripts can be evaluated concurrently, each evaluation runs
+ * in an isolated root context, and the variables it assigns are written back to the engine scope
+ * bindings, which are therefore shared by the evaluations of a same script context.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public class NaftahScriptEngineFactory implements ScriptEngineFactory {
+
+	/**
+	 * The engine name.
+	 */
+	public static final String ENGINE_NAME = "Naftah";
+
+	/**
+	 * The language name.
+	 */
+	public static final String LANGUAGE_NAME = "نفطه";
+
+	/**
+	 * The threading model of the engine, reported by the {@code THREADING} parameter.
+	 */
+	public static final String THREADING = "MULTITHREADED";
+
+	/**
+	 * The names the engine is registered under.
+	 */
+	private static final List<String> NAMES = List.of("naftah", "Naftah", LANGUAGE_NAME);
+
+	/**
+	 * The script file extensions, without the leading dot.
+	 */
+	private static final List<String> EXTENSIONS = Arrays
+			.stream(STANDARD_EXTENSIONS)
+			.map(extension -> extension.substring(1))
+			.toList();
+
+	/**
+	 * The script MIME types.
+	 */
+	private static final List<String> MIME_TYPES = List.of("application/x-naftah", "text/x-naftah");
+
+	@Override
+	public String getEngineName() {
+		return ENGINE_NAME;
+	}
+
+	@Override
+	public String getEngineVersion() {
+		return NaftahSystem.getVersion();
+	}
+
+	@Override
+	public List<String> getExtensions() {
+		return EXTENSIONS;
+	}
+
+	@Override
+	public List<String> getMimeTypes() {
+		return MIME_TYPES;
+	}
+
+	@Override
+	public List<String> getNames() {
+		return NAMES;
+	}
+
+	@Override
+	public String getLanguageName() {
+		return LANGUAGE_NAME;
+	}
+
+	@Override
+	public String getLanguageVersion() {
+		return NaftahSystem.getVersion();
+	}
+
+	@Override
+	public Object getParameter(String key) {
+		return switch (key) {
+			case ScriptEngine.ENGINE -> getEngineName();
+			case ScriptEngine.ENGINE_VERSION -> getEngineVersion();
+			case ScriptEngine.NAME -> NAMES.get(0);
+			case ScriptEngine.LANGUAGE -> getLanguageName();
+			case ScriptEngine.LANGUAGE_VERSION -> getLanguageVersion();
+			case "THREADING" -> THREADING;
+			default -> null;
+		};
+	}
+
+	@Override
+	public String getMethodCallSyntax(String obj, String m, String... args) {
+		return obj + QUALIFIED_CALL_SEPARATOR + m + "(" + String.join("، ", args) + ")";
+	}
+
+	@Override
+	public String getOutputStatement(String toDisplay) {
+		return "إطبع(\"" + toDisplay.replace("\\", "\\\\").replace("\"", "\\\"") + "\")";
+	}
+
+	@Override
+	public String getProgram(String... statements) {
+		return Arrays.stream(statements).collect(Collectors.joining(System.lineSeparator()));
+	}
+
+	/**
+	 * Creates an engine, bootstrapping the {@link NaftahRuntime} on first use.
+	 *
+	 * @return the engine
+	 */
+	@Override
+	public ScriptEngine getScriptEngine() {
+		return new NaftahScriptEngine(this, NaftahRuntime.getInstance());
+	}
+}
@@ -0,0 +1,10 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+/**
+ * This is the package of Naftah programming language scripting engine, exposing the runtime through
+ * the {@code javax.script} API (JSR-223).
+ *
+ * @author Chakib Daii
+ */
+package org.daiitech.naftah.runtime.jsr223;
@@ -0,0 +1,10 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+/**
+ * This is the base package of Naftah programming language embedding API: compiling scripts once and
+ * executing them from Java, concurrently and in isolation.
+ *
+ * @author Chakib Daii
+ */
+package org.daiitech.naftah.runtime;
@@ -0,0 +1,304 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.Naftah;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.Naftah.LAUNCHER_CLASS_PATH;
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.utils.OS.XTERM_VERSION_ENV;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.JAVA_HOME;
+
+/**
+ * Generation of the application class-data-sharing (AppCDS) archive of the Naftah distribution.
+ * <p>
+ * The archive is a dynamic archive dumped with {@code -XX:ArchiveClassesAtExit} at the end of a
+ * training run of the interpreter, so that the classes loaded by a typical script (the interpreter,
+ * ANTLR, ICU, the builtins...) are mapped from the archive instead of being parsed and verified on
+ * each start. The launcher ({@code naftah-shell.sh}) adds {@code -XX:SharedArchiveFile} when the
+ * archive is up to date.
+ * </p>
+ * <p>
+ * The JVM refuses to dump an archive when the class path holds non-empty directories (such as the
+ * {@code bin} directory of the distribution), so the archive is dumped with the
+ * {@linkplain #getArchiveClassPath(String) jars} of the launcher class path only, and the launcher
+ * puts them first when it uses the archive: an archive is mapped only when its class path is a prefix
+ * of the current one.
+ * </p>
+ * <p>
+ * An archive is only valid for the JVM and the jars it was dumped with, so a stamp file is written
+ * next to it holding the Java home and the archive class path, and the archive is stale when:
+ * </p>
+ * <ul>
+ * <li>the stamp does not match the current Java home or archive class path,</li>
+ * <li>a jar (or the {@code release} file of the Java home) is newer than the archive, e.g. after the
+ * distribution was upgraded in place.</li>
+ * </ul>
+ * <p>
+ * The launcher performs the same checks before using the archive; the JVM itself also validates
+ * the class path of the archive and silently ignores a mismatching one.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class ClassDataSharingArchive {
+
+	/**
+	 * Environment variable overriding the archive location.
+	 */
+	public static final String ARCHIVE_ENV = "NAFTAH_CDS_ARCHIVE";
+
+	/**
+	 * Default archive location, relative to the user home.
+	 */
+	public static final String DEFAULT_ARCHIVE = ".naftah/naftah.jsa";
+
+	/**
+	 * Suffix of the stamp file written next to the archive.
+	 */
+	public static final String STAMP_SUFFIX = ".stamp";
+
+	/**
+	 * Name of the bundled training script resource, run when no training script is given.
+	 */
+	public static final String TRAINING_RESOURCE = "cds_training.naftah";
+
+	/**
+	 * Prefixes of the JVM options of the current process that are not passed to the training run:
+	 * agents (a debugger would try to bind the same port) and class-data-sharing options.
+	 */
+	private static final String[] EXCLUDED_JVM_OPTIONS = {
+															"-agentlib:",
+															"-agentpath:",
+															"-javaagent:",
+															"-Xshare:",
+															"-Xlog:cds",
+															"-XX:SharedArchiveFile=",
+															"-XX:ArchiveClassesAtExit="
+	};
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private ClassDataSharingArchive() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Returns the archive location: {@value #ARCHIVE_ENV} if set, otherwise {@value #DEFAULT_ARCHIVE}
+	 * in the user home.
+	 *
+	 * @return the archive path
+	 */
+	public static Path getArchivePath() {
+		String archive = System.getenv(ARCHIVE_ENV);
+		if (Objects.nonNull(archive) && !archive.isBlank()) {
+			return Path.of(archive).toAbsolutePath();
+		}
+		return Path.of(System.getProperty("user.home")).resolve(DEFAULT_ARCHIVE);
+	}
+
+	/**
+	 * Returns the stamp file of an archive.
+	 *
+	 * @param archive the archive path
+	 * @return the stamp path
+	 */
+	public static Path getStampPath(Path archive) {
+		return archive.resolveSibling(archive.getFileName() + STAMP_SUFFIX);
+	}
+
+	/**
+	 * Returns the Java home the launcher runs with: the {@code JAVA_HOME} environment variable it
+	 * exports, or the {@code java.home} property when started otherwise.
+	 *
+	 * @return the Java home
+	 */
+	public static String getJavaHome() {
+		String javaHome = System.getenv("JAVA_HOME");
+		return Objects.nonNull(javaHome) && !javaHome.isBlank() ? javaHome : JAVA_HOME;
+	}
+
+	/**
+	 * Returns the class path an archive is dumped with: the regular files (jars) of the given class
+	 * path, in order; directories are left out.
+	 *
+	 * @param classPath the class path
+	 * @return the archive class path
+	 */
+	public static String getArchiveClassPath(String classPath) {
+		return Stream
+				.of(classPath.split(File.pathSeparator))
+				.filter(entry -> !entry.isBlank() && Files.isRegularFile(Path.of(entry)))
+				.collect(Collectors.joining(File.pathSeparator));
+	}
+
+	/**
+	 * Returns the stamp of an archive dumped with the given Java home and class path. It matches the
+	 * stamp computed by the launcher: the Java home and the class path on two lines.
+	 *
+	 * @param javaHome  the Java home
+	 * @param classPath the archive class path
+	 * @return the stamp
+	 */
+	public static String getStamp(String javaHome, String classPath) {
+		return javaHome + "\n" + classPath;
+	}
+
+	/**
+	 * Checks whether the archive is up to date for the given Java home and archive class path.
+	 *
+	 * @param archive   the archive path
+	 * @param javaHome  the Java home
+	 * @param classPath the archive class path
+	 * @return {@code true} if the archive exists, was dumped with the same Java home and class path,
+	 *         and no class path entry changed since
+	 * @throws IOException if the archive or a class path entry cannot be read
+	 */
+	public static boolean isUpToDate(Path archive, String javaHome, String classPath) throws IOException {
+		Path stamp = getStampPath(archive);
+		if (!Files.isRegularFile(archive) || !Files.isRegularFile(stamp) || !getStamp(javaHome, classPath)
+				.equals(Files.readString(stamp, StandardCharsets.UTF_8).stripTrailing())) {
+			return false;
+		}
+		long archiveTime = Files.getLastModifiedTime(archive).toMillis();
+		List<Path> sources = new ArrayList<>();
+		sources.add(Path.of(javaHome, "release"));
+		for (String entry : classPath.split(File.pathSeparator)) {
+			if (!entry.isBlank()) {
+				sources.add(Path.of(entry));
+			}
+		}
+		for (Path source : sources) {
+			if (isNewer(source, archiveTime)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether a file, or any file of a directory tree, was modified after the given time.
+	 *
+	 * @param source the file or directory
+	 * @param time   the time in milliseconds
+	 * @return {@code true} if something is newer
+	 * @throws IOException if the tree cannot be walked
+	 */
+	private static boolean isNewer(Path source, long time) throws IOException {
+		if (!Files.exists(source)) {
+			return false;
+		}
+		if (!Files.isDirectory(source)) {
+			return Files.getLastModifiedTime(source).toMillis() > time;
+		}
+		try (Stream<Path> files = Files.walk(source)) {
+			return files.anyMatch(file -> {
+				try {
+					return Files.getLastModifiedTime(file).toMillis() > time;
+				}
+				catch (IOException e) {
+					return true;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Dumps the archive of the jars of the launcher class path by running a training script in a child JVM
+	 * started with the options of the current one, then writes its stamp.
+	 * <p>
+	 * The archive is dumped aside and moved into place once complete, so that a concurrent launch
+	 * never maps a partially written archive.
+	 * </p>
+	 *
+	 * @param archive        the archive path
+	 * @param trainingScript the training script, or {@code null} to run the bundled one
+	 * @throws IOException          if the training script cannot be read or the archive cannot be written
+	 * @throws InterruptedException if interrupted while waiting for the training run
+	 * @throws NaftahBugError       if the training run fails or produces no archive
+	 */
+	public static void dump(Path archive, Path trainingScript) throws IOException, InterruptedException {
+		Path directory = archive.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tempArchive = directory.resolve(archive.getFileName() + ".tmp");
+		String classPath = getArchiveClassPath(LAUNCHER_CLASS_PATH);
+		Files.deleteIfExists(tempArchive);
+
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(JAVA_HOME, "bin", "java").toString());
+		for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (Stream.of(EXCLUDED_JVM_OPTIONS).noneMatch(option::startsWith)) {
+				command.add(option);
+			}
+		}
+		command.add("-XX:ArchiveClassesAtExit=" + tempArchive);
+		command.add("-Xlog:cds=off");
+		command.add("-Xlog:cds+dynamic=off");
+		command.add("-cp");
+		command.add(classPath);
+		command.add(Naftah.class.getName());
+		command.add("run");
+		if (Objects.nonNull(trainingScript)) {
+			command.add(trainingScript.toAbsolutePath().toString());
+		}
+		else {
+			command.add("-e");
+			command.add(getTrainingScript());
+		}
+
+		ProcessBuilder processBuilder = new ProcessBuilder(command)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.redirectError(ProcessBuilder.Redirect.INHERIT);
+		// the training run must not wait for the user before exiting
+		processBuilder.environment().remove(XTERM_VERSION_ENV);
+		Process process = processBuilder.start();
+		process.getOutputStream().close();
+		int exitCode = process.waitFor();
+
+		try {
+			if (exitCode != 0 || !Files.isRegularFile(tempArchive)) {
+				throw new NaftahBugError(String
+						.format("فشل إنشاء أرشيف مشاركة بيانات الفئات (CDS): انتهى التشغيل التدريبي بالرمز %d.",
+								exitCode));
+			}
+			Files.move(tempArchive, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempArchive);
+		}
+		Files.writeString(getStampPath(archive), getStamp(getJavaHome(), classPath), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the bundled training script, which runs the most common interpreter paths.
+	 *
+	 * @return the training script content
+	 * @throws IOException if the resource cannot be read
+	 */
+	public static String getTrainingScript() throws IOException {
+		try (InputStream in = ClassDataSharingArchive.class.getClassLoader().getResourceAsStream(TRAINING_RESOURCE)) {
+			if (Objects.isNull(in)) {
+				throw new NaftahBugError("لم يتم العثور على سكربت التدريب الافتراضي: " + TRAINING_RESOURCE);
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -3,7 +3,11 @@
 
 package org.daiitech.naftah.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HexFormat;
@@ -80,4 +84,31 @@ public final class HashUtils {
 		}
 	}
 
+	/**
+	 * Generates a hash string for the content of the given file using the specified algorithm.
+	 * The file is streamed, it is never loaded in memory as a whole.
+	 *
+	 * @param path      the file to hash
+	 * @param algorithm the name of the hashing algorithm (e.g., "MD5", "SHA-256")
+	 * @return the resulting hash as a hexadecimal string
+	 * @throws IOException    if the file cannot be read
+	 * @throws NaftahBugError if the specified algorithm is not supported or unavailable
+	 */
+	public static String hashFile(Path path, String algorithm) throws IOException {
+		try (InputStream is = Files.newInputStream(path)) {
+			MessageDigest digest = MessageDigest.getInstance(algorithm);
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new NaftahBugError("""
+										الخوارزمية المقدمة %s غير مدعومة أو غير متوفرة في البيئة الحالية.
+										""".formatted(algorithm), e);
+		}
+	}
+
 }
@@ -0,0 +1,445 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe compressed prefix tree (radix tree) mapping names to values, with prefix and
+ * fuzzy lookups.
+ * <p>
+ * Each edge holds a run of characters, so the tree has at most twice as many nodes as names, and
+ * the children of a node are kept sorted so names are enumerated in lexicographic order.
+ * </p>
+ * <ul>
+ * <li>{@link #get(String)}, {@link #put(String, Object)}: O(key length).</li>
+ * <li>{@link #withPrefix(String, int)}: O(prefix length + returned names).</li>
+ * <li>{@link #suggest(String, int, int)}: the top-k names within an edit distance of the query, computed
+ * with one Levenshtein row per visited character; subtrees that cannot beat the current top-k are
+ * pruned.</li>
+ * </ul>
+ * <p>
+ * Reads run concurrently, writes are exclusive.
+ * </p>
+ *
+ * @param <V> the type of the values
+ * @author Chakib Daii
+ */
+public final class PrefixTrie<V> {
+
+	/**
+	 * The root node, with an empty label.
+	 */
+	private final Node<V> root = new Node<>("");
+
+	/**
+	 * Guards the nodes.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * The number of names.
+	 */
+	private int size;
+
+	/**
+	 * Returns the length of the common prefix of a label and a key from an offset.
+	 *
+	 * @param label  the edge label
+	 * @param key    the key
+	 * @param offset the offset in the key
+	 * @return the common prefix length
+	 */
+	private static int commonPrefixLength(String label, String key, int offset) {
+		int length = Math.min(label.length(), key.length() - offset);
+		int i = 0;
+		while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Associates the value with the name.
+	 *
+	 * @param key   the name
+	 * @param value the value
+	 * @return the previous value, or {@code null} if there was none
+	 */
+	public V put(String key, V value) {
+		Objects.requireNonNull(key);
+		lock.writeLock().lock();
+		try {
+			Node<V> node = root;
+			int i = 0;
+			while (i < key.length()) {
+				char c = key.charAt(i);
+				Node<V> child = node.child(c);
+				if (Objects.isNull(child)) {
+					node.addChild(new Node<>(key.substring(i)));
+					node = node.child(c);
+					break;
+				}
+				int common = commonPrefixLength(child.label, key, i);
+				if (common < child.label.length()) {
+					// split the edge at the first mismatching character
+					Node<V> split = new Node<>(child.label.substring(0, common));
+					child.label = child.label.substring(common);
+					split.addChild(child);
+					node.addChild(split);
+					child = split;
+				}
+				node = child;
+				i += common;
+			}
+			V previous = node.value;
+			if (!node.terminal) {
+				node.terminal = true;
+				size++;
+			}
+			node.value = value;
+			return previous;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the value associated with the name.
+	 *
+	 * @param key the name
+	 * @return the value, or {@code null} if the name is absent
+	 */
+	public V get(String key) {
+		lock.readLock().lock();
+		try {
+			Node<V> node = findExact(key);
+			return Objects.nonNull(node) ? node.value : null;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks whether the name is present.
+	 *
+	 * @param key the name
+	 * @return {@code true} if the name is present
+	 */
+	public boolean containsKey(String key) {
+		lock.readLock().lock();
+		try {
+			return Objects.nonNull(findExact(key));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of names.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the values of the names starting with the given prefix, in lexicographic order of the
+	 * names.
+	 *
+	 * @param prefix the prefix
+	 * @param limit  the maximum number of values, or {@code 0} for no limit
+	 * @return the values
+	 */
+	public List<V> withPrefix(String prefix, int limit) {
+		lock.readLock().lock();
+		try {
+			List<V> values = new ArrayList<>();
+			Node<V> node = findPrefix(prefix);
+			if (Objects.nonNull(node)) {
+				collect(node, values, limit <= 0 ? Integer.MAX_VALUE : limit);
+			}
+			return values;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the values of the names closest to the query, at most {@code maxDistance} edits from it.
+	 * <p>
+	 * The distance of a name is the Levenshtein distance between the query and the closest prefix of
+	 * the name, so that a mistyped beginning of a name still suggests the name. Suggestions are
+	 * ranked by distance, then by name length, then lexicographically.
+	 * </p>
+	 *
+	 * @param query       the query
+	 * @param limit       the maximum number of values
+	 * @param maxDistance the maximum distance
+	 * @return the values, best first
+	 */
+	public List<V> suggest(String query, int limit, int maxDistance) {
+		if (limit <= 0 || maxDistance < 0) {
+			return new ArrayList<>();
+		}
+		lock.readLock().lock();
+		try {
+			int[] row = new int[query.length() + 1];
+			for (int i = 0; i < row.length; i++) {
+				row[i] = i;
+			}
+			PriorityQueue<Suggestion<V>> suggestions = new PriorityQueue<>(Suggestion.<V>ranking().reversed());
+			suggest(root, new StringBuilder(), query, row, row[query.length()], limit, maxDistance, suggestions);
+
+			List<Suggestion<V>> ranked = new ArrayList<>(suggestions);
+			ranked.sort(Suggestion.ranking());
+			List<V> values = new ArrayList<>(ranked.size());
+			for (Suggestion<V> suggestion : ranked) {
+				values.add(suggestion.value());
+			}
+			return values;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the root of the subtree holding the names starting with the given prefix. When the
+	 * prefix ends inside an edge, this is the node the edge leads to.
+	 *
+	 * @param prefix the prefix
+	 * @return the subtree root, or {@code null} if no name starts with the prefix
+	 */
+	private Node<V> findPrefix(String prefix) {
+		Node<V> node = root;
+		int i = 0;
+		while (i < prefix.length()) {
+			Node<V> child = node.child(prefix.charAt(i));
+			if (Objects.isNull(child)) {
+				return null;
+			}
+			int common = commonPrefixLength(child.label, prefix, i);
+			if (common < child.label.length() && common < prefix.length() - i) {
+				return null;
+			}
+			node = child;
+			i += common;
+		}
+		return node;
+	}
+
+	/**
+	 * Finds the node where the name ends.
+	 *
+	 * @param key the name
+	 * @return the node, or {@code null} if the name is absent
+	 */
+	private Node<V> findExact(String key) {
+		Node<V> node = root;
+		int i = 0;
+		while (i < key.length()) {
+			Node<V> child = node.child(key.charAt(i));
+			if (Objects.isNull(child) || !key.startsWith(child.label, i)) {
+				return null;
+			}
+			node = child;
+			i += child.label.length();
+		}
+		return node.terminal ? node : null;
+	}
+
+	/**
+	 * Collects the values of a subtree, in lexicographic order.
+	 *
+	 * @param node   the subtree root
+	 * @param values the collected values
+	 * @param limit  the maximum number of values
+	 * @return {@code false} once the limit is reached
+	 */
+	private boolean collect(Node<V> node, List<V> values, int limit) {
+		if (node.terminal) {
+			values.add(node.value);
+			if (values.size() >= limit) {
+				return false;
+			}
+		}
+		if (Objects.nonNull(node.children)) {
+			for (Node<V> child : node.children.values()) {
+				if (!collect(child, values, limit)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the subtree of a node for {@link #suggest(String, int, int)}.
+	 *
+	 * @param node        the node
+	 * @param path        the name of the node
+	 * @param query       the query
+	 * @param row         the Levenshtein row of the node name against the query
+	 * @param best        the smallest distance between the query and a prefix of the node name
+	 * @param limit       the maximum number of suggestions
+	 * @param maxDistance the maximum distance
+	 * @param suggestions the suggestions so far, worst first
+	 */
+	private void suggest(   Node<V> node,
+							StringBuilder path,
+							String query,
+							int[] row,
+							int best,
+							int limit,
+							int maxDistance,
+							PriorityQueue<Suggestion<V>> suggestions) {
+		if (node.terminal && best <= maxDistance) {
+			Suggestion<V> suggestion = new Suggestion<>(path.toString(), node.value, best);
+			if (suggestions.size() < limit) {
+				suggestions.add(suggestion);
+			}
+			else if (Suggestion.<V>ranking().compare(suggestion, suggestions.peek()) < 0) {
+				suggestions.poll();
+				suggestions.add(suggestion);
+			}
+		}
+		if (Objects.isNull(node.children)) {
+			return;
+		}
+		int length = path.length();
+		for (Node<V> child : node.children.values()) {
+			int[] current = row;
+			int childBest = best;
+			boolean pruned = false;
+			for (int i = 0; i < child.label.length(); i++) {
+				current = nextRow(current, query, child.label.charAt(i));
+				childBest = Math.min(childBest, current[query.length()]);
+				// no name below can get closer than the smallest distance of the row
+				int bound = suggestions.size() < limit ? maxDistance : Math.min(maxDistance, suggestions.peek().distance());
+				if (Math.min(childBest, min(current)) > bound) {
+					pruned = true;
+					break;
+				}
+			}
+			if (!pruned) {
+				path.append(child.label);
+				suggest(child, path, query, current, childBest, limit, maxDistance, suggestions);
+				path.setLength(length);
+			}
+		}
+	}
+
+	/**
+	 * Computes the next Levenshtein row after appending a character to the name.
+	 *
+	 * @param row   the current row
+	 * @param query the query
+	 * @param c     the appended character
+	 * @return the next row
+	 */
+	private static int[] nextRow(int[] row, String query, char c) {
+		int[] next = new int[row.length];
+		next[0] = row[0] + 1;
+		for (int j = 1; j < row.length; j++) {
+			int substitution = row[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+			next[j] = Math.min(substitution, Math.min(row[j] + 1, next[j - 1] + 1));
+		}
+		return next;
+	}
+
+	/**
+	 * Returns the smallest element of a row.
+	 *
+	 * @param row the row
+	 * @return the minimum
+	 */
+	private static int min(int[] row) {
+		int min = row[0];
+		for (int i = 1; i < row.length; i++) {
+			min = Math.min(min, row[i]);
+		}
+		return min;
+	}
+
+	/**
+	 * A node of the tree, reached through an edge labelled with a run of characters.
+	 *
+	 * @param <V> the type of the values
+	 */
+	private static final class Node<V> {
+		/**
+		 * The label of the edge leading to this node.
+		 */
+		private String label;
+		/**
+		 * The children, keyed by the first character of their label; created on demand.
+		 */
+		private TreeMap<Character, Node<V>> children;
+		/**
+		 * Whether a name ends at this node.
+		 */
+		private boolean terminal;
+		/**
+		 * The value of the name ending at this node.
+		 */
+		private V value;
+
+		private Node(String label) {
+			this.label = label;
+		}
+
+		private Node<V> child(char c) {
+			return Objects.isNull(children) ? null : children.get(c);
+		}
+
+		private void addChild(Node<V> child) {
+			if (Objects.isNull(children)) {
+				children = new TreeMap<>();
+			}
+			children.put(child.label.charAt(0), child);
+		}
+	}
+
+	/**
+	 * A fuzzy lookup candidate.
+	 *
+	 * @param key      the name
+	 * @param value    the value
+	 * @param distance the distance to the query
+	 * @param <V>      the type of the values
+	 */
+	private record Suggestion<V>(String key, V value, int distance) {
+		/**
+		 * Returns the ranking of the suggestions, best first.
+		 *
+		 * @param <V> the type of the values
+		 * @return the ranking
+		 */
+		private static <V> Comparator<Suggestion<V>> ranking() {
+			return Comparator
+					.<Suggestion<V>>comparingInt(Suggestion::distance)
+					.thenComparingInt(suggestion -> suggestion.key().length())
+					.thenComparing(Suggestion::key);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+
+/**
+ * Metadata about a class read directly from its class file bytes, without loading,
+ * linking or initializing the class.
+ * <p>
+ * The flags mirror the reflective checks done by {@link ClassUtils#isAccessibleClass(Class)}
+ * and {@link ClassUtils#isInstantiableClass(Class)}, so that classpath scanning can decide
+ * which classes to index before any of them is defined.
+ * </p>
+ *
+ * @param className       the binary name of the class (e.g. {@code java.util.Map$Entry})
+ * @param accessFlags     the effective access flags of the class, taking nested class
+ *                        declarations ({@code InnerClasses} attribute) into account
+ * @param accessible      whether the class declares at least one public static method
+ * @param instantiable    whether the class is public, concrete and exposes a public constructor
+ *                        or a public static factory method
+ * @param builtinProvider whether the class is annotated with
+ *                        {@link org.daiitech.naftah.builtin.NaftahFnProvider}
+ * @author Chakib Daii
+ */
+public record ClassFileInfo(
+		String className,
+		int accessFlags,
+		boolean accessible,
+		boolean instantiable,
+		boolean builtinProvider
+) implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Checks whether the class is declared {@code public}.
+	 *
+	 * @return {@code true} if the class is public, {@code false} otherwise
+	 */
+	public boolean isPublic() {
+		return Modifier.isPublic(accessFlags);
+	}
+}
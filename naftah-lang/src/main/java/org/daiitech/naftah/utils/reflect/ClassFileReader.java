@@ -0,0 +1,331 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+
+import org.daiitech.naftah.builtin.NaftahFnProvider;
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.CLASS_EXTENSION;
+
+/**
+ * Minimal class file reader used to index classes during classpath scanning.
+ * <p>
+ * The reader walks the raw bytes of a class file (constant pool, access flags, methods and
+ * class-level attributes) and produces a {@link ClassFileInfo} describing whether the class is
+ * public, accessible and instantiable, using the same rules as
+ * {@link ClassUtils#isAccessibleClass(Class)} and {@link ClassUtils#isInstantiableClass(Class)}.
+ * No class is ever defined, so scanning does not trigger loading, linking or static initialization.
+ * </p>
+ * <p>
+ * This class is not meant to be instantiated.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class ClassFileReader {
+
+	/**
+	 * The magic number every class file starts with.
+	 */
+	public static final int MAGIC = 0xCAFEBABE;
+
+	// constant pool tags
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELD_REF = 9;
+	private static final int CONSTANT_METHOD_REF = 10;
+	private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	// access flags not exposed by java.lang.reflect.Modifier
+	private static final int ACC_BRIDGE = 0x0040;
+	private static final int ACC_SYNTHETIC = 0x1000;
+
+	private static final String CONSTRUCTOR_NAME = "<init>";
+	private static final String STATIC_INITIALIZER_NAME = "<clinit>";
+	private static final String INNER_CLASSES_ATTRIBUTE = "InnerClasses";
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS_ATTRIBUTE = "RuntimeVisibleAnnotations";
+	private static final String BUILTIN_PROVIDER_DESCRIPTOR = "L" + NaftahFnProvider.class
+			.getName()
+			.replace('.', '/') + ";";
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private ClassFileReader() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Locates the class file of the given class through the provided class loaders and reads it.
+	 * <p>
+	 * Only the class file resource is opened; the class itself is never loaded.
+	 * </p>
+	 *
+	 * @param className    the binary name of the class (e.g. {@code java.util.Map$Entry})
+	 * @param classLoaders the class loaders used to locate the class file resource, {@code null} entries are skipped
+	 * @return the class file metadata, or {@code null} if the class file cannot be found or read
+	 */
+	public static ClassFileInfo read(String className, ClassLoader... classLoaders) {
+		String resource = className.replace('.', '/') + CLASS_EXTENSION;
+		for (ClassLoader classLoader : classLoaders) {
+			if (Objects.isNull(classLoader)) {
+				continue;
+			}
+			try (InputStream is = classLoader.getResourceAsStream(resource)) {
+				if (Objects.nonNull(is)) {
+					return read(is);
+				}
+			}
+			catch (Throwable ignored) {
+				// Silently skip class files that can't be read
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads class file metadata from the given stream.
+	 *
+	 * @param is the stream positioned at the beginning of a class file
+	 * @return the class file metadata
+	 * @throws IOException if the stream cannot be read or does not contain a valid class file
+	 */
+	public static ClassFileInfo read(InputStream is) throws IOException {
+		return read(is.readAllBytes());
+	}
+
+	/**
+	 * Reads class file metadata from the given bytes.
+	 *
+	 * @param bytes the raw bytes of a class file
+	 * @return the class file metadata
+	 * @throws IOException if the bytes do not contain a valid class file
+	 */
+	public static ClassFileInfo read(byte[] bytes) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a class file");
+		}
+		in.skipBytes(4); // minor_version, major_version
+
+		// constant pool: keep utf8 strings and class name indexes only
+		int constantPoolCount = in.readUnsignedShort();
+		String[] utf8 = new String[constantPoolCount];
+		int[] classNameIndexes = new int[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+				case CONSTANT_UTF8 -> utf8[i] = in.readUTF();
+				case CONSTANT_CLASS -> classNameIndexes[i] = in.readUnsignedShort();
+				case CONSTANT_STRING, CONSTANT_METHOD_TYPE, CONSTANT_MODULE, CONSTANT_PACKAGE -> in.skipBytes(2);
+				case CONSTANT_METHOD_HANDLE -> in.skipBytes(3);
+				case CONSTANT_INTEGER,
+						CONSTANT_FLOAT,
+						CONSTANT_FIELD_REF,
+						CONSTANT_METHOD_REF,
+						CONSTANT_INTERFACE_METHOD_REF,
+						CONSTANT_NAME_AND_TYPE,
+						CONSTANT_DYNAMIC,
+						CONSTANT_INVOKE_DYNAMIC -> in.skipBytes(4);
+				case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+					in.skipBytes(8);
+					i++; // 8-byte constants take two entries
+				}
+				default -> throw new IOException("Invalid constant pool tag: " + tag);
+			}
+		}
+
+		int accessFlags = in.readUnsignedShort();
+		int thisClassIndex = in.readUnsignedShort();
+		String internalName = utf8[classNameIndexes[thisClassIndex]];
+		in.skipBytes(2); // super_class
+		in.skipBytes(in.readUnsignedShort() * 2); // interfaces
+
+		// fields
+		int fieldsCount = in.readUnsignedShort();
+		for (int i = 0; i < fieldsCount; i++) {
+			in.skipBytes(6); // access_flags, name_index, descriptor_index
+			skipAttributes(in);
+		}
+
+		// methods
+		String selfDescriptor = "L" + internalName + ";";
+		String simpleName = simpleName(internalName);
+		boolean hasPublicStaticMethod = false;
+		boolean hasPublicConstructor = false;
+		boolean hasFactoryMethod = false;
+		int methodsCount = in.readUnsignedShort();
+		for (int i = 0; i < methodsCount; i++) {
+			int methodAccessFlags = in.readUnsignedShort();
+			String name = utf8[in.readUnsignedShort()];
+			String descriptor = utf8[in.readUnsignedShort()];
+			skipAttributes(in);
+
+			boolean isPublic = Modifier.isPublic(methodAccessFlags);
+			if (CONSTRUCTOR_NAME.equals(name)) {
+				hasPublicConstructor |= isPublic;
+			}
+			else if (!STATIC_INITIALIZER_NAME.equals(name) && isPublic && Modifier.isStatic(methodAccessFlags)) {
+				hasPublicStaticMethod = true;
+				if (!hasFactoryMethod && (methodAccessFlags & (ACC_SYNTHETIC | ACC_BRIDGE)) == 0 && ClassUtils
+						.isFactoryName(name)) {
+					hasFactoryMethod = isFactoryReturnType(descriptor, selfDescriptor, simpleName);
+				}
+			}
+		}
+
+		// class attributes
+		boolean builtinProvider = false;
+		int attributesCount = in.readUnsignedShort();
+		for (int i = 0; i < attributesCount; i++) {
+			String attributeName = utf8[in.readUnsignedShort()];
+			int length = in.readInt();
+			if (INNER_CLASSES_ATTRIBUTE.equals(attributeName)) {
+				int numberOfClasses = in.readUnsignedShort();
+				for (int j = 0; j < numberOfClasses; j++) {
+					int innerClassInfoIndex = in.readUnsignedShort();
+					in.skipBytes(4); // outer_class_info_index, inner_name_index
+					int innerAccessFlags = in.readUnsignedShort();
+					if (innerClassInfoIndex == thisClassIndex) {
+						// nested classes: the declared modifiers live here, as Class#getModifiers() reports them
+						accessFlags = innerAccessFlags;
+					}
+				}
+			}
+			else if (RUNTIME_VISIBLE_ANNOTATIONS_ATTRIBUTE.equals(attributeName)) {
+				int numAnnotations = in.readUnsignedShort();
+				for (int j = 0; j < numAnnotations; j++) {
+					builtinProvider |= BUILTIN_PROVIDER_DESCRIPTOR.equals(readAnnotation(in, utf8));
+				}
+			}
+			else {
+				in.skipBytes(length);
+			}
+		}
+
+		boolean concrete = !Modifier.isAbstract(accessFlags) && !Modifier.isInterface(accessFlags);
+		boolean instantiable = Modifier.isPublic(accessFlags) && concrete && (hasPublicConstructor || hasFactoryMethod);
+
+		return new ClassFileInfo(   internalName.replace('/', '.'),
+									accessFlags,
+									hasPublicStaticMethod,
+									instantiable,
+									builtinProvider);
+	}
+
+	/**
+	 * Mirrors the return type checks of {@link ClassUtils#hasFactoryMethod(Class)} on a method descriptor:
+	 * the method must return the declaring class itself, or a type whose simple name contains the
+	 * declaring class simple name (builder/wrapper patterns).
+	 * <p>
+	 * Covariant subclasses that do not share the simple name cannot be detected without loading them.
+	 * </p>
+	 */
+	private static boolean isFactoryReturnType(String descriptor, String selfDescriptor, String simpleName) {
+		String returnDescriptor = descriptor.substring(descriptor.indexOf(')') + 1);
+		if (returnDescriptor.equals("V")) {
+			return false;
+		}
+		if (returnDescriptor.equals(selfDescriptor)) {
+			return true;
+		}
+		return descriptorSimpleName(returnDescriptor).contains(simpleName);
+	}
+
+	/**
+	 * Returns the simple name of a type descriptor, following {@link Class#getSimpleName()}.
+	 */
+	private static String descriptorSimpleName(String descriptor) {
+		int dimensions = 0;
+		while (descriptor.charAt(dimensions) == '[') {
+			dimensions++;
+		}
+		String elementDescriptor = descriptor.substring(dimensions);
+		String name = switch (elementDescriptor.charAt(0)) {
+			case 'Z' -> "boolean";
+			case 'B' -> "byte";
+			case 'C' -> "char";
+			case 'S' -> "short";
+			case 'I' -> "int";
+			case 'J' -> "long";
+			case 'F' -> "float";
+			case 'D' -> "double";
+			default -> simpleName(elementDescriptor.substring(1, elementDescriptor.length() - 1));
+		};
+		return name + "[]".repeat(dimensions);
+	}
+
+	/**
+	 * Returns the simple name of a class given its internal name (e.g. {@code java/util/Map$Entry} -> {@code Entry}).
+	 */
+	private static String simpleName(String internalName) {
+		String name = internalName.substring(internalName.lastIndexOf('/') + 1);
+		return name.substring(name.lastIndexOf('$') + 1);
+	}
+
+	/**
+	 * Skips an {@code attributes} table (count followed by attributes).
+	 */
+	private static void skipAttributes(DataInputStream in) throws IOException {
+		int attributesCount = in.readUnsignedShort();
+		for (int i = 0; i < attributesCount; i++) {
+			in.skipBytes(2); // attribute_name_index
+			in.skipBytes(in.readInt());
+		}
+	}
+
+	/**
+	 * Reads an {@code annotation} structure and returns its type descriptor, skipping its element values.
+	 */
+	private static String readAnnotation(DataInputStream in, String[] utf8) throws IOException {
+		String type = utf8[in.readUnsignedShort()];
+		int numElementValuePairs = in.readUnsignedShort();
+		for (int i = 0; i < numElementValuePairs; i++) {
+			in.skipBytes(2); // element_name_index
+			skipElementValue(in, utf8);
+		}
+		return type;
+	}
+
+	/**
+	 * Skips an {@code element_value} structure.
+	 */
+	private static void skipElementValue(DataInputStream in, String[] utf8) throws IOException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+			case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> in.skipBytes(2);
+			case 'e' -> in.skipBytes(4);
+			case '@' -> readAnnotation(in, utf8);
+			case '[' -> {
+				int numValues = in.readUnsignedShort();
+				for (int i = 0; i < numValues; i++) {
+					skipElementValue(in, utf8);
+				}
+			}
+			default -> throw new IOException("Invalid element value tag: " + (char) tag);
+		}
+	}
+}
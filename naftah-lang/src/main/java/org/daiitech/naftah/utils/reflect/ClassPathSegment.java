@@ -0,0 +1,220 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.utils.HashUtils;
+
+/**
+ * Fingerprint of a class path entry (a JAR/JMOD file or a directory) whose classes were scanned
+ * together, used to invalidate the class scanning cache entry by entry.
+ * <p>
+ * For archives, the size and last modification time are the file ones, and the hash is the hash of
+ * the file content. For directories, the size is the total size of the files under the directory,
+ * the last modification time is the latest one of these files, and the hash is the hash of their
+ * listing (relative path, size and last modification time of every file).
+ * </p>
+ *
+ * @param path         the class path entry, as found in the class path
+ * @param size         the size in bytes
+ * @param lastModified the last modification time, in milliseconds since the epoch
+ * @param hash         the content hash
+ * @author Chakib Daii
+ */
+public record ClassPathSegment(
+		String path,
+		long size,
+		long lastModified,
+		String hash
+) implements Serializable {
+
+	/**
+	 * Algorithm used to hash the class path entries.
+	 */
+	public static final String HASH_ALGORITHM = "SHA-256";
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Computes the fingerprint of the given class path entry.
+	 *
+	 * @param path the class path entry
+	 * @return the fingerprint, or {@code null} if the entry does not exist or cannot be read
+	 */
+	public static ClassPathSegment of(String path) {
+		Path file = Path.of(path);
+		try {
+			if (Files.isDirectory(file)) {
+				var listing = listDirectory(file);
+				return new ClassPathSegment(path,
+											listing.size(),
+											listing.lastModified(),
+											HashUtils.hashString(listing.content(), HASH_ALGORITHM));
+			}
+			if (Files.isRegularFile(file)) {
+				var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				return new ClassPathSegment(path,
+											attributes.size(),
+											attributes.lastModifiedTime().toMillis(),
+											HashUtils.hashFile(file, HASH_ALGORITHM));
+			}
+		}
+		catch (IOException | UncheckedIOException ignored) {
+			// unreadable entries are not fingerprinted, so they are scanned again next time
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the class path entries to scan again: the given paths that were added or changed since
+	 * their fingerprint was computed, and the fingerprinted paths that were removed.
+	 * <p>
+	 * The sizes and modification times are checked first, the content is only hashed when they differ
+	 * (so that touched but unchanged archives are not scanned again). The fingerprints of such touched
+	 * but unchanged entries are refreshed with their current size and modification time (see
+	 * {@link #refresh()}) and put in {@code refreshedSegments}, so that they can be written back and
+	 * the entries are not hashed again on the next check. Paths that do not exist and were not
+	 * fingerprinted are ignored.
+	 * </p>
+	 *
+	 * @param segments          the fingerprints of the previously scanned entries, keyed by path
+	 * @param paths             the current class path entries
+	 * @param refreshedSegments the map the refreshed fingerprints are put in, keyed by path; it must
+	 *                          support concurrent updates
+	 * @return the stale class path entries
+	 */
+	public static Set<String> getStalePaths(Map<String, ClassPathSegment> segments,
+											String[] paths,
+											Map<String, ClassPathSegment> refreshedSegments) {
+		Set<String> currentPaths = new LinkedHashSet<>(Arrays.asList(paths));
+		Set<String> stalePaths = ConcurrentHashMap.newKeySet();
+		segments.keySet().stream().filter(path -> !currentPaths.contains(path)).forEach(stalePaths::add);
+		currentPaths.parallelStream().forEach(path -> {
+			ClassPathSegment segment = segments.get(path);
+			if (Objects.isNull(segment)) {
+				if (Files.exists(Path.of(path))) {
+					stalePaths.add(path);
+				}
+				return;
+			}
+			ClassPathSegment refreshed = segment.refresh();
+			if (Objects.isNull(refreshed)) {
+				stalePaths.add(path);
+			}
+			else if (refreshed != segment) {
+				refreshedSegments.put(path, refreshed);
+			}
+		});
+		return stalePaths;
+	}
+
+	/**
+	 * Checks whether the class path entry still matches this fingerprint.
+	 *
+	 * @return {@code true} if the entry is unchanged, {@code false} if it changed or was removed
+	 * @see #refresh()
+	 */
+	public boolean isUpToDate() {
+		return Objects.nonNull(refresh());
+	}
+
+	/**
+	 * Checks the class path entry against this fingerprint, and refreshes the fingerprint if only the
+	 * size or modification time of the entry changed.
+	 *
+	 * @return this fingerprint if the size and modification time of the entry are unchanged, a fingerprint
+	 *         with the current size and modification time if they changed but the content hash did not,
+	 *         or {@code null} if the entry changed or was removed
+	 */
+	public ClassPathSegment refresh() {
+		Path file = Path.of(path);
+		try {
+			long currentSize;
+			long currentLastModified;
+			String currentContent = null;
+			if (Files.isDirectory(file)) {
+				var listing = listDirectory(file);
+				currentSize = listing.size();
+				currentLastModified = listing.lastModified();
+				currentContent = listing.content();
+			}
+			else if (Files.isRegularFile(file)) {
+				var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				currentSize = attributes.size();
+				currentLastModified = attributes.lastModifiedTime().toMillis();
+			}
+			else {
+				return null;
+			}
+			if (currentSize == size && currentLastModified == lastModified) {
+				return this;
+			}
+			String currentHash = Objects.nonNull(currentContent) ?
+					HashUtils.hashString(currentContent, HASH_ALGORITHM) :
+					HashUtils.hashFile(file, HASH_ALGORITHM);
+			if (currentHash.equals(hash)) {
+				return new ClassPathSegment(path, currentSize, currentLastModified, hash);
+			}
+		}
+		catch (IOException | UncheckedIOException ignored) {
+			// unreadable entries are considered changed
+		}
+		return null;
+	}
+
+	/**
+	 * Lists the files under a directory, sorted by relative path.
+	 *
+	 * @param directory the directory
+	 * @return the directory listing
+	 * @throws IOException if the directory cannot be walked
+	 */
+	private static DirectoryListing listDirectory(Path directory) throws IOException {
+		long size = 0;
+		long lastModified = 0;
+		StringBuilder content = new StringBuilder();
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+				var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				long fileLastModified = attributes.lastModifiedTime().toMillis();
+				size += attributes.size();
+				lastModified = Math.max(lastModified, fileLastModified);
+				content
+						.append(directory.relativize(file))
+						.append(':')
+						.append(attributes.size())
+						.append(':')
+						.append(fileLastModified)
+						.append('\n');
+			}
+		}
+		return new DirectoryListing(size, lastModified, content.toString());
+	}
+
+	/**
+	 * Listing of the files under a directory.
+	 *
+	 * @param size         the total size of the files
+	 * @param lastModified the latest modification time of the files
+	 * @param content      the listing, one line per file
+	 */
+	private record DirectoryListing(long size, long lastModified, String content) {
+	}
+}
@@ -0,0 +1,390 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.utils.reflect.ClassUtils.CLASS_SEPARATORS_REGEX;
+import static org.daiitech.naftah.utils.reflect.ClassUtils.QUALIFIED_NAME_SEPARATOR;
+
+/**
+ * Reads and writes {@link ClassScanningResult}s in a compact, versioned binary format.
+ * <p>
+ * The cache is laid out as follows (all integers are big-endian {@code int}s, but sizes and times which are
+ * {@code long}s):
+ * </p>
+ * <ul>
+ * <li>a header: magic, version, flags, Arabic qualifiers count, class index count and the offsets of
+ * the string table, class loaders, class path segments, class records and builtin functions sections;</li>
+ * <li>a string table: the offsets of all the distinct strings, followed by the UTF-8 strings
+ * (each prefixed with its length);</li>
+ * <li>the class loaders, as lists of URL string ids (see {@link ClassScanningResult#toLoaderUrls(ClassLoader)});</li>
+ * <li>the class path segments fingerprints (path, size, last modification time and hash, see
+ * {@link ClassPathSegment}), which let the cache be updated incrementally;</li>
+ * <li>one fixed-size record per scanned class (Arabic qualifier, class name, latin qualifier,
+ * access flags, flags, loader id and segment id), followed by three record indexes sorted by Arabic qualifier,
+ * class name and latin qualifier;</li>
+ * <li>the builtin functions, in Java serialization form (they are few and all needed at startup).</li>
+ * </ul>
+ * <p>
+ * The cache is read through a memory-mapped {@link FileChannel}: {@link #read(Path)} only decodes the
+ * header, and the maps of the returned result decode entries on demand (see {@link MappedClassTable}).
+ * JVM functions and class initializers are not cached, they are materialized lazily at runtime.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class ClassScanningCache {
+
+	/**
+	 * Magic number of class scanning caches ({@code NFTC}).
+	 */
+	public static final int MAGIC = 0x4E465443;
+
+	/**
+	 * Version of the cache format, bumped on every incompatible change.
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * Extension of a replaced cache moved aside because it is still mapped.
+	 */
+	static final String REPLACED_EXTENSION = ".old";
+
+	/**
+	 * Size of the cache header in bytes.
+	 */
+	static final int HEADER_SIZE = 10 * Integer.BYTES;
+
+	/**
+	 * Size of a class record in bytes.
+	 */
+	static final int RECORD_SIZE = 7 * Integer.BYTES;
+
+	// header flags
+	static final int HAS_CLASS_INDEX = 1;
+
+	// position of the flags in a class record
+	private static final int RECORD_FLAGS = 4;
+
+	// record flags
+	static final int INDEXED = 1;
+	static final int ARABIC_MAPPED = 1 << 1;
+	static final int ACCESSIBLE = 1 << 2;
+	static final int INSTANTIABLE = 1 << 3;
+	static final int BUILTIN_PROVIDER = 1 << 4;
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link org.daiitech.naftah.errors.NaftahBugError} when called.
+	 */
+	private ClassScanningCache() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Writes the given class scanning result to a cache file.
+	 * <p>
+	 * The cache is written aside then moved over the previous one. Where a mapped file cannot be replaced, the
+	 * previous cache is first renamed with the {@value #REPLACED_EXTENSION} extension.
+	 * </p>
+	 *
+	 * @param result the class scanning result to write
+	 * @param path   the cache file path
+	 * @return the string path to the file
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static String write(ClassScanningResult result, Path path) throws IOException {
+		// written aside then moved, so that a cache mapped by a running instance is never truncated
+		Path tempPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+				write(result, out);
+			}
+			try {
+				Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AccessDeniedException e) {
+				// Windows does not replace a file mapped by a running instance, this one included, but lets it be
+				// renamed: the mapped cache is moved aside, and deleted once it is no longer mapped
+				Path replacedPath = path.resolveSibling(path.getFileName() + REPLACED_EXTENSION);
+				Files.deleteIfExists(replacedPath);
+				Files.move(path, replacedPath, StandardCopyOption.ATOMIC_MOVE);
+				Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+				try {
+					Files.deleteIfExists(replacedPath);
+				}
+				catch (IOException ignored) {
+				}
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+		return path.toString();
+	}
+
+	/**
+	 * Writes the given class scanning result in the cache format.
+	 *
+	 * @param result the class scanning result to write
+	 * @param out    the stream to write to, left open
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void write(ClassScanningResult result, OutputStream out) throws IOException {
+		Map<String, ClassLoader> classNames = Objects.requireNonNullElse(result.getClassNames(), Map.of());
+		Map<String, String> arabicQualifiers = new HashMap<>();
+		if (Objects.nonNull(result.getArabicClassQualifiers())) {
+			for (var entry : result.getArabicClassQualifiers().entrySet()) {
+				arabicQualifiers.putIfAbsent(entry.getValue(), entry.getKey());
+			}
+		}
+		Map<String, Map.Entry<String, ClassFileInfo>> classIndex = new HashMap<>();
+		if (Objects.nonNull(result.getClassIndex())) {
+			for (var entry : result.getClassIndex().entrySet()) {
+				classIndex.putIfAbsent(entry.getValue().className(), entry);
+			}
+		}
+
+		Map<String, Integer> stringIds = new HashMap<>();
+		List<String> strings = new ArrayList<>();
+		Map<ClassLoader, Integer> loaderIds = new IdentityHashMap<>();
+		List<List<String>> loaders = new ArrayList<>();
+
+		List<ClassPathSegment> segments = new ArrayList<>();
+		Map<String, Integer> segmentIds = new HashMap<>();
+		if (Objects.nonNull(result.getSegments())) {
+			for (ClassPathSegment segment : result.getSegments().values()) {
+				segmentIds.put(segment.path(), segments.size());
+				segments.add(segment);
+			}
+		}
+		Map<String, String> classOrigins = Objects.requireNonNullElse(result.getClassOrigins(), Map.of());
+
+		int count = classNames.size();
+		int[][] records = new int[count][];
+		String[] arabicKeys = new String[count];
+		String[] classNameKeys = new String[count];
+		String[] latinKeys = new String[count];
+		int record = 0;
+		for (var entry : classNames.entrySet()) {
+			String className = entry.getKey();
+			int flags = 0;
+			int accessFlags = 0;
+			String arabicQualifier = arabicQualifiers.get(className);
+			if (Objects.nonNull(arabicQualifier)) {
+				flags |= ARABIC_MAPPED;
+			}
+			var indexed = classIndex.get(className);
+			if (Objects.nonNull(indexed)) {
+				ClassFileInfo classFileInfo = indexed.getValue();
+				flags |= INDEXED;
+				flags |= classFileInfo.accessible() ? ACCESSIBLE : 0;
+				flags |= classFileInfo.instantiable() ? INSTANTIABLE : 0;
+				flags |= classFileInfo.builtinProvider() ? BUILTIN_PROVIDER : 0;
+				accessFlags = classFileInfo.accessFlags();
+				if (Objects.isNull(arabicQualifier)) {
+					arabicQualifier = indexed.getKey();
+				}
+			}
+			arabicKeys[record] = Objects.requireNonNullElse(arabicQualifier, "");
+			classNameKeys[record] = className;
+			latinKeys[record] = String.join(QUALIFIED_NAME_SEPARATOR, className.split(CLASS_SEPARATORS_REGEX));
+
+			int loader = -1;
+			if (Objects.nonNull(entry.getValue())) {
+				loader = loaderIds.computeIfAbsent(entry.getValue(), classLoader -> {
+					loaders.add(ClassScanningResult.toLoaderUrls(classLoader));
+					return loaders.size() - 1;
+				});
+			}
+			records[record] = new int[]{
+										stringId(arabicKeys[record], stringIds, strings),
+										stringId(className, stringIds, strings),
+										stringId(latinKeys[record], stringIds, strings),
+										accessFlags,
+										flags,
+										loader,
+										segmentIds.getOrDefault(classOrigins.get(className), -1)
+			};
+			record++;
+		}
+		// a key maps to the first of its records in the sorted indexes, the next ones are left out of the maps
+		Set<String> arabicMappedKeys = new HashSet<>();
+		Set<String> indexedKeys = new HashSet<>();
+		for (int i = 0; i < count; i++) {
+			int[] fields = records[i];
+			if ((fields[RECORD_FLAGS] & ARABIC_MAPPED) != 0 && !arabicMappedKeys.add(arabicKeys[i])) {
+				fields[RECORD_FLAGS] &= ~ARABIC_MAPPED;
+			}
+			if ((fields[RECORD_FLAGS] & INDEXED) != 0 && !indexedKeys.add(arabicKeys[i])) {
+				fields[RECORD_FLAGS] &= ~INDEXED;
+			}
+		}
+		int arabicCount = arabicMappedKeys.size();
+		int indexedCount = indexedKeys.size();
+		int[][] loaderUrls = new int[loaders.size()][];
+		for (int i = 0; i < loaderUrls.length; i++) {
+			loaderUrls[i] = loaders.get(i).stream().mapToInt(url -> stringId(url, stringIds, strings)).toArray();
+		}
+		int[][] segmentStrings = new int[segments.size()][];
+		for (int i = 0; i < segmentStrings.length; i++) {
+			segmentStrings[i] = new int[]{
+											stringId(segments.get(i).path(), stringIds, strings),
+											stringId(segments.get(i).hash(), stringIds, strings)
+			};
+		}
+
+		ByteArrayOutputStream builtins = new ByteArrayOutputStream();
+		if (Objects.nonNull(result.getBuiltinFunctions())) {
+			try (ObjectOutputStream oos = new ObjectOutputStream(builtins)) {
+				oos.writeObject(new HashMap<>(result.getBuiltinFunctions()));
+			}
+		}
+
+		// sections layout
+		byte[][] encodedStrings = new byte[strings.size()][];
+		int stringsSection = HEADER_SIZE;
+		int position = stringsSection + Integer.BYTES + strings.size() * Integer.BYTES;
+		int[] stringOffsets = new int[strings.size()];
+		for (int i = 0; i < encodedStrings.length; i++) {
+			encodedStrings[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+			stringOffsets[i] = position;
+			position += Integer.BYTES + encodedStrings[i].length;
+		}
+		int loadersSection = position;
+		position += Integer.BYTES;
+		for (int[] urls : loaderUrls) {
+			position += Integer.BYTES + urls.length * Integer.BYTES;
+		}
+		int segmentsSection = position;
+		position += Integer.BYTES + segments.size() * (2 * Integer.BYTES + 2 * Long.BYTES);
+		int recordsSection = position;
+		position += Integer.BYTES + count * RECORD_SIZE + 3 * count * Integer.BYTES;
+		int builtinsSection = position;
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(Objects.nonNull(result.getClassIndex()) ? HAS_CLASS_INDEX : 0);
+		data.writeInt(arabicCount);
+		data.writeInt(indexedCount);
+		data.writeInt(stringsSection);
+		data.writeInt(loadersSection);
+		data.writeInt(segmentsSection);
+		data.writeInt(recordsSection);
+		data.writeInt(builtinsSection);
+
+		data.writeInt(encodedStrings.length);
+		for (int stringOffset : stringOffsets) {
+			data.writeInt(stringOffset);
+		}
+		for (byte[] encodedString : encodedStrings) {
+			data.writeInt(encodedString.length);
+			data.write(encodedString);
+		}
+
+		data.writeInt(loaderUrls.length);
+		for (int[] urls : loaderUrls) {
+			data.writeInt(urls.length);
+			for (int url : urls) {
+				data.writeInt(url);
+			}
+		}
+
+		data.writeInt(segments.size());
+		for (int i = 0; i < segmentStrings.length; i++) {
+			data.writeInt(segmentStrings[i][0]);
+			data.writeLong(segments.get(i).size());
+			data.writeLong(segments.get(i).lastModified());
+			data.writeInt(segmentStrings[i][1]);
+		}
+
+		data.writeInt(count);
+		for (int[] fields : records) {
+			for (int field : fields) {
+				data.writeInt(field);
+			}
+		}
+		for (String[] keys : new String[][]{arabicKeys, classNameKeys, latinKeys}) {
+			Integer[] sorted = new Integer[count];
+			Arrays.setAll(sorted, i -> i);
+			Arrays.sort(sorted, Comparator.comparing(i -> keys[i]));
+			for (int i : sorted) {
+				data.writeInt(i);
+			}
+		}
+
+		if (Objects.nonNull(result.getBuiltinFunctions())) {
+			data.writeInt(builtins.size());
+			builtins.writeTo(data);
+		}
+		else {
+			data.writeInt(-1);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a class scanning result from a cache file.
+	 * <p>
+	 * The file is memory-mapped and the maps of the returned result are decoded lazily, entry by entry.
+	 * </p>
+	 *
+	 * @param path the cache file path
+	 * @return the class scanning result
+	 * @throws IOException            if the file cannot be read, or is not a cache of the supported version
+	 * @throws ClassNotFoundException if a class of the cached builtin functions cannot be found
+	 */
+	public static ClassScanningResult read(Path path) throws IOException, ClassNotFoundException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		MappedClassTable table = new MappedClassTable(buffer);
+
+		ClassScanningResult result = new ClassScanningResult();
+		result.setClassNames(table.classNames());
+		result.setSegments(table.segments());
+		result.setClassOrigins(table.classOrigins());
+		result.setClassQualifiers(table.classQualifiers());
+		result.setArabicClassQualifiers(table.arabicClassQualifiers());
+		if (table.hasClassIndex()) {
+			result.setClassIndex(table.classIndex());
+		}
+		result.setBuiltinFunctions(table.builtinFunctions());
+		return result;
+	}
+
+	private static int stringId(String string, Map<String, Integer> stringIds, List<String> strings) {
+		return stringIds.computeIfAbsent(string, s -> {
+			strings.add(s);
+			return strings.size() - 1;
+		});
+	}
+}
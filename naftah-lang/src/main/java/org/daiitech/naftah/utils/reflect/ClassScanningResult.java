@@ -30,8 +30,10 @@ import org.daiitech.naftah.builtin.lang.JvmFunction;
  * The data includes:
  * <ul>
  * <li>Mapping of class names to their {@link ClassLoader}</li>
+ * <li>Fingerprints of the scanned class path entries, and the entry each class was found in</li>
  * <li>Sets of class qualifiers, including Arabic-qualified names</li>
- * <li>Maps of qualified class names to {@link Class} objects</li>
+ * <li>A class index built from class file metadata, keyed by qualified class name</li>
+ * <li>Maps of qualified class names to {@link Class} objects, loaded lazily when backed by the class index</li>
  * <li>Filtered maps for accessible and instantiable classes</li>
  * <li>Collections of JVM and builtin functions grouped by qualified call names</li>
  * </ul>
@@ -42,13 +44,23 @@ import org.daiitech.naftah.builtin.lang.JvmFunction;
 public class ClassScanningResult implements Serializable {
 
 	@Serial
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 3L;
 
 	/**
 	 * Maps class names to their respective ClassLoader instances.
 	 */
 	private transient Map<String, ClassLoader> classNames;
 
+	/**
+	 * Fingerprints of the scanned class path entries, keyed by path.
+	 */
+	private Map<String, ClassPathSegment> segments;
+
+	/**
+	 * Maps class names to the path of the class path entry they were found in.
+	 */
+	private Map<String, String> classOrigins;
+
 	/**
 	 * Set of fully qualified class names discovered.
 	 */
@@ -59,20 +71,25 @@ public class ClassScanningResult implements Serializable {
 	 */
 	private Map<String, String> arabicClassQualifiers;
 
+	/**
+	 * Maps fully qualified class names to the metadata read from their class files.
+	 */
+	private Map<String, ClassFileInfo> classIndex;
+
 	/**
 	 * Maps fully qualified class names to their corresponding Class objects.
 	 */
-	private Map<String, Class<?>> classes;
+	private transient Map<String, Class<?>> classes;
 
 	/**
 	 * Subset of classes that are accessible for reflection or usage.
 	 */
-	private Map<String, Class<?>> accessibleClasses;
+	private transient Map<String, Class<?>> accessibleClasses;
 
 	/**
 	 * Subset of classes that can be instantiated (e.g., not abstract).
 	 */
-	private Map<String, Class<?>> instantiableClasses;
+	private transient Map<String, Class<?>> instantiableClasses;
 
 	/**
 	 * Maps qualified method or function names to lists of JVM functions (methods).
@@ -98,6 +115,22 @@ public class ClassScanningResult implements Serializable {
 		this.classNames = classNames;
 	}
 
+	public Map<String, ClassPathSegment> getSegments() {
+		return segments;
+	}
+
+	public void setSegments(Map<String, ClassPathSegment> segments) {
+		this.segments = segments;
+	}
+
+	public Map<String, String> getClassOrigins() {
+		return classOrigins;
+	}
+
+	public void setClassOrigins(Map<String, String> classOrigins) {
+		this.classOrigins = classOrigins;
+	}
+
 	public Set<String> getClassQualifiers() {
 		return classQualifiers;
 	}
@@ -114,6 +147,36 @@ public class ClassScanningResult implements Serializable {
 		this.arabicClassQualifiers = arabicClassQualifiers;
 	}
 
+	public Map<String, ClassFileInfo> getClassIndex() {
+		return classIndex;
+	}
+
+	/**
+	 * Sets the class index and derives the lazily loaded {@link #classes}, {@link #accessibleClasses}
+	 * and {@link #instantiableClasses} views from it.
+	 * <p>
+	 * The class names (and their loaders) should be set beforehand so that classes discovered by
+	 * nested class loaders can be loaded.
+	 * </p>
+	 *
+	 * @param classIndex the class index, keyed by qualified class name
+	 */
+	public void setClassIndex(Map<String, ClassFileInfo> classIndex) {
+		this.classIndex = classIndex;
+		indexClasses();
+	}
+
+	/**
+	 * Rebuilds the lazily loaded class maps from the class index, if any.
+	 */
+	private void indexClasses() {
+		if (classIndex != null) {
+			classes = new LazyClassMap(classIndex, classFileInfo -> true, classNames);
+			accessibleClasses = new LazyClassMap(classIndex, ClassFileInfo::accessible, classNames);
+			instantiableClasses = new LazyClassMap(classIndex, ClassFileInfo::instantiable, classNames);
+		}
+	}
+
 	public Map<String, Class<?>> getClasses() {
 		return classes;
 	}
@@ -162,13 +225,66 @@ public class ClassScanningResult implements Serializable {
 		this.builtinFunctions = builtinFunctions;
 	}
 
+	/**
+	 * Converts a class loader discovered by the scanner to the list of strings it can be rebuilt from:
+	 * the URLs of a {@link URLClassLoader}, or the external form of a {@link NestedJarClassLoader}.
+	 *
+	 * @param classLoader the class loader, may be {@code null} for the default loaders
+	 * @return the URL strings, or {@code null} for the default loaders
+	 */
+	static List<String> toLoaderUrls(ClassLoader classLoader) {
+		if (classLoader == null) {
+			return null;
+		}
+		List<String> urls = new ArrayList<>();
+		if (classLoader instanceof URLClassLoader ucl) {
+			for (URL url : ucl.getURLs()) {
+				urls.add(url.toExternalForm());
+			}
+		}
+		else if (classLoader instanceof NestedJarClassLoader nestedJarClassLoader) {
+			urls.add(nestedJarClassLoader.toExternalForm());
+		}
+		return urls;
+	}
+
+	/**
+	 * Rebuilds a class loader from the strings returned by {@link #toLoaderUrls(ClassLoader)}.
+	 * <p>
+	 * Loaders are shared between all the classes built from the same URLs.
+	 * </p>
+	 *
+	 * @param urls    the URL strings, or {@code null} for the default loaders
+	 * @param loaders the loaders already rebuilt, keyed by their URL strings
+	 * @return the class loader, or {@code null} for the default loaders
+	 */
+	static ClassLoader fromLoaderUrls(List<String> urls, Map<List<String>, ClassLoader> loaders) {
+		if (urls == null) {
+			return null;
+		}
+		return loaders.computeIfAbsent(urls, u -> {
+			if (u.size() == 1 && NestedJarClassLoader.isNestedJarUrl(u.get(0))) {
+				return NestedJarClassLoader.of(u.get(0), ClassScanningResult.class.getClassLoader());
+			}
+			URL[] urlArray = u.stream().map(url -> {
+				try {
+					return new URL(url);
+				}
+				catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}).toArray(URL[]::new);
+			return new URLClassLoader(urlArray);
+		});
+	}
+
 	/**
 	 * Custom serialization logic for {@link ClassScanningResult}.
 	 * <p>
 	 * Since {@link URLClassLoader} and other {@link ClassLoader} instances are
 	 * not serializable, this method converts each {@link URLClassLoader} in
-	 * {@link #classNames} to a list of its URL strings and writes that map
-	 * to the stream.
+	 * {@link #classNames} to a list of its URL strings (and each {@link NestedJarClassLoader}
+	 * to its external form) and writes that map to the stream.
 	 *
 	 * @param out the ObjectOutputStream to write the object to
 	 * @throws IOException if an I/O error occurs during serialization
@@ -180,19 +296,7 @@ public class ClassScanningResult implements Serializable {
 		Map<String, List<String>> urlsMap = new HashMap<>();
 		if (classNames != null) {
 			for (var entry : classNames.entrySet()) {
-				ClassLoader cl = entry.getValue();
-				if (cl != null) {
-					List<String> urls = new ArrayList<>();
-					if (cl instanceof URLClassLoader ucl) {
-						for (URL url : ucl.getURLs()) {
-							urls.add(url.toExternalForm());
-						}
-					}
-					urlsMap.put(entry.getKey(), urls);
-				}
-				else {
-					urlsMap.put(entry.getKey(), null);
-				}
+				urlsMap.put(entry.getKey(), toLoaderUrls(entry.getValue()));
 			}
 		}
 		out.writeObject(urlsMap);
@@ -202,7 +306,9 @@ public class ClassScanningResult implements Serializable {
 	 * Custom deserialization logic for {@link ClassScanningResult}.
 	 * <p>
 	 * Reads the map of class names to URL strings from the stream and reconstructs
-	 * {@link URLClassLoader} instances for the {@link #classNames} map.
+	 * {@link URLClassLoader} instances (or {@link NestedJarClassLoader} instances for nested JARs)
+	 * for the {@link #classNames} map, then rebuilds the
+	 * lazily loaded class maps from the class index.
 	 *
 	 * @param in the ObjectInputStream to read the object from
 	 * @throws IOException            if an I/O error occurs during deserialization
@@ -215,22 +321,10 @@ public class ClassScanningResult implements Serializable {
 		//noinspection unchecked
 		Map<String, List<String>> urlsMap = (Map<String, List<String>>) in.readObject();
 		classNames = new HashMap<>();
+		Map<List<String>, ClassLoader> loaders = new HashMap<>();
 		for (var entry : urlsMap.entrySet()) {
-			List<String> urls = entry.getValue();
-			if (urls != null) {
-				URL[] urlArray = urls.stream().map(u -> {
-					try {
-						return new URL(u);
-					}
-					catch (Exception e) {
-						throw new RuntimeException(e);
-					}
-				}).toArray(URL[]::new);
-				classNames.put(entry.getKey(), new URLClassLoader(urlArray));
-			}
-			else {
-				classNames.put(entry.getKey(), null);
-			}
+			classNames.put(entry.getKey(), fromLoaderUrls(entry.getValue(), loaders));
 		}
+		indexClasses();
 	}
 }
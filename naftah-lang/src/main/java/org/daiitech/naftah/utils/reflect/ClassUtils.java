@@ -26,6 +26,7 @@ import org.daiitech.naftah.builtin.utils.tuple.ImmutablePair;
 import org.daiitech.naftah.builtin.utils.tuple.Pair;
 import org.daiitech.naftah.errors.NaftahBugError;
 import org.daiitech.naftah.utils.script.ScriptUtils;
+import org.daiitech.naftah.utils.script.TransliterationDictionary;
 
 import static org.daiitech.naftah.Naftah.UNDERSCORE;
 import static org.daiitech.naftah.builtin.utils.AliasHashMap.toAliasGroupedByName;
@@ -259,6 +260,9 @@ public final class ClassUtils {
 	 * parts (joined by {@link #QUALIFIED_NAME_SEPARATOR}) as the key, and the
 	 * original fully qualified name as the value. If multiple original names
 	 * transliterate to the same Arabic string, the first occurrence is kept.
+	 * <p>
+	 * The distinct parts are transliterated once, in parallel, through the
+	 * {@link TransliterationDictionary}; the qualified names are then assembled from it.
 	 *
 	 * @param classQualifiers a collection of {@link Pair} objects, where the left
 	 *                        element is the original class name and the right element
@@ -266,14 +270,19 @@ public final class ClassUtils {
 	 * @return a map of Arabic-transliterated qualified names to original qualified names
 	 */
 	public static Map<String, String> getArabicClassQualifiersMapping(Collection<Pair<String, String[]>> classQualifiers) {
+		TransliterationDictionary
+				.transliterateAll(classQualifiers
+						.stream()
+						.flatMap(strings -> Arrays.stream(strings.getRight()))
+						.collect(Collectors.toSet()));
 		return classQualifiers
 				.stream()
 				.map(strings -> Map
 						.entry(
 								String
 										.join(  QUALIFIED_NAME_SEPARATOR,
-												ScriptUtils
-														.transliterateToArabicScriptDefault(strings
+												TransliterationDictionary
+														.transliterate(strings
 																.getRight()
 																.clone())),
 								strings.getLeft()))
@@ -621,7 +630,7 @@ public final class ClassUtils {
 	 * @return {@code true} if the name matches a known factory name or prefix,
 	 *         {@code false} otherwise
 	 */
-	private static boolean isFactoryName(String name) {
+	static boolean isFactoryName(String name) {
 		if (FACTORY_NAMES.contains(name)) {
 			return true;
 		}
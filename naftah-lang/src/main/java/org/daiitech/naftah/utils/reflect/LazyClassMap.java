@@ -0,0 +1,186 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * An unmodifiable map of qualified class names to {@link Class} objects whose values are loaded
+ * on first access.
+ * <p>
+ * The map is backed by a class index built from class file metadata (see {@link ClassFileReader}),
+ * so key lookups ({@link #containsKey(Object)}, {@link #keySet()}, {@link #size()}) never load a class.
+ * Single key lookups go straight to the class index; the full key set is only collected when
+ * iterating or sizing the map.
+ * A class is loaded (without being initialized) only when its value is requested, and the outcome
+ * is cached. Classes that turn out not to be loadable map to {@code null} and are skipped while
+ * iterating over entries or values.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class LazyClassMap extends AbstractMap<String, Class<?>> {
+
+	/**
+	 * Qualified name -> class file metadata, for all the indexed classes.
+	 */
+	private final Map<String, ClassFileInfo> classIndex;
+
+	/**
+	 * Filter selecting the indexed classes retained by this map.
+	 */
+	private final Predicate<ClassFileInfo> filter;
+
+	/**
+	 * Binary class name -> class loader that discovered it ({@code null} for the default loaders).
+	 */
+	private final Map<String, ClassLoader> classLoaders;
+
+	/**
+	 * Loaded classes cache, an empty optional marks a class that cannot be loaded.
+	 */
+	private final Map<String, Optional<Class<?>>> loaded = new ConcurrentHashMap<>();
+
+	/**
+	 * Qualified names of the retained classes, collected on first use.
+	 */
+	private volatile Set<String> qualifiedNames;
+
+	private Set<Entry<String, Class<?>>> entrySet;
+
+	/**
+	 * Creates a lazy class map over the entries of the given class index matching the given filter.
+	 * <p>
+	 * The class index is used as is (it is neither copied nor scanned up front), so it may itself be
+	 * lazily decoded, and must not be modified afterwards.
+	 * </p>
+	 *
+	 * @param classIndex   the class index, keyed by qualified name
+	 * @param filter       the filter selecting the classes retained by this map
+	 * @param classLoaders binary class names mapped to the class loader that discovered them; may be {@code null}
+	 */
+	public LazyClassMap(Map<String, ClassFileInfo> classIndex,
+						Predicate<ClassFileInfo> filter,
+						Map<String, ClassLoader> classLoaders) {
+		this.classIndex = classIndex;
+		this.filter = filter;
+		this.classLoaders = Objects.requireNonNullElse(classLoaders, Map.of());
+	}
+
+	/**
+	 * Returns the binary class name indexed under the given qualified name, without loading the class.
+	 *
+	 * @param qualifiedName the qualified name
+	 * @return the binary class name, or {@code null} if not indexed
+	 */
+	public String getClassName(String qualifiedName) {
+		ClassFileInfo classFileInfo = classIndex.get(qualifiedName);
+		return Objects.nonNull(classFileInfo) && filter.test(classFileInfo) ? classFileInfo.className() : null;
+	}
+
+	/**
+	 * Collects the qualified names of the retained classes on first use.
+	 *
+	 * @return the qualified names of the retained classes
+	 */
+	private Set<String> qualifiedNames() {
+		if (Objects.isNull(qualifiedNames)) {
+			Set<String> names = new HashSet<>();
+			for (var entry : classIndex.entrySet()) {
+				if (filter.test(entry.getValue())) {
+					names.add(entry.getKey());
+				}
+			}
+			qualifiedNames = Collections.unmodifiableSet(names);
+		}
+		return qualifiedNames;
+	}
+
+	@Override
+	public int size() {
+		return qualifiedNames().size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return qualifiedNames().isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String qualifiedName && Objects.nonNull(getClassName(qualifiedName));
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return qualifiedNames();
+	}
+
+	@Override
+	public Class<?> get(Object key) {
+		String className = key instanceof String qualifiedName ? getClassName(qualifiedName) : null;
+		if (Objects.isNull(className)) {
+			return null;
+		}
+		return loaded
+				.computeIfAbsent(   className,
+									name -> Optional
+											.ofNullable(RuntimeClassScanner.loadClass(name, classLoaders.get(name))))
+				.orElse(null);
+	}
+
+	@Override
+	public Set<Entry<String, Class<?>>> entrySet() {
+		if (Objects.isNull(entrySet)) {
+			entrySet = new AbstractSet<>() {
+				@Override
+				public Iterator<Entry<String, Class<?>>> iterator() {
+					Iterator<String> keys = qualifiedNames().iterator();
+					return new Iterator<>() {
+						private Entry<String, Class<?>> next;
+
+						@Override
+						public boolean hasNext() {
+							while (Objects.isNull(next) && keys.hasNext()) {
+								String key = keys.next();
+								Class<?> value = get(key);
+								if (Objects.nonNull(value)) {
+									next = new SimpleImmutableEntry<>(key, value);
+								}
+							}
+							return Objects.nonNull(next);
+						}
+
+						@Override
+						public Entry<String, Class<?>> next() {
+							if (!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							var current = next;
+							next = null;
+							return current;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return qualifiedNames().size();
+				}
+			};
+		}
+		return entrySet;
+	}
+}
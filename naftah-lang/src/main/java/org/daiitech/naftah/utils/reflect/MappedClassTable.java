@@ -0,0 +1,389 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.daiitech.naftah.builtin.lang.BuiltinFunction;
+
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.ACCESSIBLE;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.ARABIC_MAPPED;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.BUILTIN_PROVIDER;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.HAS_CLASS_INDEX;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.INDEXED;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.INSTANTIABLE;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.MAGIC;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.RECORD_SIZE;
+import static org.daiitech.naftah.utils.reflect.ClassScanningCache.VERSION;
+
+/**
+ * Read-only view over a class scanning cache written by {@link ClassScanningCache}.
+ * <p>
+ * Nothing is decoded up front but the header, the (few) class loaders and the class path segments:
+ * strings are decoded from the string table the first time they are needed, and the maps exposed by
+ * this table look entries up with a binary search over the sorted record indexes of the cache, so
+ * only the entries actually used are ever decoded.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+final class MappedClassTable {
+
+	// record fields offsets
+	private static final int ARABIC_QUALIFIER = 0;
+	private static final int CLASS_NAME = 4;
+	private static final int LATIN_QUALIFIER = 8;
+	private static final int ACCESS_FLAGS = 12;
+	private static final int FLAGS = 16;
+	private static final int LOADER = 20;
+	private static final int SEGMENT = 24;
+
+	private final ByteBuffer buffer;
+	private final int flags;
+	private final int arabicCount;
+	private final int indexedCount;
+	private final int stringOffsets;
+	private final String[] strings;
+	private final ClassLoader[] loaders;
+	private final ClassPathSegment[] segments;
+	private final int records;
+	private final int count;
+	private final int byArabicQualifier;
+	private final int byClassName;
+	private final int byLatinQualifier;
+	private final int builtins;
+
+	/**
+	 * Creates a view over the given cache content.
+	 *
+	 * @param buffer the cache content, typically memory-mapped
+	 * @throws IOException if the content is not a class scanning cache of the supported version
+	 */
+	MappedClassTable(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.limit() < ClassScanningCache.HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a class scanning cache");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported class scanning cache version: " + buffer.getInt(4));
+		}
+		flags = buffer.getInt(8);
+		arabicCount = buffer.getInt(12);
+		indexedCount = buffer.getInt(16);
+		int stringsSection = buffer.getInt(20);
+		int loadersSection = buffer.getInt(24);
+		int segmentsSection = buffer.getInt(28);
+		int recordsSection = buffer.getInt(32);
+		builtins = buffer.getInt(36);
+
+		strings = new String[buffer.getInt(stringsSection)];
+		stringOffsets = stringsSection + Integer.BYTES;
+
+		loaders = new ClassLoader[buffer.getInt(loadersSection)];
+		Map<List<String>, ClassLoader> rebuiltLoaders = new HashMap<>();
+		int position = loadersSection + Integer.BYTES;
+		for (int i = 0; i < loaders.length; i++) {
+			int urlCount = buffer.getInt(position);
+			position += Integer.BYTES;
+			List<String> urls = new ArrayList<>(urlCount);
+			for (int j = 0; j < urlCount; j++) {
+				urls.add(string(buffer.getInt(position)));
+				position += Integer.BYTES;
+			}
+			loaders[i] = ClassScanningResult.fromLoaderUrls(urls, rebuiltLoaders);
+		}
+
+		segments = new ClassPathSegment[buffer.getInt(segmentsSection)];
+		position = segmentsSection + Integer.BYTES;
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new ClassPathSegment( string(buffer.getInt(position)),
+												buffer.getLong(position + Integer.BYTES),
+												buffer.getLong(position + Integer.BYTES + Long.BYTES),
+												string(buffer.getInt(position + Integer.BYTES + 2 * Long.BYTES)));
+			position += 2 * Integer.BYTES + 2 * Long.BYTES;
+		}
+
+		count = buffer.getInt(recordsSection);
+		records = recordsSection + Integer.BYTES;
+		byArabicQualifier = records + count * RECORD_SIZE;
+		byClassName = byArabicQualifier + count * Integer.BYTES;
+		byLatinQualifier = byClassName + count * Integer.BYTES;
+	}
+
+	/**
+	 * Checks whether the cached result carried a class index.
+	 *
+	 * @return {@code true} if a class index was cached
+	 */
+	boolean hasClassIndex() {
+		return (flags & HAS_CLASS_INDEX) != 0;
+	}
+
+	/**
+	 * Returns the class names mapped to the class loader that discovered them.
+	 *
+	 * @return the lazily decoded class names map
+	 */
+	Map<String, ClassLoader> classNames() {
+		return new RecordMap<>(byClassName, CLASS_NAME, 0, count, this::loader);
+	}
+
+	/**
+	 * Returns the fingerprints of the scanned class path segments.
+	 *
+	 * @return the class path segments, keyed by path
+	 */
+	Map<String, ClassPathSegment> segments() {
+		Map<String, ClassPathSegment> segmentsMap = new HashMap<>();
+		for (ClassPathSegment segment : segments) {
+			segmentsMap.put(segment.path(), segment);
+		}
+		return segmentsMap;
+	}
+
+	/**
+	 * Returns the class names mapped to the path of the class path segment they were found in.
+	 *
+	 * @return the lazily decoded class origins map
+	 */
+	Map<String, String> classOrigins() {
+		return new RecordMap<>(byClassName, CLASS_NAME, 0, count, record -> {
+			int segment = field(record, SEGMENT);
+			return segment < 0 ? null : segments[segment].path();
+		});
+	}
+
+	/**
+	 * Returns the latin qualified names of the scanned classes.
+	 *
+	 * @return the lazily decoded class qualifiers set
+	 */
+	Set<String> classQualifiers() {
+		return new RecordMap<>(byLatinQualifier, LATIN_QUALIFIER, 0, count, record -> null).keySet();
+	}
+
+	/**
+	 * Returns the Arabic qualified names mapped to their class names.
+	 *
+	 * @return the lazily decoded Arabic class qualifiers map
+	 */
+	Map<String, String> arabicClassQualifiers() {
+		return new RecordMap<>( byArabicQualifier,
+								ARABIC_QUALIFIER,
+								ARABIC_MAPPED,
+								arabicCount,
+								record -> string(field(record, CLASS_NAME)));
+	}
+
+	/**
+	 * Returns the class index, keyed by Arabic qualified name.
+	 *
+	 * @return the lazily decoded class index
+	 */
+	Map<String, ClassFileInfo> classIndex() {
+		return new RecordMap<>(byArabicQualifier, ARABIC_QUALIFIER, INDEXED, indexedCount, this::classFileInfo);
+	}
+
+	/**
+	 * Decodes the cached builtin functions.
+	 *
+	 * @return the builtin functions, or {@code null} if none were cached
+	 * @throws IOException            if the builtin functions cannot be decoded
+	 * @throws ClassNotFoundException if a class of the builtin functions cannot be found
+	 */
+	Map<String, List<BuiltinFunction>> builtinFunctions() throws IOException, ClassNotFoundException {
+		int length = buffer.getInt(builtins);
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(builtins + Integer.BYTES, bytes);
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			//noinspection unchecked
+			return (Map<String, List<BuiltinFunction>>) ois.readObject();
+		}
+	}
+
+	private int field(int record, int field) {
+		return buffer.getInt(records + record * RECORD_SIZE + field);
+	}
+
+	private ClassLoader loader(int record) {
+		int loader = field(record, LOADER);
+		return loader < 0 ? null : loaders[loader];
+	}
+
+	private ClassFileInfo classFileInfo(int record) {
+		int recordFlags = field(record, FLAGS);
+		return new ClassFileInfo(   string(field(record, CLASS_NAME)),
+									field(record, ACCESS_FLAGS),
+									(recordFlags & ACCESSIBLE) != 0,
+									(recordFlags & INSTANTIABLE) != 0,
+									(recordFlags & BUILTIN_PROVIDER) != 0);
+	}
+
+	/**
+	 * Decodes a string of the string table, on first use.
+	 *
+	 * @param id the string id
+	 * @return the decoded string
+	 */
+	private String string(int id) {
+		String string = strings[id];
+		if (Objects.isNull(string)) {
+			int offset = buffer.getInt(stringOffsets + id * Integer.BYTES);
+			byte[] bytes = new byte[buffer.getInt(offset)];
+			buffer.get(offset + Integer.BYTES, bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+			strings[id] = string;
+		}
+		return string;
+	}
+
+	/**
+	 * Binary searches a sorted record index for a record whose key field equals the given key and
+	 * whose flags match the given mask.
+	 *
+	 * @param index the position of the sorted record index
+	 * @param field the key field of the records
+	 * @param key   the key to look for
+	 * @param mask  the flags the record must have, {@code 0} for any
+	 * @return the record, or {@code -1} if not found
+	 */
+	private int find(int index, int field, String key, int mask) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = string(field(recordAt(index, middle), field)).compareTo(key);
+			if (comparison < 0) {
+				low = middle + 1;
+			}
+			else if (comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				// equal keys are adjacent, look for the first one matching the mask
+				int first = middle;
+				while (first > 0 && string(field(recordAt(index, first - 1), field)).equals(key)) {
+					first--;
+				}
+				for (int i = first; i < count; i++) {
+					int record = recordAt(index, i);
+					if (i > middle && !string(field(record, field)).equals(key)) {
+						break;
+					}
+					if ((field(record, FLAGS) & mask) == mask) {
+						return record;
+					}
+				}
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private int recordAt(int index, int position) {
+		return buffer.getInt(index + position * Integer.BYTES);
+	}
+
+	/**
+	 * Unmodifiable map over the records of a sorted record index.
+	 *
+	 * @param <V> the type of values
+	 */
+	private final class RecordMap<V> extends AbstractMap<String, V> {
+		private final int index;
+		private final int keyField;
+		private final int mask;
+		private final int size;
+		private final IntFunction<V> value;
+		private Set<Entry<String, V>> entrySet;
+
+		private RecordMap(int index, int keyField, int mask, int size, IntFunction<V> value) {
+			this.index = index;
+			this.keyField = keyField;
+			this.mask = mask;
+			this.size = size;
+			this.value = value;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key instanceof String name && find(index, keyField, name, mask) >= 0;
+		}
+
+		@Override
+		public V get(Object key) {
+			int record;
+			if (key instanceof String name && (record = find(index, keyField, name, mask)) >= 0) {
+				return value.apply(record);
+			}
+			return null;
+		}
+
+		@Override
+		public Set<Entry<String, V>> entrySet() {
+			if (Objects.isNull(entrySet)) {
+				entrySet = new AbstractSet<>() {
+					@Override
+					public Iterator<Entry<String, V>> iterator() {
+						return new Iterator<>() {
+							private int position;
+							private int next = -1;
+
+							@Override
+							public boolean hasNext() {
+								while (next < 0 && position < count) {
+									int record = recordAt(index, position++);
+									if ((field(record, FLAGS) & mask) == mask) {
+										next = record;
+									}
+								}
+								return next >= 0;
+							}
+
+							@Override
+							public Entry<String, V> next() {
+								if (!hasNext()) {
+									throw new NoSuchElementException();
+								}
+								int record = next;
+								next = -1;
+								return new SimpleImmutableEntry<>(  string(field(record, keyField)),
+																	value.apply(record));
+							}
+						};
+					}
+
+					@Override
+					public int size() {
+						return size;
+					}
+				};
+			}
+			return entrySet;
+		}
+	}
+}
@@ -0,0 +1,247 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.CLASS_EXTENSION;
+
+/**
+ * A class loader for a JAR nested inside another JAR (e.g. {@code BOOT-INF/lib/*.jar} or {@code lib/*.jar}
+ * entries of fat jars).
+ * <p>
+ * The nested JAR is never extracted to a temporary file: its entries are streamed from the outer JAR
+ * with a {@link JarInputStream}. The class files are read into memory the first time a class is
+ * requested, and the bytes of each class are released once it is defined; other resources are not
+ * kept in memory but streamed from the outer JAR on each request.
+ * </p>
+ * <p>
+ * A JAR nested at a deeper level is designated by the path of entries leading to it from the outer JAR,
+ * separated by {@link #NESTED_SEPARATOR} (e.g. {@code lib/a.jar!/lib/b.jar}); each level is streamed from
+ * the previous one.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class NestedJarClassLoader extends ClassLoader {
+
+	/**
+	 * Separator between the outer JAR and the nested entry in the external form.
+	 */
+	public static final String NESTED_SEPARATOR = "!/";
+
+	/**
+	 * Prefix of the external form of nested JAR class loaders.
+	 */
+	public static final String NESTED_PREFIX = "jar:";
+
+	static {
+		registerAsParallelCapable();
+	}
+
+	private final File outerJar;
+	private final String entryName;
+	private volatile Map<String, byte[]> classFiles;
+
+	/**
+	 * Creates a class loader for the given nested JAR entry.
+	 *
+	 * @param outerJar  the outer JAR file
+	 * @param entryName the name of the nested JAR entry inside the outer JAR, or the path of entries
+	 *                  leading to it for deeper levels
+	 * @param parent    the parent class loader
+	 */
+	public NestedJarClassLoader(File outerJar, String entryName, ClassLoader parent) {
+		super(parent);
+		this.outerJar = outerJar;
+		this.entryName = entryName;
+	}
+
+	/**
+	 * Checks whether the given string is the external form of a nested JAR class loader.
+	 *
+	 * @param url the string to check
+	 * @return {@code true} if it denotes a nested JAR, {@code false} otherwise
+	 */
+	public static boolean isNestedJarUrl(String url) {
+		return Objects.nonNull(url) && url.startsWith(NESTED_PREFIX) && url.contains(NESTED_SEPARATOR);
+	}
+
+	/**
+	 * Creates a nested JAR class loader from its external form.
+	 *
+	 * @param url    the external form, as returned by {@link #toExternalForm()}
+	 * @param parent the parent class loader
+	 * @return the nested JAR class loader
+	 */
+	public static NestedJarClassLoader of(String url, ClassLoader parent) {
+		int separatorIndex = url.indexOf(NESTED_SEPARATOR);
+		return new NestedJarClassLoader(new File(url.substring(NESTED_PREFIX.length(), separatorIndex)),
+										url.substring(separatorIndex + NESTED_SEPARATOR.length()),
+										parent);
+	}
+
+	/**
+	 * Streams the class entries of a nested JAR, without extracting it.
+	 * <p>
+	 * The given stream is left open.
+	 * </p>
+	 *
+	 * @param is the stream of the nested JAR content
+	 * @return the stream over the nested JAR entries
+	 * @throws IOException if the nested JAR cannot be read
+	 */
+	public static JarInputStream openNested(InputStream is) throws IOException {
+		return new JarInputStream(new FilterInputStream(is) {
+			@Override
+			public void close() {
+				// the enclosing stream is owned by the caller
+			}
+		});
+	}
+
+	/**
+	 * Returns the external form of this loader, {@code jar:<outer jar path>!/<entry name>}.
+	 *
+	 * @return the external form
+	 */
+	public String toExternalForm() {
+		return NESTED_PREFIX + outerJar.getPath() + NESTED_SEPARATOR + entryName;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		String classFileName = name.replace('.', '/') + CLASS_EXTENSION;
+		Map<String, byte[]> pendingClassFiles = getClassFiles();
+		byte[] bytes = pendingClassFiles.get(classFileName);
+		if (Objects.isNull(bytes)) {
+			throw new ClassNotFoundException(name);
+		}
+		Class<?> clazz = defineClass(name, bytes, 0, bytes.length);
+		// a defined class is found by findLoadedClass from now on
+		pendingClassFiles.remove(classFileName);
+		return clazz;
+	}
+
+	@Override
+	public InputStream getResourceAsStream(String name) {
+		InputStream is = super.getResourceAsStream(name);
+		if (Objects.nonNull(is)) {
+			return is;
+		}
+		byte[] bytes = getClassFiles().get(name);
+		if (Objects.nonNull(bytes)) {
+			return new ByteArrayInputStream(bytes);
+		}
+		bytes = readEntry(name);
+		return Objects.isNull(bytes) ? null : new ByteArrayInputStream(bytes);
+	}
+
+	/**
+	 * Streams the class files of the nested JAR into memory on first use.
+	 *
+	 * @return the class files not defined yet, keyed by entry name
+	 */
+	private Map<String, byte[]> getClassFiles() {
+		if (Objects.isNull(classFiles)) {
+			synchronized (this) {
+				if (Objects.isNull(classFiles)) {
+					Map<String, byte[]> entries = new ConcurrentHashMap<>();
+					try (JarFile jar = new JarFile(outerJar)) {
+						JarInputStream nested = openNestedJar(jar);
+						JarEntry entry;
+						while (Objects.nonNull(nested) && Objects.nonNull(entry = nested.getNextJarEntry())) {
+							if (!entry.isDirectory() && entry.getName().endsWith(CLASS_EXTENSION)) {
+								entries.put(entry.getName(), nested.readAllBytes());
+							}
+						}
+					}
+					catch (Exception ignored) {
+						// unreadable nested jar: no classes
+					}
+					classFiles = entries;
+				}
+			}
+		}
+		return classFiles;
+	}
+
+	/**
+	 * Streams an entry of the nested JAR from the outer JAR.
+	 *
+	 * @param name the entry name
+	 * @return the entry content, or {@code null} if there is no such entry or it cannot be read
+	 */
+	private byte[] readEntry(String name) {
+		try (JarFile jar = new JarFile(outerJar)) {
+			JarInputStream nested = openNestedJar(jar);
+			if (Objects.nonNull(nested)) {
+				JarEntry entry = openEntry(nested, name);
+				if (Objects.nonNull(entry)) {
+					return nested.readAllBytes();
+				}
+			}
+		}
+		catch (Exception ignored) {
+			// unreadable nested jar: no resources
+		}
+		return null;
+	}
+
+	/**
+	 * Streams the entries of the nested JAR, following the path of entries leading to it.
+	 * <p>
+	 * The returned stream reads from the given JAR, and is closed along with it.
+	 * </p>
+	 *
+	 * @param jar the outer JAR
+	 * @return the stream over the nested JAR entries, or {@code null} if the nested JAR does not exist
+	 * @throws IOException if the JAR cannot be read
+	 */
+	private JarInputStream openNestedJar(JarFile jar) throws IOException {
+		String[] entryPath = entryName.split(NESTED_SEPARATOR);
+		JarEntry outerEntry = jar.getJarEntry(entryPath[0]);
+		if (Objects.isNull(outerEntry)) {
+			return null;
+		}
+		JarInputStream nested = new JarInputStream(jar.getInputStream(outerEntry));
+		for (int i = 1; Objects.nonNull(nested) && i < entryPath.length; i++) {
+			nested = Objects.isNull(openEntry(nested, entryPath[i])) ? null : openNested(nested);
+		}
+		return nested;
+	}
+
+	/**
+	 * Advances the given stream to an entry.
+	 *
+	 * @param jar       the stream over the JAR entries
+	 * @param entryName the name of the entry
+	 * @return the entry, positioned for reading, or {@code null} if there is no such entry
+	 * @throws IOException if the JAR cannot be read
+	 */
+	private static JarEntry openEntry(JarInputStream jar, String entryName) throws IOException {
+		JarEntry entry;
+		while (Objects.nonNull(entry = jar.getNextJarEntry())) {
+			if (entry.getName().equals(entryName) && !entry.isDirectory()) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return toExternalForm();
+	}
+}
@@ -4,22 +4,30 @@
 package org.daiitech.naftah.utils.reflect;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serial;
 import java.net.URL;
-import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.daiitech.naftah.errors.NaftahBugError;
@@ -90,6 +98,11 @@ public final class RuntimeClassScanner {
 	 */
 	public static final String CLASS_EXTENSION_REGEX = "\\.class$";
 
+	/**
+	 * Compiled form of {@link #CLASS_EXTENSION_REGEX}.
+	 */
+	private static final Pattern CLASS_EXTENSION_PATTERN = Pattern.compile(CLASS_EXTENSION_REGEX);
+
 	/**
 	 * A set of class file base names to ignore during scanning.
 	 * Typically these include special files like module-info and package-info.
@@ -126,6 +139,36 @@ public final class RuntimeClassScanner {
 														ClassLoader.getPlatformClassLoader(),
 														Object.class.getClassLoader()};
 
+	/**
+	 * Number of threads scanning directories and archives in parallel.
+	 */
+	private static final int SCAN_PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Work-stealing pool used to scan directories and archives in parallel.
+	 * <p>
+	 * Scanning blocks on file and archive reads, so it runs on its own bounded pool of daemon threads
+	 * rather than on the common pool, which stays available to parallel streams and the builtin kernels.
+	 * Blocked workers are not compensated by extra threads, and idle workers exit after a few seconds.
+	 * </p>
+	 */
+	private static final ForkJoinPool SCAN_POOL = new ForkJoinPool(SCAN_PARALLELISM,
+																	pool -> {
+																		var worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+																				.newThread(pool);
+																		worker.setName("naftah-class-scanner-" + worker.getPoolIndex());
+																		worker.setDaemon(true);
+																		return worker;
+																	},
+																	null,
+																	false,
+																	0,
+																	SCAN_PARALLELISM,
+																	1,
+																	pool -> true,
+																	5,
+																	TimeUnit.SECONDS);
+
 	static {
 		// Get the classpath and java home files
 		String[] tempPaths = (CLASS_PATH + (SCAN_JDK ? File.pathSeparator + JAVA_HOME : "")).split(File.pathSeparator);
@@ -182,16 +225,46 @@ public final class RuntimeClassScanner {
 
 	/**
 	 * Scans for classes in the given paths.
+	 * <p>
+	 * Each path (and, recursively, each sub-directory and archive) is scanned as a separate task
+	 * of {@link #SCAN_POOL}, and the partial results are merged as the tasks join.
+	 * </p>
 	 *
 	 * @param paths an array of file system paths (directories or JAR files) to scan for classes
 	 * @return a map of fully qualified class names to their corresponding class loaders (may be null if default)
 	 */
 	public static Map<String, ClassLoader> scanClasses(String[] paths, String packagePath) {
-		Map<String, ClassLoader> classNames = new HashMap<>();
+		List<ScanTask> tasks = Arrays
+				.stream(paths)
+				.map(File::new)
+				.filter(File::exists)
+				.map(file -> new ScanTask(file, file, packagePath))
+				.toList();
+		return SCAN_POOL.invoke(new ScanAllTask(tasks));
+	}
+
+	/**
+	 * Scans for classes in the given paths, keeping the classes of each path apart.
+	 * <p>
+	 * The paths are scanned in parallel on {@link #SCAN_POOL}; paths that do not exist are skipped.
+	 * </p>
+	 *
+	 * @param paths the file system paths (directories or JAR files) to scan for classes
+	 * @return the paths mapped to their class names, themselves mapped to their class loaders
+	 *         (may be null if default)
+	 */
+	public static Map<String, Map<String, ClassLoader>> scanSegments(Collection<String> paths) {
+		Map<String, ScanTask> tasks = new LinkedHashMap<>();
 		for (String path : paths) {
-			classNames.putAll(scanClasses(path, packagePath));
+			File file = new File(path);
+			if (file.exists()) {
+				tasks.put(path, new ScanTask(file, file, null));
+			}
 		}
-		return classNames;
+		tasks.values().forEach(SCAN_POOL::execute);
+		Map<String, Map<String, ClassLoader>> segments = new LinkedHashMap<>();
+		tasks.forEach((path, task) -> segments.put(path, task.join()));
+		return segments;
 	}
 
 	/**
@@ -202,17 +275,11 @@ public final class RuntimeClassScanner {
 	 *         may be {@code null} if default
 	 */
 	public static Map<String, ClassLoader> scanClasses(String path, String packagePath) {
-		Map<String, ClassLoader> classNames = new HashMap<>();
 		File file = new File(path);
 		if (file.exists()) {
-			if (file.isDirectory()) {
-				classNames.putAll(findClassesInDirectory(file, file, packagePath));
-			}
-			else if (file.getName().endsWith(JAR_EXTENSION) || file.getName().endsWith(JMOD_EXTENSION)) {
-				classNames.putAll(findClassesInJar(file, packagePath));
-			}
+			return SCAN_POOL.invoke(new ScanTask(file, file, packagePath));
 		}
-		return classNames;
+		return new HashMap<>();
 	}
 
 	/**
@@ -314,56 +381,126 @@ public final class RuntimeClassScanner {
 		return loadedClasses;
 	}
 
+	/**
+	 * Loads a single class, without initializing it, trying its discovering class loader first and then
+	 * the loaders in {@link #CLASS_LOADERS}.
+	 *
+	 * @param className   the binary class name
+	 * @param classLoader the class loader that discovered the class; may be {@code null}
+	 * @return the loaded class, or {@code null} if it cannot be loaded by any loader
+	 */
+	public static Class<?> loadClass(String className, ClassLoader classLoader) {
+		if (Objects.nonNull(classLoader)) {
+			try {
+				return Class.forName(className, false, classLoader);
+			}
+			catch (Throwable ignored) {
+				// fall back to the default loaders
+			}
+		}
+		for (ClassLoader cl : CLASS_LOADERS) {
+			if (Objects.isNull(cl)) {
+				continue;
+			}
+			try {
+				return Class.forName(className, false, cl);
+			}
+			catch (Throwable ignored) {
+				// Silently skip classes that can't be loaded
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Builds a class index from the class files of the given classes, keyed by qualified name.
+	 * <p>
+	 * Unlike {@link #loadClasses(Map, boolean)}, this reads class file bytes through
+	 * {@link ClassFileReader} and never defines, links or initializes any class.
+	 * Classes whose class file cannot be located or read are skipped. Class files are read in parallel
+	 * on {@link #SCAN_POOL} and merged into a concurrent map.
+	 * </p>
+	 *
+	 * @param classNames map of class names to the class loaders that discovered them (may be null if default)
+	 * @return a map of qualified class names to their {@link ClassFileInfo}
+	 */
+	public static Map<String, ClassFileInfo> indexClasses(Map<String, ClassLoader> classNames) {
+		Map<String, ClassFileInfo> classIndex = new ConcurrentHashMap<>();
+		// a parallel stream started from a pool task runs on that pool
+		SCAN_POOL.submit(() -> classNames.entrySet().parallelStream().forEach(nameEntry -> {
+			var classLoader = nameEntry.getValue();
+			var classFileInfo = Objects.isNull(classLoader) ?
+					ClassFileReader.read(nameEntry.getKey(), CLASS_LOADERS) :
+					ClassFileReader.read(nameEntry.getKey(), classLoader);
+			if (Objects.nonNull(classFileInfo)) {
+				classIndex.put(getQualifiedName(nameEntry.getKey()), classFileInfo);
+			}
+		})).join();
+		return classIndex;
+	}
+
 	/**
 	 * Recursively scans for classes inside a directory.
+	 * <p>
+	 * Sub-directories and archives are scanned in parallel on {@link #SCAN_POOL}.
+	 * </p>
 	 *
 	 * @param root root directory where scanning started
 	 * @param dir  current directory or file to scan
 	 * @return a map of fully qualified class names to their corresponding class loaders (null here)
 	 */
 	public static Map<String, ClassLoader> findClassesInDirectory(File root, File dir, String packagePath) {
-		Map<String, ClassLoader> classNames = new HashMap<>();
-		for (File file : Objects.requireNonNull(dir.listFiles())) {
-			if (file.isDirectory()) {
-				classNames.putAll(findClassesInDirectory(root, file, packagePath));
-			}
-			else if ((Objects.isNull(packagePath) || file
-					.getPath()
-					.replace('\\', '/')
-					.contains(packagePath)) && IGNORE_CLASS
-							.stream()
-							.noneMatch(s -> file.getName().endsWith(s)) && file
-									.getName()
-									.endsWith(CLASS_EXTENSION)) {
-										String className = file
-												.getAbsolutePath()
-												.substring(root.getAbsolutePath().length() + 1);
-										if (Objects.nonNull(packagePath)) {
-											className = packagePath + File.separatorChar + className;
-										}
-
-										className = className
-												.replace("/", ".")
-												.replace(File.separatorChar, '.')
-												.replaceAll(CLASS_EXTENSION_REGEX, "");
-
-										classNames.put(className, null);
-									}
-			else if (file.getName().endsWith(JAR_EXTENSION) || file.getName().endsWith(JMOD_EXTENSION)) {
-				classNames.putAll(findClassesInJar(file, packagePath));
-			}
-		}
-		return classNames;
+		return SCAN_POOL.invoke(new ScanTask(root, dir, packagePath));
 	}
 
+	/**
+	 * Checks whether the given file or entry name denotes a Java archive (JAR or JMOD).
+	 *
+	 * @param name the file or entry name
+	 * @return {@code true} if the name ends with a JAR or JMOD extension
+	 */
+	private static boolean isArchive(String name) {
+		return name.endsWith(JAR_EXTENSION) || name.endsWith(JMOD_EXTENSION);
+	}
+
+	/**
+	 * Checks whether the given file or entry path denotes a class file to scan, i.e. a {@code .class}
+	 * file that is not ignored and lies under the given package path (if any).
+	 *
+	 * @param path        the file or entry path
+	 * @param name        the file or entry name
+	 * @param packagePath the package path filter, or {@code null}
+	 * @return {@code true} if the class file should be scanned
+	 */
+	private static boolean isScannedClassFile(String path, String name, String packagePath) {
+		return name.endsWith(CLASS_EXTENSION) && (Objects.isNull(packagePath) || path
+				.replace('\\', '/')
+				.contains(packagePath)) && IGNORE_CLASS.stream().noneMatch(name::endsWith);
+	}
+
+	/**
+	 * Converts a class file path (relative to a scan root or archive root) to a binary class name.
+	 *
+	 * @param path the relative class file path
+	 * @return the binary class name
+	 */
+	private static String toClassName(String path) {
+		return CLASS_EXTENSION_PATTERN
+				.matcher(path.replace('/', '.').replace(File.separatorChar, '.'))
+				.replaceAll("");
+	}
 
 	/**
 	 * Scans for classes inside a JAR or JMOD file.
+	 * <p>
+	 * Nested JARs are streamed from the outer archive, without being extracted, and their classes
+	 * are associated with a {@link NestedJarClassLoader}. JARs nested in nested JARs are scanned
+	 * recursively, at any depth.
+	 * </p>
 	 *
 	 * @param jarFile the JAR or JMOD file to scan
-	 * @return a map of fully qualified class names to their associated class loaders (null or URLClassLoader for
-	 *         nested
-	 *         jars)
+	 * @return a map of fully qualified class names to their associated class loaders (null or
+	 *         {@link NestedJarClassLoader} for nested jars)
 	 */
 	public static Map<String, ClassLoader> findClassesInJar(File jarFile, String packagePath) {
 		Map<String, ClassLoader> classNames = new HashMap<>();
@@ -371,33 +508,15 @@ public final class RuntimeClassScanner {
 			Enumeration<JarEntry> entries = jar.entries();
 			while (entries.hasMoreElements()) {
 				JarEntry entry = entries.nextElement();
-				if ((Objects.isNull(packagePath) || entry
-						.getName()
-						.replace('\\', '/')
-						.contains(packagePath)) && IGNORE_CLASS
-								.stream()
-								.noneMatch(s -> entry.getName().endsWith(s)) && entry
-										.getName()
-										.endsWith(CLASS_EXTENSION)) {
-					String className = entry
-							.getName()
-							.replace("classes/", "") // handling jmod class prefix
-							.replace("/", ".")
-							.replace(File.separatorChar, '.')
-							.replaceAll(CLASS_EXTENSION_REGEX, "");
-					classNames.put(className, null);
+				String entryName = entry.getName();
+				if (isScannedClassFile(entryName, entryName, packagePath)) {
+					// handling jmod class prefix
+					classNames.put(toClassName(entryName.replace("classes/", "")), null);
 				}
-				else if (entry.getName().endsWith(JAR_EXTENSION) || entry.getName().endsWith(JMOD_EXTENSION)) {
-					File tempInnerJar = jarEntryToTempFile(jar, entry);
-					// Load inner JAR with URLClassLoader
-					try (URLClassLoader loader = new URLClassLoader(new URL[]{tempInnerJar.toURI().toURL()},
-																	RuntimeClassScanner.class.getClassLoader())) {
-						classNames
-								.putAll(findClassesInJar(tempInnerJar, packagePath)
-										.keySet()
-										.stream()
-										.map(className -> Map.entry(className, loader))
-										.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+				else if (isArchive(entryName)) {
+					try (   InputStream is = jar.getInputStream(entry);
+							JarInputStream nested = NestedJarClassLoader.openNested(is)) {
+						findClassesInNestedJar(jarFile, entryName, nested, packagePath, classNames);
 					}
 				}
 			}
@@ -409,30 +528,111 @@ public final class RuntimeClassScanner {
 	}
 
 	/**
-	 * Extracts a nested JAR entry from a JAR file and writes it to a temporary file.
-	 * The temporary file is deleted on JVM exit.
+	 * Scans for classes inside a nested JAR streamed from its enclosing archive, recursing into the
+	 * JARs it nests in turn.
 	 *
-	 * @param outerJar      the outer JAR file containing the nested JAR entry
-	 * @param innerJarEntry the nested JAR entry inside the outer JAR
-	 * @return a temporary File representing the extracted nested JAR
-	 * @throws IOException if an I/O error occurs during extraction
-	 */
-	public static File jarEntryToTempFile(JarFile outerJar, JarEntry innerJarEntry) throws IOException {
-		// Create a temp file
-		File tempInnerJar = File
-				.createTempFile("entry-",
-								"-" + innerJarEntry.getName().replace("/", "-").replace(File.separatorChar, '-'));
-		tempInnerJar.deleteOnExit();
-
-		try (   InputStream is = outerJar.getInputStream(innerJarEntry);
-				FileOutputStream os = new FileOutputStream(tempInnerJar)) {
-			byte[] buffer = new byte[4096];
-			int bytesRead;
-			while ((bytesRead = is.read(buffer)) != -1) {
-				os.write(buffer, 0, bytesRead);
+	 * @param outerJar    the outermost JAR file
+	 * @param entryPath   the path of the nested JAR from the outermost JAR, its entry names separated by
+	 *                    {@link NestedJarClassLoader#NESTED_SEPARATOR}
+	 * @param nested      the stream over the nested JAR entries
+	 * @param packagePath the package path filter, or {@code null}
+	 * @param classNames  the map the found class names are added to
+	 * @throws IOException if the nested JAR cannot be read
+	 */
+	private static void findClassesInNestedJar( File outerJar,
+												String entryPath,
+												JarInputStream nested,
+												String packagePath,
+												Map<String, ClassLoader> classNames) throws IOException {
+		ClassLoader loader = new NestedJarClassLoader(  outerJar,
+														entryPath,
+														RuntimeClassScanner.class.getClassLoader());
+		JarEntry nestedEntry;
+		while (Objects.nonNull(nestedEntry = nested.getNextJarEntry())) {
+			String nestedEntryName = nestedEntry.getName();
+			if (isScannedClassFile(nestedEntryName, nestedEntryName, packagePath)) {
+				classNames.put(toClassName(nestedEntryName.replace("classes/", "")), loader);
+			}
+			else if (isArchive(nestedEntryName)) {
+				findClassesInNestedJar( outerJar,
+										entryPath + NestedJarClassLoader.NESTED_SEPARATOR + nestedEntryName,
+										NestedJarClassLoader.openNested(nested),
+										packagePath,
+										classNames);
 			}
 		}
+	}
 
-		return tempInnerJar;
+	/**
+	 * Fork-join task scanning a single directory, class file or archive.
+	 * <p>
+	 * Directories fork one sub-task per sub-directory and archive, while class files are collected
+	 * directly; archives are scanned by {@link #findClassesInJar(File, String)}.
+	 * </p>
+	 */
+	private static final class ScanTask extends RecursiveTask<Map<String, ClassLoader>> {
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final File root;
+		private final File file;
+		private final String packagePath;
+
+		private ScanTask(File root, File file, String packagePath) {
+			this.root = root;
+			this.file = file;
+			this.packagePath = packagePath;
+		}
+
+		@Override
+		protected Map<String, ClassLoader> compute() {
+			if (!file.isDirectory()) {
+				return isArchive(file.getName()) ? findClassesInJar(file, packagePath) : new HashMap<>();
+			}
+
+			Map<String, ClassLoader> classNames = new HashMap<>();
+			List<ScanTask> subTasks = new ArrayList<>();
+			for (File child : Objects.requireNonNull(file.listFiles())) {
+				if (child.isDirectory() || isArchive(child.getName())) {
+					subTasks.add(new ScanTask(root, child, packagePath));
+				}
+				else if (isScannedClassFile(child.getPath(), child.getName(), packagePath)) {
+					String className = child
+							.getAbsolutePath()
+							.substring(root.getAbsolutePath().length() + 1);
+					if (Objects.nonNull(packagePath)) {
+						className = packagePath + File.separatorChar + className;
+					}
+					classNames.put(toClassName(className), null);
+				}
+			}
+			for (ScanTask subTask : invokeAll(subTasks)) {
+				classNames.putAll(subTask.join());
+			}
+			return classNames;
+		}
+	}
+
+	/**
+	 * Fork-join task running a set of {@link ScanTask}s in parallel and merging their results.
+	 */
+	private static final class ScanAllTask extends RecursiveTask<Map<String, ClassLoader>> {
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final List<ScanTask> tasks;
+
+		private ScanAllTask(List<ScanTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected Map<String, ClassLoader> compute() {
+			Map<String, ClassLoader> classNames = new HashMap<>();
+			for (ScanTask task : invokeAll(tasks)) {
+				classNames.putAll(task.join());
+			}
+			return classNames;
+		}
 	}
 }
@@ -3,9 +3,18 @@
 
 package org.daiitech.naftah.utils.repl;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+import org.daiitech.naftah.utils.PrefixTrie;
 import org.jline.reader.Candidate;
+import org.jline.reader.LineReader;
+import org.jline.reader.ParsedLine;
 import org.jline.reader.impl.completer.StringsCompleter;
 import org.jline.utils.AttributedString;
 
@@ -15,19 +24,48 @@ import static org.daiitech.naftah.utils.script.ScriptUtils.shape;
  * A custom {@link StringsCompleter} implementation that supports shaping text
  * for better display in terminals that require right-to-left formatting.
  * <p>
- * This completer processes a collection of strings and optionally reshapes them
- * using a utility method (e.g., for contextual script display).
+ * Completion candidates are looked up in {@link PrefixTrie} indexes by the word being completed,
+ * so only the matching strings are handed to the line reader on each request. When nothing
+ * starts with the word, the closest strings (see {@link PrefixTrie#suggest(String, int, int)})
+ * are offered instead, to recover from typos.
  * </p>
  *
  * <p>
- * Each input string is added as a {@link Candidate}, with reshaping applied if necessary.
+ * Each matching string is added as a {@link Candidate}, with reshaping applied if necessary.
  * ANSI escape codes are stripped from the completion value but not the display value.
+ * Candidates are created once per string and reused.
  * </p>
  *
  * @author Chakib Daii
  */
 public class NaftahStringsCompleter extends StringsCompleter {
 
+	/**
+	 * Maximum number of fuzzy suggestions offered when no string starts with the word.
+	 */
+	public static final int SUGGESTIONS_LIMIT = 10;
+
+	/**
+	 * Maximum number of edits for fuzzy suggestions.
+	 */
+	public static final int SUGGESTIONS_MAX_DISTANCE = 2;
+
+	/**
+	 * Supplies the index of the runtime strings, which may be rebuilt (e.g. after an asynchronous
+	 * bootstrap).
+	 */
+	private final Supplier<PrefixTrie<String>> runtimeIndex;
+
+	/**
+	 * Index of the fixed strings given at construction.
+	 */
+	private final PrefixTrie<String> index = new PrefixTrie<>();
+
+	/**
+	 * Candidates already created, by string.
+	 */
+	private final Map<String, Candidate> candidatesCache = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructs a new {@code NaftahStringsCompleter} using the given iterable of strings.
 	 * If text shaping is enabled, each string will be reshaped for display.
@@ -36,26 +74,92 @@ public class NaftahStringsCompleter extends StringsCompleter {
 	 * @throws AssertionError if {@code strings} is {@code null}
 	 */
 	public NaftahStringsCompleter(Iterable<String> strings) {
+		this(() -> null, strings);
+	}
+
+	/**
+	 * Constructs a new {@code NaftahStringsCompleter} completing from the strings of a runtime
+	 * index and the given iterable of strings.
+	 *
+	 * @param runtimeIndex supplier of the runtime strings index, which may supply {@code null} (must not be
+	 *                     {@code null})
+	 * @param strings      an iterable collection of string candidates for completion (must not be {@code null})
+	 * @throws AssertionError if {@code runtimeIndex} or {@code strings} is {@code null}
+	 */
+	public NaftahStringsCompleter(Supplier<PrefixTrie<String>> runtimeIndex, Iterable<String> strings) {
+		assert runtimeIndex != null;
 		assert strings != null;
-		this.candidates = new ArrayList<>();
+		this.runtimeIndex = runtimeIndex;
 		for (String string : strings) {
-			String display = string;
-			try {
-				display = shape(display);
-			}
-			catch (Exception e) {
-				// do nothing
+			index.put(AttributedString.stripAnsi(string), string);
+		}
+	}
+
+	/**
+	 * Returns the word being completed: the part of the current word before the cursor.
+	 *
+	 * @param line the parsed line
+	 * @return the word prefix
+	 */
+	private static String getWordPrefix(ParsedLine line) {
+		String word = line.word();
+		return Objects.isNull(word) ? "" : word.substring(0, Math.min(line.wordCursor(), word.length()));
+	}
+
+	/**
+	 * Adds the candidates starting with the word being completed, or the closest ones if none does.
+	 *
+	 * @param reader     the line reader
+	 * @param line       the parsed line
+	 * @param candidates the list to which candidates are added
+	 */
+	@Override
+	public void complete(LineReader reader, ParsedLine line, List<Candidate> candidates) {
+		assert line != null;
+		assert candidates != null;
+		String prefix = getWordPrefix(line);
+		PrefixTrie<String> runtime = runtimeIndex.get();
+
+		Set<String> matches = new LinkedHashSet<>(index.withPrefix(prefix, 0));
+		if (Objects.nonNull(runtime)) {
+			matches.addAll(runtime.withPrefix(prefix, 0));
+		}
+
+		int maxDistance = Math.min(SUGGESTIONS_MAX_DISTANCE, prefix.length() / 3);
+		if (matches.isEmpty() && maxDistance > 0) {
+			matches.addAll(index.suggest(prefix, SUGGESTIONS_LIMIT, maxDistance));
+			if (Objects.nonNull(runtime)) {
+				matches.addAll(runtime.suggest(prefix, SUGGESTIONS_LIMIT, maxDistance));
 			}
-			candidates
-					.add(new Candidate(
-										AttributedString.stripAnsi(string),
-										display,
-										null,
-										null,
-										null,
-										null,
-										true
-					));
 		}
+
+		for (String match : matches) {
+			candidates.add(candidatesCache.computeIfAbsent(match, NaftahStringsCompleter::newCandidate));
+		}
+	}
+
+	/**
+	 * Creates the candidate of a string, reshaped for display if needed.
+	 *
+	 * @param string the string
+	 * @return the candidate
+	 */
+	private static Candidate newCandidate(String string) {
+		String display = string;
+		try {
+			display = shape(display);
+		}
+		catch (Exception e) {
+			// do nothing
+		}
+		return new Candidate(
+								AttributedString.stripAnsi(string),
+								display,
+								null,
+								null,
+								null,
+								null,
+								true
+		);
 	}
 }
@@ -30,6 +30,7 @@ import java.util.stream.Stream;
 import org.daiitech.naftah.builtin.utils.tuple.ImmutablePair;
 import org.daiitech.naftah.builtin.utils.tuple.Pair;
 import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.parser.DefaultContext;
 import org.daiitech.naftah.parser.NaftahParserHelper;
 import org.daiitech.naftah.parser.SyntaxHighlighter;
 import org.daiitech.naftah.utils.OS;
@@ -74,7 +75,6 @@ import com.vladsch.flexmark.util.ast.Node;
 
 import static org.daiitech.naftah.Naftah.INSIDE_REPL_PROPERTY;
 import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
-import static org.daiitech.naftah.parser.DefaultContext.getCompletions;
 import static org.daiitech.naftah.parser.NaftahParserHelper.LEXER_LITERALS;
 import static org.daiitech.naftah.utils.script.ScriptUtils.ARABIC_LOCALE;
 import static org.daiitech.naftah.utils.script.ScriptUtils.padText;
@@ -274,9 +274,7 @@ public final class REPLHelper {
 				.highlighter(new SyntaxHighlighter(originalHighlighter));
 
 		// Load static and runtime completions for autocompletion
-		var runtimeCompletions = getCompletions();
-		runtimeCompletions.addAll(LEXER_LITERALS);
-		Completer stringsCompleter = new NaftahStringsCompleter(runtimeCompletions);
+		Completer stringsCompleter = new NaftahStringsCompleter(DefaultContext::getCompletionIndex, LEXER_LITERALS);
 		lineReaderBuilder.completer(stringsCompleter);
 
 		return lineReaderBuilder.build();
@@ -772,29 +772,24 @@ public final class ScriptUtils {
 	}
 
 	/**
-	 * Transliterates the given text(s) from Latin script to Arabic or vice versa,
-	 * using the specified ICU Transliterator ID and optional custom rules.
+	 * Creates a transliterator for the given ICU Transliterator ID, preceded by the optional custom
+	 * rules. The custom rules are registered once, under an ID derived from their hash.
+	 * <p>
+	 * The returned transliterator is not thread-safe.
+	 * </p>
 	 *
 	 * @param transliteratorID the ICU Transliterator ID to use
-	 * @param removeDiacritics whether to remove diacritics after transliteration
 	 * @param customRules      optional custom transliteration rules; may be null
-	 * @param text             one or more strings to transliterate
-	 * @return an array of transliterated strings in the same order
+	 * @return a new transliterator
 	 */
-	public static String[] transliterateScript(
-												String transliteratorID,
-												boolean removeDiacritics,
-												String customRules,
-												String... text) {
-		Transliterator transliterator = null;
-
+	public static Transliterator getTransliterator(String transliteratorID, String customRules) {
 		if (Objects.nonNull(customRules) && !customRules.isBlank()) {
 			String customTransliteratorID = "Naftah" + hashString(customRules, "SHA-1");
 
 			try {
 				// Try to get an instance of the transliterator by ID
 				// If this succeeds, it's already registered, so no need to register again
-				transliterator = Transliterator.getInstance(customTransliteratorID + "; " + transliteratorID);
+				return Transliterator.getInstance(customTransliteratorID + "; " + transliteratorID);
 			}
 			catch (IllegalArgumentException e) {
 				// Create a transliterator to convert based on ID with the custom rules
@@ -805,14 +800,30 @@ public final class ScriptUtils {
 				Transliterator.registerInstance(customTransliterator);
 
 				// get an instance of the transliterator by ID
-				transliterator = Transliterator.getInstance(customTransliteratorID + "; " + transliteratorID);
+				return Transliterator.getInstance(customTransliteratorID + "; " + transliteratorID);
 			}
 		}
 
-		if (Objects.isNull(transliterator)) {
-			// Create a transliterator to convert based on ID
-			transliterator = Transliterator.getInstance(transliteratorID);
-		}
+		// Create a transliterator to convert based on ID
+		return Transliterator.getInstance(transliteratorID);
+	}
+
+	/**
+	 * Transliterates the given text(s) from Latin script to Arabic or vice versa,
+	 * using the specified ICU Transliterator ID and optional custom rules.
+	 *
+	 * @param transliteratorID the ICU Transliterator ID to use
+	 * @param removeDiacritics whether to remove diacritics after transliteration
+	 * @param customRules      optional custom transliteration rules; may be null
+	 * @param text             one or more strings to transliterate
+	 * @return an array of transliterated strings in the same order
+	 */
+	public static String[] transliterateScript(
+												String transliteratorID,
+												boolean removeDiacritics,
+												String customRules,
+												String... text) {
+		Transliterator transliterator = getTransliterator(transliteratorID, customRules);
 
 		for (int i = 0; i < text.length; i++) {
 			text[i] = transliterateScript(
@@ -977,12 +988,15 @@ public final class ScriptUtils {
 	/**
 	 * Transliterates one or more strings to Arabic script using default custom rules.
 	 * Diacritics are removed by default.
+	 * <p>
+	 * The transliterations are memoized, see {@link TransliterationDictionary}.
+	 * </p>
 	 *
-	 * @param text the input strings=
+	 * @param text the input strings
 	 * @return transliterated Arabic script strings
 	 */
 	public static String[] transliterateToArabicScriptDefault(String... text) {
-		return transliterateToArabicScript(true, CUSTOM_RULES, text);
+		return TransliterationDictionary.transliterate(text);
 	}
 
 	/**
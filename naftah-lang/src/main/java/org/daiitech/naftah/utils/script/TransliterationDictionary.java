@@ -0,0 +1,279 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.script;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+
+import com.ibm.icu.text.Transliterator;
+import com.ibm.icu.util.VersionInfo;
+
+import static org.daiitech.naftah.errors.ExceptionUtils.newNaftahBugInvalidUsageError;
+import static org.daiitech.naftah.parser.NaftahParserHelper.LEXER_LITERALS;
+import static org.daiitech.naftah.utils.HashUtils.hashString;
+import static org.daiitech.naftah.utils.reflect.ClassUtils.CLASS_SEPARATORS_REGEX;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.JAVA_HOME;
+import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.scanClasses;
+import static org.daiitech.naftah.utils.script.ScriptUtils.CUSTOM_RULES;
+import static org.daiitech.naftah.utils.script.ScriptUtils.LATIN_ARABIC_TRANSLITERATION_ID;
+import static org.daiitech.naftah.utils.script.ScriptUtils.getTransliterator;
+import static org.daiitech.naftah.utils.script.ScriptUtils.transliterateScript;
+
+/**
+ * Memoizing dictionary of the Arabic transliterations of Latin words (class name segments, method
+ * and field names), as produced by {@link ScriptUtils#transliterateToArabicScriptDefault(String...)}:
+ * the default custom rules are applied and the diacritics are removed.
+ * <p>
+ * Transliterating a word with ICU is costly compared to a map lookup, and the same segments
+ * ({@code java}, {@code util}, {@code Abstract}...) come back for almost every scanned class, so each
+ * word is transliterated once and then looked up. The dictionary is:
+ * </p>
+ * <ul>
+ * <li>seeded from the {@value #DICTIONARY_RESOURCE} resource, prebuilt at build time from the JDK
+ * class names (see {@link #main(String[])}),</li>
+ * <li>loaded from and saved to a file next to the class scanning cache (see {@link #load(Path)} and
+ * {@link #save(Path)}).</li>
+ * </ul>
+ * <p>
+ * Persisted dictionaries carry a {@linkplain #getFingerprint() fingerprint} of everything the
+ * transliteration depends on (custom rules, lexer literals and ICU version); a dictionary built with
+ * another fingerprint is ignored.
+ * </p>
+ * <p>
+ * ICU {@link Transliterator} instances are not thread-safe, so misses are transliterated with a
+ * transliterator confined to the current thread, which lets {@link #transliterateAll(Collection)}
+ * transliterate them in parallel.
+ * </p>
+ *
+ * @author Chakib Daii
+ */
+public final class TransliterationDictionary {
+
+	/**
+	 * Name of the prebuilt dictionary resource of the JDK class name segments.
+	 */
+	public static final String DICTIONARY_RESOURCE = "jdk_transliterations.properties";
+
+	/**
+	 * Key under which the fingerprint is stored in a persisted dictionary. It contains a dot, so it
+	 * never collides with a Java identifier segment.
+	 */
+	public static final String FINGERPRINT_KEY = "naftah.transliteration.fingerprint";
+
+	private static final Logger LOGGER = Logger.getLogger(TransliterationDictionary.class.getName());
+
+	/**
+	 * Word to Arabic transliteration.
+	 */
+	private static final Map<String, String> DICTIONARY = new ConcurrentHashMap<>();
+
+	/**
+	 * Transliterator confined to the current thread.
+	 */
+	private static final ThreadLocal<Transliterator> TRANSLITERATOR = ThreadLocal
+			.withInitial(() -> getTransliterator(LATIN_ARABIC_TRANSLITERATION_ID, CUSTOM_RULES));
+
+	/**
+	 * Fingerprint of the current transliteration rules, computed once.
+	 */
+	private static volatile String FINGERPRINT;
+
+	/**
+	 * Whether words were added since the dictionary was last loaded or saved.
+	 */
+	private static volatile boolean DIRTY;
+
+	static {
+		try (InputStream in = TransliterationDictionary.class.getClassLoader().getResourceAsStream(DICTIONARY_RESOURCE)) {
+			if (Objects.nonNull(in)) {
+				load(new InputStreamReader(in, StandardCharsets.UTF_8));
+			}
+		}
+		catch (IOException | IllegalArgumentException ignored) {
+			// the prebuilt dictionary is an optimization only, words are transliterated on demand
+		}
+	}
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 * Always throws a {@link NaftahBugError} when called.
+	 */
+	private TransliterationDictionary() {
+		throw newNaftahBugInvalidUsageError();
+	}
+
+	/**
+	 * Generates the prebuilt dictionary of the JDK class name segments.
+	 *
+	 * @param args the output file path
+	 * @throws IOException if the dictionary cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			throw new IllegalArgumentException("usage: TransliterationDictionary <output file>");
+		}
+		transliterateAll(scanClasses(new String[]{JAVA_HOME}, null)
+				.keySet()
+				.stream()
+				.flatMap(className -> Arrays.stream(className.split(CLASS_SEPARATORS_REGEX)))
+				.collect(Collectors.toSet()));
+		Path path = Path.of(args[0]).toAbsolutePath();
+		Files.createDirectories(path.getParent());
+		DIRTY = true;
+		save(path);
+		LOGGER.info("Transliterated %d words to %s".formatted(size(), path));
+	}
+
+	/**
+	 * Returns the fingerprint of the current transliteration rules: a hash of the custom rules, the
+	 * lexer literals (which get an underscore suffix) and the ICU version.
+	 *
+	 * @return the fingerprint
+	 */
+	public static String getFingerprint() {
+		if (Objects.isNull(FINGERPRINT)) {
+			FINGERPRINT = hashString(   CUSTOM_RULES + "\n" + LEXER_LITERALS + "\n" + VersionInfo.ICU_VERSION,
+										"SHA-1");
+		}
+		return FINGERPRINT;
+	}
+
+	/**
+	 * Returns the Arabic transliteration of a word, transliterating it on a miss.
+	 *
+	 * @param word the Latin word
+	 * @return the Arabic transliteration
+	 */
+	public static String get(String word) {
+		String arabic = DICTIONARY.get(word);
+		if (Objects.isNull(arabic)) {
+			arabic = transliterateScript(TRANSLITERATOR.get(), true, word);
+			String existing = DICTIONARY.putIfAbsent(word, arabic);
+			if (Objects.isNull(existing)) {
+				DIRTY = true;
+			}
+			else {
+				arabic = existing;
+			}
+		}
+		return arabic;
+	}
+
+	/**
+	 * Transliterates the given words in place.
+	 *
+	 * @param words the Latin words
+	 * @return the same array, holding the Arabic transliterations
+	 */
+	public static String[] transliterate(String... words) {
+		for (int i = 0; i < words.length; i++) {
+			words[i] = get(words[i]);
+		}
+		return words;
+	}
+
+	/**
+	 * Makes sure all the given words are in the dictionary, transliterating the missing ones in
+	 * parallel.
+	 *
+	 * @param words the Latin words
+	 */
+	public static void transliterateAll(Collection<String> words) {
+		words.parallelStream().filter(word -> !DICTIONARY.containsKey(word)).forEach(TransliterationDictionary::get);
+	}
+
+	/**
+	 * Returns the number of words in the dictionary.
+	 *
+	 * @return the dictionary size
+	 */
+	public static int size() {
+		return DICTIONARY.size();
+	}
+
+	/**
+	 * Loads a dictionary saved with {@link #save(Path)} into this one. Nothing is loaded if the file
+	 * does not exist or was built with other transliteration rules.
+	 *
+	 * @param path the dictionary file
+	 * @return {@code true} if the dictionary was loaded
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean load(Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return false;
+		}
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return load(reader);
+		}
+	}
+
+	/**
+	 * Loads a dictionary into this one, if it was built with the current transliteration rules.
+	 *
+	 * @param reader the dictionary reader
+	 * @return {@code true} if the dictionary was loaded
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	private static boolean load(Reader reader) throws IOException {
+		Properties properties = new Properties();
+		properties.load(new BufferedReader(reader));
+		if (!getFingerprint().equals(properties.remove(FINGERPRINT_KEY))) {
+			return false;
+		}
+		for (String word : properties.stringPropertyNames()) {
+			DICTIONARY.putIfAbsent(word, properties.getProperty(word));
+		}
+		return true;
+	}
+
+	/**
+	 * Saves the dictionary, with the fingerprint of the current transliteration rules, if words were
+	 * added since it was last loaded or saved (or if the file does not exist).
+	 * <p>
+	 * The file is written aside then moved, so that a concurrent {@link #load(Path)} never reads a
+	 * partially written dictionary.
+	 * </p>
+	 *
+	 * @param path the dictionary file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void save(Path path) throws IOException {
+		if (!DIRTY && Files.exists(path)) {
+			return;
+		}
+		DIRTY = false;
+		Properties properties = new Properties();
+		properties.putAll(DICTIONARY);
+		properties.setProperty(FINGERPRINT_KEY, getFingerprint());
+		Path tempPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+				properties.store(writer, "Naftah transliterations dictionary");
+			}
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+}
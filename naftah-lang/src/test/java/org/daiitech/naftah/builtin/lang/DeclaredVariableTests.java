@@ -0,0 +1,71 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.lang;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.daiitech.naftah.utils.reflect.type.JavaType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeclaredVariableTests {
+
+	@Test
+	void wholeNumberVariableIsHeldUnboxedTest() {
+		var variable = DeclaredVariable.of(0, null, "س", false, JavaType.of(Integer.class), DynamicNumber.of(5));
+		assertTrue(variable.hasUnboxedLong());
+		assertEquals(5, variable.getUnboxedLong());
+
+		assertTrue(variable.setUnboxedLong(70_000));
+		assertEquals(70_000, variable.getUnboxedLong());
+		var boxed = assertInstanceOf(DynamicNumber.class, variable.getValue());
+		assertEquals(70_000, boxed.intValue());
+		assertEquals(Integer.class, boxed.get().getClass());
+
+		// a boxed value changed in place is taken over by the unboxed value
+		boxed.set(3);
+		assertTrue(variable.hasUnboxedLong());
+		assertEquals(3, variable.getUnboxedLong());
+
+		variable.setValue(7);
+		assertTrue(variable.hasUnboxedLong());
+		assertEquals(7, variable.getUnboxedLong());
+		assertEquals(7, variable.getValue());
+
+		variable.setValue(null);
+		assertFalse(variable.hasUnboxedLong());
+		assertNull(variable.getValue());
+	}
+
+	@Test
+	void unboxedValueMustFitDeclaredTypeTest() {
+		var variable = DeclaredVariable.of(0, null, "س", false, JavaType.of(Short.class), DynamicNumber.of(1));
+		assertFalse(variable.setUnboxedLong(Integer.MAX_VALUE));
+		assertEquals(1, variable.getUnboxedLong());
+		assertTrue(variable.setUnboxedLong(-300));
+		assertEquals(-300, ((Number) variable.getValue()).intValue());
+
+		var constant = DeclaredVariable.of(0, null, "ث", true, JavaType.of(Long.class), DynamicNumber.of(1));
+		assertThrows(NaftahBugError.class, () -> constant.setUnboxedLong(2));
+
+		var decimal = DeclaredVariable.of(0, null, "ع", false, JavaType.of(Double.class), 1.5);
+		assertFalse(decimal.hasUnboxedLong());
+		assertFalse(decimal.setUnboxedLong(2));
+	}
+
+	@Test
+	void equalityReadsUnboxedValueTest() {
+		var unboxed = DeclaredVariable.of(0, null, "س", false, JavaType.of(Integer.class), DynamicNumber.of(0));
+		var boxed = DeclaredVariable.of(0, null, "س", false, JavaType.of(Integer.class), DynamicNumber.of(0));
+		unboxed.setUnboxedLong(42);
+		boxed.setValue(DynamicNumber.of(42));
+		assertEquals(boxed, unboxed);
+		assertEquals(boxed.hashCode(), unboxed.hashCode());
+	}
+}
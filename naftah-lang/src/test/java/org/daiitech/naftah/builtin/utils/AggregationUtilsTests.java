@@ -0,0 +1,145 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AggregationUtilsTests {
+
+	private static List<Long> longs(List<?> values) {
+		List<Long> result = new ArrayList<>();
+		for (Object value : values) {
+			result.add(((Number) value).longValue());
+		}
+		return result;
+	}
+
+	@Test
+	void sortUnboxedNumbersTest() {
+		var list = NumericList.of(List.of(5, -3, 9, 0, 5));
+
+		var sorted = AggregationUtils.sort(list, false);
+		assertInstanceOf(NumericList.class, sorted);
+		assertEquals(List.of(-3L, 0L, 5L, 5L, 9L), longs(sorted));
+		assertEquals(List.of(9L, 5L, 5L, 0L, -3L), longs(AggregationUtils.sort(list, true)));
+		// the input is left unchanged
+		assertEquals(List.of(5L, -3L, 9L, 0L, 5L), longs(list));
+
+		var decimals = AggregationUtils.sort(NumericList.of(List.of(2.5, Double.NaN, -1.0)), false);
+		assertTrue(Double.isNaN(((Number) decimals.get(0)).doubleValue()));
+		assertEquals(-1.0, ((Number) decimals.get(1)).doubleValue());
+		assertEquals(2.5, ((Number) decimals.get(2)).doubleValue());
+	}
+
+	@Test
+	void sortBoxedElementsTest() {
+		assertEquals(List.of(1, 2L, DynamicNumber.of(3)), AggregationUtils.sort(List.of(DynamicNumber.of(3), 2L, 1), false));
+		assertEquals(List.of(0.5, 1, 2.25), AggregationUtils.sort(new Object[]{2.25, 1, 0.5}, false));
+		assertEquals(List.of("ج", "ب", "أ"), AggregationUtils.sort(List.of("أ", "ج", "ب"), true));
+		assertEquals(List.of(new BigDecimal("0.1"), 1, new BigInteger("10000000000000000000")),
+						AggregationUtils.sort(List.of(new BigInteger("10000000000000000000"), 1, new BigDecimal("0.1")), false));
+
+		// mixed kinds: numbers before texts, nulls first
+		List<Object> mixed = new ArrayList<>(List.of("ب", 2, "أ", 1));
+		mixed.add(null);
+		var sorted = AggregationUtils.sort(mixed, false);
+		assertEquals(null, sorted.get(0));
+		assertEquals(List.of(1, 2, "أ", "ب"), sorted.subList(1, 5));
+	}
+
+	@Test
+	void sortLargeInputsTest() {
+		Random random = new Random(42);
+		List<Object> values = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			values.add(random.nextInt());
+		}
+		List<Object> expected = new ArrayList<>(values);
+		expected.sort(ObjectUtils::compare);
+
+		assertEquals(expected, AggregationUtils.sort(values, false));
+		assertEquals(longs(expected), longs(AggregationUtils.sort(NumericList.of(values), false)));
+		Collections.reverse(expected);
+		assertEquals(expected, AggregationUtils.sort(values, true));
+	}
+
+	@Test
+	void sortByIsStableTest() {
+		var sorted = AggregationUtils.sortBy(List.of("ثلاثة", "أ", "اثنان", "ب"), value -> ((String) value).length(), false);
+
+		assertEquals(List.of("أ", "ب", "ثلاثة", "اثنان"), sorted);
+	}
+
+	@Test
+	void binarySearchTest() {
+		var list = NumericList.of(List.of(1, 3, 5, 7));
+
+		assertEquals(2, AggregationUtils.binarySearch(list, 5));
+		assertEquals(-3, AggregationUtils.binarySearch(list, 4));
+		assertEquals(-5, AggregationUtils.binarySearch(list, 8));
+		assertEquals(1, AggregationUtils.binarySearch(list, 3.0));
+		assertEquals(1, AggregationUtils.binarySearch(List.of("أ", "ب", "ج"), "ب"));
+		assertEquals(-1, AggregationUtils.binarySearch(Range.of(10, 20), 9));
+		assertEquals(5, AggregationUtils.binarySearch(Range.of(10, 20), 15));
+	}
+
+	@Test
+	void minMaxTest() {
+		assertEquals(-3L, ((Number) AggregationUtils.min(NumericList.of(List.of(5, -3, 9)))).longValue());
+		assertEquals(9L, ((Number) AggregationUtils.max(NumericList.of(List.of(5, -3, 9)))).longValue());
+		assertEquals("أ", AggregationUtils.min(List.of("ب", "أ", "ج")));
+		assertEquals(100_000, ((Number) AggregationUtils.max(Range.of(1, 100_000))).intValue());
+		assertEquals(1, ((Number) AggregationUtils.min(Range.of(100_000, 1))).intValue());
+		assertThrows(NaftahBugError.class, () -> AggregationUtils.max(List.of()));
+	}
+
+	@Test
+	void sumAndMeanTest() {
+		assertEquals(500_500L, AggregationUtils.sum(Range.of(1, 1000)).longValue());
+		assertEquals(6L, AggregationUtils.sum(NumericList.of(List.of(1, 2, 3))).longValue());
+		assertEquals(0L, AggregationUtils.sum(List.of()).longValue());
+		assertEquals(new BigInteger("18446744073709551614"),
+						((DynamicNumber) AggregationUtils.sum(NumericList.of(List.of(Long.MAX_VALUE, Long.MAX_VALUE)))).get());
+		assertEquals(new BigDecimal("0.6"),
+						((DynamicNumber) AggregationUtils.sum(NumericList.of(List.of(0.1, 0.2, 0.3)))).get());
+		assertEquals(((DynamicNumber) AggregationUtils.sum(List.of(0.1, 0.2))).get(),
+						((DynamicNumber) AggregationUtils.sum(NumericList.of(List.of(0.1, 0.2)))).get());
+
+		assertEquals(2.5, AggregationUtils.mean(List.of(1, 2, 3, 4)).doubleValue());
+		assertEquals(50_000.5, AggregationUtils.mean(Range.of(1, 100_000)).doubleValue());
+		assertThrows(NaftahBugError.class, () -> AggregationUtils.mean(List.of()));
+		assertThrows(NaftahBugError.class, () -> AggregationUtils.sum(List.of(1, "أ")));
+	}
+
+	@Test
+	void groupAndCountByTest() {
+		var groups = AggregationUtils.groupBy(List.of(1, 2, 3, 4, 5), value -> (Integer) value % 2 == 0);
+		assertEquals(List.of(false, true), List.copyOf(groups.keySet()));
+		assertEquals(List.of(1, 3, 5), groups.get(false));
+		assertEquals(List.of(2, 4), groups.get(true));
+
+		assertEquals(Map.of(1, 2L, 2, 1L, 5, 1L), AggregationUtils.countBy(List.of("أ", "ب", "ثلاثة", "جج"), value -> ((String) value).length()));
+	}
+
+	@Test
+	void invalidSourceTest() {
+		assertThrows(NaftahBugError.class, () -> AggregationUtils.sort(42, false));
+		assertThrows(NaftahBugError.class, () -> AggregationUtils.sort(null, false));
+	}
+}
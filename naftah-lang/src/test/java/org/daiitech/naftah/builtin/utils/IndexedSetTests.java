@@ -0,0 +1,90 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedSetTests {
+
+	@Test
+	void keepsInsertionOrderWithoutDuplicatesTest() {
+		var set = new IndexedSet<>(List.of(3, 1, 3, 2, 1));
+
+		assertEquals(List.of(3, 1, 2), List.copyOf(set));
+		assertEquals(new LinkedHashSet<>(List.of(3, 1, 2)), set);
+		assertEquals(Set.of(1, 2, 3).hashCode(), set.hashCode());
+		assertFalse(set.add(2));
+		assertTrue(set.contains(1));
+	}
+
+	@Test
+	void positionalAccessTest() {
+		var set = new IndexedSet<>(List.of("أ", "ب", "ج", "د"));
+
+		assertEquals("ج", set.get(2));
+		assertEquals(3, set.indexOf("د"));
+		assertEquals(-1, set.indexOf("هـ"));
+
+		assertEquals("ب", set.remove(1));
+		assertEquals(List.of("أ", "ج", "د"), List.copyOf(set));
+		assertEquals(1, set.indexOf("ج"));
+
+		assertTrue(set.remove("أ"));
+		assertEquals("د", set.get(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> set.get(2));
+	}
+
+	@Test
+	void setKeepsFirstOccurrenceTest() {
+		var set = new IndexedSet<>(List.of(1, 2, 3, 4));
+
+		assertEquals(2, set.set(1, 5));
+		assertEquals(List.of(1, 5, 3, 4), List.copyOf(set));
+
+		// the new value is held before the position: the position is dropped
+		set.set(2, 1);
+		assertEquals(List.of(1, 5, 4), List.copyOf(set));
+
+		// the new value is held after the position: it moves to the position
+		set.set(0, 4);
+		assertEquals(List.of(4, 5), List.copyOf(set));
+		assertEquals(0, set.indexOf(4));
+	}
+
+	@Test
+	void iteratorRemovalTest() {
+		var set = new IndexedSet<>(List.of(1, 2, 3, 4, 5, 6));
+		set.removeIf(element -> element % 2 == 0);
+
+		assertEquals(List.of(1, 3, 5), List.copyOf(set));
+		assertEquals(2, set.indexOf(5));
+	}
+
+	@Test
+	void collectionUtilsUsesPositionalAccessTest() {
+		var set = new IndexedSet<>(List.of(10, 20, 30));
+
+		assertEquals(20, CollectionUtils.getElementAt(set, 1));
+		CollectionUtils.setElementAt(set, 1, 25);
+		assertEquals(List.of(10, 25, 30), List.copyOf(set));
+		assertEquals(30, CollectionUtils.removeElementAt(set, 2));
+		assertEquals(List.of(10, 25), List.copyOf(set));
+
+		var list = new ArrayList<>(List.of(1, 2, 3));
+		CollectionUtils.setElementAt(list, 0, 7);
+		assertEquals(List.of(7, 2, 3), list);
+		assertEquals(2, CollectionUtils.removeElementAt(list, 1));
+		assertEquals(3, CollectionUtils.getElementAt(list, 1));
+	}
+}
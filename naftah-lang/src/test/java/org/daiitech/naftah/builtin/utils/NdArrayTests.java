@@ -0,0 +1,201 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.utils.op.BinaryOperation;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdArrayTests {
+
+	private static NdArray matrix(Object... rows) {
+		return NdArray.of(List.of(rows));
+	}
+
+	private static double[] naiveProduct(double[] a, double[] b, int m, int k, int n) {
+		double[] c = new double[m * n];
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) {
+				double sum = 0;
+				for (int p = 0; p < k; p++) {
+					sum += a[i * k + p] * b[p * n + j];
+				}
+				c[i * n + j] = sum;
+			}
+		}
+		return c;
+	}
+
+	@Test
+	void creationTest() {
+		var integral = matrix(List.of(1, 2, 3), List.of(4, 5, 6));
+		assertArrayEquals(new int[]{2, 3}, integral.getShape());
+		assertTrue(integral.isIntegral());
+		assertEquals(6, integral.get(1, 2).intValue());
+		assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6)).toString(), integral.toList().toString());
+
+		var decimal = NdArray.of(new double[]{0.5, 1});
+		assertFalse(decimal.isIntegral());
+		assertEquals(1.0, decimal.get(1).doubleValue());
+
+		assertArrayEquals(new int[]{0}, NdArray.of(List.of()).getShape());
+		assertEquals(NdArray.identity(2), matrix(List.of(1, 0), List.of(0, 1)));
+
+		assertThrows(NaftahBugError.class, () -> matrix(List.of(1, 2), List.of(3)));
+		assertThrows(NaftahBugError.class, () -> NdArray.of(List.of(1, "2")));
+		assertThrows(NaftahBugError.class, () -> integral.get(2, 0));
+		assertThrows(NaftahBugError.class, () -> integral.get(0));
+	}
+
+	@Test
+	void viewsTest() {
+		var array = NdArray.of(new long[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}).reshape(3, 4);
+
+		var columns = array.slice(1, 1, 4, 2);
+		assertEquals(matrix(List.of(1, 3), List.of(5, 7), List.of(9, 11)), columns);
+		assertEquals(NdArray.of(new long[]{4, 5, 6, 7}), array.select(0, 1));
+		assertEquals(NdArray.of(new long[]{2, 6, 10}), array.select(1, 2));
+		assertEquals(6, ((Number) ((NdArray) array.select(1, 2)).select(0, 1)).intValue());
+
+		var transposed = array.transpose();
+		assertArrayEquals(new int[]{4, 3}, transposed.getShape());
+		assertEquals(7, transposed.get(3, 1).intValue());
+		assertEquals(transposed.transpose(), array);
+
+		// a non-contiguous view is copied when reshaped
+		assertEquals(NdArray.of(new long[]{1, 3, 5, 7, 9, 11}), columns.reshape(6));
+		assertThrows(NaftahBugError.class, () -> array.reshape(5));
+		assertThrows(NaftahBugError.class, () -> array.slice(0, 2, 4, 1));
+	}
+
+	@Test
+	void elementWiseOperationsTest() {
+		var a = matrix(List.of(1, 2), List.of(3, 4));
+		var b = matrix(List.of(10, 20), List.of(30, 40));
+
+		assertEquals(matrix(List.of(11, 22), List.of(33, 44)), NdArray.applyOperation(a, b, BinaryOperation.ADD));
+		assertEquals(matrix(List.of(3, 6), List.of(9, 12)), NdArray.applyOperation(3, a, BinaryOperation.MULTIPLY));
+		assertEquals(matrix(List.of(9, 18), List.of(27, 36)), NdArray.applyOperation(b, List.of(List.of(1, 2), List.of(3, 4)), BinaryOperation.SUBTRACT));
+
+		var halves = (NdArray) NdArray.applyOperation(a.transpose(), 2.0, BinaryOperation.DIVIDE);
+		assertFalse(halves.isIntegral());
+		assertEquals(matrix(List.of(0.5, 1.5), List.of(1.0, 2.0)), halves);
+
+		// decimal sums are precision-checked like the scalar addition
+		var sum = (NdArray) NdArray.applyOperation(NdArray.of(new double[]{0.1, 0.7}), 0.2, BinaryOperation.ADD);
+		assertEquals(0.3, sum.get(0).doubleValue());
+		assertEquals(0.9, sum.get(1).doubleValue());
+
+		// overflowing whole numbers are computed by the scalar path and stored as decimals
+		var overflow = (NdArray) NdArray.applyOperation(NdArray.of(new long[]{Long.MAX_VALUE}), 1, BinaryOperation.ADD);
+		assertFalse(overflow.isIntegral());
+		assertEquals(0x1p63, overflow.get(0).doubleValue());
+
+		// comparisons are computed by the scalar path and return nested lists
+		assertEquals(List.of(List.of(false, false), List.of(true, true)).toString(),
+						NdArray.applyOperation(a, 2, BinaryOperation.GREATER_THAN).toString());
+
+		assertThrows(NaftahBugError.class, () -> NdArray.applyOperation(a, NdArray.of(new long[]{1, 2}), BinaryOperation.ADD));
+	}
+
+	@Test
+	void matrixProductTest() {
+		var a = matrix(List.of(1, 2), List.of(3, 4));
+		var b = matrix(List.of(5, 6), List.of(7, 8));
+
+		var product = (NdArray) a.multiply(b);
+		assertTrue(product.isIntegral());
+		assertEquals(matrix(List.of(19, 22), List.of(43, 50)), product);
+		assertEquals(NdArray.of(new long[]{17, 39}), a.multiply(NdArray.of(new long[]{5, 6})));
+		assertEquals(NdArray.of(new long[]{23, 34}), NdArray.of(new long[]{5, 6}).multiply(a));
+		assertEquals(a, a.multiply(NdArray.identity(2)));
+		assertEquals(11, ((Number) NdArray.of(new long[]{1, 2}).multiply((NdArray) a.select(0, 1))).intValue());
+
+		// whole numbers too large for an exact decimal product
+		var large = NdArray.of(new long[]{3_000_000_000L, 1}).reshape(1, 2);
+		var exact = (NdArray) large.multiply(large.transpose());
+		assertTrue(exact.isIntegral());
+		assertEquals(9_000_000_000_000_000_001L, exact.get(0, 0).longValue());
+
+		// whole numbers whose product overflows a long are widened, not rounded to decimals
+		var overflowing = NdArray.of(new long[]{Long.MAX_VALUE, 2, 1, 1}).reshape(2, 2);
+		var widened = assertInstanceOf(List.class, overflowing.multiply(NdArray.of(new long[]{2, 0, 0, 1}).reshape(2, 2)));
+		assertEquals(new BigInteger("18446744073709551614"), DynamicNumber
+				.of(((List<?>) widened.get(0)).get(0))
+				.asBigInteger());
+		assertEquals(2, ((Number) ((List<?>) widened.get(0)).get(1)).intValue());
+		assertEquals(List.of(2, 1).toString(), widened.get(1).toString());
+		// an overflowing partial sum of a product that fits a long
+		assertEquals(Long.MAX_VALUE, ((Number) NdArray.of(new long[]{Long.MAX_VALUE, 1, -1})
+				.multiply(NdArray.of(new long[]{1, 1, 1}))).longValue());
+
+		assertThrows(NaftahBugError.class, () -> a.multiply(NdArray.of(new long[]{1, 2, 3})));
+	}
+
+	@Test
+	void blockedProductMatchesNaiveProductTest() {
+		Random random = new Random(48);
+		int m = 150;
+		int k = NdArray.DEPTH_BLOCK + 3;
+		int n = NdArray.COLUMN_BLOCK + 17;
+		double[] a = random.doubles(m * k, -1, 1).toArray();
+		double[] b = random.doubles(k * n, -1, 1).toArray();
+
+		var product = (NdArray) NdArray.of(a).reshape(m, k).multiply(NdArray.of(b).reshape(k, n));
+		assertArrayEquals(naiveProduct(a, b, m, k, n), product.toDoubles());
+
+		// a transposed operand is a strided view, copied before the product
+		var transposed = NdArray.of(b).reshape(n, k).transpose();
+		assertArrayEquals(naiveProduct(a, transposed.toDoubles(), m, k, n),
+							((NdArray) NdArray.of(a).reshape(m, k).multiply(transposed)).toDoubles());
+	}
+
+	@Test
+	void vectorKernelMatchesScalarLoopTest() {
+		Random random = new Random(7);
+		double[] x = random.doubles(1_003).toArray();
+		double[] y = random.doubles(1_003).toArray();
+		double[] expected = y.clone();
+		for (int i = 0; i < 1_000; i++) {
+			expected[3 + i] += 0.75 * x[i];
+		}
+
+		VectorOperations.axpy(0.75, x, 0, y, 3, 1_000);
+		assertArrayEquals(expected, y);
+	}
+
+	@Test
+	void reductionsTest() {
+		var array = matrix(List.of(1, 5, 3), List.of(4, 2, 6));
+
+		assertEquals(NdArray.of(new long[]{5, 7, 9}), array.sum(0));
+		assertEquals(NdArray.of(new long[]{9, 12}), array.sum(1));
+		assertEquals(NdArray.of(new double[]{3, 4}), array.mean(1));
+		assertEquals(NdArray.of(new long[]{1, 2, 3}), array.min(0));
+		assertEquals(NdArray.of(new long[]{5, 6}), array.max(1));
+		assertEquals(15, ((Number) NdArray.of(new long[]{4, 5, 6}).sum(0)).intValue());
+		assertEquals(2.5, ((Number) NdArray.of(new double[]{1, 4}).mean(0)).doubleValue());
+
+		var cube = NdArray.of(new long[]{0, 1, 2, 3, 4, 5, 6, 7}).reshape(2, 2, 2);
+		assertEquals(NdArray.of(new long[]{2, 4, 10, 12}).reshape(2, 2), cube.sum(1));
+		assertEquals(NdArray.of(new long[]{1, 9, 5, 13}).reshape(2, 2), cube.transpose().sum(0));
+
+		assertEquals(0x1p64, ((Number) NdArray.of(new long[]{Long.MAX_VALUE, Long.MAX_VALUE, 2}).sum(0)).doubleValue());
+		assertThrows(NaftahBugError.class, () -> array.sum(2));
+		assertThrows(NaftahBugError.class, () -> NdArray.of(List.of()).max(0));
+		assertInstanceOf(NdArray.class, NdArray.zeros(false, 0, 3).sum(0));
+	}
+}
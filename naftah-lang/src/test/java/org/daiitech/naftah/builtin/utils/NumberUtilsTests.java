@@ -11,6 +11,7 @@ import java.util.stream.Stream;
 import org.daiitech.naftah.builtin.lang.DynamicNumber;
 import org.daiitech.naftah.errors.NaftahBugError;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -1312,5 +1313,22 @@ class NumberUtilsTests {
 				expectedNaftahBugError);
 	}
 
+	@Test
+	void addKeepsDecimalPrecision() {
+		// exact binary sums stay floating point
+		Assertions.assertEquals(0.75, ((DynamicNumber) NumberUtils.add(0.5, 0.25)).get());
+		Assertions.assertEquals(2.5f, ((DynamicNumber) NumberUtils.add(2, 0.5f)).get());
+		Assertions.assertEquals(0.2, ((DynamicNumber) NumberUtils.add(0.1, 0.1)).get());
 
+		// inexact ones are the decimal sum of the operands, at the scale of their decimal forms
+		Assertions.assertEquals(new BigDecimal("0.3"), ((DynamicNumber) NumberUtils.add(0.1, 0.2)).get());
+		Assertions.assertEquals(new BigDecimal("3.3"), ((DynamicNumber) NumberUtils.add(1.1f, 2.2)).get());
+		Assertions.assertEquals(new BigDecimal("0.8"), ((DynamicNumber) NumberUtils.add(0.7, 0.1)).get());
+		Assertions.assertEquals(new BigDecimal("100000000000000000000.5"), ((DynamicNumber) NumberUtils.add(1e20, 0.5)).get());
+
+		// operands are left as they are when the sum overflows
+		DynamicNumber max = DynamicNumber.of(Double.MAX_VALUE);
+		NumberUtils.add(max, max);
+		Assertions.assertEquals(Double.MAX_VALUE, max.get());
+	}
 }
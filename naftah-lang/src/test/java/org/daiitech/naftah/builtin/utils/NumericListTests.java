@@ -0,0 +1,111 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumericListTests {
+
+	@Test
+	void wholeNumbersAreStoredUnboxedTest() {
+		var list = assertInstanceOf(NumericList.class, NumericList.of(List.of((byte) 1, (short) 300, 70_000)));
+
+		assertTrue(list.isUnboxed());
+		assertTrue(list.isIntegral());
+		assertEquals(Integer.class, list.getElementType());
+		assertEquals(List.of(1, 300, 70_000), list);
+		assertEquals(300L, list.getLong(1));
+	}
+
+	@Test
+	void dynamicNumbersEscapeAsDynamicNumbersTest() {
+		var list = NumericList.of(List.of(DynamicNumber.of(1), DynamicNumber.of(2)));
+
+		var element = assertInstanceOf(DynamicNumber.class, list.get(0));
+		assertEquals(1, element.intValue());
+	}
+
+	@Test
+	void longWidensStorageTest() {
+		var list = (NumericList) NumericList.of(List.of(1, 2));
+		list.add(0, 5_000_000_000L);
+
+		assertTrue(list.isUnboxed());
+		assertEquals(Long.class, list.getElementType());
+		assertEquals(List.of(5_000_000_000L, 1L, 2L), list);
+	}
+
+	@Test
+	void floatsWidenFromTheirDecimalRepresentationTest() {
+		var list = (NumericList) NumericList.of(List.of(0.1f, 0.2d));
+
+		assertEquals(Double.class, list.getElementType());
+		assertEquals(List.of(0.1d, 0.2d), list);
+	}
+
+	@Test
+	void declaredTypeIsHonoredTest() {
+		var list = (NumericList) NumericList.of(List.of((byte) 1, (byte) 2), int.class);
+
+		assertEquals(Integer.class, list.getElementType());
+		assertInstanceOf(Integer.class, list.get(0));
+		assertInstanceOf(Byte.class, NumericList.of(List.of((byte) 1, (byte) 2)).get(0));
+		assertInstanceOf(Float.class, NumericList.of(List.of(1.5f), Float.class).get(0));
+		assertEquals(List.of(), NumericList.of(List.of(), Integer.class));
+		assertInstanceOf(NumericList.class, NumericList.of(List.of(), Integer.class));
+	}
+
+	@Test
+	void narrowElementsAreReadBackWithTheirTypeTest() {
+		var bytes = (NumericList) NumericList.of(List.of((byte) 1, (byte) -2));
+		assertEquals(Byte.class, bytes.getElementType());
+		assertEquals((byte) -2, bytes.get(1));
+
+		var shorts = (NumericList) NumericList.of(List.of((short) 300, (short) -400));
+		assertEquals(Short.class, shorts.getElementType());
+		assertEquals((short) -400, shorts.get(1));
+	}
+
+	@Test
+	void nonConformingValueConvertsToBoxedTest() {
+		var list = (NumericList) NumericList.of(List.of(1, 2, 3));
+		list.set(1, "اثنان");
+		list.add(BigInteger.TEN);
+
+		assertFalse(list.isUnboxed());
+		assertEquals(List.of(1, "اثنان", 3, BigInteger.TEN), list);
+	}
+
+	@Test
+	void nonNumericElementsAreNotUnboxedTest() {
+		assertInstanceOf(ArrayList.class, NumericList.of(List.of(1, "أ")));
+		assertInstanceOf(ArrayList.class, NumericList.of(List.of(1, 2.5d)));
+		assertInstanceOf(ArrayList.class, NumericList.of(List.of(1, 2), String.class));
+	}
+
+	@Test
+	void listOperationsTest() {
+		List<Object> list = NumericList.of(List.of(1, 2, 3, 4));
+		list.remove(0);
+		list.add(1, 9);
+		list.removeIf(element -> ((Integer) element) == 4);
+
+		assertEquals(List.of(2, 9, 3), list);
+		assertEquals(1, list.indexOf(9));
+		list.clear();
+		assertTrue(list.isEmpty());
+		list.add(7.5d);
+		assertEquals(List.of(7.5d), list);
+	}
+}
@@ -20,6 +20,7 @@ import org.daiitech.naftah.builtin.lang.DeclaredParameter;
 import org.daiitech.naftah.builtin.lang.DeclaredVariable;
 import org.daiitech.naftah.builtin.lang.DynamicNumber;
 import org.daiitech.naftah.builtin.lang.JvmFunction;
+import org.daiitech.naftah.builtin.lang.None;
 import org.daiitech.naftah.parser.LoopSignal;
 import org.daiitech.naftah.utils.reflect.type.JavaType;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -188,6 +189,24 @@ class ObjectUtilsTests {
 				);
 	}
 
+	static Stream<Arguments> compareProvider() {
+		return Stream
+				.of(
+					Arguments.of(null, null, 0),
+					Arguments.of(null, "abc", -1),
+					Arguments.of("abc", None.get(), 1),
+					Arguments.of("abc", "abd", -1),
+					Arguments.of(2, 10L, -1),
+					Arguments.of(DynamicNumber.of(10), 10.0, 0),
+					Arguments.of(new BigDecimal("2.5"), 2, 1),
+					Arguments.of(new BigInteger("12345678901234567890"), Long.MAX_VALUE, 1),
+					Arguments.of(10, "abc", -1),
+					Arguments.of("abc", true, 1),
+					Arguments.of(true, false, 1),
+					Arguments.of(List.of(1), 1, 1)
+				);
+	}
+
 	@ParameterizedTest
 	@MethodSource("isTruthyProvider")
 	void isTruthy(  Object input,
@@ -229,4 +248,13 @@ class ObjectUtilsTests {
 														Object expectedResult) {
 		assertEquals(ObjectUtils.isSimpleOrBuiltinOrCollectionOrMapOfSimpleType(input), expectedResult);
 	}
+
+	@ParameterizedTest
+	@MethodSource("compareProvider")
+	void compare(   Object left,
+					Object right,
+					int expectedSign) {
+		assertEquals(Integer.signum(ObjectUtils.compare(left, right)), expectedSign);
+		assertEquals(Integer.signum(ObjectUtils.compare(right, left)), -expectedSign);
+	}
 }
@@ -0,0 +1,110 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineTests {
+
+	private static int intValue(Object value) {
+		return ((Number) value).intValue();
+	}
+
+	@Test
+	void stagesAreLazyAndFusedTest() {
+		AtomicInteger calls = new AtomicInteger();
+		var pipeline = Pipeline
+				.of(Range.of(1, 100_000_000))
+				.map(value -> {
+					calls.incrementAndGet();
+					return intValue(value) * intValue(value);
+				})
+				.filter(value -> intValue(value) % 2 == 0)
+				.limit(3);
+
+		assertEquals(0, calls.get());
+		assertEquals(List.of(4, 16, 36), pipeline.toList());
+		// a single pass stopping at the sixth element of the source
+		assertEquals(6, calls.get());
+	}
+
+	@Test
+	void pipelinesAreReusableAndImmutableTest() {
+		var source = Pipeline.of(new int[]{1, 2, 3, 4});
+		var doubled = source.map(value -> intValue(value) * 2);
+
+		assertEquals(List.of(2, 4, 6, 8), doubled.toList());
+		assertEquals(List.of(2, 4, 6, 8), doubled.toList());
+		assertEquals(List.of(3, 4), source.skip(2).toList());
+		assertEquals(4, source.count());
+		assertEquals(20, doubled.reduce(0, (left, right) -> intValue(left) + intValue(right)));
+		assertInstanceOf(ArrayList.class, doubled.toList());
+	}
+
+	@Test
+	void singleUseSourcesCannotBeRunTwiceTest() {
+		var overIterator = Pipeline.of(List.of(1, 2, 3).iterator()).map(value -> intValue(value) + 1);
+		assertEquals(List.of(2, 3, 4), overIterator.toList());
+		assertThrows(NaftahBugError.class, overIterator::count);
+
+		var overStream = Pipeline.of(Stream.of(1, 2, 3));
+		assertEquals(3, overStream.count());
+		assertThrows(NaftahBugError.class, () -> overStream.filter(value -> intValue(value) > 1).toList());
+		assertThrows(NaftahBugError.class, () -> overStream.parallel(2).toList());
+	}
+
+	@Test
+	void countRunsTheStagesTest() {
+		AtomicInteger calls = new AtomicInteger();
+		var pipeline = Pipeline.of(List.of(1, 2, 3)).map(value -> calls.incrementAndGet());
+
+		assertEquals(3, pipeline.count());
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	void parallelTerminalsKeepEncounterOrderTest() {
+		var pipeline = Pipeline.of(Range.of(1, 10_000)).map(value -> intValue(value) * 2L).parallel(4);
+
+		assertTrue(pipeline.isParallel());
+		assertFalse(pipeline.sequential().isParallel());
+
+		List<Object> values = pipeline.toList();
+		assertEquals(10_000, values.size());
+		for (int i = 0; i < values.size(); i++) {
+			assertEquals(2L * (i + 1), values.get(i));
+		}
+		assertEquals(100_010_000L, pipeline.reduce(0L, (left, right) -> (Long) left + (Long) right));
+		assertEquals(10_000, pipeline.count());
+	}
+
+	@Test
+	void parallelErrorsAreRethrownTest() {
+		var pipeline = Pipeline.of(Range.of(1, 100)).map(value -> {
+			throw new NaftahBugError("خطأ");
+		}).parallel();
+
+		assertEquals("خطأ", assertThrows(NaftahBugError.class, pipeline::toList).getBugText());
+	}
+
+	@Test
+	void invalidPipelinesTest() {
+		assertThrows(NaftahBugError.class, () -> Pipeline.of(null));
+		assertThrows(NaftahBugError.class, () -> Pipeline.of(42));
+		assertThrows(NaftahBugError.class, () -> Pipeline.of(List.of()).limit(-1));
+		assertThrows(NaftahBugError.class, () -> Pipeline.of(List.of()).parallel(0));
+	}
+}
@@ -0,0 +1,87 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeTests {
+
+	private static List<Long> longs(Range range) {
+		List<Long> values = new ArrayList<>();
+		for (Object value : range) {
+			values.add(((Number) value).longValue());
+		}
+		return values;
+	}
+
+	@Test
+	void sizeIsComputedArithmeticallyTest() {
+		assertEquals(100_000_000, Range.of(1, 100_000_000).size());
+		assertEquals(21, Range.of(0, 100, 5).size());
+		assertEquals(20, Range.of(0, 99, 5).size());
+		assertEquals(1, Range.of(7, 7).size());
+		assertEquals(0, Range.of(1, 10, -1).size());
+	}
+
+	@Test
+	void elementsAreComputedFromTheirIndexTest() {
+		assertEquals(List.of(10L, 7L, 4L, 1L), longs(Range.of(10, 1, -3)));
+		assertEquals(List.of(3L, 2L, 1L), longs(Range.of(3, 1)));
+
+		var range = Range.of(0, 100_000_000, 5);
+		assertEquals(15, ((Number) range.get(3)).intValue());
+		assertEquals(100_000_000, ((Number) range.get(range.size() - 1)).intValue());
+		assertInstanceOf(DynamicNumber.class, range.get(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> range.get(range.size()));
+	}
+
+	@Test
+	void arabicIndicDigitsTest() {
+		assertEquals(List.of(1L, 2L, 3L), longs(Range.of("١", "٣")));
+		assertEquals(4, Range.of("٠", "٩", "٣").size());
+	}
+
+	@Test
+	void decimalRangesDoNotAccumulateErrorsTest() {
+		var range = Range.of(0, 1, 0.1);
+
+		assertEquals(11, range.size());
+		assertEquals(0.3, ((Number) range.get(3)).doubleValue());
+		assertEquals(1.0, ((Number) range.get(10)).doubleValue());
+
+		var big = Range.of(new BigDecimal("0.5"), 2, new BigDecimal("0.5"));
+		assertEquals(new BigDecimal("1.5"), ((DynamicNumber) big.get(2)).get());
+	}
+
+	@Test
+	void membershipIsComputedArithmeticallyTest() {
+		var range = Range.of(0, 100_000_000, 5);
+
+		assertTrue(range.contains(DynamicNumber.of(95)));
+		assertFalse(range.contains(96));
+		assertFalse(range.contains(-5));
+		assertEquals(19, range.indexOf(95));
+		assertEquals(-1, range.indexOf("95"));
+	}
+
+	@Test
+	void invalidRangesTest() {
+		assertThrows(NaftahBugError.class, () -> Range.of(1, 10, 0));
+		assertThrows(NaftahBugError.class, () -> Range.of(0, Double.NaN, 1));
+		assertThrows(NaftahBugError.class, () -> Range.of(0, Long.MAX_VALUE));
+		assertThrows(UnsupportedOperationException.class, () -> Range.of(1, 3).add(4));
+	}
+}
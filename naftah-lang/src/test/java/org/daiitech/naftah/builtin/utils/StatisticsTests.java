@@ -0,0 +1,132 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatisticsTests {
+
+	private static List<Long> longs(List<?> values) {
+		List<Long> result = new ArrayList<>();
+		for (Object value : values) {
+			result.add(((Number) value).longValue());
+		}
+		return result;
+	}
+
+	@Test
+	void summaryTest() {
+		var statistics = Statistics.of(NumericList.of(List.of(2, 4, 4, 4, 5, 5, 7, 9)));
+
+		assertEquals(8, statistics.getCount());
+		assertEquals(40.0, statistics.getSum());
+		assertEquals(5.0, statistics.getMean());
+		assertEquals(32.0 / 7, statistics.getVariance(), 1e-12);
+		assertEquals(Math.sqrt(32.0 / 7), statistics.getStandardDeviation(), 1e-12);
+		assertEquals(2.0, statistics.getMin());
+		assertEquals(9.0, statistics.getMax());
+
+		// boxed elements and arrays are read the same way
+		var boxed = Statistics.of(List.of(DynamicNumber.of(2), 4L, 4.0, 4, 5, 5, 7, 9));
+		assertEquals(statistics.getVariance(), boxed.getVariance(), 1e-12);
+		assertEquals(5.0, Statistics.of(new int[]{4, 6}).getMean());
+
+		assertEquals(0.0, Statistics.of(List.of(3)).getVariance());
+		assertEquals(0, Statistics.of(List.of()).getCount());
+	}
+
+	@Test
+	void summaryIsNumericallyStableTest() {
+		// the sum of squares formula loses every digit of the variance of these numbers
+		double[] values = new double[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 1e9 + (i % 2 == 0 ? 1 : -1);
+		}
+		var statistics = Statistics.of(values);
+		assertEquals(1e9, statistics.getMean(), 1e-6);
+		assertEquals(1000.0 / 999, statistics.getVariance(), 1e-6);
+
+		// compensated summation keeps the small terms a naive sum drops
+		double[] terms = new double[10_001];
+		Arrays.fill(terms, 1e-16);
+		terms[0] = 1;
+		assertEquals(1 + 1e-12, Statistics.of(terms).getSum(), 1e-15);
+	}
+
+	@Test
+	void vectorKernelMatchesScalarKernelTest() {
+		Random random = new Random(47);
+		double[] values = new double[1_003];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextGaussian() * 1000 + 50;
+		}
+
+		var scalar = Statistics.summarize(values, 0, values.length);
+		var vector = VectorOperations.statistics(values, values.length);
+		assertEquals(scalar.getCount(), vector.getCount());
+		assertEquals(scalar.getSum(), vector.getSum(), 1e-9);
+		assertEquals(scalar.getMean(), vector.getMean(), 1e-9);
+		assertEquals(scalar.getVariance(), vector.getVariance(), 1e-6);
+		assertEquals(scalar.getMin(), vector.getMin());
+		assertEquals(scalar.getMax(), vector.getMax());
+	}
+
+	@Test
+	void percentileTest() {
+		var values = List.of(15, 20, 35, 40, 50);
+
+		assertEquals(15.0, Statistics.percentile(values, 0));
+		assertEquals(35.0, Statistics.percentile(values, 50));
+		assertEquals(50.0, Statistics.percentile(values, 100));
+		assertEquals(29.0, Statistics.percentile(values, 40), 1e-12);
+		assertEquals(46.0, Statistics.percentile(values, 90), 1e-12);
+		assertEquals(2.5, Statistics.median(NumericList.of(List.of(4, 1, 3, 2))));
+
+		Random random = new Random(7);
+		double[] randoms = new double[10_001];
+		for (int i = 0; i < randoms.length; i++) {
+			randoms[i] = random.nextInt(100);
+		}
+		double[] sorted = randoms.clone();
+		Arrays.sort(sorted);
+		assertEquals(sorted[2_500], Statistics.percentile(randoms, 25));
+		assertEquals(sorted[9_900], Statistics.percentile(randoms, 99));
+
+		assertTrue(Double.isNaN(Statistics.percentile(List.of(1.0, Double.NaN), 50)));
+	}
+
+	@Test
+	void histogramTest() {
+		var counts = Statistics.histogram(List.of(1, 2, 2, 3, 3, 3, 4), 3);
+		assertInstanceOf(NumericList.class, counts);
+		assertEquals(List.of(1L, 2L, 4L), longs(counts));
+
+		// out of range numbers are not counted, the maximum falls in the last bin
+		assertEquals(List.of(1L, 0L, 2L), longs(Statistics.histogram(List.of(-1, 0, 8, 10, 11), 3, 0, 10)));
+		assertEquals(List.of(4L, 0L), longs(Statistics.histogram(List.of(5, 5, 5, 5), 2)));
+		assertEquals(List.of(0L, 0L), longs(Statistics.histogram(List.of(), 2)));
+	}
+
+	@Test
+	void invalidInputsTest() {
+		assertThrows(NaftahBugError.class, () -> Statistics.of(List.of(1, "2")));
+		assertThrows(NaftahBugError.class, () -> Statistics.of(42));
+		assertThrows(NaftahBugError.class, () -> Statistics.percentile(List.of(), 50));
+		assertThrows(NaftahBugError.class, () -> Statistics.percentile(List.of(1), 101));
+		assertThrows(NaftahBugError.class, () -> Statistics.histogram(List.of(1), 0));
+		assertThrows(NaftahBugError.class, () -> Statistics.histogram(List.of(1), 2, 5, 1));
+	}
+}
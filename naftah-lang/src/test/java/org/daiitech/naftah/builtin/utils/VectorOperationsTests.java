@@ -0,0 +1,139 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.builtin.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.builtin.utils.op.BinaryOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VectorOperationsTests {
+
+	private static final int SIZE = 131;
+
+	private static Stream<Arguments> integralOperationsProvider() {
+		return Stream
+				.of(
+					BinaryOperation.ADD,
+					BinaryOperation.SUBTRACT,
+					BinaryOperation.MULTIPLY,
+					BinaryOperation.DIVIDE,
+					BinaryOperation.MODULO,
+					BinaryOperation.BITWISE_AND,
+					BinaryOperation.BITWISE_OR,
+					BinaryOperation.BITWISE_XOR,
+					BinaryOperation.ELEMENTWISE_ADD,
+					BinaryOperation.ELEMENTWISE_SUBTRACT,
+					BinaryOperation.ELEMENTWISE_MULTIPLY,
+					BinaryOperation.ELEMENTWISE_MODULO
+				)
+				.map(Arguments::of);
+	}
+
+	private static Stream<Arguments> decimalOperationsProvider() {
+		return Stream
+				.of(BinaryOperation.SUBTRACT, BinaryOperation.MULTIPLY, BinaryOperation.DIVIDE)
+				.map(Arguments::of);
+	}
+
+	private static NumericList numbers(int from, int step) {
+		List<Object> values = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++) {
+			values.add(from + i * step);
+		}
+		return (NumericList) NumericList.of(values);
+	}
+
+	private static NumericList decimals(double from, double step) {
+		List<Object> values = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++) {
+			values.add(from + i * step);
+		}
+		return (NumericList) NumericList.of(values);
+	}
+
+	@ParameterizedTest
+	@MethodSource("integralOperationsProvider")
+	void integralKernelsMatchScalarPathTest(BinaryOperation operation) {
+		NumericList left = numbers(-4_000, 97);
+		NumericList right = numbers(1, 3);
+
+		List<Object> result = VectorOperations.applyOperation(left, right, operation);
+		assertNotNull(result);
+		for (int i = 0; i < SIZE; i++) {
+			Number expected = (Number) ObjectUtils.applyOperation(left.get(i), right.get(i), operation);
+			assertEquals(expected.longValue(), ((Number) result.get(i)).longValue(), operation + " at " + i);
+		}
+
+		result = VectorOperations.applyOperation(left, 7, true, operation);
+		assertNotNull(result);
+		for (int i = 0; i < SIZE; i++) {
+			Number expected = (Number) ObjectUtils.applyOperation(left.get(i), 7, operation);
+			assertEquals(expected.longValue(), ((Number) result.get(i)).longValue(), operation + " at " + i);
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("decimalOperationsProvider")
+	void decimalKernelsMatchScalarPathTest(BinaryOperation operation) {
+		NumericList left = decimals(-12.5, 0.75);
+		NumericList right = decimals(1.25, 0.5);
+
+		List<Object> result = VectorOperations.applyOperation(left, right, operation);
+		assertNotNull(result);
+		for (int i = 0; i < SIZE; i++) {
+			Number expected = (Number) ObjectUtils.applyOperation(left.get(i), right.get(i), operation);
+			assertEquals(expected.doubleValue(), ((Number) result.get(i)).doubleValue(), operation + " at " + i);
+		}
+	}
+
+	private static Number unwrap(Object number) {
+		return number instanceof DynamicNumber dynamicNumber ? dynamicNumber.get() : (Number) number;
+	}
+
+	@Test
+	void chainedBitwiseOperationsMatchScalarPathTest() {
+		List<Object> values = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++) {
+			values.add(i % 2 == 0 ? 1 : 200);
+		}
+		NumericList list = (NumericList) NumericList.of(values);
+
+		// the kernel result is the left operand of the next operation, which narrows the right one to its type
+		List<Object> result = VectorOperations.applyOperation(list, 0, true, BinaryOperation.BITWISE_OR);
+		assertNotNull(result);
+		for (int i = 0; i < SIZE; i++) {
+			Object scalar = ObjectUtils.applyOperation(list.get(i), 0, BinaryOperation.BITWISE_OR);
+			assertEquals(unwrap(scalar).getClass(), unwrap(result.get(i)).getClass(), "type at " + i);
+
+			Number expected = unwrap(ObjectUtils.applyOperation(scalar, 256, BinaryOperation.BITWISE_OR));
+			Number actual = unwrap(ObjectUtils.applyOperation(result.get(i), 256, BinaryOperation.BITWISE_OR));
+			assertEquals(expected.longValue(), actual.longValue(), "value at " + i);
+		}
+	}
+
+	@Test
+	void unsupportedCasesFallBackToScalarPathTest() {
+		NumericList numbers = numbers(1, 1);
+
+		// decimal addition is precision checked by the scalar path
+		assertNull(VectorOperations.applyOperation(decimals(0.1, 0.1), decimals(0.2, 0.1), BinaryOperation.ADD));
+		// division by zero
+		assertNull(VectorOperations.applyOperation(numbers, 0, true, BinaryOperation.DIVIDE));
+		// long overflow is promoted by the scalar path
+		assertNull(VectorOperations.applyOperation(numbers, Long.MAX_VALUE, true, BinaryOperation.ADD));
+		// sizes differ
+		assertNull(VectorOperations.applyOperation(numbers, (NumericList) NumericList.of(List.of(1)), BinaryOperation.ADD));
+	}
+}
@@ -0,0 +1,71 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.daemon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.daiitech.naftah.errors.NaftahBugError;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NaftahDaemonProtocolTests {
+
+	private static DataInputStream inputOf(ByteArrayOutputStream bytes) {
+		return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test
+	void requestRoundTripTest() throws IOException {
+		String script = "اطبع(\"السلام عليكم\")\n".repeat(5000);
+		var request = new NaftahDaemonProtocol.Request(script,
+														false,
+														List.of("أ", "b"),
+														Map.of("naftah.debug", "true"));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		NaftahDaemonProtocol.writeRequest(new DataOutputStream(bytes), request);
+
+		assertEquals(request, NaftahDaemonProtocol.readRequest(inputOf(bytes)));
+	}
+
+	@Test
+	void versionMismatchTest() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataOutputStream(bytes).writeInt(NaftahDaemonProtocol.VERSION + 1);
+
+		assertThrows(NaftahBugError.class, () -> NaftahDaemonProtocol.readRequest(inputOf(bytes)));
+	}
+
+	@Test
+	void framesEndOnCharacterBoundaryTest() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		var stream = new NaftahDaemonProtocol.FrameOutputStream(out, NaftahDaemonProtocol.STDOUT);
+		byte[] text = "نفطه 😀".getBytes(StandardCharsets.UTF_8);
+		// split inside the first letter, then inside the 4-byte emoji
+		stream.write(text, 0, 1);
+		stream.write(text, 1, text.length - 3);
+		stream.write(text, text.length - 2, 2);
+		NaftahDaemonProtocol.writeExit(out, 0);
+
+		DataInputStream in = inputOf(bytes);
+		StringBuilder decoded = new StringBuilder();
+		int frames = 0;
+		while (in.readByte() == NaftahDaemonProtocol.STDOUT) {
+			decoded.append(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8));
+			frames++;
+		}
+		assertEquals(0, in.readInt());
+		assertEquals(2, frames);
+		assertEquals("نفطه 😀", decoded.toString());
+	}
+}
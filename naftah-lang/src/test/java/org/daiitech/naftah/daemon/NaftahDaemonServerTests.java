@@ -0,0 +1,63 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.daemon;
+
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.UserPrincipal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class NaftahDaemonServerTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void socketIsOwnerOnlyTest() throws IOException {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+		Path socketPath = tempDir.resolve("daemon").resolve("daemon.sock");
+
+		try (ServerSocketChannel ignored = NaftahDaemonServer.bind(socketPath)) {
+			assertEquals(NaftahDaemonServer.SOCKET_PERMISSIONS, Files.getPosixFilePermissions(socketPath));
+			assertEquals(   NaftahDaemonServer.SOCKET_DIRECTORY_PERMISSIONS,
+							Files.getPosixFilePermissions(socketPath.getParent()));
+		}
+	}
+
+	@Test
+	void staleSocketIsReplacedTest() throws IOException {
+		Path socketPath = tempDir.resolve("daemon.sock");
+		Files.writeString(socketPath, "stale");
+
+		try (ServerSocketChannel ignored = NaftahDaemonServer.bind(socketPath)) {
+			assertTrue(NaftahDaemonServer.isRunning(socketPath));
+		}
+	}
+
+	@Test
+	void connectionOfTheOwnerIsServedTest() throws IOException {
+		Path socketPath = tempDir.resolve("daemon.sock");
+		UserPrincipal owner = FileSystems
+				.getDefault()
+				.getUserPrincipalLookupService()
+				.lookupPrincipalByName(System.getProperty("user.name"));
+
+		try (   ServerSocketChannel server = NaftahDaemonServer.bind(socketPath);
+				SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+				SocketChannel client = server.accept()) {
+			assertTrue(NaftahDaemonServer.isOwnedBy(client, owner));
+		}
+	}
+}
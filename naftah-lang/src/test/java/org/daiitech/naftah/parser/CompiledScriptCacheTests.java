@@ -0,0 +1,114 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.daiitech.naftah.Naftah.CACHE_SCANNING_RESULTS_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_CLASSPATH_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_JDK_PROPERTY;
+import static org.daiitech.naftah.Naftah.initConfig;
+import static org.daiitech.naftah.TestUtils.assertEquals;
+import static org.daiitech.naftah.parser.DefaultContext.bootstrap;
+import static org.daiitech.naftah.parser.DefaultContext.cleanClassThreadLocals;
+import static org.daiitech.naftah.parser.NaftahParserHelper.doRun;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
+import static org.daiitech.naftah.utils.JulLoggerConfig.initializeFromResources;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledScriptCacheTests {
+
+	private static final String SCRIPT = """
+											دالة دالة_المضروب(عدد_مضروب تعيين 10) : عدد_طويل {
+											إذا عدد_مضروب أصغر_أو_يساوي ١ إذن {
+											ارجع 1
+											}
+											أنهي
+
+											ارجع عدد_مضروب ضارب دالة_المضروب(عدد_مضروب ناقص 1)
+											}
+											دالة_المضروب(5)
+											""";
+
+	@BeforeAll
+	static void setupAll() throws IOException {
+		initializeFromResources(LOGGING_FILE);
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(false));
+		System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(false));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(false));
+		initConfig();
+		bootstrap(false);
+	}
+
+	private static NaftahParser.ProgramContext roundTrip(NaftahParser.ProgramContext program, String key) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompiledScriptCache.write(program, key, out);
+		return CompiledScriptCache.read(new ByteArrayInputStream(out.toByteArray()), key);
+	}
+
+	@BeforeEach
+	void setup() {
+		DefaultContext.clear();
+		cleanClassThreadLocals();
+	}
+
+	@Test
+	void roundTripTest() throws Exception {
+		var parser = prepareRun(getCharStream(SCRIPT), NaftahErrorListener.INSTANCE);
+		var program = parser.program();
+		var cached = roundTrip(program, CompiledScriptCache.getKey(SCRIPT));
+
+		assertEquals(cached.toStringTree(parser), program.toStringTree(parser));
+		assertEquals(cached.getStop().getLine(), program.getStop().getLine());
+		assertEquals(doRun(parser, program, List.of()), 120);
+		DefaultContext.clear();
+		cleanClassThreadLocals();
+		assertEquals(doRun(parser, cached, List.of()), 120);
+	}
+
+	@Test
+	void keyMismatchTest() throws Exception {
+		var program = prepareRun(getCharStream(SCRIPT), NaftahErrorListener.INSTANCE).program();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompiledScriptCache.write(program, CompiledScriptCache.getKey(SCRIPT), out);
+
+		assertNotEquals(CompiledScriptCache.getKey(SCRIPT + " "), CompiledScriptCache.getKey(SCRIPT));
+		assertThrows(   IOException.class,
+						() -> CompiledScriptCache
+								.read(  new ByteArrayInputStream(out.toByteArray()),
+										CompiledScriptCache.getKey(SCRIPT + " ")));
+	}
+
+	@Test
+	void unreadableCacheIsDeletedTest(@TempDir Path tempDir) throws Exception {
+		String key = CompiledScriptCache.getKey(SCRIPT);
+		Path path = tempDir.resolve(key + CompiledScriptCache.COMPILED_EXTENSION);
+		Files.write(path, new byte[]{1, 2, 3});
+
+		assertNull(CompiledScriptCache.load(path, key));
+		assertFalse(Files.exists(path));
+
+		var program = prepareRun(getCharStream(SCRIPT), NaftahErrorListener.INSTANCE).program();
+		CompiledScriptCache.write(program, key, path);
+		assertNotNull(CompiledScriptCache.load(path, key));
+		assertTrue(Files.exists(path));
+	}
+}
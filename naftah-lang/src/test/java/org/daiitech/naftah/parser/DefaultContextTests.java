@@ -0,0 +1,102 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.daiitech.naftah.Naftah.CACHE_SCANNING_RESULTS_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_CLASSPATH_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_JDK_PROPERTY;
+import static org.daiitech.naftah.Naftah.initConfig;
+import static org.daiitech.naftah.parser.DefaultContext.ARABIC_CLASS_QUALIFIERS;
+import static org.daiitech.naftah.parser.DefaultContext.JVM_FUNCTIONS;
+import static org.daiitech.naftah.parser.DefaultContext.MATERIALIZED_JVM_CLASSES;
+import static org.daiitech.naftah.parser.DefaultContext.NON_INSTANTIABLE_JVM_CLASSES;
+import static org.daiitech.naftah.parser.DefaultContext.NON_INSTANTIABLE_JVM_CLASSES_CACHE_SIZE;
+import static org.daiitech.naftah.parser.DefaultContext.bootstrap;
+import static org.daiitech.naftah.parser.DefaultContext.materializeJvmClassInitializers;
+import static org.daiitech.naftah.parser.DefaultContext.materializeJvmClassMembers;
+import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
+import static org.daiitech.naftah.utils.JulLoggerConfig.initializeFromResources;
+import static org.daiitech.naftah.utils.reflect.ClassUtils.QUALIFIED_CALL_SEPARATOR;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultContextTests {
+
+	@BeforeAll
+	static void setupAll() throws IOException {
+		initializeFromResources(LOGGING_FILE);
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(false));
+		System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(false));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(false));
+		initConfig();
+		bootstrap(false);
+	}
+
+	/**
+	 * Runs a lookup with the given Arabic qualified names resolved to the given classes.
+	 */
+	private static void withArabicClassQualifiers(Map<String, String> arabicClassQualifiers, Runnable lookup) {
+		var previous = ARABIC_CLASS_QUALIFIERS;
+		ARABIC_CLASS_QUALIFIERS = arabicClassQualifiers;
+		try {
+			lookup.run();
+		}
+		finally {
+			ARABIC_CLASS_QUALIFIERS = previous;
+		}
+	}
+
+	private static boolean hasFunctionsOf(String arabicQualifiedName) {
+		return JVM_FUNCTIONS
+				.keySet()
+				.stream()
+				.anyMatch(qualifiedCall -> qualifiedCall.startsWith(arabicQualifiedName + QUALIFIED_CALL_SEPARATOR));
+	}
+
+	@Test
+	void classMembersAreMaterializedOnFirstLookupTest() {
+		String name = "اختبار:رياضيات";
+		withArabicClassQualifiers(Map.of(name, "java.lang.StrictMath"), () -> {
+			assertFalse(MATERIALIZED_JVM_CLASSES.contains(name));
+			assertFalse(hasFunctionsOf(name));
+
+			assertTrue(materializeJvmClassMembers(name));
+			assertTrue(MATERIALIZED_JVM_CLASSES.contains(name));
+			assertTrue(hasFunctionsOf(name));
+		});
+	}
+
+	@Test
+	void classMembersAreMaterializedAfterAFailedLookupTest() {
+		String name = "اختبار:صنف";
+		withArabicClassQualifiers(  Map.of(name, "org.daiitech.naftah.MissingClass"),
+									() -> assertFalse(materializeJvmClassMembers(name)));
+		assertFalse(MATERIALIZED_JVM_CLASSES.contains(name));
+
+		withArabicClassQualifiers(  Map.of(name, "java.lang.StrictMath"),
+									() -> assertTrue(materializeJvmClassMembers(name)));
+		assertTrue(MATERIALIZED_JVM_CLASSES.contains(name));
+		assertTrue(hasFunctionsOf(name));
+	}
+
+	@Test
+	void nonInstantiableClassesCacheIsBoundedTest() {
+		for (int i = 0; i <= NON_INSTANTIABLE_JVM_CLASSES_CACHE_SIZE; i++) {
+			assertNull(materializeJvmClassInitializers("اختبار:مفقود" + i));
+		}
+		assertTrue(NON_INSTANTIABLE_JVM_CLASSES.size() <= NON_INSTANTIABLE_JVM_CLASSES_CACHE_SIZE);
+
+		String name = "اختبار:باني_نصوص";
+		withArabicClassQualifiers(  Map.of(name, "java.lang.StringBuilder"),
+									() -> assertNotNull(materializeJvmClassInitializers(name)));
+	}
+}
@@ -0,0 +1,83 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.jupiter.api.Test;
+
+import static org.daiitech.naftah.parser.NaftahErrorListener.ERROR_HANDLER_INSTANCE;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NaftahParserHelperTests {
+
+	private static final String SCRIPT = """
+											متغير س تعيين 1
+											إذا س أصغر_أو_يساوي ١ إذن {
+											إطبع("س")
+											}
+											أنهي
+											""";
+
+	private static final String INVALID_SCRIPT = "متغير تعيين (";
+
+	@Test
+	void twoStageParseMatchesLLParseTest() {
+		var llParser = prepareRun(getCharStream(SCRIPT), List.of());
+		llParser.getInterpreter().setPredictionMode(PredictionMode.LL);
+		String expected = llParser.program().toStringTree(llParser);
+
+		var parser = prepareRun(getCharStream(SCRIPT), NaftahErrorListener.INSTANCE);
+		assertEquals(expected, parse(parser, NaftahParser::program).toStringTree(parser));
+		// the parser configuration is restored
+		assertEquals(PredictionMode.LL, parser.getInterpreter().getPredictionMode());
+		assertEquals(List.of(NaftahErrorListener.INSTANCE), parser.getErrorListeners());
+		assertSame(ERROR_HANDLER_INSTANCE, parser.getErrorHandler());
+	}
+
+	private static int countSyntaxErrors(boolean twoStages) {
+		int[] reported = {0};
+		var parser = prepareRun(getCharStream(INVALID_SCRIPT), new BaseErrorListener() {
+			@Override
+			public void syntaxError(Recognizer<?, ?> recognizer,
+									Object offendingSymbol,
+									int line,
+									int charPositionInLine,
+									String msg,
+									RecognitionException e) {
+				reported[0]++;
+			}
+		});
+		// recover instead of bailing out, so that every error is reported
+		parser.setErrorHandler(new DefaultErrorStrategy());
+		if (twoStages) {
+			parse(parser, NaftahParser::program);
+		}
+		else {
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			parser.program();
+		}
+		return reported[0];
+	}
+
+	@Test
+	void syntaxErrorsReportedByLLStageOnlyTest() {
+		// the SLL stage is silent: the errors reported are those of a single LL parse
+		assertEquals(countSyntaxErrors(false), countSyntaxErrors(true));
+
+		var parser = prepareRun(getCharStream(INVALID_SCRIPT), NaftahErrorListener.INSTANCE);
+		assertThrows(ParseCancellationException.class, () -> parse(parser, NaftahParser::program));
+	}
+}
@@ -0,0 +1,60 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParserCachesTests {
+
+	private static final String SCRIPT = """
+											متغير س تعيين 1
+											إذا س أصغر_أو_يساوي ١ إذن {
+											إطبع("س")
+											}
+											أنهي
+											""";
+
+	@AfterEach
+	void tearDown() {
+		ParserCaches.warmUp(List.of(SCRIPT));
+	}
+
+	@Test
+	void warmUpFillsSharedCachesTest() {
+		ParserCaches.clear();
+		assertEquals(0, ParserCaches.getDFAStateCount());
+
+		ParserCaches.warmUp(List.of(SCRIPT));
+		int warmed = ParserCaches.getDFAStateCount();
+		assertTrue(warmed > 0);
+
+		// a new parser of an already seen input reuses the shared states instead of adding some
+		var parser = prepareRun(getCharStream(SCRIPT), NaftahErrorListener.INSTANCE);
+		parse(parser, NaftahParser::program);
+		assertEquals(warmed, ParserCaches.getDFAStateCount());
+	}
+
+	@Test
+	void clearEmptiesSharedCachesTest() {
+		ParserCaches.warmUp(List.of(SCRIPT));
+		assertTrue(ParserCaches.getDFAStateCount() > 0);
+
+		ParserCaches.clear();
+		assertEquals(0, ParserCaches.getDFAStateCount());
+
+		// parsing still works and refills the caches
+		var parser = prepareRun(getCharStream(SCRIPT), NaftahErrorListener.INSTANCE);
+		parse(parser, NaftahParser::program);
+		assertTrue(ParserCaches.getDFAStateCount() > 0);
+	}
+}
@@ -0,0 +1,87 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.parser;
+
+import java.io.IOException;
+
+import org.daiitech.naftah.builtin.lang.DeclaredVariable;
+import org.daiitech.naftah.builtin.lang.DynamicNumber;
+import org.daiitech.naftah.utils.reflect.type.JavaType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.daiitech.naftah.Naftah.CACHE_SCANNING_RESULTS_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_CLASSPATH_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_JDK_PROPERTY;
+import static org.daiitech.naftah.Naftah.initConfig;
+import static org.daiitech.naftah.parser.DefaultContext.bootstrap;
+import static org.daiitech.naftah.parser.DefaultContext.deregisterContext;
+import static org.daiitech.naftah.parser.DefaultContext.registerContext;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.parse;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
+import static org.daiitech.naftah.utils.JulLoggerConfig.initializeFromResources;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnboxedExpressionsTests {
+
+	private DefaultContext context;
+
+	private DeclaredVariable target;
+
+	@BeforeAll
+	static void setupAll() throws IOException {
+		initializeFromResources(LOGGING_FILE);
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(false));
+		System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(false));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(false));
+		initConfig();
+		bootstrap(false);
+	}
+
+	private static org.daiitech.naftah.parser.NaftahParser.ExpressionContext expression(String script) {
+		var parser = prepareRun(getCharStream(script), NaftahErrorListener.INSTANCE);
+		return parse(parser, org.daiitech.naftah.parser.NaftahParser::expression);
+	}
+
+	@BeforeEach
+	void setup() {
+		context = registerContext();
+		target = DeclaredVariable.of(0, null, "س", false, JavaType.of(Integer.class), DynamicNumber.of(1));
+		context.defineVariable("س", target);
+		// a long held as is, not as a dynamic number, is only assignable to a long
+		context
+				.defineVariable("ص",
+								DeclaredVariable.of(0, null, "ص", false, JavaType.of(Long.class), 5L));
+	}
+
+	@AfterEach
+	void tearDown() {
+		deregisterContext(context);
+	}
+
+	@Test
+	void copiedLongIsLeftToBoxedTypeCheckTest() {
+		var expression = expression("ص");
+		assertFalse(UnboxedExpressions.assign(target, expression, context));
+		assertEquals(1, target.getUnboxedLong());
+		assertFalse(context.isExecuted(expression));
+	}
+
+	@Test
+	void assignedExpressionIsMarkedExecutedTest() {
+		var expression = expression("(ص - س) * 2");
+		assertTrue(UnboxedExpressions.assign(target, expression, context));
+		assertEquals(8, target.getUnboxedLong());
+		assertTrue(context.isExecuted(expression));
+		assertTrue(context
+				.hasAnyExecutedChildOrSubChildOfType(   expression,
+														org.daiitech.naftah.parser.NaftahParser.IdValueContext.class));
+	}
+}
@@ -105,6 +105,22 @@ public class AssignmentProvider implements ArgumentsProvider {
 										ثابت ذ : عدد_طويل_جدا تعيين 9223372036854775808
 										ذ
 										""", new BigInteger("9223372036854775808"), null),
+					Arguments.of(true, """
+										متغير س : عدد_صحيح تعيين 10
+										متغير ص : عدد_صحيح تعيين 3
+										س = (س - ص) * ٢ + 1
+										س
+										""", 15, null),
+					Arguments.of(true, """
+										متغير س : عدد_طويل تعيين 2147483647
+										س = س + 1
+										س > 2147483647
+										""", true, null),
+					Arguments.of(true, """
+										متغير س : عدد_طويل تعيين 9223372036854775807
+										متغير ص : أي_عدد تعيين س + 1
+										ص
+										""", new BigInteger("9223372036854775808"), null),
 					Arguments.of(false, """
 										ثابت ل : عدد_عائم تعيين 340282346638528860000000000000000000000,000000
 										ل
@@ -25,6 +25,10 @@ public class CollectionAccessProvider implements ArgumentsProvider {
 										متغير تركيبة_ تعيين (٣٢، ٤٥)
 										تركيبة_[1]
 										""", 45, null),
+					Arguments.of(true, """
+										متغير مدى_ تعيين مدى(٠، ١٠٠٠٠٠٠٠٠، ٥)
+										مدى_[٣]
+										""", 15, null),
 					Arguments.of(true, """
 										متغير تركيبة_:زوج<:أي_عدد,أي_عدد:> تعيين (٣٢، ٤٥)
 										تركيبة_[1]
@@ -149,6 +149,19 @@ public class ForStatementProvider implements ArgumentsProvider {
 								""",
 								None.get(),
 								null),
+					Arguments
+							.of(
+								true,
+								"""
+								متغير مجموع تعيين ٠
+								كرر_حلقة أ من مدى(١، ١٠٠٠) إفعل {
+									مجموع تعيين مجموع + أ
+								}
+								أنهي
+								مجموع
+								""",
+								500500,
+								null),
 					Arguments
 							.of(
 								false,
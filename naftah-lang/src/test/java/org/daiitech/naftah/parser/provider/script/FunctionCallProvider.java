@@ -629,6 +629,61 @@ public class FunctionCallProvider implements ArgumentsProvider {
 					Arguments.of(true, "عكس_الإشارة(6)", -6, null),
 					Arguments.of(true, "نفي_منطقي(6)", -6, null),
 					Arguments.of(true, "ما_حجم(6)", 1, null),
+					Arguments.of(true, "ما_حجم(مدى(١، ١٠٠٠٠٠٠٠٠))", 100000000, null),
+					Arguments.of(true, "ما_حجم(مدى(١٠، ١، -٣))", 4, null),
+					Arguments.of(true, "ما_حجم(مدى(١، ١٠، -١))", 0, null),
+					Arguments
+							.of(true,
+								"""
+								دالة مربع(س) {
+								ارجع س * س
+								}
+								دالة زوجي(س) {
+								ارجع س % 2 == 0
+								}
+								ثابت تدفق_المربعات تعيين دوال:التدفق::تحويل(مدى(١، ١٠٠٠٠٠٠٠٠)، "مربع")
+								دوال:التدفق::إلى_قائمة(دوال:التدفق::أخذ(دوال:التدفق::تصفية(تدفق_المربعات، "زوجي")، ٣))
+								""",
+								List.of(4, 16, 36),
+								null),
+					Arguments
+							.of(true,
+								"""
+								دالة جمع_عددين(أ، ب) {
+								ارجع أ + ب
+								}
+								دوال:التدفق::اختزال(دوال:التدفق::متوازي(مدى(١، ١٠٠٠))، "جمع_عددين"، 0)
+								""",
+								500500,
+								null),
+					Arguments.of(true, "دوال:التجميع::رتب([3 , 1 , 2])", List.of(1, 2, 3), null),
+					Arguments.of(true, "دوال:التجميع::رتب_تنازليا({\"ب\" , \"ج\" , \"أ\"})", List.of("ج", "ب", "أ"), null),
+					Arguments.of(true, "دوال:التجميع::بحث_ثنائي([1 , 3 , 5 , 7] , 5)", 2, null),
+					Arguments.of(true, "دوال:التجميع::أكبر_عنصر([\"ب\" , \"أ\" , \"ج\"])", "ج", null),
+					Arguments.of(true, "دوال:التجميع::مجموع(مدى(١، ١٠٠))", 5050, null),
+					Arguments.of(true, "دوال:التجميع::متوسط([1 , 2 , 3 , 4])", 2.5, null),
+					Arguments
+							.of(true,
+								"""
+								دالة زوجي(س) {
+								ارجع س % 2 == 0
+								}
+								دوال:التجميع::تجميع_حسب([1 , 2 , 3 , 4] , "زوجي")
+								""",
+								Map.of(false, List.of(1, 3), true, List.of(2, 4)),
+								null),
+					Arguments.of(true, "دوال:الإحصاء::تباين([1 , 3 , 5])", 4.0, null),
+					Arguments.of(true, "دوال:الإحصاء::انحراف_معياري([1 , 3 , 5])", 2.0, null),
+					Arguments.of(true, "دوال:الإحصاء::وسيط([3 , 1 , 4 , 2])", 2.5, null),
+					Arguments.of(true, "دوال:الإحصاء::مئين([15 , 20 , 35 , 40 , 50] , 50)", 35.0, null),
+					Arguments.of(true, "دوال:الإحصاء::مدرج_تكراري([1 , 2 , 2 , 3 , 3 , 3 , 4] , 3)", List.of(1, 2, 4), null),
+					Arguments.of(   true,
+									"دوال:المصفوفات::إلى_قوائم(دوال:المصفوفات::ضرب_مصفوفي([[1 , 2] , [3 , 4]] , [[5 , 6] , [7 , 8]]))",
+									List.of(List.of(19, 22), List.of(43, 50)),
+									null),
+					Arguments.of(true, "دوال:المصفوفات::إلى_قوائم(دوال:المصفوفات::مجموع_بعد([[1 , 2] , [3 , 4]] , 0))", List.of(4, 6), null),
+					Arguments.of(true, "دوال:المصفوفات::شكل([[1 , 2 , 3] , [4 , 5 , 6]])", List.of(2, 3), null),
+					Arguments.of(true, "دوال:التدفق::عدد_العناصر(دوال:التدفق::تخطي([1 , 2 , 3 , 4], 1))", 3, null),
 					Arguments.of(true, "ما_نوع(6)", "'أي_عدد'", null),
 					Arguments.of(true, "هل_مثيل_من(6 , أي_عدد)", true, null),
 					Arguments.of(true, "هل_مثيل_من(6 , أي_نوع)", true, null),
@@ -0,0 +1,216 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.parser.DefaultContext;
+import org.daiitech.naftah.parser.NaftahErrorListener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.daiitech.naftah.Naftah.CACHE_SCANNING_RESULTS_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_CLASSPATH_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_JDK_PROPERTY;
+import static org.daiitech.naftah.Naftah.initConfig;
+import static org.daiitech.naftah.TestUtils.assertEquals;
+import static org.daiitech.naftah.parser.DefaultContext.executeIsolated;
+import static org.daiitech.naftah.parser.DefaultContext.getContextsByDepth;
+import static org.daiitech.naftah.parser.DefaultContext.registerContext;
+import static org.daiitech.naftah.parser.DefaultContext.withCurrentRegistry;
+import static org.daiitech.naftah.parser.DefaultContext.bootstrap;
+import static org.daiitech.naftah.parser.DefaultContext.cleanClassThreadLocals;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.parser.NaftahParserHelper.prepareRun;
+import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
+import static org.daiitech.naftah.utils.JulLoggerConfig.initializeFromResources;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledProgramTests {
+
+	private static final String SCRIPT = """
+											ثابت ت تعيين عدد_الوسائط
+											ت
+											""";
+
+	private static final String SPAWNING_SCRIPT = """
+													دالة مربع(س) {
+													ارجع س * س
+													}
+													ثابت م تعيين تشغيل مربع(عدد_الوسائط)
+													انتظار م
+													""";
+
+	private static final String PARALLEL_PIPELINE_SCRIPT = """
+															دالة مكعب(س) {
+															متغير ن تعيين س * س
+															ن تعيين ن * س
+															ارجع ن
+															}
+															دوال:التدفق::إلى_قائمة(دوال:التدفق::تحويل(دوال:التدفق::متوازي(مدى(١، ٢٠٠))، "مكعب"))
+															""";
+
+	@BeforeAll
+	static void setupAll() throws IOException {
+		initializeFromResources(LOGGING_FILE);
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(false));
+		System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(false));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(false));
+		initConfig();
+		bootstrap(false);
+	}
+
+	private static CompiledProgram compile(String script) {
+		var parser = prepareRun(getCharStream(script), NaftahErrorListener.INSTANCE);
+		return new CompiledProgram(parser, parser.program());
+	}
+
+	private static List<String> argsOfSize(int size) {
+		return Collections.nCopies(size, "وسيط");
+	}
+
+	@BeforeEach
+	void setup() {
+		DefaultContext.clear();
+		cleanClassThreadLocals();
+	}
+
+	@Test
+	void executeManyTimesTest() {
+		CompiledProgram program = compile(SCRIPT);
+		// a non isolated run would fail on the second root context, and on the constant redeclaration
+		for (int i = 0; i < 3; i++) {
+			assertEquals(program.execute(argsOfSize(i)), i);
+		}
+	}
+
+	@Test
+	void executeConcurrentlyTest() throws Exception {
+		CompiledProgram program = compile(SCRIPT);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				int size = i % 5;
+				results.add(executor.submit(() -> program.execute(argsOfSize(size))));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(results.get(i).get(), i % 5);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void executeSpawningConcurrentlyTest() throws Exception {
+		CompiledProgram program = compile(SPAWNING_SCRIPT);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				int size = i % 5;
+				results.add(executor.submit(() -> program.execute(argsOfSize(size))));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(results.get(i).get(), (i % 5) * (i % 5));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		// the spawned tasks did not register anything in the default registry
+		assertTrue(getContextsByDepth(0).isEmpty());
+		assertTrue(getContextsByDepth(1).isEmpty());
+	}
+
+	@Test
+	void boundComputationRunsInTheIsolatedRegistryTest() {
+		AtomicReference<Object> boundLookup = new AtomicReference<>();
+		AtomicReference<Object> unboundLookup = new AtomicReference<>();
+		Object isolatedRootContexts = executeIsolated(() -> {
+			registerContext();
+			var bound = withCurrentRegistry(() -> getContextsByDepth(0));
+			Thread worker = new Thread(() -> {
+				boundLookup.set(bound.get());
+				unboundLookup.set(getContextsByDepth(0));
+			});
+			worker.start();
+			try {
+				worker.join();
+			}
+			catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			return getContextsByDepth(0);
+		});
+		assertSame(isolatedRootContexts, boundLookup.get());
+		assertNotSame(isolatedRootContexts, unboundLookup.get());
+	}
+
+	@Test
+	void executeParallelPipelinesConcurrentlyTest() throws Exception {
+		CompiledProgram program = compile(PARALLEL_PIPELINE_SCRIPT);
+		List<Integer> cubes = IntStream.rangeClosed(1, 200).map(i -> i * i * i).boxed().toList();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> program.execute(List.of())));
+			}
+			for (Future<Object> result : results) {
+				assertEquals(result.get(), cubes);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		// the pipeline workers did not register anything in the default registry
+		assertTrue(getContextsByDepth(0).isEmpty());
+		assertTrue(getContextsByDepth(1).isEmpty());
+	}
+
+	@Test
+	void foreachClosesStreamSourcesTest() {
+		AtomicInteger closed = new AtomicInteger();
+		CompiledProgram sum = compile("""
+										متغير مجموع تعيين ٠
+										كرر_حلقة أ من تدفق_ إفعل {
+											مجموع تعيين مجموع + أ
+										}
+										أنهي
+										مجموع
+										""");
+		assertEquals(sum.execute(List.of(), Map.of("تدفق_", Stream.of(1, 2, 3).onClose(closed::incrementAndGet))), 6);
+		assertEquals(closed.get(), 1);
+
+		CompiledProgram firstTwo = compile("""
+											كرر_حلقة أ من تدفق_ إفعل {
+												إذا أ == 2 إذن {
+													اكسر
+												}
+												أنهي
+											}
+											أنهي
+											""");
+		// an endless stream, closed after the break
+		firstTwo.execute(List.of(), Map.of("تدفق_", Stream.iterate(1, i -> i + 1).onClose(closed::incrementAndGet)));
+		assertEquals(closed.get(), 2);
+	}
+}
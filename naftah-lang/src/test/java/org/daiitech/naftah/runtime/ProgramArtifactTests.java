@@ -0,0 +1,97 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.daiitech.naftah.parser.DefaultContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.daiitech.naftah.Naftah.CACHE_SCANNING_RESULTS_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_CLASSPATH_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_JDK_PROPERTY;
+import static org.daiitech.naftah.Naftah.initConfig;
+import static org.daiitech.naftah.TestUtils.assertEquals;
+import static org.daiitech.naftah.parser.DefaultContext.bootstrap;
+import static org.daiitech.naftah.parser.DefaultContext.cleanClassThreadLocals;
+import static org.daiitech.naftah.parser.NaftahParserHelper.getCharStream;
+import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
+import static org.daiitech.naftah.utils.JulLoggerConfig.initializeFromResources;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProgramArtifactTests {
+
+	private static final String SCRIPT = """
+											ثابت ت تعيين عدد_الوسائط
+											ت ضارب 2
+											""";
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeAll
+	static void setupAll() throws IOException {
+		initializeFromResources(LOGGING_FILE);
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(false));
+		System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(false));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(false));
+		initConfig();
+		bootstrap(false);
+	}
+
+	@BeforeEach
+	void setup() {
+		DefaultContext.clear();
+		cleanClassThreadLocals();
+	}
+
+	@Test
+	void compileAndRunTest() throws IOException {
+		Path artifactPath = tempDir.resolve("برنامج" + ProgramArtifact.ARTIFACT_EXTENSION);
+		ProgramArtifact.compile(getCharStream(SCRIPT), "برنامج.naftah", artifactPath);
+		assertTrue(ProgramArtifact.isArtifact(artifactPath.toString()));
+
+		ProgramArtifact artifact = ProgramArtifact.read(artifactPath);
+		assertEquals(artifact.getSourceName(), "برنامج.naftah");
+		assertTrue(artifact.getImports().isEmpty());
+		assertEquals(artifact.getProgram().execute(List.of("أ", "ب", "ج")), 6);
+		assertEquals(artifact.getProgram().execute(List.of("أ")), 2);
+	}
+
+	@Test
+	void compileReplacesArtifactTest() throws IOException {
+		Path artifactPath = Files
+				.writeString(tempDir.resolve("برنامج" + ProgramArtifact.ARTIFACT_EXTENSION), "قديم");
+		ProgramArtifact.compile(getCharStream(SCRIPT), "برنامج.naftah", artifactPath);
+
+		assertEquals(ProgramArtifact.read(artifactPath).getProgram().execute(List.of("أ")), 2);
+		try (var files = Files.list(tempDir)) {
+			// the artifact is written aside, then moved over the previous one
+			assertEquals(files.toList(), List.of(artifactPath));
+		}
+	}
+
+	@Test
+	void notAnArtifactTest() throws IOException {
+		Path script = Files.writeString(tempDir.resolve("سكربت" + ProgramArtifact.ARTIFACT_EXTENSION), SCRIPT);
+		assertThrows(IOException.class, () -> ProgramArtifact.read(script));
+		assertFalse(ProgramArtifact.isArtifact(tempDir.resolve("غير_موجود.ntb").toString()));
+	}
+
+	@Test
+	void defaultOutputTest() {
+		assertEquals(   ProgramArtifact.getDefaultOutput(Path.of("scripts", "job.naftah")),
+						Path.of("scripts", "job" + ProgramArtifact.ARTIFACT_EXTENSION));
+		assertEquals(   ProgramArtifact.getDefaultOutput(Path.of("job")),
+						Path.of("job" + ProgramArtifact.ARTIFACT_EXTENSION));
+	}
+}
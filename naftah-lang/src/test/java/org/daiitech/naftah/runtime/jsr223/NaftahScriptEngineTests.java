@@ -0,0 +1,97 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.runtime.jsr223;
+
+import java.io.IOException;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.daiitech.naftah.parser.DefaultContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.daiitech.naftah.Naftah.CACHE_SCANNING_RESULTS_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_CLASSPATH_PROPERTY;
+import static org.daiitech.naftah.Naftah.SCAN_JDK_PROPERTY;
+import static org.daiitech.naftah.TestUtils.assertEquals;
+import static org.daiitech.naftah.parser.DefaultContext.cleanClassThreadLocals;
+import static org.daiitech.naftah.utils.JulLoggerConfig.LOGGING_FILE;
+import static org.daiitech.naftah.utils.JulLoggerConfig.initializeFromResources;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NaftahScriptEngineTests {
+
+	private static ScriptEngine engine;
+
+	@BeforeAll
+	static void setupAll() throws IOException {
+		initializeFromResources(LOGGING_FILE);
+		System.setProperty(SCAN_JDK_PROPERTY, Boolean.toString(false));
+		System.setProperty(SCAN_CLASSPATH_PROPERTY, Boolean.toString(false));
+		System.setProperty(CACHE_SCANNING_RESULTS_PROPERTY, Boolean.toString(false));
+		engine = new ScriptEngineManager().getEngineByName("naftah");
+	}
+
+	@BeforeEach
+	void setup() {
+		DefaultContext.clear();
+		cleanClassThreadLocals();
+	}
+
+	@Test
+	void engineLookupTest() {
+		assertNotNull(engine);
+		assertInstanceOf(Compilable.class, engine);
+		assertEquals(engine.getFactory().getParameter("THREADING"), NaftahScriptEngineFactory.THREADING);
+		assertEquals(new ScriptEngineManager().getEngineByExtension("naftah").getFactory().getEngineName(),
+						NaftahScriptEngineFactory.ENGINE_NAME);
+	}
+
+	@Test
+	void bindingsTest() throws ScriptException {
+		Bindings bindings = engine.createBindings();
+		bindings.put("س", 2);
+		assertEquals(engine.eval("متغير ص تعيين س + 1\nص", bindings), 3);
+		assertEquals(bindings.get("ص"), 3);
+		assertEquals(bindings.get("س"), 2);
+	}
+
+	@Test
+	void sameBindingsTest() throws ScriptException {
+		Bindings bindings = engine.createBindings();
+		for (int i = 1; i <= 3; i++) {
+			assertEquals(engine.eval("متغير ص تعيين " + i + "\nص", bindings), i);
+			assertEquals(bindings.get("ص"), i);
+		}
+		assertEquals(engine.eval("ص تعيين ص + 1\nص", bindings), 4);
+
+		ScriptEngine defaultContextEngine = new ScriptEngineManager().getEngineByName("naftah");
+		for (int i = 0; i < 2; i++) {
+			assertEquals(defaultContextEngine.eval("متغير ص تعيين 1\nص"), 1);
+		}
+	}
+
+	@Test
+	void compiledScriptTest() throws ScriptException {
+		CompiledScript script = ((Compilable) engine).compile("ثابت ت تعيين عدد_الوسائط\nت");
+		for (int i = 0; i < 3; i++) {
+			Bindings bindings = engine.createBindings();
+			bindings.put(ScriptEngine.ARGV, new String[i]);
+			assertEquals(script.eval(bindings), i);
+		}
+	}
+
+	@Test
+	void syntaxErrorTest() {
+		assertThrows(ScriptException.class, () -> engine.eval("متغير تعيين"));
+	}
+}
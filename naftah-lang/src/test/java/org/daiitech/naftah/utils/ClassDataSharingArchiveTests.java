@@ -0,0 +1,91 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassDataSharingArchiveTests {
+
+	@TempDir
+	Path tempDir;
+
+	private Path archive;
+
+	private String javaHome;
+
+	private String launcherClassPath;
+
+	private String classPath;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Path lib = Files.createDirectories(tempDir.resolve("naftah/lib"));
+		Files.writeString(lib.resolve("naftah.jar"), "jar");
+		Path bin = Files.createDirectories(tempDir.resolve("naftah/bin"));
+		Path jdk = Files.createDirectories(tempDir.resolve("jdk"));
+		Files.writeString(jdk.resolve("release"), "JAVA_VERSION=\"17\"");
+
+		archive = tempDir.resolve("naftah.jsa");
+		Files.writeString(archive, "archive");
+		javaHome = jdk.toString();
+		launcherClassPath = bin + File.pathSeparator + lib.resolve("naftah.jar");
+		classPath = lib.resolve("naftah.jar").toString();
+		Files.writeString(  ClassDataSharingArchive.getStampPath(archive),
+							ClassDataSharingArchive.getStamp(javaHome, classPath));
+		setOlderThanArchive(lib.resolve("naftah.jar"), bin, jdk.resolve("release"));
+	}
+
+	private void setOlderThanArchive(Path... paths) throws IOException {
+		FileTime time = FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() - 60_000);
+		for (Path path : paths) {
+			Files.setLastModifiedTime(path, time);
+		}
+	}
+
+	@Test
+	void stampTest() {
+		assertEquals(tempDir.resolve("naftah.jsa.stamp"), ClassDataSharingArchive.getStampPath(archive));
+		assertEquals("/jdk\n/a.jar:/b.jar", ClassDataSharingArchive.getStamp("/jdk", "/a.jar:/b.jar"));
+	}
+
+	@Test
+	void archiveClassPathTest() {
+		assertEquals(classPath, ClassDataSharingArchive.getArchiveClassPath(launcherClassPath));
+		assertEquals(classPath, ClassDataSharingArchive
+				.getArchiveClassPath(launcherClassPath + File.pathSeparator + tempDir.resolve("missing.jar")));
+	}
+
+	@Test
+	void upToDateTest() throws IOException {
+		assertTrue(ClassDataSharingArchive.isUpToDate(archive, javaHome, classPath));
+	}
+
+	@Test
+	void staleStampTest() throws IOException {
+		assertFalse(ClassDataSharingArchive.isUpToDate(archive, javaHome + "-other", classPath));
+		assertFalse(ClassDataSharingArchive.isUpToDate(archive, javaHome, classPath + File.pathSeparator + "ext"));
+		assertFalse(ClassDataSharingArchive.isUpToDate(tempDir.resolve("missing.jsa"), javaHome, classPath));
+	}
+
+	@Test
+	void staleClassPathTest() throws IOException {
+		Path newer = tempDir.resolve("naftah/lib/naftah.jar");
+		Files
+				.setLastModifiedTime(   newer,
+										FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() + 60_000));
+		assertFalse(ClassDataSharingArchive.isUpToDate(archive, javaHome, classPath));
+	}
+}
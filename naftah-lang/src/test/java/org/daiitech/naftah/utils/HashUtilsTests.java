@@ -3,6 +3,10 @@
 
 package org.daiitech.naftah.utils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.daiitech.naftah.errors.NaftahBugError;
 import org.junit.jupiter.api.Test;
 
@@ -29,6 +33,14 @@ class HashUtilsTests {
 		);
 	}
 
+	@Test
+	void testHashFileSha256() throws IOException {
+		Path tempFile = Files.createTempFile("hash", ".txt");
+		tempFile.toFile().deleteOnExit();
+		Files.writeString(tempFile, "hello");
+		assertEquals(HashUtils.hashString("hello", "SHA-256"), HashUtils.hashFile(tempFile, "SHA-256"));
+	}
+
 	@Test
 	void testHashStringUnsupportedAlgorithm() {
 		NaftahBugError ex = assertThrows(NaftahBugError.class, () -> HashUtils.hashString("hello", "UNSUPPORTED_ALGO")
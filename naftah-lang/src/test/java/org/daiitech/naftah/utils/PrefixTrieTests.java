@@ -0,0 +1,64 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixTrieTests {
+
+	private static PrefixTrie<String> newTrie(String... names) {
+		PrefixTrie<String> trie = new PrefixTrie<>();
+		for (String name : names) {
+			trie.put(name, name);
+		}
+		return trie;
+	}
+
+	@Test
+	void putGetTest() {
+		PrefixTrie<String> trie = newTrie("جافا:لغة:سلسلة", "جافا:لغة", "جافا:أداة:قائمة", "ج");
+		assertEquals(4, trie.size());
+		assertEquals("جافا:لغة", trie.get("جافا:لغة"));
+		assertTrue(trie.containsKey("ج"));
+		assertFalse(trie.containsKey("جافا"));
+		assertNull(trie.get("جافا:لغ"));
+		assertNull(trie.get("جافا:لغة:سلسلةة"));
+
+		assertEquals("جافا:لغة", trie.put("جافا:لغة", "java:lang"));
+		assertEquals("java:lang", trie.get("جافا:لغة"));
+		assertEquals(4, trie.size());
+	}
+
+	@Test
+	void withPrefixTest() {
+		PrefixTrie<String> trie = newTrie("java:util:List", "java:util:ArrayList", "java:lang:String", "javax", "jdk");
+		assertEquals(List.of("java:util:ArrayList", "java:util:List"), trie.withPrefix("java:u", 0));
+		assertEquals(List.of("java:lang:String", "java:util:ArrayList", "java:util:List", "javax"),
+						trie.withPrefix("java", 0));
+		assertEquals(List.of("java:lang:String", "java:util:ArrayList"), trie.withPrefix("java", 2));
+		assertEquals(5, trie.withPrefix("", 0).size());
+		assertTrue(trie.withPrefix("java:x", 0).isEmpty());
+		assertTrue(trie.withPrefix("jdk:internal", 0).isEmpty());
+	}
+
+	@Test
+	void suggestTest() {
+		PrefixTrie<String> trie = newTrie("طباعة", "طول", "اطبع", "قائمة", "قائمة_مرتبة");
+		assertEquals(List.of("طباعة"), trie.suggest("طباعه", 5, 1));
+		assertEquals(List.of("قائمة", "قائمة_مرتبة"), trie.suggest("قايمة", 5, 1));
+		assertEquals(List.of("قائمة"), trie.suggest("قايمة", 1, 1));
+		assertTrue(trie.suggest("شيء", 5, 1).isEmpty());
+
+		PrefixTrie<String> latin = newTrie("println", "print", "printf", "parse");
+		assertEquals(List.of("print", "printf", "println"), latin.suggest("prnt", 5, 1));
+		assertEquals(List.of("print"), latin.suggest("prnt", 1, 2));
+	}
+}
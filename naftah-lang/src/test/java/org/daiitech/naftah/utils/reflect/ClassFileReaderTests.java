@@ -0,0 +1,75 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.daiitech.naftah.builtin.Builtin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassFileReaderTests {
+
+	static Stream<Class<?>> classes() {
+		return Stream
+				.of(String.class,
+					ArrayList.class,
+					List.class,
+					AbstractList.class,
+					Optional.class,
+					Map.Entry.class,
+					Thread.State.class,
+					Integer.class,
+					Math.class,
+					ClassUtils.class,
+					ClassFileInfo.class,
+					Builtin.class);
+	}
+
+	@ParameterizedTest
+	@MethodSource("classes")
+	void readMatchesReflectionTest(Class<?> clazz) {
+		ClassFileInfo classFileInfo = ClassFileReader.read(clazz.getName(), clazz.getClassLoader() == null ?
+				ClassLoader.getSystemClassLoader() :
+				clazz.getClassLoader());
+		assertNotNull(classFileInfo);
+		assertEquals(clazz.getName(), classFileInfo.className());
+		assertEquals(Modifier.isPublic(clazz.getModifiers()), classFileInfo.isPublic());
+		assertEquals(ClassUtils.isAccessibleClass(clazz), classFileInfo.accessible());
+		assertEquals(ClassUtils.isInstantiableClass(clazz), classFileInfo.instantiable());
+	}
+
+	@Test
+	void readBuiltinProviderTest() {
+		assertTrue(ClassFileReader.read(Builtin.class.getName(), Builtin.class.getClassLoader()).builtinProvider());
+		assertFalse(ClassFileReader
+				.read(ClassUtils.class.getName(), ClassUtils.class.getClassLoader())
+				.builtinProvider());
+	}
+
+	@Test
+	void readMissingClassTest() {
+		assertNull(ClassFileReader.read("does.not.Exist", ClassLoader.getSystemClassLoader()));
+	}
+
+	@Test
+	void readInvalidClassFileTest() {
+		assertThrows(IOException.class, () -> ClassFileReader.read(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}));
+	}
+}
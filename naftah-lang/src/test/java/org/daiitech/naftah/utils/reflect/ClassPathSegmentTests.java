@@ -0,0 +1,106 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassPathSegmentTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void fileSegmentTest() throws IOException {
+		Path jar = Files.write(tempDir.resolve("lib.jar"), new byte[]{1, 2, 3});
+		ClassPathSegment segment = ClassPathSegment.of(jar.toString());
+		assertNotNull(segment);
+		assertEquals(3, segment.size());
+		assertTrue(segment.isUpToDate());
+
+		assertSame(segment, segment.refresh());
+
+		// touched but unchanged
+		Files.setLastModifiedTime(jar, FileTime.fromMillis(segment.lastModified() + 10_000));
+		assertTrue(segment.isUpToDate());
+		ClassPathSegment refreshed = segment.refresh();
+		assertEquals(segment.lastModified() + 10_000, refreshed.lastModified());
+		assertEquals(segment.hash(), refreshed.hash());
+		assertSame(refreshed, refreshed.refresh());
+
+		Files.write(jar, new byte[]{1, 2, 4});
+		assertFalse(segment.isUpToDate());
+
+		Files.delete(jar);
+		assertFalse(segment.isUpToDate());
+	}
+
+	@Test
+	void directorySegmentTest() throws IOException {
+		Path classes = Files.createDirectories(tempDir.resolve("classes/org/example"));
+		Files.write(classes.resolve("A.class"), new byte[]{1, 2, 3});
+		ClassPathSegment segment = ClassPathSegment.of(tempDir.resolve("classes").toString());
+		assertNotNull(segment);
+		assertEquals(3, segment.size());
+		assertTrue(segment.isUpToDate());
+
+		Files.write(classes.resolve("B.class"), new byte[]{4});
+		assertFalse(segment.isUpToDate());
+	}
+
+	@Test
+	void missingSegmentTest() {
+		assertNull(ClassPathSegment.of(tempDir.resolve("missing.jar").toString()));
+	}
+
+	@Test
+	void getStalePathsTest() throws IOException {
+		Path unchanged = Files.write(tempDir.resolve("unchanged.jar"), new byte[]{1});
+		Path changed = Files.write(tempDir.resolve("changed.jar"), new byte[]{2});
+		Path added = Files.write(tempDir.resolve("added.jar"), new byte[]{3});
+		Path removed = Files.write(tempDir.resolve("removed.jar"), new byte[]{4});
+		Path touched = Files.write(tempDir.resolve("touched.jar"), new byte[]{5});
+		Map<String, ClassPathSegment> segments = Map
+				.of(unchanged.toString(),
+					ClassPathSegment.of(unchanged.toString()),
+					touched.toString(),
+					ClassPathSegment.of(touched.toString()),
+					changed.toString(),
+					ClassPathSegment.of(changed.toString()),
+					removed.toString(),
+					ClassPathSegment.of(removed.toString()));
+		Files.write(changed, new byte[]{2, 2});
+		Files.setLastModifiedTime(touched, FileTime.fromMillis(segments.get(touched.toString()).lastModified() + 10_000));
+
+		Map<String, ClassPathSegment> refreshedSegments = new ConcurrentHashMap<>();
+		Set<String> stalePaths = ClassPathSegment
+				.getStalePaths( segments,
+								new String[]{
+												unchanged.toString(),
+												touched.toString(),
+												changed.toString(),
+												added.toString(),
+												tempDir.resolve("missing.jar").toString()
+								},
+								refreshedSegments);
+		assertEquals(Set.of(changed.toString(), added.toString(), removed.toString()), stalePaths);
+		assertEquals(Set.of(touched.toString()), refreshedSegments.keySet());
+		assertSame(refreshedSegments.get(touched.toString()), refreshedSegments.get(touched.toString()).refresh());
+	}
+}
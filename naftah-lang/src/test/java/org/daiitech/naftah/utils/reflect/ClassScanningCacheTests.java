@@ -0,0 +1,161 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.reflect;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassScanningCacheTests {
+
+	private static final List<Class<?>> CLASSES = List.of(String.class, ArrayList.class, Map.Entry.class, Math.class);
+
+	private static ClassScanningResult newResult(boolean withClassIndex) throws IOException {
+		URLClassLoader classLoader = new URLClassLoader(new URL[]{Path.of("lib.jar").toUri().toURL()});
+		Map<String, ClassLoader> classNames = new HashMap<>();
+		Set<String> classQualifiers = new HashSet<>();
+		Map<String, String> arabicClassQualifiers = new HashMap<>();
+		Map<String, ClassFileInfo> classIndex = new HashMap<>();
+		for (Class<?> clazz : CLASSES) {
+			classNames.put(clazz.getName(), null);
+			classQualifiers.add(String.join(":", clazz.getName().split("[.$]")));
+			arabicClassQualifiers.put("ع:" + clazz.getName(), clazz.getName());
+			classIndex.put("ع:" + clazz.getName(), ClassFileReader.read(clazz.getName(), ClassLoader.getSystemClassLoader()));
+		}
+		classNames.put("lib.First", classLoader);
+		classNames.put("lib.Second", classLoader);
+		classQualifiers.add("lib:First");
+		classQualifiers.add("lib:Second");
+		Map<String, String> classOrigins = new HashMap<>();
+		classOrigins.put("lib.First", "lib.jar");
+		classOrigins.put("lib.Second", "lib.jar");
+
+		ClassScanningResult result = new ClassScanningResult();
+		result.setClassNames(classNames);
+		result.setClassQualifiers(classQualifiers);
+		result.setClassOrigins(classOrigins);
+		result.setSegments(Map.of("lib.jar", new ClassPathSegment("lib.jar", 42, 1000, "hash")));
+		result.setArabicClassQualifiers(arabicClassQualifiers);
+		if (withClassIndex) {
+			result.setClassIndex(classIndex);
+		}
+		return result;
+	}
+
+	private static Path newCacheFile() throws IOException {
+		Path tempFile = Files.createTempFile("naftah-cache", ".bin");
+		tempFile.toFile().deleteOnExit();
+		return tempFile;
+	}
+
+	@Test
+	void writeReadTest() throws Exception {
+		ClassScanningResult result = newResult(true);
+		Path cachePath = newCacheFile();
+		assertEquals(cachePath.toString(), ClassScanningCache.write(result, cachePath));
+
+		ClassScanningResult cached = ClassScanningCache.read(cachePath);
+		assertEquals(result.getClassNames().keySet(), cached.getClassNames().keySet());
+		assertEquals(result.getClassQualifiers(), cached.getClassQualifiers());
+		assertEquals(result.getArabicClassQualifiers(), cached.getArabicClassQualifiers());
+		assertEquals(result.getClassIndex(), cached.getClassIndex());
+		assertEquals(result.getSegments(), cached.getSegments());
+		assertEquals("lib.jar", cached.getClassOrigins().get("lib.Second"));
+		assertNull(cached.getClassOrigins().get("java.lang.String"));
+		assertNull(cached.getBuiltinFunctions());
+	}
+
+	@Test
+	void lookupTest() throws Exception {
+		Path cachePath = newCacheFile();
+		ClassScanningCache.write(newResult(true), cachePath);
+		ClassScanningResult cached = ClassScanningCache.read(cachePath);
+
+		assertTrue(cached.getClassNames().containsKey("java.lang.String"));
+		assertNull(cached.getClassNames().get("java.lang.String"));
+		assertFalse(cached.getClassNames().containsKey("java.lang.Missing"));
+		assertInstanceOf(URLClassLoader.class, cached.getClassNames().get("lib.First"));
+		assertSame(cached.getClassNames().get("lib.First"), cached.getClassNames().get("lib.Second"));
+		assertTrue(cached.getClassQualifiers().contains("java:util:Map:Entry"));
+		assertEquals("java.util.ArrayList", cached.getArabicClassQualifiers().get("ع:java.util.ArrayList"));
+		assertNull(cached.getArabicClassQualifiers().get("ع:lib.First"));
+		assertSame(ArrayList.class, cached.getClasses().get("ع:java.util.ArrayList"));
+		assertTrue(cached.getInstantiableClasses().containsKey("ع:java.util.ArrayList"));
+		assertFalse(cached.getInstantiableClasses().containsKey("ع:java.lang.Math"));
+		assertTrue(cached.getAccessibleClasses().containsKey("ع:java.lang.Math"));
+	}
+
+	@Test
+	void sharedArabicQualifierTest() throws Exception {
+		ClassScanningResult result = newResult(true);
+		// java.lang.Math is indexed under the Arabic qualified name of java.lang.String, itself indexed under another
+		var classIndex = new HashMap<>(result.getClassIndex());
+		classIndex.put("ع:نص", classIndex.remove("ع:java.lang.String"));
+		classIndex.put("ع:java.lang.String", classIndex.remove("ع:java.lang.Math"));
+		result.setClassIndex(classIndex);
+		var arabicClassQualifiers = new HashMap<>(result.getArabicClassQualifiers());
+		arabicClassQualifiers.remove("ع:java.lang.Math");
+		result.setArabicClassQualifiers(arabicClassQualifiers);
+		Path cachePath = newCacheFile();
+		ClassScanningCache.write(result, cachePath);
+		ClassScanningResult cached = ClassScanningCache.read(cachePath);
+
+		// a key is counted once, and its lookup and its entry agree
+		assertEquals(CLASSES.size() - 1, cached.getClassIndex().size());
+		assertEquals(CLASSES.size() - 1, cached.getClassIndex().entrySet().stream().count());
+		assertEquals(cached.getClassIndex().keySet(), new HashSet<>(cached.getClassIndex().keySet()));
+		for (var entry : cached.getClassIndex().entrySet()) {
+			assertEquals(cached.getClassIndex().get(entry.getKey()), entry.getValue());
+		}
+		assertEquals(CLASSES.size() - 1, cached.getArabicClassQualifiers().size());
+	}
+
+	@Test
+	void writeReplacesCacheTest() throws Exception {
+		Path cachePath = newCacheFile();
+		ClassScanningCache.write(newResult(false), cachePath);
+		ClassScanningResult mapped = ClassScanningCache.read(cachePath);
+		ClassScanningCache.write(newResult(true), cachePath);
+
+		assertNull(mapped.getClassIndex());
+		assertEquals(CLASSES.size(), ClassScanningCache.read(cachePath).getClassIndex().size());
+		assertFalse(Files.exists(cachePath.resolveSibling(cachePath.getFileName() + ClassScanningCache.REPLACED_EXTENSION)));
+	}
+
+	@Test
+	void writeReadWithoutClassIndexTest() throws Exception {
+		Path cachePath = newCacheFile();
+		ClassScanningCache.write(newResult(false), cachePath);
+		ClassScanningResult cached = ClassScanningCache.read(cachePath);
+
+		assertNull(cached.getClassIndex());
+		assertNull(cached.getClasses());
+		assertEquals(CLASSES.size() + 2, cached.getClassNames().size());
+	}
+
+	@Test
+	void readInvalidCacheTest() throws IOException {
+		Path cachePath = newCacheFile();
+		Files.writeString(cachePath, "not a naftah cache");
+		assertThrows(IOException.class, () -> ClassScanningCache.read(cachePath));
+	}
+}
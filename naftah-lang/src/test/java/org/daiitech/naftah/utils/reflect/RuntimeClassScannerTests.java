@@ -3,18 +3,29 @@
 
 package org.daiitech.naftah.utils.reflect;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.daiitech.naftah.utils.reflect.RuntimeClassScanner.CLASS_PATH_PROPERTY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -22,6 +33,21 @@ class RuntimeClassScannerTests {
 
 	static String originalClassPath;
 
+	@TempDir
+	Path tempDir;
+
+	private static byte[] jar(Map<String, byte[]> entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (JarOutputStream jar = new JarOutputStream(bytes)) {
+			for (var entry : entries.entrySet()) {
+				jar.putNextEntry(new JarEntry(entry.getKey()));
+				jar.write(entry.getValue());
+				jar.closeEntry();
+			}
+		}
+		return bytes.toByteArray();
+	}
+
 	@BeforeAll
 	static void setupAll() {
 		originalClassPath = System.getProperty(CLASS_PATH_PROPERTY);
@@ -65,4 +91,29 @@ class RuntimeClassScannerTests {
 
 	}
 
+	@Test
+	void scanNestedJarsTest() throws IOException {
+		Map<String, byte[]> deepest = new LinkedHashMap<>();
+		deepest.put("sample/Deep.class", new byte[]{1});
+		deepest.put("deep.txt", "عميق".getBytes(StandardCharsets.UTF_8));
+		Map<String, byte[]> middle = new LinkedHashMap<>();
+		middle.put("sample/Middle.class", new byte[]{2});
+		middle.put("lib/deep.jar", jar(deepest));
+		Map<String, byte[]> outer = new LinkedHashMap<>();
+		outer.put("sample/Outer.class", new byte[]{3});
+		outer.put("lib/middle.jar", jar(middle));
+		Path outerJar = Files.write(tempDir.resolve("outer.jar"), jar(outer));
+
+		Map<String, ClassLoader> classNames = RuntimeClassScanner.scanClasses(outerJar.toString(), null);
+		assertEquals(Set.of("sample.Outer", "sample.Middle", "sample.Deep"), classNames.keySet());
+
+		var deepLoader = assertInstanceOf(NestedJarClassLoader.class, classNames.get("sample.Deep"));
+		assertEquals("jar:" + outerJar + "!/lib/middle.jar!/lib/deep.jar", deepLoader.toExternalForm());
+		var restored = NestedJarClassLoader.of(deepLoader.toExternalForm(), getClass().getClassLoader());
+		try (InputStream is = restored.getResourceAsStream("deep.txt")) {
+			assertNotNull(is);
+			assertEquals("عميق", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
 }
@@ -0,0 +1,71 @@
+// SPDX-License-Identifier: Apache-2.0
+// Copyright © The Naftah Project Authors
+
+package org.daiitech.naftah.utils.script;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransliterationDictionaryTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void transliterateTest() {
+		String[] words = {"java", "util", "ArrayList", "getName"};
+		String[] expected = ScriptUtils.transliterateToArabicScriptDefault(true, words.clone());
+		assertArrayEquals(expected, TransliterationDictionary.transliterate(words.clone()));
+		assertArrayEquals(expected, ScriptUtils.transliterateToArabicScriptDefault(words.clone()));
+		assertEquals(expected[2], TransliterationDictionary.get("ArrayList"));
+	}
+
+	@Test
+	void transliterateAllTest() {
+		List<String> words = List.of("HashMap", "concurrent", "ForkJoinPool", "stream", "Collectors");
+		TransliterationDictionary.transliterateAll(words);
+		for (String word : words) {
+			assertEquals(   ScriptUtils.transliterateToArabicScriptDefault(true, word)[0],
+							TransliterationDictionary.get(word));
+		}
+	}
+
+	@Test
+	void saveLoadTest() throws IOException {
+		Path path = tempDir.resolve("transliterations");
+		TransliterationDictionary.get("naftahSaveLoadTest");
+		TransliterationDictionary.save(path);
+
+		Properties properties = new Properties();
+		try (var reader = Files.newBufferedReader(path)) {
+			properties.load(reader);
+		}
+		assertEquals(   TransliterationDictionary.getFingerprint(),
+						properties.getProperty(TransliterationDictionary.FINGERPRINT_KEY));
+		assertEquals(   TransliterationDictionary.get("naftahSaveLoadTest"),
+						properties.getProperty("naftahSaveLoadTest"));
+		assertTrue(TransliterationDictionary.load(path));
+	}
+
+	@Test
+	void loadStaleOrMissingTest() throws IOException {
+		assertFalse(TransliterationDictionary.load(tempDir.resolve("missing")));
+
+		Path path = tempDir.resolve("stale");
+		Files.writeString(path, TransliterationDictionary.FINGERPRINT_KEY + "=other\nstaleWord=x\n");
+		assertFalse(TransliterationDictionary.load(path));
+		assertEquals(   ScriptUtils.transliterateToArabicScriptDefault(true, "staleWord")[0],
+						TransliterationDictionary.get("staleWord"));
+	}
+}